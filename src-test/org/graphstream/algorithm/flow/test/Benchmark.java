@@ -0,0 +1,159 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.flow.test;
+
+import java.io.PrintStream;
+import java.util.Random;
+
+import org.graphstream.algorithm.flow.DinicAlgorithm;
+import org.graphstream.algorithm.flow.EdmondsKarpAlgorithm;
+import org.graphstream.algorithm.flow.FlowAlgorithm;
+import org.graphstream.algorithm.flow.FordFulkersonAlgorithm;
+import org.graphstream.algorithm.flow.PushRelabelAlgorithm;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.junit.Ignore;
+
+/**
+ * Compares the running times of the maximum flow algorithms on layered
+ * networks with unit capacities and with random capacities.
+ */
+@Ignore
+class Benchmark {
+	private static final int[] SIZES = { 10, 20, 50, 100, 200, 500, 1000, 2000,
+			5000, 10000 };
+	private static final int DEGREE = 5;
+	private static final int LAYERS = 6;
+	private static final int CMAX = 100;
+	private static final int RUNS = 5;
+
+	/**
+	 * The path search of Ford-Fulkerson is exponential, it is only run on the
+	 * smallest networks.
+	 */
+	private static final int FORD_FULKERSON_MAX_SIZE = 20;
+	private static final int EDMONDS_KARP_MAX_SIZE = 1000;
+
+	private Random rnd;
+
+	public Benchmark() {
+		rnd = new Random(234567);
+	}
+
+	/**
+	 * Layered network: the source is linked to all the nodes of the first
+	 * layer, the nodes of the last layer are linked to the sink and each node
+	 * is linked to {@link #DEGREE} random nodes of the next layer.
+	 */
+	private Graph layeredNetwork(int width, boolean unit) {
+		Graph g = new AdjacencyListGraph("layered");
+		Node s = g.addNode("s");
+		Node t = g.addNode("t");
+
+		for (int l = 0; l < LAYERS; l++)
+			for (int i = 0; i < width; i++)
+				g.addNode(l + "_" + i);
+
+		for (int i = 0; i < width; i++) {
+			addArc(g, s, g.getNode("0_" + i), unit);
+			addArc(g, g.getNode((LAYERS - 1) + "_" + i), t, unit);
+		}
+
+		for (int l = 0; l < LAYERS - 1; l++)
+			for (int i = 0; i < width; i++) {
+				Node u = g.getNode(l + "_" + i);
+
+				for (int k = 0; k < DEGREE; k++) {
+					Node v = g.getNode((l + 1) + "_" + rnd.nextInt(width));
+
+					if (!u.hasEdgeBetween(v))
+						addArc(g, u, v, unit);
+				}
+			}
+
+		return g;
+	}
+
+	private void addArc(Graph g, Node u, Node v, boolean unit) {
+		g.addEdge(u.getId() + "-" + v.getId(), u, v, true).addAttribute("cap",
+				unit ? 1 : 1 + rnd.nextInt(CMAX));
+	}
+
+	/**
+	 * Average time of a computation in milliseconds.
+	 */
+	private double time(FlowAlgorithm algo, Graph g) {
+		algo.setCapacityAttribute("cap");
+		algo.init(g, "s", "t");
+
+		// warm up
+		algo.compute();
+
+		long start = System.nanoTime();
+		for (int i = 0; i < RUNS; i++)
+			algo.compute();
+
+		return (System.nanoTime() - start) / (RUNS * 1e6);
+	}
+
+	public void run(PrintStream ps, boolean unit) {
+		ps.printf("# %s capacities%n", unit ? "Unit" : "Random");
+		ps.printf("# %8s%10s%10s%12s%12s%12s%12s%n", "width", "n", "m",
+				"Tford", "Tedmonds", "Tdinic", "Tpushrel");
+
+		for (int width : SIZES) {
+			Graph g = layeredNetwork(width, unit);
+			double tf = -1;
+			double te = -1;
+
+			if (width <= FORD_FULKERSON_MAX_SIZE)
+				tf = time(new FordFulkersonAlgorithm(), g);
+
+			if (width <= EDMONDS_KARP_MAX_SIZE)
+				te = time(new EdmondsKarpAlgorithm(), g);
+
+			double td = time(new DinicAlgorithm(), g);
+			double tp = time(new PushRelabelAlgorithm(), g);
+
+			ps.printf("%10d%10d%10d%12.2f%12.2f%12.2f%12.2f%n", width,
+					g.getNodeCount(), g.getEdgeCount(), tf, te, td, tp);
+		}
+	}
+
+	public static void main(String[] args) {
+		Benchmark b = new Benchmark();
+
+		b.run(System.out, true);
+		b.run(System.out, false);
+	}
+}
@@ -31,13 +31,18 @@
  */
 package org.graphstream.algorithm.flow.test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Random;
 
+import org.graphstream.algorithm.flow.EdmondsKarpAlgorithm;
 import org.graphstream.algorithm.flow.FlowAlgorithm;
+import org.graphstream.graph.Edge;
 import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
 import org.graphstream.graph.implementations.AdjacencyListGraph;
 import org.graphstream.stream.file.FileSourceDGS;
 import org.junit.Before;
@@ -75,4 +80,73 @@ public abstract class TestFlowAlgorithm {
 			assertTrue(maximumFlow == g.getNumber("expected maximum flow"));
 		}
 	}
+
+	/**
+	 * Compare the maximum flow with the one of Edmonds-Karp on random graphs
+	 * and check that the flow is valid. Not run for every algorithm since the
+	 * path search of Ford-Fulkerson is exponential on such graphs.
+	 */
+	protected void checkRandomGraphs() {
+		Random random = new Random(2016);
+
+		for (int k = 0; k < 20; k++) {
+			Graph graph = new AdjacencyListGraph("random");
+			int nodes = 30 + random.nextInt(50);
+
+			for (int i = 0; i < nodes; i++)
+				graph.addNode("" + i);
+
+			for (int i = 0; i < 4 * nodes; i++) {
+				int u = random.nextInt(nodes);
+				int v = random.nextInt(nodes);
+
+				if (u == v || graph.getNode(u).hasEdgeBetween(v))
+					continue;
+
+				Edge e = graph.addEdge("e" + i, u, v, random.nextBoolean());
+				e.addAttribute("cap", 1 + random.nextInt(20));
+			}
+
+			EdmondsKarpAlgorithm ek = new EdmondsKarpAlgorithm();
+			ek.setCapacityAttribute("cap");
+			ek.init(graph, "0", "1");
+			ek.compute();
+
+			FlowAlgorithm flowAlgo = getFlowAlgorithm();
+			flowAlgo.setCapacityAttribute("cap");
+			flowAlgo.init(graph, "0", "1");
+			flowAlgo.compute();
+
+			assertEquals(ek.getMaximumFlow(), flowAlgo.getMaximumFlow(), 0);
+			checkFlow(graph, flowAlgo, "0", "1");
+		}
+	}
+
+	/**
+	 * Check capacity constraints and flow conservation.
+	 */
+	public static void checkFlow(Graph graph, FlowAlgorithm algo,
+			String sourceId, String sinkId) {
+		for (Edge e : graph.getEachEdge()) {
+			Node u = e.getSourceNode();
+			Node v = e.getTargetNode();
+			assertTrue(algo.getFlow(u, v) <= algo.getCapacity(u, v));
+			assertTrue(algo.getFlow(v, u) <= algo.getCapacity(v, u));
+			assertEquals(0, algo.getFlow(u, v) + algo.getFlow(v, u), 0);
+		}
+
+		for (Node u : graph) {
+			double out = 0;
+
+			for (Edge e : u.getEachEdge())
+				out += algo.getFlow(u, e.getOpposite(u));
+
+			if (u.getId().equals(sourceId))
+				assertEquals(algo.getMaximumFlow(), out, 0);
+			else if (u.getId().equals(sinkId))
+				assertEquals(-algo.getMaximumFlow(), out, 0);
+			else
+				assertEquals(0, out, 0);
+		}
+	}
 }
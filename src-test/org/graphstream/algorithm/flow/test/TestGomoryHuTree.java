@@ -0,0 +1,123 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.flow.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.graphstream.algorithm.flow.EdmondsKarpAlgorithm;
+import org.graphstream.algorithm.flow.GomoryHuTree;
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.junit.Test;
+
+public class TestGomoryHuTree {
+	@Test
+	public void testToyGraph() {
+		// two triangles linked by a single edge
+		Graph graph = new AdjacencyListGraph("toy");
+		String[] edges = { "AB", "BC", "CA", "CD", "DE", "EF", "FD" };
+
+		for (String e : edges) {
+			String u = e.substring(0, 1), v = e.substring(1);
+
+			if (graph.getNode(u) == null)
+				graph.addNode(u);
+			if (graph.getNode(v) == null)
+				graph.addNode(v);
+
+			graph.addEdge(e, u, v);
+		}
+
+		GomoryHuTree tree = new GomoryHuTree();
+		tree.init(graph);
+		tree.compute();
+
+		assertEquals(2, tree.getMinimumCut("A", "B"), 0);
+		assertEquals(2, tree.getMinimumCut("E", "F"), 0);
+		assertEquals(1, tree.getMinimumCut("A", "F"), 0);
+		assertEquals(1, tree.getMinimumCut("C", "D"), 0);
+		assertEquals(1, tree.getEdgeConnectivity(), 0);
+	}
+
+	@Test
+	public void testRandomGraphs() {
+		Random random = new Random(1234);
+
+		for (int k = 0; k < 20; k++) {
+			Graph graph = new AdjacencyListGraph("random");
+			int nodeCount = 2 + random.nextInt(14);
+
+			for (int i = 0; i < nodeCount; i++)
+				graph.addNode("" + i);
+
+			for (int i = 0; i < 3 * nodeCount; i++) {
+				int u = random.nextInt(nodeCount);
+				int v = random.nextInt(nodeCount);
+
+				if (u != v && graph.getNode(u).getEdgeBetween(v) == null)
+					graph.addEdge(u + "_" + v, u, v).addAttribute("cap",
+							1 + random.nextInt(10));
+			}
+
+			GomoryHuTree tree = new GomoryHuTree("cap");
+			tree.init(graph);
+			tree.compute();
+
+			EdmondsKarpAlgorithm flow = new EdmondsKarpAlgorithm();
+			double connectivity = Double.POSITIVE_INFINITY;
+
+			for (int u = 0; u < nodeCount - 1; u++) {
+				for (int v = u + 1; v < nodeCount; v++) {
+					flow.init(graph, "" + u, "" + v);
+
+					for (Edge e : graph.getEachEdge()) {
+						double c = e.getNumber("cap");
+						flow.setCapacity(e.getSourceNode(), e.getTargetNode(), c);
+						flow.setCapacity(e.getTargetNode(), e.getSourceNode(), c);
+					}
+
+					flow.compute();
+					connectivity = Math.min(connectivity,
+							flow.getMaximumFlow());
+
+					assertEquals(flow.getMaximumFlow(),
+							tree.getMinimumCut(u, v), 1e-9);
+				}
+			}
+
+			assertEquals(connectivity, tree.getEdgeConnectivity(), 1e-9);
+		}
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.flow.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.graphstream.algorithm.ConnectedComponents;
+import org.graphstream.algorithm.flow.VertexConnectivity;
+import org.graphstream.algorithm.measure.ConnectivityMeasure;
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.junit.Test;
+
+public class TestVertexConnectivity {
+	@Test
+	public void testToyGraph() {
+		// two squares sharing a node, cut vertex is C
+		Graph graph = new AdjacencyListGraph("toy");
+		String[] edges = { "AB", "BC", "CD", "DA", "CE", "EF", "FG", "GC" };
+
+		for (String e : edges) {
+			String u = e.substring(0, 1), v = e.substring(1);
+
+			if (graph.getNode(u) == null)
+				graph.addNode(u);
+			if (graph.getNode(v) == null)
+				graph.addNode(v);
+
+			graph.addEdge(e, u, v);
+		}
+
+		VertexConnectivity connectivity = new VertexConnectivity();
+		connectivity.init(graph);
+		connectivity.compute();
+
+		assertEquals(1, connectivity.getVertexConnectivity());
+
+		List<Node> separator = connectivity.getMinimumSeparator();
+		assertEquals(1, separator.size());
+		assertEquals("C", separator.get(0).getId());
+
+		graph.addEdge("BF", "B", "F");
+		connectivity.compute();
+
+		assertEquals(2, connectivity.getVertexConnectivity());
+		assertEquals(2, connectivity.getMinimumSeparator().size());
+	}
+
+	@Test
+	public void testRandomGraphs() {
+		Random random = new Random(4321);
+
+		for (int k = 0; k < 40; k++) {
+			Graph graph = new AdjacencyListGraph("random");
+			int nodeCount = 2 + random.nextInt(9);
+			int edgeCount = random.nextInt(nodeCount * (nodeCount - 1) / 2 + 1);
+
+			for (int i = 0; i < nodeCount; i++)
+				graph.addNode("" + i);
+
+			while (graph.getEdgeCount() < edgeCount) {
+				int u = random.nextInt(nodeCount);
+				int v = random.nextInt(nodeCount);
+
+				if (u != v && graph.getNode(u).getEdgeBetween(v) == null)
+					graph.addEdge(u + "_" + v, u, v);
+			}
+
+			VertexConnectivity connectivity = new VertexConnectivity();
+			connectivity.init(graph);
+			connectivity.compute();
+
+			int expected = enumerateConnectivity(graph);
+			int value = connectivity.getVertexConnectivity();
+
+			assertEquals(expected, value);
+			assertTrue(connectivity.getFlowCount() <= (value + 1) * nodeCount);
+
+			if (value < nodeCount)
+				assertDisconnects(graph, connectivity.<Node> getMinimumSeparator(),
+						value);
+		}
+	}
+
+	/**
+	 * Smallest k such that a k-tuple of nodes disconnects the graph, by
+	 * enumeration.
+	 */
+	protected int enumerateConnectivity(Graph graph) {
+		for (int k = 0; k < graph.getNodeCount(); k++)
+			if (ConnectivityMeasure.getKDisconnectingNodeTuple(graph, k) != null)
+				return k;
+
+		return graph.getNodeCount();
+	}
+
+	protected void assertDisconnects(Graph graph, List<Node> separator, int size) {
+		assertNotNull(separator);
+		assertEquals(size, separator.size());
+
+		Graph copy = new AdjacencyListGraph("copy");
+
+		for (Node n : graph)
+			copy.addNode(n.getId());
+
+		for (Edge e : graph.getEachEdge())
+			copy.addEdge(e.getId(), e.getSourceNode().getId(), e.getTargetNode()
+					.getId());
+
+		for (Node n : separator)
+			copy.removeNode(n.getId());
+
+		ConnectedComponents cc = new ConnectedComponents();
+		cc.init(copy);
+		cc.compute();
+
+		assertTrue(cc.getConnectedComponentsCount() > 1);
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.measure.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.graphstream.algorithm.measure.CommunityDistribution;
+import org.graphstream.algorithm.measure.CommunityIndex;
+import org.graphstream.algorithm.measure.Modularity;
+import org.graphstream.algorithm.measure.SurpriseMeasure;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.junit.Test;
+
+public class TestCommunityIndex {
+	protected static final double DELTA = 1e-9;
+
+	@Test
+	public void testIndex() {
+		CommunityIndex index = new CommunityIndex();
+		int a = index.add("a");
+		index.add("a");
+		int b = index.add("b");
+
+		assertEquals(2, index.getCommunityCount());
+		assertEquals(2, index.getSize(a));
+		assertEquals(1, index.getPairCount(), DELTA);
+
+		index.addDegree(b, 3);
+		index.addInnerWeight(b, 1);
+		assertEquals(9, index.getSumSquaredDegrees(), DELTA);
+
+		// b becomes empty, its id and weights are released
+		assertEquals(a, index.move("b", "a"));
+		assertEquals(1, index.getCommunityCount());
+		assertEquals(-1, index.indexOf("b"));
+		assertEquals(0, index.getSumSquaredDegrees(), DELTA);
+		assertEquals(0, index.getTotalInnerWeight(), DELTA);
+		assertEquals(3, index.getPairCount(), DELTA);
+		assertEquals(0, index.getEntropy(), DELTA);
+		assertEquals(b, index.add("c"));
+	}
+
+	@Test
+	public void testDynamicMeasures() {
+		Random random = new Random(7);
+		Graph graph = new AdjacencyListGraph("random");
+		Modularity modularity = new Modularity("community");
+		CommunityDistribution distribution = new CommunityDistribution(
+				"community");
+		modularity.init(graph);
+		distribution.init(graph);
+
+		for (int i = 0; i < 100; i++)
+			graph.addNode("" + i).addAttribute("community", random.nextInt(6));
+
+		for (int i = 0; i < 300; i++) {
+			Node u = graph.getNode(random.nextInt(graph.getNodeCount()));
+			Node v = graph.getNode(random.nextInt(graph.getNodeCount()));
+
+			if (u != v && !u.hasEdgeBetween(v))
+				graph.addEdge(u.getId() + "-" + v.getId(), u, v);
+		}
+
+		for (int step = 0; step < 300; step++) {
+			Node n = graph.getNode(random.nextInt(graph.getNodeCount()));
+
+			switch (random.nextInt(3)) {
+			case 0:
+				graph.removeNode(n);
+				graph.addNode("n" + step).addAttribute("community",
+						random.nextInt(8));
+				break;
+			default:
+				n.setAttribute("community", random.nextInt(8));
+			}
+
+			if (step % 30 == 0)
+				check(graph, modularity, distribution);
+		}
+
+		check(graph, modularity, distribution);
+	}
+
+	protected void check(Graph graph, Modularity modularity,
+			CommunityDistribution distribution) {
+		HashMap<Object, Integer> sizes = new HashMap<Object, Integer>();
+		int max = 0;
+
+		for (Node n : graph) {
+			Object c = n.getAttribute("community");
+			int size = sizes.containsKey(c) ? sizes.get(c) + 1 : 1;
+			sizes.put(c, size);
+			max = Math.max(max, size);
+		}
+
+		CommunityIndex index = modularity.getCommunityIndex();
+		assertEquals(sizes.size(), index.getCommunityCount());
+		assertEquals(graph.getNodeCount(), index.getMemberCount());
+
+		for (Object c : sizes.keySet())
+			assertEquals((int) sizes.get(c), index.getSize(index.indexOf(c)));
+
+		assertEquals(sizes.size(), (int) distribution.getMeasure());
+		assertEquals(max, distribution.maxCommunitySize());
+		assertTrue(distribution.minCommunitySize() <= max);
+
+		// the unweighted modularity index counts the inner edges
+		SurpriseMeasure surprise = new SurpriseMeasure("community");
+		surprise.init(graph);
+		surprise.compute();
+
+		assertEquals(surprise.getSurprise(), SurpriseMeasure.surprise(
+				graph.getNodeCount(), graph.getEdgeCount(), index), 1e-6);
+	}
+}
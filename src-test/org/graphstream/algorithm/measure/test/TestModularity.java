@@ -0,0 +1,155 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.measure.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.graphstream.algorithm.Toolkit;
+import org.graphstream.algorithm.measure.Modularity;
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.junit.Test;
+
+public class TestModularity {
+	protected static final double DELTA = 1e-9;
+
+	@Test
+	public void testTwoTriangles() {
+		// two triangles linked by a single edge
+		Graph graph = new AdjacencyListGraph("toy");
+		String[] edges = { "AB", "BC", "CA", "CD", "DE", "EF", "FD" };
+
+		for (String e : edges) {
+			String u = e.substring(0, 1), v = e.substring(1);
+
+			if (graph.getNode(u) == null)
+				graph.addNode(u);
+			if (graph.getNode(v) == null)
+				graph.addNode(v);
+
+			graph.addEdge(e, u, v);
+		}
+
+		for (Node n : graph)
+			n.addAttribute("community", n.getId().compareTo("D") < 0 ? 0 : 1);
+
+		// Q = 6/7 - 2 * (7/14)^2
+		double expected = 6.0 / 7.0 - 0.5;
+		Modularity modularity = new Modularity();
+		modularity.init(graph);
+
+		assertEquals(expected, modularity.getMeasure(), DELTA);
+		assertEquals(expected, Toolkit.modularity(graph, "community"), DELTA);
+		assertEquals(expected, Toolkit.modularity(Toolkit.modularityMatrix(
+				graph, Toolkit.communities(graph, "community"))), DELTA);
+
+		// everything in one community
+		graph.getNode("D").setAttribute("community", 0);
+		graph.getNode("E").setAttribute("community", 0);
+		graph.getNode("F").setAttribute("community", 0);
+
+		assertEquals(0, modularity.getMeasure(), DELTA);
+	}
+
+	@Test
+	public void testDynamicGraph() {
+		Random random = new Random(1234);
+		Graph graph = new AdjacencyListGraph("random", false, true);
+
+		Modularity modularity = new Modularity("community", "weight");
+		modularity.init(graph);
+
+		for (int i = 0; i < 40; i++) {
+			Node n = graph.addNode("" + i);
+			n.addAttribute("community", random.nextInt(5));
+		}
+
+		for (int i = 0; i < 120; i++)
+			addRandomEdge(graph, random, "e" + i);
+
+		checkModularity(graph, modularity);
+
+		for (int step = 0; step < 500; step++) {
+			int action = random.nextInt(6);
+
+			if (action == 0 && graph.getEdgeCount() > 0) {
+				graph.removeEdge(graph.getEdge(random.nextInt(graph
+						.getEdgeCount())));
+			} else if (action == 1) {
+				addRandomEdge(graph, random, "s" + step);
+			} else if (action == 2 && graph.getEdgeCount() > 0) {
+				Edge e = graph.getEdge(random.nextInt(graph.getEdgeCount()));
+
+				if (random.nextBoolean())
+					e.setAttribute("weight", 1 + random.nextInt(5));
+				else
+					e.removeAttribute("weight");
+			} else if (action == 3 && graph.getNodeCount() > 2
+					&& random.nextInt(4) == 0) {
+				graph.removeNode(random.nextInt(graph.getNodeCount()));
+			} else if (action == 4) {
+				Node n = graph.addNode("n" + step);
+				n.addAttribute("community", random.nextInt(8));
+			} else {
+				Node n = graph.getNode(random.nextInt(graph.getNodeCount()));
+
+				if (random.nextInt(10) == 0)
+					n.removeAttribute("community");
+				else
+					n.setAttribute("community", random.nextInt(8));
+			}
+
+			checkModularity(graph, modularity);
+		}
+	}
+
+	protected void addRandomEdge(Graph graph, Random random, String id) {
+		int u = random.nextInt(graph.getNodeCount());
+		int v = random.nextInt(graph.getNodeCount());
+		Edge e = graph.addEdge(id, u, v);
+
+		e.addAttribute("weight", 1 + random.nextInt(5));
+	}
+
+	protected void checkModularity(Graph graph, Modularity modularity) {
+		double expected = Toolkit.modularity(Toolkit.modularityMatrix(graph,
+				Toolkit.communities(graph, "community"), "weight"));
+
+		assertEquals(expected,
+				Toolkit.modularity(graph, "community", "weight"), DELTA);
+		assertEquals(expected, modularity.getMeasure(), DELTA);
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.measure.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.graphstream.algorithm.measure.NormalizedMutualInformation;
+import org.graphstream.algorithm.measure.VariationOfInformation;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.junit.Test;
+
+public class TestNormalizedMutualInformation {
+	protected static final double DELTA = 1e-9;
+
+	@Test
+	public void testSmallAssignments() {
+		Graph graph = new AdjacencyListGraph("toy");
+		int[] current = { 0, 0, 0, 1, 1, 1 };
+		int[] reference = { 0, 0, 0, 1, 1, 1 };
+
+		for (int i = 0; i < current.length; i++) {
+			Node n = graph.addNode("" + i);
+			n.addAttribute("community", current[i]);
+			n.addAttribute("label", reference[i]);
+		}
+
+		NormalizedMutualInformation nmi = new NormalizedMutualInformation(
+				"community");
+		VariationOfInformation vi = new VariationOfInformation("community");
+		nmi.init(graph);
+		vi.init(graph);
+
+		// identical assignments
+		assertEquals(1, nmi.getMeasure(), DELTA);
+		assertEquals(0, vi.getMeasure(), DELTA);
+
+		// the same assignment under other names
+		for (Node n : graph)
+			n.setAttribute("community", "c" + (1 - n.getNumber("community")));
+
+		assertEquals(1, nmi.getMeasure(), DELTA);
+		assertEquals(0, vi.getMeasure(), DELTA);
+
+		// independent assignments
+		int[] other = { 0, 1, 2, 0, 1, 2 };
+		for (Node n : graph)
+			n.setAttribute("community", other[n.getIndex()]);
+
+		assertEquals(0, nmi.getMeasure(), DELTA);
+		assertEquals(Math.log(6), vi.getMeasure(), DELTA);
+	}
+
+	@Test
+	public void testDynamicAssignments() {
+		Random random = new Random(13);
+		Graph graph = new AdjacencyListGraph("random");
+		NormalizedMutualInformation nmi = new NormalizedMutualInformation(
+				"community", "reference");
+		VariationOfInformation vi = new VariationOfInformation("community",
+				"reference");
+		nmi.init(graph);
+		vi.init(graph);
+
+		for (int i = 0; i < 200; i++) {
+			Node n = graph.addNode("" + i);
+			n.addAttribute("community", random.nextInt(8));
+			n.addAttribute("reference", random.nextInt(5));
+		}
+
+		check(graph, nmi, vi);
+
+		for (int step = 0; step < 500; step++) {
+			Node n = graph.getNode(random.nextInt(graph.getNodeCount()));
+
+			switch (random.nextInt(5)) {
+			case 0:
+				n.setAttribute("community", random.nextInt(8));
+				break;
+			case 1:
+				n.setAttribute("reference", random.nextInt(5));
+				break;
+			case 2:
+				n.removeAttribute("community");
+				break;
+			case 3:
+				graph.removeNode(n);
+				break;
+			default:
+				Node m = graph.addNode("n" + step);
+				m.addAttribute("community", random.nextInt(8));
+				m.addAttribute("reference", random.nextInt(5));
+			}
+
+			if (step % 25 == 0)
+				check(graph, nmi, vi);
+		}
+
+		check(graph, nmi, vi);
+
+		// the incremental measures match a fresh computation
+		NormalizedMutualInformation fresh = new NormalizedMutualInformation(
+				"community", "reference");
+		fresh.init(graph);
+		assertEquals(fresh.getMeasure(), nmi.getMeasure(), DELTA);
+	}
+
+	/**
+	 * Compare the measures to the formulas applied to a dense confusion matrix.
+	 */
+	protected void check(Graph graph, NormalizedMutualInformation nmi,
+			VariationOfInformation vi) {
+		int[][] N = new int[9][9];
+		int[] rows = new int[9], columns = new int[9];
+		double n = graph.getNodeCount();
+
+		for (Node node : graph) {
+			int i = node.hasAttribute("reference") ? node
+					.<Integer> getAttribute("reference") : 8;
+			int j = node.hasAttribute("community") ? node
+					.<Integer> getAttribute("community") : 8;
+			N[i][j]++;
+			rows[i]++;
+			columns[j]++;
+		}
+
+		double num = 0, denom = 0, voi = 0;
+
+		for (int i = 0; i < 9; i++) {
+			for (int j = 0; j < 9; j++) {
+				if (N[i][j] > 0) {
+					num += -2.0 * N[i][j]
+							* Math.log(N[i][j] * n / (rows[i] * columns[j]));
+					voi += N[i][j]
+							* (Math.log((double) N[i][j] / columns[j]) + Math
+									.log((double) N[i][j] / rows[i]));
+				}
+			}
+
+			if (rows[i] > 0)
+				denom += rows[i] * Math.log(rows[i] / n);
+			if (columns[i] > 0)
+				denom += columns[i] * Math.log(columns[i] / n);
+		}
+
+		assertEquals(num / denom, nmi.getMeasure(), DELTA);
+		assertEquals(-voi / n, vi.getMeasure(), DELTA);
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.measure.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.graphstream.algorithm.TriangleCount;
+import org.graphstream.algorithm.measure.StreamingTriangleCount;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.junit.Test;
+
+public class TestStreamingTriangleCount {
+	protected static final double DELTA = 1e-9;
+
+	/**
+	 * Random graph made of small dense groups and random edges.
+	 */
+	protected Graph randomGraph(int n, int m, Random random) {
+		Graph graph = new AdjacencyListGraph("random");
+
+		for (int i = 0; i < n; i++)
+			graph.addNode("" + i);
+
+		for (int i = 0; i < m; i++) {
+			int u = random.nextInt(n);
+			int v = random.nextBoolean() ? (u / 10) * 10 + random.nextInt(10)
+					: random.nextInt(n);
+
+			if (u != v && v < n
+					&& !graph.getNode(u).hasEdgeBetween(graph.getNode(v)))
+				graph.addEdge(u + "-" + v, u, v);
+		}
+
+		return graph;
+	}
+
+	protected TriangleCount exact(Graph graph) {
+		TriangleCount triangles = new TriangleCount();
+		triangles.init(graph);
+		triangles.compute();
+		return triangles;
+	}
+
+	@Test
+	public void testExactWhenEverythingFits() {
+		Random random = new Random(3);
+		Graph graph = randomGraph(300, 1500, random);
+		StreamingTriangleCount estimator = new StreamingTriangleCount(10000,
+				1000);
+		estimator.setRandom(new Random(5));
+		estimator.init(graph);
+
+		// removals, then insertions compensating them
+		for (int i = 0; i < 200; i++)
+			graph.removeEdge(random.nextInt(graph.getEdgeCount()));
+		for (int i = 0; i < 20; i++)
+			graph.removeNode(random.nextInt(graph.getNodeCount()));
+		for (int i = 0; i < 300; i++) {
+			Node u = graph.getNode(random.nextInt(graph.getNodeCount()));
+			Node v = graph.getNode(random.nextInt(graph.getNodeCount()));
+
+			if (u != v && !u.hasEdgeBetween(v))
+				graph.addEdge("x" + i, u, v);
+		}
+
+		estimator.compute();
+		TriangleCount triangles = exact(graph);
+
+		assertEquals(graph.getEdgeCount(), estimator.getEdgeCount());
+		assertEquals(graph.getNodeCount(), estimator.getNodeCount());
+		assertEquals(triangles.getTriangleCount(),
+				estimator.getTriangleEstimate(), DELTA);
+
+		for (Node n : graph)
+			assertEquals(triangles.getTriangleCount(n),
+					estimator.getLocalTriangleEstimate(n.getId()), DELTA);
+
+		assertEquals(triangles.getAverageClusteringCoefficient(),
+				estimator.getAverageClusteringCoefficient(), DELTA);
+		assertEquals(estimator.getAverageClusteringLowerBound(),
+				estimator.getAverageClusteringUpperBound(), DELTA);
+	}
+
+	@Test
+	public void testSampledEstimates() {
+		Random random = new Random(17);
+		Graph graph = randomGraph(20000, 200000, random);
+		TriangleCount triangles = exact(graph);
+
+		// the graph is streamed to the estimator, which only keeps a sample
+		StreamingTriangleCount estimator = new StreamingTriangleCount(40000,
+				2000);
+		estimator.setRandom(new Random(19));
+		estimator.init(graph);
+		estimator.terminate();
+		estimator.compute();
+
+		assertEquals(graph.getEdgeCount(), estimator.getEdgeCount());
+		assertEquals(40000, estimator.getEdgeSampleSize());
+		assertEquals(2000, estimator.getNodeSampleSize());
+
+		double expected = triangles.getTriangleCount();
+		assertEquals(expected, estimator.getTriangleEstimate(), 0.1 * expected);
+
+		double average = triangles.getAverageClusteringCoefficient();
+		assertTrue(estimator.getAverageClusteringLowerBound() <= average);
+		assertTrue(estimator.getAverageClusteringUpperBound() >= average);
+		assertTrue(estimator.getAverageClusteringUpperBound()
+				- estimator.getAverageClusteringLowerBound() < 0.1);
+	}
+}
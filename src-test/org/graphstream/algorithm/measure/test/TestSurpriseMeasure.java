@@ -80,6 +80,39 @@ public class TestSurpriseMeasure {
 					DELTA);
 	}
 
+	@Test
+	public void testLogCumulativeHypergeometricDistribution() {
+		// direct sums of the terms, on the whole support and on a tail
+		double[][] data = { { 0, 5, 52, 5, 13 }, { 2, 5, 52, 5, 13 },
+				{ 10, 40, 300, 40, 60 }, { 30, 40, 300, 40, 60 } };
+
+		for (int i = 0; i < data.length; i++) {
+			double sum = 0;
+
+			for (double x = data[i][0]; x <= data[i][1]; x++)
+				sum += SurpriseMeasure.hypergeometricDistribution(x,
+						data[i][2], data[i][3], data[i][4]);
+
+			Assert.assertEquals(Math.log(sum), SurpriseMeasure
+					.logCumulativeHypergeometricDistribution(data[i][0],
+							data[i][1], data[i][2], data[i][3], data[i][4]),
+					1e-9);
+		}
+
+		Assert.assertEquals(0, SurpriseMeasure
+				.logCumulativeHypergeometricDistribution(0, 5, 52, 5, 13),
+				1e-12);
+
+		// a million nodes, ten million edges, a thousand equal communities
+		double F = 1e6 * (1e6 - 1) / 2;
+		double M = 1000 * (1000.0 * 999 / 2);
+		double log = SurpriseMeasure.logCumulativeHypergeometricDistribution(
+				5e6, 1e7, F, 1e7, M);
+
+		Assert.assertTrue(log < -1e6);
+		Assert.assertFalse(Double.isInfinite(log) || Double.isNaN(log));
+	}
+
 	@Test
 	public void check() throws IOException {
 		Graph g = new AdjacencyListGraph("g");
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.networksimplex.test;
+
+import java.io.PrintStream;
+import java.util.Random;
+
+import org.graphstream.algorithm.networksimplex.NetworkSimplex;
+import org.graphstream.algorithm.networksimplex.NetworkSimplex.PricingStrategy;
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.junit.Ignore;
+
+/**
+ * Compares the immediate and the batch change modes of {@link NetworkSimplex}.
+ * At each tick many costs and capacities of a random network change, then the
+ * solution is re-optimized. Reports the pivots performed by the updates and by
+ * the simplex, the total time and the pivots saved by the batch mode.
+ */
+@Ignore
+class BatchBenchmark {
+	private static final int N = 5000;
+	private static final int DEGREE = 8;
+	private static final int TICKS = 20;
+	private static final int[] CHANGES = { 10, 100, 1000, 10000 };
+	private static final int MAX_COST = 1000;
+	private static final int MAX_CAPACITY = 1000;
+
+	private Graph network(long seed) {
+		Random rnd = new Random(seed);
+		Graph g = new AdjacencyListGraph("network");
+
+		for (int i = 0; i < N; i++)
+			g.addNode("" + i).addAttribute("supply", 0);
+		for (int i = 0; i < N / 50; i++) {
+			int s = rnd.nextInt(MAX_CAPACITY);
+			g.getNode(i).addAttribute("supply", s);
+			g.getNode(N - 1 - i).addAttribute("supply", -s);
+		}
+		for (int i = 0; i < N; i++)
+			g.addEdge("c" + i, "" + i, "" + (i + 1) % N, true).addAttribute(
+					"cost", 10 * MAX_COST);
+		for (int i = 0; i < N * DEGREE; i++) {
+			int u = rnd.nextInt(N), v = rnd.nextInt(N);
+			if (u == v)
+				continue;
+			Edge e = g.addEdge("e" + i, "" + u, "" + v, true);
+			e.addAttribute("cost", 1 + rnd.nextInt(MAX_COST));
+			e.addAttribute("capacity", 1 + rnd.nextInt(MAX_CAPACITY));
+		}
+
+		return g;
+	}
+
+	private long[] run(int changes, boolean batch) {
+		Graph g = network(1234);
+		Random rnd = new Random(5678);
+
+		NetworkSimplex ns = new NetworkSimplex("supply", "capacity", "cost");
+		ns.setPricingStrategy(PricingStrategy.BLOCK_SEARCH);
+		ns.init(g);
+		ns.compute();
+		long pivots = ns.getPivotCount();
+
+		long start = System.currentTimeMillis();
+		for (int t = 0; t < TICKS; t++) {
+			if (batch)
+				ns.beginChanges();
+			for (int i = 0; i < changes; i++) {
+				// the changes concentrate on the first edges, so that some of
+				// them are repeated within a tick
+				Edge e = g.getEdge(rnd.nextInt(Math.min(g.getEdgeCount(),
+						2 * changes)));
+				if (rnd.nextInt(4) == 0)
+					e.setAttribute("capacity", 1 + rnd.nextInt(MAX_CAPACITY));
+				else
+					e.setAttribute("cost", 1 + rnd.nextInt(MAX_COST));
+			}
+			if (batch)
+				ns.commitChanges();
+			ns.compute();
+		}
+		long time = System.currentTimeMillis() - start;
+		ns.terminate();
+
+		return new long[] { ns.getUpdatePivotCount(),
+				ns.getPivotCount() - pivots, time, ns.getSolutionCost() };
+	}
+
+	public void benchmark(PrintStream ps) {
+		ps.printf("#%9s%8s%12s%12s%10s%14s%n", "changes", "mode",
+				"upd.pivots", "spx.pivots", "time(ms)", "pivots saved");
+
+		for (int changes : CHANGES) {
+			long[] immediate = run(changes, false);
+			long[] batch = run(changes, true);
+			if (immediate[3] != batch[3])
+				throw new IllegalStateException("Different solutions");
+
+			ps.printf("%10d%8s%12d%12d%10d%n", changes, "single",
+					immediate[0], immediate[1], immediate[2]);
+			ps.printf("%10d%8s%12d%12d%10d%14d%n", changes, "batch",
+					batch[0], batch[1], batch[2], immediate[0] + immediate[1]
+							- batch[0] - batch[1]);
+		}
+	}
+
+	public static void main(String[] args) {
+		new BatchBenchmark().benchmark(System.out);
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.networksimplex.test;
+
+import java.io.PrintStream;
+import java.util.Random;
+
+import org.graphstream.algorithm.networksimplex.NetworkSimplex;
+import org.graphstream.algorithm.networksimplex.NetworkSimplex.PricingStrategy;
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.junit.Ignore;
+
+/**
+ * Compares the pricing strategies of {@link NetworkSimplex} on generated
+ * minimum cost flow problems. Reports the number of pivots, the total time
+ * and the number of pivots per second for each strategy.
+ */
+@Ignore
+class PricingBenchmark {
+	private static final int[] TRANSPORTATION_SIZES = { 50, 100, 200, 400 };
+	private static final int[] NETWORK_SIZES = { 1000, 2000, 4000 };
+	private static final int NETWORK_DEGREE = 8;
+	private static final int MAX_COST = 1000;
+	private static final int MAX_SUPPLY = 1000;
+
+	private Random rnd = new Random(98765);
+
+	/**
+	 * Complete bipartite problem with k sources and k sinks, uncapacitated
+	 * arcs.
+	 */
+	private Graph transportation(int k) {
+		Graph g = new AdjacencyListGraph("transportation-" + k);
+		int[] supplies = balancedSupplies(k);
+
+		for (int i = 0; i < k; i++)
+			g.addNode("S" + i).addAttribute("supply", supplies[i]);
+		for (int j = 0; j < k; j++)
+			g.addNode("D" + j).addAttribute("supply", -supplies[k + j]);
+
+		for (int i = 0; i < k; i++)
+			for (int j = 0; j < k; j++)
+				g.addEdge(i + "-" + j, "S" + i, "D" + j, true).addAttribute(
+						"cost", 1 + rnd.nextInt(MAX_COST));
+
+		return g;
+	}
+
+	/**
+	 * Random capacitated network with n nodes and about n * NETWORK_DEGREE
+	 * arcs. A few nodes are sources and sinks, and a hamiltonian cycle of
+	 * uncapacitated expensive arcs keeps the problem feasible.
+	 */
+	private Graph network(int n) {
+		Graph g = new AdjacencyListGraph("network-" + n);
+		int terminals = Math.max(n / 50, 2);
+		int[] supplies = balancedSupplies(terminals);
+
+		for (int i = 0; i < n; i++)
+			g.addNode("" + i).addAttribute("supply", 0);
+		for (int i = 0; i < terminals; i++) {
+			g.getNode(i).addAttribute("supply", supplies[i]);
+			g.getNode(n - 1 - i).addAttribute("supply", -supplies[terminals + i]);
+		}
+
+		for (int i = 0; i < n; i++) {
+			Edge e = g.addEdge("c" + i, "" + i, "" + (i + 1) % n, true);
+			e.addAttribute("cost", 10 * MAX_COST);
+		}
+		for (int i = 0; i < n * NETWORK_DEGREE; i++) {
+			int u = rnd.nextInt(n), v = rnd.nextInt(n);
+			if (u == v)
+				continue;
+			Edge e = g.addEdge("e" + i, "" + u, "" + v, true);
+			e.addAttribute("cost", 1 + rnd.nextInt(MAX_COST));
+			e.addAttribute("capacity", 1 + rnd.nextInt(MAX_SUPPLY));
+		}
+
+		return g;
+	}
+
+	/**
+	 * Returns k supplies followed by k demands with the same total.
+	 */
+	private int[] balancedSupplies(int k) {
+		int[] result = new int[2 * k];
+		int total = 0;
+		for (int i = 0; i < k; i++) {
+			result[i] = rnd.nextInt(MAX_SUPPLY);
+			total += result[i];
+		}
+		for (int j = 0; j < k; j++) {
+			result[k + j] = total / k + (j < total % k ? 1 : 0);
+		}
+		return result;
+	}
+
+	private void run(Graph g, PrintStream ps) {
+		for (PricingStrategy strategy : PricingStrategy.values()) {
+			NetworkSimplex ns = new NetworkSimplex("supply", "capacity", "cost");
+			ns.setPricingStrategy(strategy);
+
+			long start = System.currentTimeMillis();
+			ns.init(g);
+			ns.compute();
+			long time = System.currentTimeMillis() - start;
+			long pivots = ns.getPivotCount();
+
+			ps.printf("%20s%10d%10d%16s%12d%10d%14.0f%14d%n", g.getId(),
+					g.getNodeCount(), g.getEdgeCount(), strategy, pivots,
+					time, 1000.0 * pivots / Math.max(time, 1),
+					ns.getSolutionCost());
+			ns.terminate();
+		}
+	}
+
+	public void benchmark(PrintStream ps) {
+		ps.printf("#%19s%10s%10s%16s%12s%10s%14s%14s%n", "instance", "n", "m",
+				"strategy", "pivots", "time(ms)", "pivots/s", "cost");
+
+		for (int k : TRANSPORTATION_SIZES)
+			run(transportation(k), ps);
+		for (int n : NETWORK_SIZES)
+			run(network(n), ps);
+	}
+
+	public static void main(String[] args) {
+		new PricingBenchmark().benchmark(System.out);
+	}
+}
@@ -33,6 +33,8 @@ package org.graphstream.algorithm.networksimplex.test;
 
 import static org.junit.Assert.*;
 
+import java.util.Random;
+
 import org.graphstream.algorithm.networksimplex.NetworkSimplex;
 import org.graphstream.algorithm.networksimplex.NetworkSimplex.PricingStrategy;
 import org.graphstream.graph.Edge;
@@ -142,6 +144,75 @@ public class TestNetworkSimplex {
 				ns2.getSolutionStatus());
 		ns2.compute();
 		compareSolutions(ns1, ns2);
+
+		// and the partial pricing strategies
+		for (PricingStrategy strategy : new PricingStrategy[] {
+				PricingStrategy.BLOCK_SEARCH, PricingStrategy.CANDIDATE_LIST }) {
+			NetworkSimplex ns3 = new NetworkSimplex("supply", "capacity",
+					"cost");
+			ns3.setPricingStrategy(strategy);
+			ns3.init(g);
+			ns3.compute();
+			checkReferenceSolution(ns3);
+		}
+	}
+
+	@Test
+	public void pricingStrategiesTest() {
+		// random transportation problems
+		Random rnd = new Random(4321);
+		for (int k = 0; k < 10; k++) {
+			Graph g = new SingleGraph("transportation");
+			int supplyCount = 5 + rnd.nextInt(20);
+			int demandCount = 5 + rnd.nextInt(20);
+			int total = 0;
+			for (int i = 0; i < supplyCount; i++) {
+				int supply = rnd.nextInt(100);
+				g.addNode("S" + i).addAttribute("supply", supply);
+				total += supply;
+			}
+			for (int j = 0; j < demandCount; j++) {
+				int demand = j < demandCount - 1 ? rnd.nextInt(total + 1) : total;
+				g.addNode("D" + j).addAttribute("supply", -demand);
+				total -= demand;
+			}
+			for (int i = 0; i < supplyCount; i++)
+				for (int j = 0; j < demandCount; j++)
+					if (rnd.nextInt(3) > 0) {
+						Edge e = g.addEdge(i + "_" + j, "S" + i, "D" + j, true);
+						e.addAttribute("cost", 1 + rnd.nextInt(50));
+						e.addAttribute("capacity", 10 + rnd.nextInt(50));
+					}
+
+			for (PricingStrategy strategy : PricingStrategy.values()) {
+				NetworkSimplex ns = new NetworkSimplex("supply", "capacity",
+						"cost");
+				ns.setPricingStrategy(strategy);
+				ns.init(g);
+				ns.compute();
+				compareCostWithNew(ns);
+
+				// dynamic changes
+				for (int i = 0; i < 10; i++)
+					g.getEdge(rnd.nextInt(g.getEdgeCount())).setAttribute(
+							"cost", 1 + rnd.nextInt(50));
+				ns.compute();
+				compareCostWithNew(ns);
+				ns.terminate();
+			}
+		}
+	}
+
+	public static void compareCostWithNew(NetworkSimplex ns) {
+		NetworkSimplex nsCheck = new NetworkSimplex("supply", "capacity",
+				"cost");
+		nsCheck.init(ns.getGraph());
+		nsCheck.compute();
+		assertEquals(nsCheck.getSolutionStatus(), ns.getSolutionStatus());
+		assertEquals(nsCheck.getSolutionCost(), ns.getSolutionCost());
+		assertEquals(nsCheck.getSolutionInfeasibility(),
+				ns.getSolutionInfeasibility());
+		nsCheck.terminate();
 	}
 
 	@Test
@@ -361,6 +432,101 @@ public class TestNetworkSimplex {
 		compareWithNew(ns);
 	}
 
+	@Test
+	public void loopTest() {
+		Graph g = toyGraph();
+		Edge loop = g.addEdge("CC", "C", "C", true);
+		loop.addAttribute("capacity", 3);
+		loop.addAttribute("cost", -1);
+
+		NetworkSimplex ns = new NetworkSimplex("supply", "capacity", "cost");
+		ns.init(g);
+		ns.compute();
+		assertEquals(NetworkSimplex.SolutionStatus.OPTIMAL,
+				ns.getSolutionStatus());
+		assertEquals(44, ns.getSolutionCost());
+		assertEquals(3, ns.getFlow(loop));
+
+		// the loop is saturated, increasing its capacity must keep it so
+		loop.addAttribute("capacity", 5);
+		ns.compute();
+		assertEquals(42, ns.getSolutionCost());
+		assertEquals(5, ns.getFlow(loop));
+		compareWithNew(ns);
+
+		loop.addAttribute("cost", 1);
+		ns.compute();
+		assertEquals(0, ns.getFlow(loop));
+		checkReferenceSolution(ns);
+	}
+
+	@Test
+	public void batchTest() {
+		Graph g = toyGraph();
+		NetworkSimplex ns = new NetworkSimplex("supply", "capacity", "cost");
+		ns.init(g);
+		ns.compute();
+
+		ns.beginChanges();
+		assertTrue(ns.isBuffering());
+		g.getEdge("FE").addAttribute("cost", 4);
+		g.getEdge("AC").addAttribute("cost", 2);
+		g.getEdge("FE").addAttribute("cost", 1);
+		g.getNode("A").addAttribute("supply", 4);
+		g.getEdge("CF").addAttribute("capacity", 2);
+		// nothing applied yet
+		checkReferenceSolution(ns);
+		ns.commitChanges();
+		assertFalse(ns.isBuffering());
+		assertEquals(5, ns.getBufferedChangeCount());
+		assertEquals(3, ns.getAppliedChangeCount());
+		ns.compute();
+		compareWithNew(ns);
+
+		// restore and compute without explicit commit
+		ns.beginChanges();
+		g.getEdge("AC").addAttribute("cost", 4);
+		g.getNode("A").addAttribute("supply", 5);
+		g.getEdge("CF").addAttribute("capacity", 5);
+		ns.compute();
+		checkReferenceSolution(ns);
+		ns.commitChanges();
+
+		// structural changes flush the buffer
+		ns.beginChanges();
+		g.getEdge("AC").addAttribute("cost", 2);
+		g.removeEdge("FE");
+		ns.compute();
+		compareWithNew(ns);
+		ns.commitChanges();
+	}
+
+	@Test
+	public void commitOnStepTest() {
+		Graph g = toyGraph();
+		NetworkSimplex ns = new NetworkSimplex("supply", "capacity", "cost");
+		ns.setCommitOnStep(true);
+		ns.init(g);
+		ns.compute();
+		checkReferenceSolution(ns);
+
+		g.stepBegins(1);
+		g.getEdge("FE").addAttribute("cost", 4);
+		g.getEdge("AC").addAttribute("cost", 2);
+		checkReferenceSolution(ns);
+
+		g.stepBegins(2);
+		assertEquals(NetworkSimplex.SolutionStatus.OPTIMAL,
+				ns.getSolutionStatus());
+		compareWithNew(ns);
+
+		g.getEdge("FE").addAttribute("cost", 1);
+		g.getEdge("AC").addAttribute("cost", 4);
+		g.stepBegins(3);
+		checkReferenceSolution(ns);
+		assertEquals(4, ns.getBufferedChangeCount());
+	}
+
 	@Test
 	public void graphClearTest() {
 		Graph g = toyGraph();
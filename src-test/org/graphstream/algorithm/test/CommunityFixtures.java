@@ -0,0 +1,131 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.test;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.graphstream.algorithm.Toolkit;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+
+/**
+ * Graphs with known communities, and the checks shared by the tests of the
+ * community detection algorithms.
+ */
+public class CommunityFixtures {
+	/**
+	 * Attribute holding the planted community of the nodes.
+	 */
+	public static final String PLANTED = "planted";
+
+	/**
+	 * Two cliques of the given size, nodes 0 to size - 1 and size to 2 size -
+	 * 1, joined by an edge between nodes size - 1 and size.
+	 */
+	public static Graph twoCliques(int size) {
+		Graph graph = new AdjacencyListGraph("cliques");
+
+		for (int i = 0; i < 2 * size; i++)
+			graph.addNode("" + i);
+
+		for (int i = 0; i < 2 * size; i++)
+			for (int j = i + 1; j < 2 * size; j++)
+				if (i / size == j / size)
+					graph.addEdge(i + "_" + j, i, j);
+
+		graph.addEdge("bridge", size - 1, size);
+
+		return graph;
+	}
+
+	/**
+	 * Check that each clique of {@link #twoCliques(int)} is one community.
+	 */
+	public static void assertTwoCliques(Graph graph, String marker, int size) {
+		for (int i = 1; i < 2 * size; i++) {
+			Object c0 = graph.getNode(i - 1).getAttribute(marker);
+			Object c1 = graph.getNode(i).getAttribute(marker);
+
+			if (i == size)
+				assertNotSame(c0, c1);
+			else
+				assertSame(c0, c1);
+		}
+	}
+
+	/**
+	 * Groups of nodes where each node has eight edges toward random nodes of
+	 * its group and one edge toward a random node of the graph. The group of
+	 * each node is stored in the {@link #PLANTED} attribute.
+	 */
+	public static Graph plantedPartition(Random random, int groups, int size) {
+		Graph graph = new AdjacencyListGraph("planted");
+
+		for (int i = 0; i < groups * size; i++) {
+			Node n = graph.addNode("" + i);
+			n.addAttribute(PLANTED, i / size);
+		}
+
+		for (int i = 0; i < groups * size; i++) {
+			for (int k = 0; k < 8; k++) {
+				int j = (i / size) * size + random.nextInt(size);
+
+				if (j != i)
+					graph.addEdge(i + "_" + k, i, j);
+			}
+
+			int j = random.nextInt(groups * size);
+
+			if (j != i)
+				graph.addEdge(i + "_out", i, j);
+		}
+
+		return graph;
+	}
+
+	/**
+	 * Check that the modularity of the communities found is at least the
+	 * given fraction of the modularity of the planted communities.
+	 */
+	public static void assertPlantedModularity(Graph graph, String marker,
+			double fraction) {
+		double planted = Toolkit.modularity(graph, PLANTED);
+		double modularity = Toolkit.modularity(graph, marker);
+
+		assertTrue(modularity >= fraction * planted - 1e-9);
+	}
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.test;
+
+import java.io.PrintStream;
+import java.util.Random;
+
+import org.graphstream.algorithm.DStar;
+import org.graphstream.algorithm.DStarLite;
+import org.graphstream.algorithm.Dijkstra;
+import org.graphstream.algorithm.generator.Generator;
+import org.graphstream.algorithm.generator.GridGenerator;
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.junit.Ignore;
+
+/**
+ * Compares the replanning effort of {@link DStar} and {@link DStarLite}. A
+ * path is planned between two opposite corners of a weighted grid, then a
+ * random stream of edge weight changes is replayed and the path is
+ * recomputed after each change. Reports the states expanded by the initial
+ * planning and the states re-expanded per change, and checks the final path
+ * lengths with Dijkstra.
+ */
+@Ignore
+class DStarBenchmark {
+	private static final int[] SIZES = { 20, 50, 100 };
+	private static final int CHANGES = 1000;
+	private static final int MAX_WEIGHT = 10;
+
+	private Graph grid(int size, long seed) {
+		Random rnd = new Random(seed);
+		Graph g = new AdjacencyListGraph("grid");
+		Generator gen = new GridGenerator();
+
+		gen.addSink(g);
+		gen.begin();
+		for (int i = 1; i < size; i++)
+			gen.nextEvents();
+		gen.end();
+		gen.removeSink(g);
+
+		for (Edge e : g.getEachEdge())
+			e.addAttribute("weight", 1 + rnd.nextInt(MAX_WEIGHT));
+
+		return g;
+	}
+
+	private double dijkstra(Graph g, Node source, Node target) {
+		Dijkstra dijkstra = new Dijkstra(Dijkstra.Element.EDGE, null, "weight");
+		dijkstra.init(g);
+		dijkstra.setSource(source);
+		dijkstra.compute();
+		return dijkstra.getPathLength(target);
+	}
+
+	private double pathLength(Graph g, DStar dstar, Node source, Node target) {
+		dstar.markPath("path", true, false);
+
+		double length = 0;
+		Node n = source;
+
+		while (n != target) {
+			Node next = null;
+
+			for (Edge e : n.getEachEdge())
+				if (e.getAttribute("path") == Boolean.TRUE) {
+					e.setAttribute("path", false);
+					next = e.getOpposite(n);
+					length += e.getNumber("weight");
+					break;
+				}
+
+			n = next;
+		}
+
+		return length;
+	}
+
+	private void run(int size, boolean lite, PrintStream ps) {
+		Graph g = grid(size, 1234);
+		Random rnd = new Random(5678);
+		Node source = g.getNode(0);
+		Node target = g.getNode(g.getNodeCount() - 1);
+		DStar dstar = null;
+		DStarLite dstarLite = null;
+		long expanded, time;
+
+		//
+		// DStar only sees the weights set after its initialization.
+		//
+		for (Edge e : g.getEachEdge())
+			e.removeAttribute("weight");
+
+		if (lite) {
+			dstarLite = new DStarLite("weight");
+			dstarLite.init(source, target, g);
+		} else {
+			dstar = new DStar();
+			dstar.init(source, target, g);
+		}
+
+		Random weights = new Random(1234);
+		for (Edge e : g.getEachEdge())
+			e.addAttribute("weight", 1 + weights.nextInt(MAX_WEIGHT));
+
+		time = System.nanoTime();
+		if (lite) {
+			dstarLite.compute();
+			expanded = dstarLite.getExpandedCount();
+		} else {
+			dstar.compute();
+			expanded = dstar.getExpandedCount();
+		}
+		long initialTime = System.nanoTime() - time;
+		long initial = expanded;
+
+		time = System.nanoTime();
+		for (int i = 0; i < CHANGES; i++) {
+			Edge e = g.getEdge(rnd.nextInt(g.getEdgeCount()));
+			e.setAttribute("weight", 1 + rnd.nextInt(MAX_WEIGHT));
+
+			if (lite)
+				dstarLite.compute();
+			else
+				dstar.compute();
+		}
+		long replanTime = System.nanoTime() - time;
+
+		double length = lite ? dstarLite.getPathLength() : pathLength(g,
+				dstar, source, target);
+		expanded = lite ? dstarLite.getExpandedCount() : dstar
+				.getExpandedCount();
+
+		ps.printf("%6d%8d%10s%10d%10.2f%14.2f%10.2f%10.1f%10.1f%n", size,
+				g.getNodeCount(), lite ? "D* Lite" : "D*", initial,
+				initialTime / 1e6, (expanded - initial) / (double) CHANGES,
+				replanTime / 1e6, length, dijkstra(g, source, target));
+
+		if (lite)
+			dstarLite.terminate();
+		else
+			dstar.terminate();
+	}
+
+	public void benchmark(PrintStream ps) {
+		ps.printf("#%5s%8s%10s%10s%10s%14s%10s%10s%10s%n", "size", "n",
+				"algorithm", "initial", "time(ms)", "re-exp/change",
+				"time(ms)", "length", "dijkstra");
+
+		for (int size : SIZES) {
+			run(size, false, ps);
+			run(size, true, ps);
+		}
+	}
+
+	public static void main(String[] args) {
+		new DStarBenchmark().benchmark(System.out);
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.test;
+
+import java.util.List;
+import java.util.Random;
+
+import org.graphstream.algorithm.BellmanFord;
+import org.graphstream.algorithm.BellmanFord.Strategy;
+import org.graphstream.algorithm.Dijkstra;
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.Path;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestBellmanFord {
+	/**
+	 * Random digraph whose "base" weights are positive and whose "weight"
+	 * weights are shifted by node potentials, so that some of them are
+	 * negative but the shortest paths are the same.
+	 */
+	protected Graph randomGraph(int n, int m, double[] potential, Random random) {
+		Graph g = new SingleGraph("random");
+
+		for (int i = 0; i < n; i++) {
+			g.addNode("" + i);
+			potential[i] = random.nextInt(50);
+		}
+
+		for (int i = 0; i < m; i++) {
+			int u = random.nextInt(n), v = random.nextInt(n);
+
+			if (u == v || g.getNode(u).hasEdgeToward(g.getNode(v)))
+				continue;
+
+			Edge e = g.addEdge(u + "_" + v, u, v, true);
+			double base = 1 + random.nextInt(20);
+			e.addAttribute("base", base);
+			e.addAttribute("weight", base + potential[u] - potential[v]);
+		}
+
+		return g;
+	}
+
+	@Test
+	public void testNegativeWeights() {
+		Random random = new Random(11);
+		double[] potential = new double[200];
+
+		for (int k = 0; k < 5; k++) {
+			Graph g = randomGraph(200, 1000, potential, random);
+			Node source = g.getNode(0);
+
+			Dijkstra dijkstra = new Dijkstra(Dijkstra.Element.EDGE, null,
+					"base");
+			dijkstra.init(g);
+			dijkstra.setSource(source);
+			dijkstra.compute();
+
+			for (Strategy strategy : Strategy.values()) {
+				BellmanFord bf = new BellmanFord("weight", "0");
+				bf.setStrategy(strategy);
+				bf.init(g);
+				bf.compute();
+
+				for (Node n : g) {
+					double expected = dijkstra.getPathLength(n);
+
+					if (Double.isInfinite(expected)) {
+						assertTrue(Double.isInfinite(bf.getShortestPathValue(n)));
+						continue;
+					}
+
+					expected += potential[0] - potential[n.getIndex()];
+					assertEquals(expected, bf.getShortestPathValue(n), 1e-9);
+
+					double length = 0;
+					for (Edge e : bf.getShortestPath(n).getEdgePath())
+						length += e.getNumber("weight");
+					assertEquals(expected, length, 1e-9);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testNegativeCycle() {
+		Graph g = new SingleGraph("cycle", false, true);
+
+		g.addEdge("AB", "A", "B", true).addAttribute("weight", 1.0);
+		g.addEdge("BC", "B", "C", true).addAttribute("weight", -3.0);
+		g.addEdge("CB", "C", "B", true).addAttribute("weight", 2.0);
+		g.addEdge("CD", "C", "D", true).addAttribute("weight", 1.0);
+
+		for (Strategy strategy : Strategy.values()) {
+			BellmanFord bf = new BellmanFord("weight", "A");
+			bf.setStrategy(strategy);
+			bf.init(g);
+
+			try {
+				bf.compute();
+				fail("negative cycle not detected with " + strategy);
+			} catch (NumberFormatException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testPathSet() {
+		Graph g = new SingleGraph("diamond", false, true);
+
+		g.addEdge("AB", "A", "B", true).addAttribute("weight", 1.0);
+		g.addEdge("AC", "A", "C", true).addAttribute("weight", 2.0);
+		g.addEdge("BD", "B", "D", true).addAttribute("weight", 2.0);
+		g.addEdge("CD", "C", "D", true).addAttribute("weight", 1.0);
+		g.addEdge("DE", "D", "E", true).addAttribute("weight", 1.0);
+		g.addEdge("AE", "A", "E", true).addAttribute("weight", 5.0);
+
+		for (Strategy strategy : Strategy.values()) {
+			BellmanFord bf = new BellmanFord("weight", "A");
+			bf.setStrategy(strategy);
+			bf.init(g);
+			bf.compute();
+
+			assertEquals(4.0, bf.getShortestPathValue(g.getNode("E")), 0);
+
+			List<Path> paths = bf.getPathSetShortestPaths(g.getNode("E"));
+			assertEquals(2, paths.size());
+
+			for (Path p : paths) {
+				assertEquals(g.getNode("E"), p.getRoot());
+				assertEquals(3, p.getEdgeCount());
+			}
+		}
+	}
+}
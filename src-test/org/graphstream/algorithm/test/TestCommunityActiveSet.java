@@ -0,0 +1,134 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.graphstream.algorithm.community.DecentralizedCommunityAlgorithm;
+import org.graphstream.algorithm.community.EpidemicCommunityAlgorithm;
+import org.graphstream.algorithm.community.Leung;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.junit.Test;
+
+public class TestCommunityActiveSet {
+	protected static final int SIZE = 20;
+
+	@Test
+	public void testEpidemic() {
+		checkActiveSet(new EpidemicCommunityAlgorithm());
+	}
+
+	@Test
+	public void testLeung() {
+		checkActiveSet(new Leung());
+	}
+
+	protected void checkActiveSet(DecentralizedCommunityAlgorithm algorithm) {
+		Graph graph = twoCliques();
+
+		algorithm.setRandom(new Random(1));
+		algorithm.setActiveSetMode(true);
+		algorithm.init(graph);
+		graph.addSink(algorithm);
+
+		assertEquals(2 * SIZE, algorithm.getActiveNodeCount());
+		stabilize(algorithm);
+
+		String marker = algorithm.getMarker();
+		Object a = graph.getNode("a0").getAttribute(marker);
+		Object b = graph.getNode("b0").getAttribute(marker);
+
+		assertNotSame(a, b);
+
+		for (int i = 1; i < SIZE; i++) {
+			assertSame(a, graph.getNode("a" + i).getAttribute(marker));
+			assertSame(b, graph.getNode("b" + i).getAttribute(marker));
+		}
+
+		// a new node attached to the first clique, the second one is not
+		// computed again
+		graph.addNode("x");
+
+		for (int i = 0; i < 3; i++)
+			graph.addEdge("x_" + i, "x", "a" + i);
+
+		assertEquals(4, algorithm.getActiveNodeCount());
+
+		int evaluations = stabilize(algorithm);
+
+		assertSame(a, graph.getNode("x").getAttribute(marker));
+		assertSame(b, graph.getNode("b0").getAttribute(marker));
+		assertTrue(evaluations <= SIZE + 1);
+
+		// removing the node only touches its neighbors
+		graph.removeNode("x");
+
+		assertEquals(3, algorithm.getActiveNodeCount());
+		stabilize(algorithm);
+
+		assertSame(a, graph.getNode("a0").getAttribute(marker));
+	}
+
+	protected int stabilize(DecentralizedCommunityAlgorithm algorithm) {
+		int evaluations = 0;
+
+		for (int i = 0; i < 100 && algorithm.getActiveNodeCount() > 0; i++) {
+			algorithm.compute();
+			evaluations += algorithm.getEvaluationCount();
+		}
+
+		assertEquals(0, algorithm.getActiveNodeCount());
+		return evaluations;
+	}
+
+	protected Graph twoCliques() {
+		// two disconnected cliques
+		Graph graph = new AdjacencyListGraph("cliques");
+
+		for (String p : new String[] { "a", "b" }) {
+			for (int i = 0; i < SIZE; i++)
+				graph.addNode(p + i);
+
+			for (int i = 0; i < SIZE; i++)
+				for (int j = i + 1; j < SIZE; j++)
+					graph.addEdge(p + i + "_" + j, p + i, p + j);
+		}
+
+		return graph;
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.test;
+
+import java.util.Random;
+
+import org.graphstream.algorithm.DStar;
+import org.graphstream.algorithm.Dijkstra;
+import org.graphstream.algorithm.generator.Generator;
+import org.graphstream.algorithm.generator.GridGenerator;
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestDStar {
+	/**
+	 * Cost of the path marked by D* from the source to the target.
+	 */
+	protected double pathCost(DStar dstar, Graph g, Node source, Node target) {
+		dstar.markPath("path", true, false);
+
+		double cost = 0;
+		Node n = source;
+		int steps = 0;
+
+		while (n != target) {
+			Node next = null;
+
+			for (Edge e : n.getEachEdge())
+				if (e.getAttribute("path") == Boolean.TRUE
+						&& e.getOpposite(n).getAttribute("path") == Boolean.TRUE) {
+					e.setAttribute("path", false);
+					next = e.getOpposite(n);
+					cost += e.getNumber("weight");
+					break;
+				}
+
+			assertNotNull(next);
+			assertTrue(steps++ < g.getNodeCount());
+			n = next;
+		}
+
+		return cost;
+	}
+
+	/**
+	 * Compares the cost of the path planned by D* with the one found by
+	 * Dijkstra on weighted grids.
+	 */
+	@Test
+	public void testGridPath() {
+		Random random = new Random(7);
+
+		for (int k = 0; k < 5; k++) {
+			Graph g = new SingleGraph("grid");
+			Generator gen = new GridGenerator();
+
+			gen.addSink(g);
+			gen.begin();
+			for (int i = 0; i < 15; i++)
+				gen.nextEvents();
+			gen.end();
+
+			Node source = g.getNode(random.nextInt(g.getNodeCount()));
+			Node target = g.getNode(random.nextInt(g.getNodeCount()));
+
+			if (source == target)
+				continue;
+
+			DStar dstar = new DStar();
+			dstar.init(source, target, g);
+
+			for (Edge e : g.getEachEdge())
+				e.setAttribute("weight", 1 + random.nextInt(10));
+
+			dstar.compute();
+			double cost = pathCost(dstar, g, source, target);
+
+			Dijkstra dijkstra = new Dijkstra(Dijkstra.Element.EDGE, null,
+					"weight");
+			dijkstra.init(g);
+			dijkstra.setSource(source);
+			dijkstra.compute();
+
+			assertEquals(dijkstra.getPathLength(target), cost, 1e-9);
+
+			dstar.terminate();
+		}
+	}
+
+	/**
+	 * The source is closed when the cost of its path increases, the raise has
+	 * to go through it and the nodes behind it before the lower detour is
+	 * found. Replanning used to stop after a single expansion and to drop the
+	 * backpointer of the modified edge.
+	 */
+	@Test
+	public void testCostIncrease() {
+		Graph g = new SingleGraph("detour");
+		Node target = g.addNode("T");
+		g.addNode("A");
+		Node source = g.addNode("S");
+		g.addNode("B");
+		g.addNode("C");
+		g.addNode("D");
+
+		g.addEdge("TA", "T", "A");
+		g.addEdge("AS", "A", "S");
+		g.addEdge("SB", "S", "B");
+		g.addEdge("BC", "B", "C");
+		g.addEdge("CD", "C", "D");
+		g.addEdge("DT", "D", "T");
+
+		DStar dstar = new DStar();
+		dstar.init(source, target, g);
+
+		// the costs are read from the weight changes
+		for (Edge e : g.getEachEdge())
+			e.setAttribute("weight", 1);
+		g.getEdge("DT").setAttribute("weight", 8);
+
+		dstar.compute();
+		assertEquals(2, pathCost(dstar, g, source, target), 1e-9);
+
+		g.getEdge("TA").setAttribute("weight", 20);
+		dstar.compute();
+		assertEquals(11, pathCost(dstar, g, source, target), 1e-9);
+
+		g.getEdge("TA").setAttribute("weight", 1);
+		dstar.compute();
+		assertEquals(2, pathCost(dstar, g, source, target), 1e-9);
+
+		dstar.terminate();
+	}
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.test;
+
+import java.util.Random;
+
+import org.graphstream.algorithm.DStarLite;
+import org.graphstream.algorithm.Dijkstra;
+import org.graphstream.algorithm.generator.Generator;
+import org.graphstream.algorithm.generator.GridGenerator;
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.Path;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestDStarLite {
+	protected Graph grid(int size, Random random) {
+		Graph g = new SingleGraph("grid");
+		Generator gen = new GridGenerator();
+
+		gen.addSink(g);
+		gen.begin();
+		for (int i = 1; i < size; i++)
+			gen.nextEvents();
+		gen.end();
+
+		for (Edge e : g.getEachEdge())
+			e.addAttribute("weight", 1 + random.nextInt(10));
+
+		return g;
+	}
+
+	protected void check(Graph g, DStarLite dstar) {
+		Dijkstra dijkstra = new Dijkstra(Dijkstra.Element.EDGE, null, "weight");
+		dijkstra.init(g);
+		dijkstra.setSource(dstar.getSource());
+		dijkstra.compute();
+
+		double expected = dijkstra.getPathLength(dstar.getTarget());
+		assertEquals(expected, dstar.getPathLength(), 1e-9);
+
+		if (!Double.isInfinite(expected)) {
+			Path path = dstar.getPath();
+			double length = 0;
+
+			for (Edge e : path.getEdgePath())
+				length += e.getNumber("weight");
+
+			assertEquals(dstar.getSource(), path.getRoot());
+			assertEquals(dstar.getTarget(), path.peekNode());
+			assertEquals(expected, length, 1e-9);
+		}
+	}
+
+	/**
+	 * Compares D* Lite with Dijkstra after each change of a random stream of
+	 * weight changes on a grid.
+	 */
+	@Test
+	public void testWeightChanges() {
+		Random random = new Random(17);
+		Graph g = grid(12, random);
+
+		DStarLite dstar = new DStarLite("weight");
+		dstar.init(g.getNode("0_0"), g.getNode("11_11"), g);
+		dstar.compute();
+		check(g, dstar);
+
+		long expanded = dstar.getExpandedCount();
+
+		for (int i = 0; i < 200; i++) {
+			Edge e = g.getEdge(random.nextInt(g.getEdgeCount()));
+			e.setAttribute("weight", 1 + random.nextInt(10));
+
+			dstar.compute();
+			check(g, dstar);
+		}
+
+		assertEquals(200, dstar.getChangeCount());
+		assertTrue(dstar.getExpandedCount() - expanded < 200 * g.getNodeCount());
+
+		dstar.terminate();
+	}
+
+	/**
+	 * Removes and adds edges and nodes, and moves the source along the path.
+	 */
+	@Test
+	public void testStructureChanges() {
+		Random random = new Random(23);
+		Graph g = grid(10, random);
+		Node target = g.getNode("9_9");
+
+		DStarLite dstar = new DStarLite("weight");
+		dstar.init(g.getNode("0_0"), target, g);
+		dstar.compute();
+		check(g, dstar);
+
+		int added = 0;
+
+		while (dstar.getSource() != target) {
+			switch (random.nextInt(3)) {
+			case 0:
+				Node n = g.getNode(random.nextInt(g.getNodeCount()));
+
+				if (n != dstar.getSource() && n != target)
+					g.removeNode(n);
+				break;
+			case 1:
+				g.removeEdge(random.nextInt(g.getEdgeCount()));
+				break;
+			default:
+				Node u = g.getNode(random.nextInt(g.getNodeCount()));
+				Node v = g.getNode(random.nextInt(g.getNodeCount()));
+				Node w = g.addNode("new" + added++);
+
+				w.addAttribute("xy", u.getArray("xy")[0], u.getArray("xy")[1]);
+				g.addEdge(u.getId() + "-" + w.getId(), u, w).addAttribute(
+						"weight", 1 + random.nextInt(10));
+
+				if (!u.hasEdgeBetween(v) && u != v)
+					g.addEdge(u.getId() + "-" + v.getId(), u, v).addAttribute(
+							"weight", 20);
+			}
+
+			dstar.compute();
+			check(g, dstar);
+
+			if (Double.isInfinite(dstar.getPathLength()))
+				break;
+
+			Path path = dstar.getPath();
+			dstar.setSource(path.getNodePath().get(1));
+		}
+
+		dstar.terminate();
+	}
+
+	/**
+	 * Removing the target or clearing the graph does not fail in the graph
+	 * events, the next computation does.
+	 */
+	@Test
+	public void testLostTarget() {
+		Random random = new Random(29);
+		Graph g = grid(5, random);
+		Node source = g.getNode("0_0");
+
+		DStarLite dstar = new DStarLite("weight");
+		dstar.init(source, g.getNode("4_4"), g);
+		dstar.compute();
+		check(g, dstar);
+
+		g.removeNode("4_4");
+
+		try {
+			dstar.compute();
+			fail();
+		} catch (IllegalStateException e) {
+		}
+
+		try {
+			dstar.getPath();
+			fail();
+		} catch (IllegalStateException e) {
+		}
+
+		// the algorithm can be initialized again
+		dstar.init(source, g.getNode("3_3"), g);
+		dstar.compute();
+		check(g, dstar);
+
+		g.clear();
+
+		try {
+			dstar.compute();
+			fail();
+		} catch (IllegalStateException e) {
+		}
+
+		dstar.terminate();
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.graphstream.algorithm.DynamicSpanningTree;
+import org.graphstream.algorithm.Kruskal;
+import org.graphstream.algorithm.Toolkit;
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.implementations.MultiGraph;
+import org.junit.Test;
+
+public class TestDynamicSpanningTree {
+
+	@Test
+	public void toyTest() {
+		Graph g = TestKruskalPrim.toyGraph();
+		DynamicSpanningTree dst = new DynamicSpanningTree("weight", "dst");
+		dst.init(g);
+		dst.compute();
+		check(dst, g, 37.0, 8);
+
+		// remove the lightest edge, replaced by BC or AH
+		g.removeEdge("HG");
+		check(dst, g, 43.0, 8);
+
+		// put it back
+		g.addEdge("HG", "H", "G").addAttribute("weight", 1);
+		check(dst, g, 37.0, 8);
+
+		// make a tree edge heavy, both AH and BC are now needed
+		g.getEdge("AB").changeAttribute("weight", 20);
+		check(dst, g, 41.0, 8);
+
+		// make a non tree edge light, it replaces DE
+		g.getEdge("FE").changeAttribute("weight", 3);
+		check(dst, g, 35.0, 8);
+
+		// cut the graph in two
+		g.removeEdge("HI");
+		g.removeEdge("BC");
+		g.removeEdge("AH");
+		g.removeEdge("BH");
+		check(dst, g, 39.0, 7);
+
+		g.removeNode("C");
+		check(dst, g, 41.0, 6);
+
+		dst.terminate();
+	}
+
+	@Test
+	public void randomTest() {
+		Random random = new Random(4321);
+		Graph g = new MultiGraph("random");
+		int n = 60;
+		for (int i = 0; i < n; i++)
+			g.addNode("" + i);
+
+		DynamicSpanningTree dst = new DynamicSpanningTree("weight", "dst");
+		dst.init(g);
+		dst.compute();
+
+		int edgeId = 0;
+		for (int step = 0; step < 3000; step++) {
+			int action = random.nextInt(10);
+			if (action < 5 || g.getEdgeCount() == 0) {
+				Edge e = g.addEdge("e" + edgeId++, random.nextInt(n),
+						random.nextInt(n));
+				e.addAttribute("weight", random.nextInt(50));
+			} else if (action < 8) {
+				Edge e = Toolkit.randomEdge(g, random);
+				e.changeAttribute("weight", random.nextInt(50));
+			} else if (action < 9) {
+				g.removeEdge(Toolkit.randomEdge(g, random));
+			} else {
+				String id = Toolkit.randomNode(g, random).getId();
+				g.removeNode(id);
+				g.addNode(id);
+			}
+
+			Kruskal k = new Kruskal("weight", null);
+			k.init(g);
+			k.compute();
+			int count = 0;
+			for (Edge e : k.getTreeEdges())
+				count++;
+			check(dst, g, k.getTreeWeight(), count);
+		}
+	}
+
+	protected void check(DynamicSpanningTree dst, Graph g,
+			double expectedWeight, int expectedCount) {
+		assertEquals(expectedWeight, dst.getTreeWeight(), 0);
+		assertEquals(expectedCount, dst.getTreeEdgeCount());
+
+		int edgeCount = 0;
+		double treeWeight = 0;
+		for (Edge e : g.getEachEdge()) {
+			Boolean b = e.getAttribute(dst.getFlagAttribute());
+			if (b) {
+				edgeCount++;
+				treeWeight += e.getNumber("weight");
+			}
+		}
+		assertEquals(expectedWeight, treeWeight, 0);
+		assertEquals(expectedCount, edgeCount);
+	}
+}
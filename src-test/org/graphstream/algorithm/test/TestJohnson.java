@@ -0,0 +1,169 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.test;
+
+import java.util.Random;
+
+import org.graphstream.algorithm.APSP;
+import org.graphstream.algorithm.APSP.APSPInfo;
+import org.graphstream.algorithm.BellmanFord;
+import org.graphstream.algorithm.Johnson;
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.Path;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestJohnson {
+	/**
+	 * Random digraph with some negative weights but no negative cycle,
+	 * obtained by shifting positive weights with node potentials.
+	 */
+	protected Graph randomGraph(int n, int m, boolean directed, Random random) {
+		Graph g = new SingleGraph("random");
+		double[] potential = new double[n];
+
+		for (int i = 0; i < n; i++) {
+			g.addNode("" + i);
+			potential[i] = directed ? random.nextInt(30) : 0;
+		}
+
+		for (int i = 0; i < m; i++) {
+			int u = random.nextInt(n), v = random.nextInt(n);
+
+			if (u == v || g.getNode(u).hasEdgeBetween(g.getNode(v)))
+				continue;
+
+			Edge e = g.addEdge(u + "_" + v, u, v, directed);
+			e.addAttribute("weight", 1.0 + random.nextInt(20) + potential[u]
+					- potential[v]);
+		}
+
+		return g;
+	}
+
+	protected void checkPath(Node source, Node target, APSPInfo info,
+			double length) {
+		Path path = info.getShortestPathTo(target.getId());
+		double sum = 0;
+
+		for (Edge e : path.getEdgePath())
+			sum += e.getNumber("weight");
+
+		assertEquals(source, path.getRoot());
+		assertEquals(length, sum, 1e-9);
+	}
+
+	@Test
+	public void testNegativeWeights() {
+		Random random = new Random(31);
+		Graph g = randomGraph(100, 400, true, random);
+
+		Johnson johnson = new Johnson(g, "weight", true);
+		johnson.setParallelism(3);
+		johnson.compute();
+
+		for (Node s : g) {
+			BellmanFord bf = new BellmanFord("weight", s.getId());
+			bf.init(g);
+			bf.compute();
+
+			APSPInfo info = s.getAttribute(APSPInfo.ATTRIBUTE_NAME);
+
+			for (Node t : g) {
+				if (s == t)
+					continue;
+
+				double expected = bf.getShortestPathValue(t);
+
+				if (Double.isInfinite(expected))
+					assertEquals(-1, info.getLengthTo(t.getId()), 0);
+				else {
+					assertEquals(expected, info.getLengthTo(t.getId()), 1e-9);
+					checkPath(s, t, info, expected);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testSameAsFloydWarshall() {
+		Random random = new Random(37);
+		Graph g = randomGraph(60, 150, false, random);
+
+		APSP apsp = new APSP(g, "weight", false);
+		apsp.compute();
+
+		double[][] expected = new double[g.getNodeCount()][g.getNodeCount()];
+
+		for (Node s : g) {
+			APSPInfo info = s.getAttribute(APSPInfo.ATTRIBUTE_NAME);
+			for (Node t : g)
+				expected[s.getIndex()][t.getIndex()] = info.getLengthTo(t
+						.getId());
+		}
+
+		apsp.init(null);
+
+		Johnson johnson = new Johnson(g, "weight", false);
+		johnson.compute();
+
+		for (Node s : g) {
+			APSPInfo info = s.getAttribute(APSPInfo.ATTRIBUTE_NAME);
+
+			for (Node t : g) {
+				if (s == t)
+					continue;
+
+				double length = info.getLengthTo(t.getId());
+				assertEquals(expected[s.getIndex()][t.getIndex()], length, 1e-9);
+
+				if (length >= 0)
+					checkPath(s, t, info, length);
+			}
+		}
+	}
+
+	@Test(expected = NumberFormatException.class)
+	public void testNegativeCycle() {
+		Graph g = new SingleGraph("cycle", false, true);
+
+		g.addEdge("AB", "A", "B", true).addAttribute("weight", 1.0);
+		g.addEdge("BC", "B", "C", true).addAttribute("weight", -3.0);
+		g.addEdge("CA", "C", "A", true).addAttribute("weight", 1.0);
+
+		new Johnson(g).compute();
+	}
+}
@@ -35,6 +35,10 @@ package org.graphstream.algorithm.test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Iterator;
+import java.util.Random;
+
+import org.graphstream.algorithm.FilterKruskal;
 import org.graphstream.algorithm.Kruskal;
 import org.graphstream.algorithm.Prim;
 import org.graphstream.graph.Edge;
@@ -98,6 +102,59 @@ public class TestKruskalPrim {
 		helper(p, g, 36.0, 7);
 	}
 	
+	@Test
+	public void filterKruskalTest() {
+		Graph g = toyGraph();
+		FilterKruskal fk = new FilterKruskal("weight", "filter");
+		fk.init(g);
+		fk.compute();
+		helper(fk, g, 37.0, 8);
+
+		g.removeEdge("HG");
+		fk.compute();
+		helper(fk, g, 43.0, 8);
+
+		g.removeEdge("BC");
+		g.removeEdge("HI");
+		fk.compute();
+		helper(fk, g, 36.0, 7);
+	}
+
+	@Test
+	public void filterKruskalLargeTest() {
+		// more edges than FilterKruskal.KRUSKAL_THRESHOLD, so that the edges
+		// are partitioned and filtered, and the partitions sorted with more
+		// than FilterKruskal.SEQUENTIAL_THRESHOLD edges are sorted in parallel
+		Random random = new Random(12345);
+		int n = 5000;
+		Graph g = new SingleGraph("large", false, true);
+		for (int i = 0; i < n; i++)
+			g.addNode("" + i);
+		for (int i = 0; i < 60000; i++) {
+			Edge e = g.addEdge("e" + i, random.nextInt(n), random.nextInt(n));
+			if (e != null)
+				e.addAttribute("weight", 1 + random.nextInt(1000));
+		}
+
+		Kruskal k = new Kruskal("weight", "kruskal");
+		k.init(g);
+		k.compute();
+
+		FilterKruskal fk = new FilterKruskal("weight", "filter");
+		fk.init(g);
+		fk.compute();
+
+		int kCount = 0;
+		for (Iterator<Edge> it = k.getTreeEdgesIterator(); it.hasNext(); it
+				.next())
+			kCount++;
+		helper(fk, g, k.getTreeWeight(), kCount);
+
+		fk.setParallelism(1);
+		fk.compute();
+		helper(fk, g, k.getTreeWeight(), kCount);
+	}
+
 	public void helper(Kruskal k, Graph g, double expectedWeight, int expectedCount) {
 		assertEquals(expectedWeight, k.getTreeWeight(), 0);
 		int edgeCount = 0;
@@ -179,4 +179,29 @@ public class TestLongestPath {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testLongestPathHopsSeveralParents() {
+        Graph graph = TestTopologicalSort.getTestDagSeveralParents();
+        LongestPath path = new LongestPath();
+        path.init(graph);
+        path.compute();
+        // the former implementation added one hop per entering edge and
+        // found 8
+        Assert.assertEquals(Double.valueOf(4.0), path.getLongestPathValue());
+        Assert.assertEquals(5, path.getLongestPathList().size());
+    }
+
+    @Test
+    public void testLongestPathLongChain() {
+        int n = 100000;
+        Graph graph = TestTopologicalSort.getTestChain(n);
+        LongestPath path = new LongestPath();
+        path.init(graph);
+        path.compute();
+        Assert.assertEquals(Double.valueOf(n - 1), path.getLongestPathValue());
+        List<Node> longestPath = path.getLongestPathList();
+        Assert.assertEquals(n, longestPath.size());
+        Assert.assertEquals("0", longestPath.get(0).getId());
+        Assert.assertEquals(Integer.toString(n - 1), longestPath.get(n - 1).getId());
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.graphstream.algorithm.ConnectedComponents;
+import org.graphstream.algorithm.Toolkit;
+import org.graphstream.algorithm.community.Louvain;
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.junit.Test;
+
+public class TestLouvain {
+	@Test
+	public void testTwoCliques() {
+		Graph graph = CommunityFixtures.twoCliques(5);
+
+		for (boolean leiden : new boolean[] { false, true }) {
+			Louvain louvain = new Louvain();
+			louvain.setRandom(new Random(1));
+			louvain.setLeidenRefinement(leiden);
+			louvain.init(graph);
+			louvain.compute();
+
+			String marker = louvain.getMarker();
+
+			assertEquals(2, louvain.getCommunityCount());
+			CommunityFixtures.assertTwoCliques(graph, marker, 5);
+			assertEquals(Toolkit.modularity(graph, marker),
+					louvain.getModularity(), 1e-9);
+		}
+	}
+
+	@Test
+	public void testPlantedPartition() {
+		Random random = new Random(1234);
+		Graph graph = new AdjacencyListGraph("planted");
+		int groups = 8, size = 40;
+
+		for (int i = 0; i < groups * size; i++) {
+			Node n = graph.addNode("" + i);
+			n.addAttribute(CommunityFixtures.PLANTED, i / size);
+		}
+
+		for (int i = 0; i < groups * size; i++)
+			for (int j = i + 1; j < groups * size; j++) {
+				double p = i / size == j / size ? 0.3 : 0.005;
+
+				if (random.nextDouble() < p) {
+					Edge e = graph.addEdge(i + "_" + j, i, j);
+					e.addAttribute("weight", 1.0 + random.nextInt(3));
+				}
+			}
+
+		for (boolean leiden : new boolean[] { false, true }) {
+			Louvain louvain = new Louvain(graph, "community");
+			louvain.setRandom(new Random(2));
+			louvain.setLeidenRefinement(leiden);
+			louvain.compute();
+
+			String marker = louvain.getMarker();
+
+			assertEquals(Toolkit.modularity(graph, marker),
+					louvain.getModularity(), 1e-9);
+			CommunityFixtures.assertPlantedModularity(graph, marker, 1);
+
+			if (leiden)
+				assertConnectedCommunities(graph, marker);
+		}
+
+		// weights are taken into account
+		Louvain louvain = new Louvain(graph, "community", "weight");
+		louvain.setRandom(new Random(3));
+		louvain.compute();
+
+		assertEquals(
+				Toolkit.modularity(graph, louvain.getMarker(), "weight"),
+				louvain.getModularity(), 1e-9);
+	}
+
+	protected void assertConnectedCommunities(Graph graph, String marker) {
+		HashMap<Object, HashSet<Node>> communities = Toolkit.communities(
+				graph, marker);
+
+		for (HashSet<Node> community : communities.values()) {
+			Graph sub = new AdjacencyListGraph("sub");
+
+			for (Node n : community)
+				sub.addNode(n.getId());
+
+			for (Node n : community)
+				for (Edge e : n.getEachLeavingEdge()) {
+					Node o = e.getOpposite(n);
+
+					if (community.contains(o) && sub.getEdge(e.getId()) == null)
+						sub.addEdge(e.getId(), n.getId(), o.getId());
+				}
+
+			ConnectedComponents cc = new ConnectedComponents(sub);
+			cc.compute();
+
+			assertEquals(1, cc.getConnectedComponentsCount());
+		}
+	}
+}
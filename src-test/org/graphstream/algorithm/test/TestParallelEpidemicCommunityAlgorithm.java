@@ -0,0 +1,146 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.graphstream.algorithm.community.ParallelEpidemicCommunityAlgorithm;
+import org.graphstream.algorithm.community.ParallelEpidemicCommunityAlgorithm.Mode;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.junit.Test;
+
+public class TestParallelEpidemicCommunityAlgorithm {
+	@Test
+	public void testTwoCliques() {
+		Graph graph = CommunityFixtures.twoCliques(6);
+
+		for (Mode mode : Mode.values()) {
+			ParallelEpidemicCommunityAlgorithm algorithm = new ParallelEpidemicCommunityAlgorithm();
+			algorithm.setRandom(new Random(1));
+			algorithm.setMode(mode);
+			algorithm.init(graph);
+			algorithm.compute();
+
+			CommunityFixtures.assertTwoCliques(graph, algorithm.getMarker(), 6);
+			assertTrue(algorithm.getIterationCount() < 100);
+		}
+	}
+
+	@Test
+	public void testPlantedPartition() {
+		Graph graph = CommunityFixtures.plantedPartition(new Random(1234), 40,
+				100);
+
+		for (Mode mode : Mode.values()) {
+			ParallelEpidemicCommunityAlgorithm algorithm = new ParallelEpidemicCommunityAlgorithm(
+					graph, "community");
+			algorithm.setRandom(new Random(2));
+			algorithm.setMode(mode);
+			algorithm.setParallelism(4);
+			algorithm.compute();
+
+			CommunityFixtures.assertPlantedModularity(graph,
+					algorithm.getMarker(), 0.9);
+		}
+	}
+
+	@Test
+	public void testSynchronousIsDeterministic() {
+		Graph graph = CommunityFixtures.plantedPartition(new Random(4321), 30,
+				100);
+		ParallelEpidemicCommunityAlgorithm sequential = new ParallelEpidemicCommunityAlgorithm(
+				graph, "sequential");
+		ParallelEpidemicCommunityAlgorithm parallel = new ParallelEpidemicCommunityAlgorithm(
+				graph, "parallel");
+
+		sequential.setMode(Mode.SYNCHRONOUS);
+		sequential.setParallelism(1);
+		sequential.setRandom(new Random(5));
+		sequential.compute();
+
+		parallel.setMode(Mode.SYNCHRONOUS);
+		parallel.setParallelism(4);
+		parallel.setRandom(new Random(5));
+		parallel.compute();
+
+		assertEquals(sequential.getIterationCount(),
+				parallel.getIterationCount());
+
+		for (Node u : graph)
+			for (Node v : graph)
+				assertEquals(
+						u.getAttribute(sequential.getMarker()) == v
+								.getAttribute(sequential.getMarker()),
+						u.getAttribute(parallel.getMarker()) == v
+								.getAttribute(parallel.getMarker()));
+	}
+
+	@Test(timeout = 10000)
+	public void testHub() {
+		// in the first round the hub hears more distinct labels than the
+		// 65536 slots where a 16 bit hash would put them all
+		int leaves = 200000;
+		Graph graph = new AdjacencyListGraph("star", false, true, leaves + 1,
+				leaves);
+		Node hub = graph.addNode("hub");
+
+		for (int i = 0; i < leaves; i++)
+			graph.addEdge("e" + i, hub, graph.addNode("" + i));
+
+		for (Mode mode : Mode.values()) {
+			ParallelEpidemicCommunityAlgorithm algorithm = new ParallelEpidemicCommunityAlgorithm();
+			algorithm.setRandom(new Random(3));
+			algorithm.setMode(mode);
+			algorithm.init(graph);
+			algorithm.compute();
+
+			// synchronous rounds need not settle on a star, only their speed
+			// matters here
+			if (mode == Mode.ASYNCHRONOUS) {
+				Object community = hub.getAttribute(algorithm.getMarker());
+				int same = 0;
+
+				for (Node n : graph)
+					if (n.getAttribute(algorithm.getMarker()) == community)
+						same++;
+
+				assertTrue(same > leaves / 2);
+				assertTrue(algorithm.getIterationCount() < 100);
+			}
+		}
+	}
+}
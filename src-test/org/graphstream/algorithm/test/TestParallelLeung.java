@@ -0,0 +1,235 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.graphstream.algorithm.community.Community;
+import org.graphstream.algorithm.community.Leung;
+import org.graphstream.algorithm.community.ParallelEpidemicCommunityAlgorithm.Mode;
+import org.graphstream.algorithm.community.ParallelLeung;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+import org.junit.Test;
+
+public class TestParallelLeung {
+	@Test
+	public void testTwoCliques() {
+		Graph graph = CommunityFixtures.twoCliques(6);
+
+		for (Mode mode : Mode.values()) {
+			ParallelLeung leung = new ParallelLeung();
+			leung.setRandom(new Random(1));
+			leung.setMode(mode);
+			leung.init(graph);
+			leung.compute();
+
+			String marker = leung.getMarker();
+
+			CommunityFixtures.assertTwoCliques(graph, marker, 6);
+
+			for (Node n : graph) {
+				double score = leung.getScore(n);
+
+				assertTrue(score <= 1.0);
+				assertEquals(score, n.getNumber(marker + ".score"), 0);
+			}
+		}
+	}
+
+	/**
+	 * Node x hears the originator a of community A, heard itself by four
+	 * nodes, and two nodes b1 and b2 of community B, heard by one node each.
+	 */
+	protected Graph parametersGraph() {
+		Graph graph = new AdjacencyListGraph("parameters");
+
+		graph.addNode("a");
+		graph.addNode("b");
+		graph.addNode("x");
+
+		for (int i = 1; i <= 4; i++) {
+			graph.addNode("a" + i);
+			graph.addEdge("a-a" + i, "a", "a" + i);
+		}
+
+		for (int i = 1; i <= 2; i++) {
+			graph.addNode("b" + i);
+			graph.addEdge("b-b" + i, "b", "b" + i);
+		}
+
+		graph.addEdge("a-x", "a", "x", true);
+		graph.addEdge("b1-x", "b1", "x", true);
+		graph.addEdge("b2-x", "b2", "x", true);
+
+		return graph;
+	}
+
+	/**
+	 * Put the nodes of {@link #parametersGraph()} in A or B, except x. Their
+	 * scores are already stable for the given delta, so x is the only node
+	 * whose label depends on the parameters and the result does not depend on
+	 * the order of the updates.
+	 */
+	protected void labelParametersGraph(Graph graph, String marker,
+			double delta) {
+		Community a = new Community();
+		Community b = new Community();
+
+		for (Node n : graph) {
+			String id = n.getId();
+
+			if (id.equals("x"))
+				label(n, marker, new Community(), 0.0);
+			else
+				label(n, marker, id.startsWith("a") ? a : b,
+						id.length() == 1 ? 1.0 : 1.0 - delta);
+		}
+	}
+
+	protected void label(Node node, String marker, Community c, double score) {
+		node.addAttribute(marker, c);
+		node.addAttribute(marker + ".score", score);
+	}
+
+	/**
+	 * With m = 0 and a small delta, the two nodes of B outweigh a. A larger m
+	 * favors a, which is heard by more nodes, and a larger delta lowers the
+	 * scores of b1 and b2 below the half of the score of a. The scores are the
+	 * ones of the reference implementation.
+	 */
+	@Test
+	public void testParameters() {
+		double[][] parameters = { { 0, 0.05 }, { 1, 0.05 }, { 0, 0.6 } };
+		String[] expected = { "b", "a", "a" };
+		double[] score = { 0.9, 0.95, 0.4 };
+
+		for (int k = 0; k < parameters.length; k++) {
+			double m = parameters[k][0], delta = parameters[k][1];
+
+			Graph reference = parametersGraph();
+			Leung leung = new Leung(reference, "community", m, delta);
+			String referenceMarker = leung.getMarker();
+			labelParametersGraph(reference, referenceMarker, delta);
+			leung.setRandom(new Random(1));
+			leung.compute();
+
+			Object referenceExpected = reference.getNode(expected[k])
+					.getAttribute(referenceMarker);
+
+			for (Mode mode : Mode.values()) {
+				Graph graph = parametersGraph();
+				ParallelLeung parallel = new ParallelLeung(graph, "community");
+				String marker = parallel.getMarker();
+				labelParametersGraph(graph, marker, delta);
+				parallel.setRandom(new Random(1));
+				parallel.setMode(mode);
+				parallel.setParameters(m, delta);
+				parallel.compute();
+
+				Node x = graph.getNode("x");
+				Object c = graph.getNode(expected[k]).getAttribute(marker);
+
+				assertSame(c, x.getAttribute(marker));
+				assertEquals(score[k], parallel.getScore(x), 1e-12);
+
+				for (Node n : graph) {
+					Node r = reference.getNode(n.getId());
+
+					assertEquals(r.getNumber(referenceMarker + ".score"),
+							parallel.getScore(n), 1e-12);
+					assertEquals(
+							r.getAttribute(referenceMarker) == referenceExpected,
+							n.getAttribute(marker) == c);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testWeights() {
+		// x hears two light edges from a and one heavy edge from b
+		Graph graph = new AdjacencyListGraph("weights");
+
+		graph.addNode("a0");
+		graph.addNode("a1");
+		graph.addNode("b0");
+		graph.addNode("x");
+		graph.addEdge("a", "a0", "a1");
+		graph.addEdge("xa0", "x", "a0").addAttribute("weight", 1.0);
+		graph.addEdge("xa1", "x", "a1").addAttribute("weight", 1.0);
+		graph.addEdge("xb0", "b0", "x", true).addAttribute("weight", 1.0);
+		graph.addEdge("b0x", "x", "b0", true).addAttribute("weight", 2.0);
+
+		ParallelLeung leung = new ParallelLeung(graph, "community", "weight");
+		leung.setRandom(new Random(1));
+		leung.setParameters(0, 0.05);
+		leung.compute();
+
+		String marker = leung.getMarker();
+
+		// b0 is heard with the merged weight 3 against 2 for a
+		assertSame(graph.getNode("b0").getAttribute(marker), graph
+				.getNode("x").getAttribute(marker));
+	}
+
+	@Test
+	public void testPlantedPartition() {
+		Graph graph = CommunityFixtures.plantedPartition(new Random(1234), 40,
+				100);
+		ParallelLeung sequential = null;
+
+		for (int parallelism : new int[] { 1, 4 }) {
+			ParallelLeung leung = new ParallelLeung(graph, "community"
+					+ parallelism);
+			leung.setRandom(new Random(2));
+			leung.setMode(Mode.SYNCHRONOUS);
+			leung.setParallelism(parallelism);
+			leung.compute();
+
+			CommunityFixtures.assertPlantedModularity(graph, leung.getMarker(),
+					0.9);
+
+			// scores do not depend on the parallelism
+			if (sequential == null)
+				sequential = leung;
+			else
+				for (Node n : graph)
+					assertEquals(sequential.getScore(n), leung.getScore(n), 0);
+		}
+	}
+}
@@ -1,7 +1,11 @@
 package org.graphstream.algorithm.test;
 
+import org.graphstream.algorithm.LongestPath;
 import org.graphstream.algorithm.TopologicalSort;
+import org.graphstream.graph.Edge;
 import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
 import org.graphstream.graph.implementations.SingleGraph;
 import org.junit.Assert;
 import org.junit.Test;
@@ -9,6 +13,7 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 public class TestTopologicalSort {
     public static Graph getTestDigraph() {
@@ -124,4 +129,135 @@ public class TestTopologicalSort {
         sort.init(graph);
         sort.compute();
     }
+
+    /**
+     * A DAG with several roots and nodes with several parents, on which the
+     * depth-first order is fixed.
+     */
+    public static Graph getTestDagSeveralParents() {
+        String[] edges = { "7-2", "7-5", "2-9", "2-0", "5-0", "5-4", "9-1", "0-1", "0-8", "4-8", "3-6", "3-0",
+                "6-8", "8-1" };
+        Graph graph = new SingleGraph("Graph");
+        for (int i = 0; i < 10; i++) {
+            graph.addNode(Integer.toString(i));
+        }
+        for (String edge : edges) {
+            String[] nodes = edge.split("-");
+            graph.addEdge(edge, nodes[0], nodes[1], true);
+        }
+        return graph;
+    }
+
+    /**
+     * A chain whose edges are added from its end, so that the depth-first
+     * search goes down the whole chain from the first node.
+     */
+    public static Graph getTestChain(int n) {
+        Graph graph = new AdjacencyListGraph("chain");
+        for (int i = 0; i < n; i++) {
+            graph.addNode(Integer.toString(i));
+        }
+        for (int i = n - 1; i > 0; i--) {
+            graph.addEdge((i - 1) + "-" + i, i - 1, i, true);
+        }
+        return graph;
+    }
+
+    @Test
+    public void testDFSOrderUnchanged() {
+        Graph graph = getTestDagSeveralParents();
+
+        TopologicalSort sort = new TopologicalSort(TopologicalSort.SortAlgorithm.DEPTH_FIRST);
+        sort.init(graph);
+        sort.compute();
+
+        // order given by the former recursive implementation
+        Assert.assertEquals("[7, 5, 4, 3, 6, 2, 9, 0, 8, 1]", Arrays.toString(sort.getSortedArray()));
+    }
+
+    @Test
+    public void testDFSLongChain() {
+        int n = 100000;
+        Graph graph = getTestChain(n);
+
+        TopologicalSort sort = new TopologicalSort(TopologicalSort.SortAlgorithm.DEPTH_FIRST);
+        sort.init(graph);
+        sort.compute();
+
+        Node[] sorted = sort.getSortedArray();
+        Assert.assertEquals(n, sorted.length);
+        for (int i = 0; i < n; i++) {
+            Assert.assertEquals(i, sorted[i].getIndex());
+        }
+    }
+
+    @Test
+    public void testKahnLevelsSmallGraph() {
+        Graph graph = getTestDigraph();
+
+        TopologicalSort sort = new TopologicalSort(TopologicalSort.SortAlgorithm.KAHN);
+        sort.init(graph);
+        sort.compute();
+
+        Assert.assertEquals(4, sort.getLevelCount());
+        Assert.assertEquals("[4, 5]", sort.getLevelNodes(0).toString());
+        Assert.assertEquals("[0, 2]", sort.getLevelNodes(1).toString());
+        Assert.assertEquals("[3]", sort.getLevelNodes(2).toString());
+        Assert.assertEquals("[1]", sort.getLevelNodes(3).toString());
+        Assert.assertEquals(3, sort.getLevel(graph.getNode("1")));
+        Assert.assertEquals(3.0, sort.getCriticalPathValue(), 0);
+        Assert.assertEquals("[5, 2, 3, 1]", sort.getCriticalPath().toString());
+    }
+
+    @Test
+    public void testKahnLevelsParallel() {
+        Random random = new Random(5);
+        int n = 50000;
+        Graph graph = new AdjacencyListGraph("dag");
+
+        for (int i = 0; i < n; i++) {
+            graph.addNode(Integer.toString(i));
+        }
+        for (int i = 0; i < 4 * n; i++) {
+            int u = random.nextInt(n);
+            int v = u + 1 + random.nextInt(Math.min(n - u, 20000));
+            if (v < n) {
+                graph.addEdge(Integer.toString(i), u, v, true).setAttribute("weight", 1.0 + random.nextInt(10));
+            }
+        }
+
+        TopologicalSort sequential = new TopologicalSort(TopologicalSort.SortAlgorithm.KAHN);
+        sequential.setParallelism(1);
+        sequential.init(graph);
+        sequential.compute();
+
+        TopologicalSort parallel = new TopologicalSort(TopologicalSort.SortAlgorithm.KAHN);
+        parallel.setParallelism(4);
+        parallel.init(graph);
+        parallel.compute();
+
+        Assert.assertArrayEquals(sequential.getSortedArray(), parallel.getSortedArray());
+        Assert.assertArrayEquals(sequential.getLevels(), parallel.getLevels());
+
+        int[] levels = parallel.getLevels();
+        for (Node node : graph) {
+            int level = 0;
+            for (Edge edge : node.getEachEnteringEdge()) {
+                level = Math.max(level, levels[edge.getSourceNode().getIndex()] + 1);
+            }
+            Assert.assertEquals(level, levels[node.getIndex()]);
+        }
+
+        LongestPath longestPath = new LongestPath();
+        longestPath.init(graph);
+        longestPath.compute();
+
+        Assert.assertEquals(longestPath.getLongestPathValue(), parallel.getCriticalPathValue(), 1e-9);
+
+        double value = 0;
+        for (Edge edge : parallel.getCriticalPath().getEdgePath()) {
+            value += edge.getNumber("weight");
+        }
+        Assert.assertEquals(parallel.getCriticalPathValue(), value, 1e-9);
+    }
 }
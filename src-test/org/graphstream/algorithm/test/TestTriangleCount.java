@@ -0,0 +1,154 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.graphstream.algorithm.Toolkit;
+import org.graphstream.algorithm.TriangleCount;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.MultiGraph;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.junit.Test;
+
+public class TestTriangleCount {
+	protected static final double DELTA = 1e-9;
+
+	@Test
+	public void testCompleteGraph() {
+		Graph graph = new SingleGraph("K6");
+
+		for (int i = 0; i < 6; i++)
+			graph.addNode("" + i);
+		for (int i = 0; i < 6; i++)
+			for (int j = i + 1; j < 6; j++)
+				graph.addEdge(i + "-" + j, i, j);
+
+		TriangleCount triangles = new TriangleCount();
+		triangles.init(graph);
+		triangles.compute();
+
+		assertEquals(20, triangles.getTriangleCount());
+		assertEquals(60, triangles.getTripleCount());
+		assertEquals(1, triangles.getTransitivity(), DELTA);
+
+		for (Node n : graph) {
+			assertEquals(10, triangles.getTriangleCount(n));
+			assertEquals(1, triangles.getClusteringCoefficient(n), DELTA);
+			assertEquals(1, Toolkit.clusteringCoefficient(n), DELTA);
+		}
+
+		assertEquals(1, Toolkit.averageClusteringCoefficient(graph), DELTA);
+	}
+
+	@Test
+	public void testRandomGraphs() {
+		Random random = new Random(11);
+
+		for (int run = 0; run < 5; run++) {
+			Graph graph = new MultiGraph("random", false, true);
+			int n = 60 + random.nextInt(60);
+
+			for (int i = 0; i < n; i++)
+				graph.addNode("" + i);
+
+			// a hub, parallel edges, loops and both directions
+			for (int i = 0; i < 6 * n; i++) {
+				int u = random.nextInt(4) == 0 ? 0 : random.nextInt(n);
+				int v = random.nextInt(n);
+				graph.addEdge("e" + i, u, v, random.nextBoolean());
+			}
+
+			boolean[][] adjacent = new boolean[n][n];
+
+			for (int i = 0; i < graph.getEdgeCount(); i++) {
+				int u = graph.getEdge(i).getNode0().getIndex();
+				int v = graph.getEdge(i).getNode1().getIndex();
+
+				if (u != v)
+					adjacent[u][v] = adjacent[v][u] = true;
+			}
+
+			long[] expected = new long[n];
+			int[] degree = new int[n];
+			long total = 0, triples = 0;
+
+			for (int u = 0; u < n; u++) {
+				for (int v = 0; v < n; v++)
+					if (adjacent[u][v])
+						degree[u]++;
+
+				triples += (long) degree[u] * (degree[u] - 1) / 2;
+
+				for (int v = u + 1; v < n; v++)
+					for (int w = v + 1; w < n; w++)
+						if (adjacent[u][v] && adjacent[v][w] && adjacent[u][w]) {
+							expected[u]++;
+							expected[v]++;
+							expected[w]++;
+							total++;
+						}
+			}
+
+			TriangleCount triangles = new TriangleCount();
+			triangles.setParallelism(1 + run % 3);
+			triangles.init(graph);
+			triangles.compute();
+
+			assertEquals(total, triangles.getTriangleCount());
+			assertEquals(triples, triangles.getTripleCount());
+
+			double[] coefs = Toolkit.clusteringCoefficients(graph);
+			double average = 0;
+
+			for (int u = 0; u < n; u++) {
+				double cc = degree[u] < 2 ? 0 : expected[u]
+						/ (degree[u] * (degree[u] - 1) / 2.0);
+				average += cc / n;
+
+				assertEquals(expected[u],
+						triangles.getTriangleCount(graph.getNode(u)));
+				assertEquals(cc, coefs[u], DELTA);
+				assertEquals(cc, Toolkit.clusteringCoefficient(graph
+						.getNode(u)), DELTA);
+			}
+
+			assertEquals(average, triangles.getAverageClusteringCoefficient(),
+					DELTA);
+			assertEquals(3.0 * total / triples, triangles.getTransitivity(),
+					DELTA);
+		}
+	}
+}
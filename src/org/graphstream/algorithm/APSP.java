@@ -471,6 +471,16 @@ public class APSP extends SinkAdapter implements Algorithm {
 		 */
 		public HashMap<String, TargetPath> targets = new HashMap<String, TargetPath>();
 
+		/**
+		 * Create a new information without any path.
+		 * 
+		 * @param node
+		 *            The node to start from.
+		 */
+		public APSPInfo(Node node) {
+			source = node;
+		}
+
 		/**
 		 * Create the new information and put in it all the paths between this
 		 * node and all its direct neighbours.
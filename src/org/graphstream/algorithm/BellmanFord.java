@@ -32,6 +32,7 @@
 package org.graphstream.algorithm;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.graphstream.graph.Edge;
@@ -105,6 +106,24 @@ import org.graphstream.graph.Path;
  * 	}
  * }
  * </pre>
+ * <h2>Strategies</h2>
+ * <p>
+ * With the default {@link Strategy#PASSES} strategy, the edges are relaxed in
+ * successive passes over the whole edge set, stopping as soon as a pass does
+ * not change any distance. With {@link Strategy#QUEUE} (also known as SPFA,
+ * Shortest Path Faster Algorithm), only the edges leaving a node whose
+ * distance just changed are relaxed, the nodes waiting in a FIFO queue. Both
+ * give the same distances; the queue is usually much faster on sparse graphs.
+ * In both cases, a negative cycle reachable from the source makes
+ * {@link #compute()} throw a {@link NumberFormatException}.
+ * </p>
+ * 
+ * <p>
+ * Distances and parent edges are stored in arrays indexed by the node indices,
+ * so the graph should not change between {@link #compute()} and the calls to
+ * the methods giving the results.
+ * </p>
+ * 
  * <h3>Warning</h3>
  * <p>
  * This Implementation is only a stub. For the moment only attributes located on
@@ -117,7 +136,8 @@ import org.graphstream.graph.Path;
  *            Mathematics 16: 87–90. 1958.
  * 
  * @complexity O(VxE) time, where V and E are the number of vertices and edges
- *             respectively.
+ *             respectively. Early termination and the queue make it much
+ *             faster in practice.
  * 
  * @author Antoine Dutot
  * @author Yoann Pigné
@@ -125,6 +145,21 @@ import org.graphstream.graph.Path;
  */
 public class BellmanFord implements Algorithm {
 
+	/**
+	 * How the edges are relaxed.
+	 */
+	public static enum Strategy {
+		/**
+		 * Relax all the edges, pass after pass, until a pass makes no change.
+		 */
+		PASSES,
+		/**
+		 * Only relax the edges leaving the nodes whose distance changed, using
+		 * a FIFO queue of nodes (SPFA).
+		 */
+		QUEUE
+	}
+
 	/**
 	 * The graph to be computed for shortest path.
 	 */
@@ -148,6 +183,32 @@ public class BellmanFord implements Algorithm {
 	 */
 	protected String weightAttribute;
 
+	/**
+	 * Strategy used to relax the edges.
+	 */
+	protected Strategy strategy = Strategy.PASSES;
+
+	/**
+	 * Distance of each node to the source, indexed by node index.
+	 */
+	protected double[] distance;
+
+	/**
+	 * Last edge of a shortest path to each node, indexed by node index.
+	 */
+	protected Edge[] parent;
+
+	/**
+	 * Weight of each edge, indexed by edge index.
+	 */
+	protected double[] weight;
+
+	/**
+	 * Number of passes (or of nodes taken from the queue) done by the last
+	 * computation.
+	 */
+	protected int iterationCount;
+
 	/**
 	 * Build a new BellmanFord algorithm giving the name of the weight attribute
 	 * for edges.
@@ -196,6 +257,37 @@ public class BellmanFord implements Algorithm {
 		return source_id;
 	}
 
+	/**
+	 * Set the strategy used to relax the edges. Default is
+	 * {@link Strategy#PASSES}.
+	 * 
+	 * @param strategy
+	 *            the strategy
+	 */
+	public void setStrategy(Strategy strategy) {
+		this.strategy = strategy;
+	}
+
+	/**
+	 * Get the strategy used to relax the edges.
+	 * 
+	 * @return the strategy
+	 */
+	public Strategy getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Number of passes over the edges done by the last computation with
+	 * {@link Strategy#PASSES}, or number of nodes taken from the queue with
+	 * {@link Strategy#QUEUE}.
+	 * 
+	 * @return the number of iterations
+	 */
+	public int getIterationCount() {
+		return iterationCount;
+	}
+
 	/**
 	 * Constructs all the possible shortest paths from the source node to the
 	 * destination (end). Warning: this construction is VERY HEAVY !
@@ -211,22 +303,19 @@ public class BellmanFord implements Algorithm {
 		return paths;
 	}
 
-	@SuppressWarnings("unchecked")
 	private void pathSetShortestPath_facilitate(Node current, Path path,
 			List<Path> paths) {
 		Node source = graph.getNode(this.source_id);
 
 		if (current != source) {
 			Node next = null;
-			ArrayList<? extends Edge> predecessors = (ArrayList<? extends Edge>) current
-					.getAttribute(identifier+".predecessors");
+			List<Edge> predecessors = getPredecessors(current);
 			while (current != source && predecessors.size() == 1) {
 				Edge e = predecessors.get(0);
 				next = e.getOpposite(current);
 				path.add(current, e);
 				current = next;
-				predecessors = (ArrayList<? extends Edge>) current
-						.getAttribute(identifier+".predecessors");
+				predecessors = getPredecessors(current);
 			}
 			if (current != source) {
 				for (Edge e : predecessors) {
@@ -243,6 +332,34 @@ public class BellmanFord implements Algorithm {
 		}
 	}
 
+	/**
+	 * The edges ending on a shortest path to a node, that is the edges
+	 * entering the node whose origin distance plus weight is the distance of
+	 * the node.
+	 * 
+	 * @param node
+	 *            a node
+	 * @return the predecessor edges of the node
+	 */
+	protected List<Edge> getPredecessors(Node node) {
+		ArrayList<Edge> predecessors = new ArrayList<Edge>();
+		double d = distance[node.getIndex()];
+
+		if (Double.isInfinite(d))
+			return predecessors;
+
+		for (Edge e : node.getEachEnteringEdge()) {
+			if (e.getNode1() == node) {
+				double d0 = distance[e.getNode0().getIndex()];
+
+				if (!Double.isInfinite(d0) && d0 + weight[e.getIndex()] == d)
+					predecessors.add(e);
+			}
+		}
+
+		return predecessors;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -292,10 +409,9 @@ public class BellmanFord implements Algorithm {
 	 *         path.
 	 */
 	public double getShortestPathValue(Node target) {
-		Double d = target.getAttribute(identifier+".distance");
-		if (d != null)
-			return d;
-		return Double.POSITIVE_INFINITY;
+		if (distance == null)
+			return Double.POSITIVE_INFINITY;
+		return distance[target.getIndex()];
 	}
 	
 	/**
@@ -308,7 +424,6 @@ public class BellmanFord implements Algorithm {
 	 * @return A {@link org.graphstream.graph.Path} object that constrains the
 	 *         list of nodes and edges that constitute it.
 	 */
-	@SuppressWarnings("unchecked")
 	public Path getShortestPath(Node target) {
 		Path p = new Path();
 		if (target == source ) {
@@ -317,12 +432,10 @@ public class BellmanFord implements Algorithm {
 		boolean noPath = false;
 		Node v = target;
 		while (v != source && !noPath) {
-			ArrayList<? extends Edge> list = (ArrayList<? extends Edge>) v
-					.getAttribute(identifier+".predecessors");
-			if (list == null) {
+			Edge parentEdge = parent == null ? null : parent[v.getIndex()];
+			if (parentEdge == null) {
 				noPath = true;
 			} else {
-				Edge parentEdge = list.get(0);
 				p.add(v, parentEdge);
 				v = parentEdge.getOpposite(v);
 			}
@@ -340,86 +453,151 @@ public class BellmanFord implements Algorithm {
 	 * 
 	 * @see org.graphstream.algorithm.Algorithm#compute()
 	 */
-	@SuppressWarnings("unchecked")
 	public void compute() {
 		Node source = graph.getNode(this.source_id);
+		int n = graph.getNodeCount();
 
 		// Step 1: Initialize graph
 
-		
-		for (Node n : graph) {
-			if (n == source)
-				n.addAttribute(identifier+".distance", 0.0);
-			else
-				n.addAttribute(identifier+".distance", Double.POSITIVE_INFINITY);
+		distance = new double[n];
+		parent = new Edge[n];
+		weight = new double[graph.getEdgeCount()];
+		iterationCount = 0;
+
+		Arrays.fill(distance, Double.POSITIVE_INFINITY);
 
-			//n.addAttribute(identifier+".predecessors",(Object)null);
+		for (Edge e : graph.getEachEdge()) {
+			Object we = e.getAttribute(weightAttribute);
+			if (!(we instanceof Number))
+				throw new NumberFormatException(
+						"org.graphstream.algorithm.BellmanFord: Problem with attribute \""
+								+ weightAttribute + "\" on edge " + e);
+			weight[e.getIndex()] = ((Number) we).doubleValue();
 		}
-	
-		
+
+		if (source == null)
+			return;
+
+		distance[source.getIndex()] = 0;
+
 		// Step 2: relax edges repeatedly
+		// Step 3: check for negative-weight cycles
 
-		for (int i = 0; i < graph.getNodeCount(); i++) {
-			for (Edge e : graph.getEachEdge()) {
-				Node n0 = e.getNode0();
-				Node n1 = e.getNode1();
-				Double d0 = (Double) n0.getAttribute(identifier+".distance");
-				Double d1 = (Double) n1.getAttribute(identifier+".distance");
-
-				Double we = (Double) e.getAttribute(weightAttribute);
-				if (we == null)
-					throw new NumberFormatException(
-							"org.graphstream.algorithm.BellmanFord: Problem with attribute \""
-									+ weightAttribute + "\" on edge " + e);
-
-				if (d0 != null) {
-					if (d1 == null || d1 >= d0 + we) {
-						n1.addAttribute(identifier+".distance", d0 + we);
-						ArrayList<Edge> predecessors = (ArrayList<Edge>) n1
-								.getAttribute(identifier+".predecessors");
-
-						if (d1 != null && d1 == d0 + we) {
-							if (predecessors == null) {
-								predecessors = new ArrayList<Edge>();
-							}
-						} else {
-							predecessors = new ArrayList<Edge>();
-						}
-						if (!predecessors.contains(e)) {
-							predecessors.add(e);
-						}
-
-						n1.addAttribute(identifier+".predecessors",
-								predecessors);
-					}
-				}
-			}
+		if (strategy == Strategy.QUEUE)
+			relaxQueue(source);
+		else
+			relaxPasses();
+	}
+
+	/**
+	 * Relax an edge, from node0 to node1.
+	 * 
+	 * @param e
+	 *            the edge
+	 * @return true if the distance of node1 decreased
+	 */
+	protected boolean relax(Edge e) {
+		double d0 = distance[e.getNode0().getIndex()];
+
+		if (Double.isInfinite(d0))
+			return false;
+
+		int i1 = e.getNode1().getIndex();
+		double d = d0 + weight[e.getIndex()];
+
+		if (d < distance[i1]) {
+			distance[i1] = d;
+			parent[i1] = e;
+			return true;
 		}
 
-		// Step 3: check for negative-weight cycles
+		return false;
+	}
 
-		for (Edge e : graph.getEachEdge()) {
-			Node n0 = e.getNode0();
-			Node n1 = e.getNode1();
-			Double d0 = (Double) n0.getAttribute(identifier+".distance");
-			Double d1 = (Double) n1.getAttribute(identifier+".distance");
+	/**
+	 * Relax all the edges until no distance changes. Without negative cycle,
+	 * this happens after at most |V| passes, the last one changing nothing.
+	 */
+	protected void relaxPasses() {
+		boolean changed = true;
 
-			Double we = (Double) e.getAttribute(weightAttribute);
+		while (changed) {
+			if (iterationCount++ == graph.getNodeCount())
+				throw negativeCycle(null);
 
-			if (we == null) {
-				throw new NumberFormatException(
-						String.format(
-								"%s: Problem with attribute \"%s\" on edge \"%s\"",
-								BellmanFord.class.getName(), weightAttribute,
-								e.getId()));
+			changed = false;
+
+			for (Edge e : graph.getEachEdge())
+				changed |= relax(e);
+		}
+	}
+
+	/**
+	 * Relax the edges leaving the nodes taken from a FIFO queue, a node being
+	 * queued each time its distance decreases. Nodes are taken in rounds, each
+	 * one at most once per round, and without negative cycle |V| - 1 rounds
+	 * are enough, so a node queued |V| times is on, or reachable from, a
+	 * negative cycle.
+	 * 
+	 * @param source
+	 *            the source node
+	 */
+	protected void relaxQueue(Node source) {
+		int n = graph.getNodeCount();
+		int[] queue = new int[n];
+		int[] count = new int[n];
+		boolean[] queued = new boolean[n];
+		int head = 0, size = 0;
+
+		queue[0] = source.getIndex();
+		queued[queue[0]] = true;
+		size = 1;
+
+		while (size > 0) {
+			int u = queue[head];
+			Node node = graph.getNode(u);
+
+			head = head + 1 == n ? 0 : head + 1;
+			size--;
+			queued[u] = false;
+			iterationCount++;
+
+			for (Edge e : node.getEachLeavingEdge()) {
+				if (e.getNode0() == node && relax(e)) {
+					int v = e.getNode1().getIndex();
+
+					if (!queued[v]) {
+						if (++count[v] >= n)
+							throw negativeCycle(e);
+
+						queued[v] = true;
+						queue[(head + size++) % n] = v;
+					}
+				}
 			}
+		}
+	}
 
-			if (d1 > d0 + we) {
-				throw new NumberFormatException(
-						String.format(
-								"%s: Problem: negative weight, cycle detected on edge \"%s\"",
-								BellmanFord.class.getName(), e.getId()));
+	/**
+	 * Build the exception thrown when a negative cycle is detected.
+	 * 
+	 * @param e
+	 *            an edge of, or reachable from, the cycle, or null to find one
+	 * @return the exception
+	 */
+	protected NumberFormatException negativeCycle(Edge e) {
+		if (e == null) {
+			for (Edge f : graph.getEachEdge()) {
+				if (relax(f)) {
+					e = f;
+					break;
+				}
 			}
 		}
+
+		return new NumberFormatException(
+				String.format(
+						"%s: Problem: negative weight, cycle detected on edge \"%s\"",
+						BellmanFord.class.getName(), e.getId()));
 	}
 }
@@ -31,10 +31,8 @@
  */
 package org.graphstream.algorithm;
 
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Random;
 
 import org.graphstream.algorithm.generator.DorogovtsevMendesGenerator;
@@ -67,21 +65,32 @@ public class DStar implements DynamicAlgorithm, Sink {
 	protected String edgeWeightAttribute;
 	protected double defaultEdgeWeight;
 	protected State g, position;
-	protected LinkedList<State> openList;
 	protected Graph env;
 
-	protected final Comparator<State> stateComparator = new Comparator<State>() {
-		public int compare(State o1, State o2) {
-			return (int) Math.signum(k(o1) - k(o2));
-		}
-	};
+	/**
+	 * Open list, as an indexed binary heap of states ordered by k(x). Each
+	 * state knows its position in the heap, so it can be moved or removed in
+	 * O(log n).
+	 */
+	protected State[] openList;
+
+	/**
+	 * Number of states in the open list.
+	 */
+	protected int openSize;
+
+	/**
+	 * Number of states processed since the algorithm was initialized.
+	 */
+	protected long expandedCount;
 
 	public DStar() {
 		edgeWeightAttribute = "weight";
 		defaultEdgeWeight = 1;
 		g = null;
 		env = null;
-		openList = new LinkedList<State>();
+		openList = new State[16];
+		openSize = 0;
 	}
 
 	public void terminate() {
@@ -89,12 +98,27 @@ public class DStar implements DynamicAlgorithm, Sink {
 	}
 
 	public void compute() {
-		while (processState() >= 0 && position.t != Tag.CLOSED)
+		while ((position.t != Tag.CLOSED || getKMin() < position.h)
+				&& processState() >= 0)
 			;
 	}
 
+	/**
+	 * Number of states processed since the algorithm was initialized.
+	 * 
+	 * @return the number of processed states
+	 */
+	public long getExpandedCount() {
+		return expandedCount;
+	}
+
 	public void init(Graph graph) {
-		openList.clear();
+		for (int i = 0; i < openSize; i++) {
+			openList[i].heapIndex = -1;
+			openList[i] = null;
+		}
+		openSize = 0;
+		expandedCount = 0;
 		env = graph;
 		env.addSink(this);
 	}
@@ -102,24 +126,17 @@ public class DStar implements DynamicAlgorithm, Sink {
 	public void init(Node source, Node target, Graph graph) {
 		init(graph);
 		g = getState(target);
-		g.h = 0;
-		insert(g);
+		insert(g, 0);
 
 		position = getState(source);
 	}
 
 	protected State minState() {
-		Collections.sort(openList, stateComparator);
-		return openList.getFirst();
+		return openSize == 0 ? null : openList[0];
 	}
 
 	protected double getKMin() {
-		double kmin = Double.MAX_VALUE;
-
-		for (State x : openList)
-			kmin = Math.min(kmin, k(x));
-
-		return kmin;
+		return openSize == 0 ? Double.MAX_VALUE : openList[0].key;
 	}
 
 	protected double processState() {
@@ -133,84 +150,55 @@ public class DStar implements DynamicAlgorithm, Sink {
 		if (x == null)
 			return -1;
 
+		expandedCount++;
+
 		// L3
 		kOld = getKMin();
 		// L4
 		delete(x);
 
-		// L6 - L11
-		for (State y : x) {
-			if (y.t == Tag.CLOSED && y.h <= kOld && x.h > y.h + c(y, x)) {
-				x.b = y;
-				x.h = y.h + c(y, x);
-
-				assert !Double.isNaN(x.h);
+		// L5 - L6: RAISE state, try to lower h(x) with a neighbor that is
+		// already optimal
+		if (kOld < x.h) {
+			for (State y : x) {
+				if (y.t != Tag.NEW && y.h <= kOld && x.h > y.h + c(y, x)) {
+					x.b = y;
+					x.h = y.h + c(y, x);
+				}
 			}
 		}
 
-		// L13 - L57
-		for (State y : x) {
-			if (y.t == Tag.NEW) {
-				y.b = x;
-				y.h = x.h + c(x, y);
-				y.p = y.h;
+		// L7 - L10: LOWER state, propagate to all the neighbors
+		if (kOld == x.h) {
+			for (State y : x) {
+				double h = x.h + c(x, y);
 
-				assert !Double.isNaN(y.h);
-				insert(y);
-			} else {
-				if (y.b == x && y.h != x.h + c(x, y)) {
-					// L24 - L 27
-					if (y.t == Tag.OPEN) {
-						if (y.h < y.p)
-							y.p = y.h;
-						y.h = x.h + c(x, y);
-
-						assert !Double.isNaN(y.h);
-					}
-					// L28 - L31
-					else {
-						y.h = x.h + c(x, y);
-						y.p = y.h;
-
-						assert !Double.isNaN(y.h);
-					}
-
-					insert(y);
+				if (y.t == Tag.NEW || (y.b == x && y.h != h)
+						|| (y.b != x && y.h > h)) {
+					y.b = x;
+					insert(y, h);
 				}
-				// L34 -
-				else {
-					if (y.b != x && y.h > x.h + c(x, y)) {
-						// L37 - L42
-						if (x.p >= x.h) {
-							y.b = x;
-							y.h = x.h + c(x, y);
-
-							if (y.t == Tag.CLOSED)
-								y.p = y.h;
-
-							assert !Double.isNaN(y.h);
-							insert(y);
-						}
-						// L43 - 46
-						else {
-							x.p = x.h;
-							insert(x);
-						}
-					}
-					// L47 - 54
-					else {
-						if (y.b != x && x.h > y.h + c(y, x)
-								&& y.t == Tag.CLOSED && y.h > kOld) {
-							y.p = y.h;
-
-							assert !Double.isNaN(y.h);
-							insert(y);
-						}
-					}
+			}
+		}
+		// L11 - L18: RAISE state, propagate the raise to the descendants and
+		// put back in the open list the states able to lower it
+		else {
+			for (State y : x) {
+				double h = x.h + c(x, y);
+
+				if (y.t == Tag.NEW || (y.b == x && y.h != h)) {
+					y.b = x;
+					insert(y, h);
+				} else if (y.b != x && y.h > h) {
+					insert(x, x.h);
+				} else if (y.b != x && x.h > y.h + c(y, x)
+						&& y.t == Tag.CLOSED && y.h > kOld) {
+					insert(y, y.h);
 				}
 			}
 		}
 
+		// L19
 		return getKMin();
 	}
 
@@ -232,13 +220,8 @@ public class DStar implements DynamicAlgorithm, Sink {
 		if (e != null)
 			e.setAttribute(COST_ATTRIBUTE, cval);
 
-		if (x.b == y)
-			x.b = null;
-		
-		if (x.t == Tag.CLOSED) {
-			x.p = x.h;
-			insert(x);
-		}
+		if (x.t == Tag.CLOSED)
+			insert(x, x.h);
 	}
 
 	public State getState(Node n) {
@@ -256,33 +239,134 @@ public class DStar implements DynamicAlgorithm, Sink {
 		Edge e = x.node.getEdgeBetween(y.node);
 
 		if (e != null) {
-			if (e.hasNumber(COST_ATTRIBUTE))
-				return e.getNumber(COST_ATTRIBUTE);
-			else
+			if (e.hasNumber(COST_ATTRIBUTE)) {
+				double cost = e.getNumber(COST_ATTRIBUTE);
+				// removed edges have a NaN cost
+				return Double.isNaN(cost) ? Double.POSITIVE_INFINITY : cost;
+			} else
 				return defaultEdgeWeight;
 		}
 
-		return Double.NaN;
-	}
+		return Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Put a state in the open list with a new h value. Its key is the smallest
+	 * h value it had since it was last removed from the open list, so that a
+	 * raised state is processed before the states depending on it.
+	 */
+	protected void insert(State x, double hNew) {
+		switch (x.t) {
+		case NEW:
+			x.key = hNew;
+			break;
+		case OPEN:
+			x.key = Math.min(x.key, hNew);
+			break;
+		default:
+			x.key = Math.min(x.h, hNew);
+			break;
+		}
 
-	protected double k(State x) {
-		if (x.t != Tag.OPEN)
-			return Double.NaN;
+		x.h = hNew;
+		x.p = x.key;
+		x.t = Tag.OPEN;
 
-		return Math.min(x.h, x.p);
-	}
+		if (x.heapIndex < 0) {
+			if (openSize == openList.length)
+				openList = Arrays.copyOf(openList, 2 * openSize);
 
-	protected void insert(State x) {
-		openList.add(x);
-		x.t = Tag.OPEN;
-		x.p = x.h;
+			x.heapIndex = openSize;
+			openList[openSize++] = x;
+			siftUp(x.heapIndex);
+		} else {
+			siftDown(siftUp(x.heapIndex));
+		}
 	}
 
 	protected void delete(State x) {
-		openList.remove(x);
+		if (x.heapIndex >= 0) {
+			int i = x.heapIndex;
+			State last = openList[--openSize];
+			openList[openSize] = null;
+			x.heapIndex = -1;
+
+			if (last != x) {
+				openList[i] = last;
+				last.heapIndex = i;
+				siftDown(siftUp(i));
+			}
+		}
+
 		x.t = Tag.CLOSED;
 	}
 
+	/**
+	 * Moves a state of the open list toward the root of the heap until its
+	 * parent has a smaller key.
+	 * 
+	 * @param i
+	 *            position of the state in the heap
+	 * @return the new position of the state
+	 */
+	protected int siftUp(int i) {
+		State x = openList[i];
+
+		while (i > 0) {
+			int parent = (i - 1) >> 1;
+			State y = openList[parent];
+
+			if (y.key <= x.key)
+				break;
+
+			openList[i] = y;
+			y.heapIndex = i;
+			i = parent;
+		}
+
+		openList[i] = x;
+		x.heapIndex = i;
+
+		return i;
+	}
+
+	/**
+	 * Moves a state of the open list toward the leaves of the heap until its
+	 * children have greater keys.
+	 * 
+	 * @param i
+	 *            position of the state in the heap
+	 * @return the new position of the state
+	 */
+	protected int siftDown(int i) {
+		State x = openList[i];
+
+		while (true) {
+			int child = 2 * i + 1;
+
+			if (child >= openSize)
+				break;
+
+			if (child + 1 < openSize
+					&& openList[child + 1].key < openList[child].key)
+				child++;
+
+			State y = openList[child];
+
+			if (x.key <= y.key)
+				break;
+
+			openList[i] = y;
+			y.heapIndex = i;
+			i = child;
+		}
+
+		openList[i] = x;
+		x.heapIndex = i;
+
+		return i;
+	}
+
 	protected boolean isMonotonic(State xn, int n) {
 		State xi1 = xn;
 		State xi = xi1.b;
@@ -342,12 +426,23 @@ public class DStar implements DynamicAlgorithm, Sink {
 		 */
 		double h;
 
+		/**
+		 * Key k(x) when the state was inserted in the open list
+		 */
+		double key;
+
+		/**
+		 * Position in the open list, -1 if the state is not in it
+		 */
+		int heapIndex;
+
 		public State(Node node) {
 			this.node = node;
 			t = Tag.NEW;
 			b = null;
 			p = 0;
 			h = 0;
+			heapIndex = -1;
 		}
 
 		public Iterator<State> iterator() {
@@ -0,0 +1,856 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm;
+
+import static org.graphstream.algorithm.Toolkit.nodePosition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.Path;
+import org.graphstream.stream.SinkAdapter;
+
+/**
+ * An implementation of the D* Lite algorithm.
+ * 
+ * <p>
+ * D* Lite maintains a shortest path from a moving source to a fixed target
+ * while the costs of the edges change. Like {@link DStar}, the search runs
+ * backward from the target, so that the distances already computed stay valid
+ * when the source moves. It is built on Lifelong Planning A* : each node has a
+ * value g, its current distance to the target, and a one-step lookahead value
+ * rhs computed from the g values of its successors. Only the nodes where these
+ * two values differ are put in the priority queue, so after a change only the
+ * part of the search tree affected by it is expanded again.
+ * </p>
+ * 
+ * <p>
+ * The algorithm listens to the graph. Changes of the weight attribute, edge
+ * additions and edge removals are recorded and taken into account at the next
+ * call to {@link #compute()}. The source can be moved with
+ * {@link #setSource(Node)}. The g and rhs values, the keys and the priority
+ * queue are stored in primitive arrays indexed by the node indices. If the
+ * source or the target is removed, or the graph is cleared, the state is
+ * dropped and {@link #compute()} and {@link #getPath()} fail until the
+ * algorithm is initialized again.
+ * </p>
+ * 
+ * <h2>Heuristic</h2>
+ * 
+ * <p>
+ * The priority of a node is biased by the Euclidean distance between this node
+ * and the source, computed from the "xyz", "xy" or "x", "y" and "z" attributes
+ * of the nodes and multiplied by a heuristic weight (1 by default). The result
+ * is exact as long as this heuristic never overestimates the cost of a path,
+ * which is the case when the weight of each edge is at least the heuristic
+ * weight times its length. If the nodes have no position, set the heuristic
+ * weight to 0. Node positions are read once, the first time they are needed.
+ * </p>
+ * 
+ * <h2>Example</h2>
+ * 
+ * <pre>
+ * DStarLite dstar = new DStarLite(&quot;weight&quot;);
+ * dstar.init(source, target, graph);
+ * dstar.compute();
+ * 
+ * graph.getEdge(&quot;AB&quot;).setAttribute(&quot;weight&quot;, 10);
+ * dstar.compute();
+ * 
+ * System.out.println(dstar.getPath());
+ * </pre>
+ * 
+ * @reference S. Koenig and M. Likhachev, "D* Lite", Proceedings of the AAAI
+ *            Conference on Artificial Intelligence, 2002, 476–483
+ * @reference S. Koenig, M. Likhachev and D. Furcy, "Lifelong Planning A*",
+ *            Artificial Intelligence 155 (1-2), 2004, 93–146
+ */
+public class DStarLite extends SinkAdapter implements DynamicAlgorithm {
+	/**
+	 * Weight of edges without weight attribute.
+	 */
+	protected double defaultEdgeWeight;
+
+	/**
+	 * Attribute holding the weight of the edges.
+	 */
+	protected String edgeWeightAttribute;
+
+	/**
+	 * Factor applied to the Euclidean distance in the heuristic.
+	 */
+	protected double heuristicWeight;
+
+	protected Graph graph;
+	protected Node source, target;
+
+	/**
+	 * Last source used in the keys, see {@link #setSource(Node)}.
+	 */
+	protected Node lastSource;
+
+	/**
+	 * Key modifier, sum of the heuristic distances between the successive
+	 * positions of the source.
+	 */
+	protected double km;
+
+	/**
+	 * Current distance of each node to the target.
+	 */
+	protected double[] g;
+
+	/**
+	 * One-step lookahead distance of each node to the target.
+	 */
+	protected double[] rhs;
+
+	/**
+	 * Keys of the nodes in the queue, compared in lexicographic order.
+	 */
+	protected double[] key1, key2;
+
+	/**
+	 * Priority queue, as a binary heap of node indices.
+	 */
+	protected int[] heap;
+
+	/**
+	 * Position of each node in the heap, -1 if it is not in the queue.
+	 */
+	protected int[] heapIndex;
+
+	/**
+	 * Number of nodes in the queue.
+	 */
+	protected int heapSize;
+
+	/**
+	 * Cached positions of the nodes.
+	 */
+	protected double[] x, y, z;
+
+	/**
+	 * Tells if the position of a node has already been read.
+	 */
+	protected boolean[] positioned;
+
+	/**
+	 * Nodes whose outgoing edges changed since the last computation.
+	 */
+	protected ArrayList<Node> changed;
+
+	/**
+	 * Marks the nodes already in {@link #changed}.
+	 */
+	protected boolean[] isChanged;
+
+	/**
+	 * Tells if the source or the target has been removed from the graph since
+	 * the algorithm was initialized.
+	 */
+	protected boolean lost;
+
+	/**
+	 * Number of nodes expanded since the algorithm was initialized.
+	 */
+	protected long expandedCount;
+
+	/**
+	 * Number of edge changes received since the algorithm was initialized.
+	 */
+	protected long changeCount;
+
+	private final double[] xyz = new double[3];
+
+	/**
+	 * Build a new D* Lite algorithm using the "weight" attribute of the
+	 * edges.
+	 */
+	public DStarLite() {
+		this("weight");
+	}
+
+	/**
+	 * Build a new D* Lite algorithm.
+	 * 
+	 * @param edgeWeightAttribute
+	 *            attribute holding the weight of the edges
+	 */
+	public DStarLite(String edgeWeightAttribute) {
+		this.edgeWeightAttribute = edgeWeightAttribute;
+		this.defaultEdgeWeight = 1;
+		this.heuristicWeight = 1;
+		this.changed = new ArrayList<Node>();
+	}
+
+	/**
+	 * Set the weight of edges without weight attribute.
+	 * 
+	 * @param defaultEdgeWeight
+	 *            the default weight
+	 */
+	public void setDefaultEdgeWeight(double defaultEdgeWeight) {
+		this.defaultEdgeWeight = defaultEdgeWeight;
+	}
+
+	/**
+	 * Set the factor applied to the Euclidean distance in the heuristic. Use 0
+	 * to disable the heuristic. This should be done before the first
+	 * computation.
+	 * 
+	 * @param heuristicWeight
+	 *            a non negative factor
+	 */
+	public void setHeuristicWeight(double heuristicWeight) {
+		this.heuristicWeight = heuristicWeight;
+	}
+
+	/**
+	 * Number of nodes expanded since the algorithm was initialized. A node is
+	 * expanded each time its g value is updated.
+	 * 
+	 * @return the number of expanded nodes
+	 */
+	public long getExpandedCount() {
+		return expandedCount;
+	}
+
+	/**
+	 * Number of edge changes (weight changes, additions and removals) received
+	 * since the algorithm was initialized.
+	 * 
+	 * @return the number of changes
+	 */
+	public long getChangeCount() {
+		return changeCount;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.graphstream.algorithm.Algorithm#init(org.graphstream.graph.Graph)
+	 */
+	public void init(Graph graph) {
+		if (this.graph != null)
+			this.graph.removeSink(this);
+
+		this.graph = graph;
+
+		int n = graph.getNodeCount();
+		int capacity = Math.max(16, n);
+
+		g = new double[capacity];
+		rhs = new double[capacity];
+		key1 = new double[capacity];
+		key2 = new double[capacity];
+		heap = new int[capacity];
+		heapIndex = new int[capacity];
+		x = new double[capacity];
+		y = new double[capacity];
+		z = new double[capacity];
+		positioned = new boolean[capacity];
+		isChanged = new boolean[capacity];
+
+		for (int i = 0; i < n; i++)
+			resetNode(i);
+
+		heapSize = 0;
+		changed.clear();
+		km = 0;
+		lost = false;
+		expandedCount = 0;
+		changeCount = 0;
+
+		if (target != null && target.getGraph() == graph
+				&& graph.getNode(target.getIndex()) == target) {
+			int t = target.getIndex();
+			rhs[t] = 0;
+			insert(t);
+		} else
+			target = null;
+
+		lastSource = source;
+		graph.addSink(this);
+	}
+
+	/**
+	 * Initialize the algorithm with a source and a target.
+	 * 
+	 * @param source
+	 *            the node from where paths start
+	 * @param target
+	 *            the node where paths end
+	 * @param graph
+	 *            the graph
+	 */
+	public void init(Node source, Node target, Graph graph) {
+		this.source = source;
+		this.target = target;
+		init(graph);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.graphstream.algorithm.DynamicAlgorithm#terminate()
+	 */
+	public void terminate() {
+		graph.removeSink(this);
+	}
+
+	/**
+	 * Move the source. The distances computed so far stay valid; only the
+	 * keys of the queue are shifted by the heuristic distance between the old
+	 * and the new source.
+	 * 
+	 * @param source
+	 *            the new source
+	 */
+	public void setSource(Node source) {
+		if (lastSource != null && source != null)
+			km += heuristic(lastSource.getIndex(), source.getIndex());
+
+		this.source = source;
+		this.lastSource = source;
+	}
+
+	/**
+	 * The source of the paths.
+	 * 
+	 * @return the source
+	 */
+	public Node getSource() {
+		return source;
+	}
+
+	/**
+	 * The target of the paths.
+	 * 
+	 * @return the target
+	 */
+	public Node getTarget() {
+		return target;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.graphstream.algorithm.Algorithm#compute()
+	 */
+	public void compute() {
+		checkState();
+
+		int t = target.getIndex();
+
+		for (int i = 0; i < changed.size(); i++) {
+			int u = changed.get(i).getIndex();
+
+			isChanged[u] = false;
+
+			if (u != t) {
+				rhs[u] = lookahead(u);
+				updateNode(u);
+			}
+		}
+
+		changed.clear();
+
+		int s = source.getIndex();
+
+		while (heapSize > 0
+				&& (compareTop(s) < 0 || rhs[s] > g[s])) {
+			int u = heap[0];
+			double k1 = key1[u], k2 = key2[u];
+
+			computeKey(u);
+
+			if (k1 < key1[u] || (k1 == key1[u] && k2 < key2[u])) {
+				siftDown(0);
+				continue;
+			}
+
+			Node node = graph.getNode(u);
+			expandedCount++;
+
+			if (g[u] > rhs[u]) {
+				g[u] = rhs[u];
+				remove(u);
+
+				Iterator<Edge> it = node.getEnteringEdgeIterator();
+
+				while (it.hasNext()) {
+					Edge e = it.next();
+					int p = e.getOpposite(node).getIndex();
+
+					if (p != t) {
+						double d = weight(e) + g[u];
+
+						if (d < rhs[p]) {
+							rhs[p] = d;
+							updateNode(p);
+						}
+					}
+				}
+			} else {
+				double gOld = g[u];
+				g[u] = Double.POSITIVE_INFINITY;
+
+				Iterator<Edge> it = node.getEnteringEdgeIterator();
+
+				while (it.hasNext()) {
+					Edge e = it.next();
+					int p = e.getOpposite(node).getIndex();
+
+					if (p != t && rhs[p] == weight(e) + gOld) {
+						rhs[p] = lookahead(p);
+						updateNode(p);
+					}
+				}
+
+				if (u != t)
+					rhs[u] = lookahead(u);
+
+				updateNode(u);
+			}
+		}
+	}
+
+	/**
+	 * Length of the shortest path from the source to the target, infinite if
+	 * there is no such path.
+	 * 
+	 * @return the length of the path
+	 */
+	public double getPathLength() {
+		checkState();
+
+		// The search stops as soon as the one-step lookahead value of the
+		// source is exact, its g value can still be outdated.
+		return rhs[source.getIndex()];
+	}
+
+	/**
+	 * The shortest path from the source to the target, empty if there is no
+	 * such path. It is built by following, from the source, the edges
+	 * minimizing the weight plus the distance to the target.
+	 * 
+	 * @return the path
+	 */
+	public Path getPath() {
+		Path path = new Path();
+
+		if (Double.isInfinite(getPathLength()))
+			return path;
+
+		Node u = source;
+		path.setRoot(u);
+
+		while (u != target) {
+			Edge best = null;
+			double min = Double.POSITIVE_INFINITY;
+			Iterator<Edge> it = u.getLeavingEdgeIterator();
+
+			while (it.hasNext()) {
+				Edge e = it.next();
+				double d = weight(e) + g[e.getOpposite(u).getIndex()];
+
+				if (d < min) {
+					min = d;
+					best = e;
+				}
+			}
+
+			if (best == null || path.size() > graph.getNodeCount())
+				throw new IllegalStateException(
+						"path is not up to date, call compute() first");
+
+			path.add(best);
+			u = best.getOpposite(u);
+		}
+
+		return path;
+	}
+
+	/**
+	 * Throws an exception if the source or the target is missing.
+	 */
+	protected void checkState() {
+		if (lost)
+			throw new IllegalStateException(
+					"the source or the target has been removed");
+		if (source == null || target == null)
+			throw new IllegalStateException("source or target not set");
+	}
+
+	/**
+	 * Drop the state of the search once the source or the target has been
+	 * removed. Reported by {@link #checkState()}.
+	 */
+	protected void lose() {
+		int n = graph.getNodeCount();
+
+		for (int i = 0; i < n; i++)
+			resetNode(i);
+
+		heapSize = 0;
+		changed.clear();
+		km = 0;
+		source = null;
+		target = null;
+		lastSource = null;
+		lost = true;
+	}
+
+	/**
+	 * Weight of an edge.
+	 * 
+	 * @param e
+	 *            an edge
+	 * @return the weight of the edge
+	 */
+	protected double weight(Edge e) {
+		if (edgeWeightAttribute != null && e.hasNumber(edgeWeightAttribute))
+			return e.getNumber(edgeWeightAttribute);
+
+		return defaultEdgeWeight;
+	}
+
+	/**
+	 * Minimum, over the outgoing edges of a node, of the weight of the edge
+	 * plus the distance of its end to the target.
+	 */
+	protected double lookahead(int u) {
+		Node node = graph.getNode(u);
+		double min = Double.POSITIVE_INFINITY;
+		Iterator<Edge> it = node.getLeavingEdgeIterator();
+
+		while (it.hasNext()) {
+			Edge e = it.next();
+			double d = weight(e) + g[e.getOpposite(node).getIndex()];
+
+			if (d < min)
+				min = d;
+		}
+
+		return min;
+	}
+
+	/**
+	 * Heuristic distance between two nodes.
+	 */
+	protected double heuristic(int u, int v) {
+		if (heuristicWeight == 0)
+			return 0;
+
+		readPosition(u);
+		readPosition(v);
+
+		double dx = x[u] - x[v];
+		double dy = y[u] - y[v];
+		double dz = z[u] - z[v];
+
+		return heuristicWeight * Math.sqrt(dx * dx + dy * dy + dz * dz);
+	}
+
+	protected void readPosition(int u) {
+		if (!positioned[u]) {
+			xyz[0] = xyz[1] = xyz[2] = 0;
+			nodePosition(graph.getNode(u), xyz);
+
+			x[u] = xyz[0];
+			y[u] = xyz[1];
+			z[u] = xyz[2];
+			positioned[u] = true;
+		}
+	}
+
+	protected void computeKey(int u) {
+		double m = Math.min(g[u], rhs[u]);
+
+		key1[u] = m + km;
+
+		if (source != null)
+			key1[u] += heuristic(source.getIndex(), u);
+
+		key2[u] = m;
+	}
+
+	/**
+	 * Compare the key of the top of the queue with the key of a node.
+	 */
+	protected int compareTop(int u) {
+		double m = Math.min(g[u], rhs[u]);
+		double k1 = m + km;
+		int top = heap[0];
+
+		if (key1[top] != k1)
+			return key1[top] < k1 ? -1 : 1;
+
+		if (key2[top] != m)
+			return key2[top] < m ? -1 : 1;
+
+		return 0;
+	}
+
+	/**
+	 * Put a node in the queue if it is locally inconsistent, remove it
+	 * otherwise.
+	 */
+	protected void updateNode(int u) {
+		if (g[u] != rhs[u]) {
+			computeKey(u);
+
+			if (heapIndex[u] < 0)
+				insert(u);
+			else
+				siftDown(siftUp(heapIndex[u]));
+		} else if (heapIndex[u] >= 0)
+			remove(u);
+	}
+
+	protected void resetNode(int u) {
+		g[u] = Double.POSITIVE_INFINITY;
+		rhs[u] = Double.POSITIVE_INFINITY;
+		heapIndex[u] = -1;
+		positioned[u] = false;
+		isChanged[u] = false;
+	}
+
+	protected boolean less(int u, int v) {
+		return key1[u] < key1[v] || (key1[u] == key1[v] && key2[u] < key2[v]);
+	}
+
+	protected void insert(int u) {
+		computeKey(u);
+		heapIndex[u] = heapSize;
+		heap[heapSize++] = u;
+		siftUp(heapSize - 1);
+	}
+
+	protected void remove(int u) {
+		int i = heapIndex[u];
+		int last = heap[--heapSize];
+
+		heapIndex[u] = -1;
+
+		if (last != u) {
+			heap[i] = last;
+			heapIndex[last] = i;
+			siftDown(siftUp(i));
+		}
+	}
+
+	protected int siftUp(int i) {
+		int u = heap[i];
+
+		while (i > 0) {
+			int parent = (i - 1) >> 1;
+			int v = heap[parent];
+
+			if (!less(u, v))
+				break;
+
+			heap[i] = v;
+			heapIndex[v] = i;
+			i = parent;
+		}
+
+		heap[i] = u;
+		heapIndex[u] = i;
+
+		return i;
+	}
+
+	protected int siftDown(int i) {
+		int u = heap[i];
+
+		while (true) {
+			int child = 2 * i + 1;
+
+			if (child >= heapSize)
+				break;
+
+			if (child + 1 < heapSize && less(heap[child + 1], heap[child]))
+				child++;
+
+			int v = heap[child];
+
+			if (!less(v, u))
+				break;
+
+			heap[i] = v;
+			heapIndex[v] = i;
+			i = child;
+		}
+
+		heap[i] = u;
+		heapIndex[u] = i;
+
+		return i;
+	}
+
+	/**
+	 * Record that the outgoing edges of a node changed.
+	 */
+	protected void changed(Node node) {
+		int u = node.getIndex();
+
+		if (!isChanged[u]) {
+			isChanged[u] = true;
+			changed.add(node);
+		}
+	}
+
+	protected void edgeChanged(Edge e) {
+		changeCount++;
+		changed(e.getSourceNode());
+
+		if (!e.isDirected())
+			changed(e.getTargetNode());
+	}
+
+	protected void ensureCapacity(int n) {
+		if (n > g.length) {
+			int capacity = Math.max(n, 2 * g.length);
+
+			g = Arrays.copyOf(g, capacity);
+			rhs = Arrays.copyOf(rhs, capacity);
+			key1 = Arrays.copyOf(key1, capacity);
+			key2 = Arrays.copyOf(key2, capacity);
+			heap = Arrays.copyOf(heap, capacity);
+			heapIndex = Arrays.copyOf(heapIndex, capacity);
+			x = Arrays.copyOf(x, capacity);
+			y = Arrays.copyOf(y, capacity);
+			z = Arrays.copyOf(z, capacity);
+			positioned = Arrays.copyOf(positioned, capacity);
+			isChanged = Arrays.copyOf(isChanged, capacity);
+		}
+	}
+
+	@Override
+	public void edgeAttributeAdded(String sourceId, long timeId,
+			String edgeId, String attribute, Object value) {
+		if (attribute.equals(edgeWeightAttribute))
+			edgeChanged(graph.getEdge(edgeId));
+	}
+
+	@Override
+	public void edgeAttributeChanged(String sourceId, long timeId,
+			String edgeId, String attribute, Object oldValue, Object newValue) {
+		if (attribute.equals(edgeWeightAttribute))
+			edgeChanged(graph.getEdge(edgeId));
+	}
+
+	@Override
+	public void edgeAttributeRemoved(String sourceId, long timeId,
+			String edgeId, String attribute) {
+		if (attribute.equals(edgeWeightAttribute))
+			edgeChanged(graph.getEdge(edgeId));
+	}
+
+	@Override
+	public void edgeAdded(String sourceId, long timeId, String edgeId,
+			String fromNodeId, String toNodeId, boolean directed) {
+		edgeChanged(graph.getEdge(edgeId));
+	}
+
+	@Override
+	public void edgeRemoved(String sourceId, long timeId, String edgeId) {
+		// The edge is still in the graph at this point, the affected nodes
+		// are updated at the next computation.
+		edgeChanged(graph.getEdge(edgeId));
+	}
+
+	@Override
+	public void nodeAdded(String sourceId, long timeId, String nodeId) {
+		int u = graph.getNode(nodeId).getIndex();
+
+		ensureCapacity(u + 1);
+		resetNode(u);
+	}
+
+	@Override
+	public void nodeRemoved(String sourceId, long timeId, String nodeId) {
+		Node node = graph.getNode(nodeId);
+
+		if (node == source || node == target) {
+			// the node is still in the graph, its slot is reset too
+			lose();
+			return;
+		}
+
+		int u = node.getIndex();
+		int last = graph.getNodeCount() - 1;
+
+		if (heapIndex[u] >= 0)
+			remove(u);
+
+		if (isChanged[u])
+			changed.remove(node);
+
+		//
+		// Once removed, the node is replaced by the last one.
+		//
+		if (u != last) {
+			g[u] = g[last];
+			rhs[u] = rhs[last];
+			key1[u] = key1[last];
+			key2[u] = key2[last];
+			x[u] = x[last];
+			y[u] = y[last];
+			z[u] = z[last];
+			positioned[u] = positioned[last];
+			isChanged[u] = isChanged[last];
+			heapIndex[u] = heapIndex[last];
+
+			if (heapIndex[u] >= 0)
+				heap[heapIndex[u]] = u;
+		}
+
+		resetNode(last);
+	}
+
+	@Override
+	public void graphCleared(String sourceId, long timeId) {
+		if (source != null || target != null)
+			lose();
+		else {
+			heapSize = 0;
+			changed.clear();
+		}
+	}
+}
@@ -0,0 +1,762 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.stream.SinkAdapter;
+
+/**
+ * Minimum spanning forest maintained dynamically.
+ * 
+ * <p>
+ * Unlike {@link Kruskal} and {@link Prim}, this algorithm does not need to be
+ * recomputed when the graph changes. After the first call to
+ * {@link #compute()}, it listens to the graph events and updates the tree
+ * incrementally when edges and nodes are added or removed and when the weight
+ * attribute of an edge changes. The flag attribute of the edges and the value
+ * returned by {@link #getTreeWeight()} are always up to date.
+ * </p>
+ * 
+ * <p>
+ * The forest is stored in a link-cut tree where each tree edge is represented
+ * by a vertex carrying its weight. When an edge is inserted between two nodes
+ * already connected, the heaviest edge on the tree path between them is found
+ * with a path-max query and replaced by the new edge if it is heavier. When a
+ * tree edge is removed, the two sides of the tree are explored simultaneously
+ * along the tree edges and the lightest non-tree edge incident to the smaller
+ * side is used as replacement. Each node keeps its tree and non-tree edges
+ * apart so that neither step looks at the edges it does not need.
+ * </p>
+ * 
+ * <p>
+ * Increasing the weight of a tree edge is handled as a removal followed by a
+ * replacement search, decreasing the weight of a non-tree edge as an
+ * insertion. Other weight changes only update the tree weight.
+ * </p>
+ * 
+ * <h2>Example</h2>
+ * 
+ * <pre>
+ * DynamicSpanningTree dst = new DynamicSpanningTree(&quot;weight&quot;, &quot;ui.class&quot;,
+ * 		&quot;intree&quot;, &quot;notintree&quot;);
+ * 
+ * dst.init(graph);
+ * dst.compute();
+ * 
+ * // from now on the tree follows the changes of the graph
+ * graph.getEdge(&quot;AB&quot;).setAttribute(&quot;weight&quot;, 12);
+ * graph.removeEdge(&quot;CD&quot;);
+ * System.out.println(dst.getTreeWeight());
+ * 
+ * dst.terminate();
+ * </pre>
+ * 
+ * @complexity The initial computation is O(m log n). An edge insertion and a
+ *             weight decrease take O(log n) amortized time. The removal of a
+ *             tree edge takes O(log n) plus the size of the smaller of the two
+ *             resulting trees and the number of non-tree edges incident to its
+ *             nodes. Removing a non-tree edge takes O(1).
+ * @reference Daniel D. Sleator, Robert E. Tarjan: A Data Structure for Dynamic
+ *            Trees. In: Journal of Computer and System Sciences, Vol. 26, No.
+ *            3 (1983), pp. 362–391
+ * @see org.graphstream.algorithm.Kruskal
+ */
+public class DynamicSpanningTree extends AbstractSpanningTree implements
+		DynamicAlgorithm {
+	/**
+	 * Default weight attribute
+	 */
+	public static final String DEFAULT_WEIGHT_ATTRIBUTE = "weight";
+
+	/**
+	 * Attribute where the weights of the edges are stored
+	 */
+	protected String weightAttribute;
+
+	/**
+	 * The link-cut tree vertices associated to the nodes, by node id.
+	 */
+	protected HashMap<String, Vertex> vertices;
+
+	/**
+	 * State of each edge of the graph, by edge id.
+	 */
+	protected HashMap<String, EdgeData> edgeData;
+
+	/**
+	 * The edges of the tree.
+	 */
+	protected Set<Edge> treeEdges;
+
+	/**
+	 * The weight of the spanning tree
+	 */
+	protected double treeWeight;
+
+	/**
+	 * Used to mark the nodes during the replacement search.
+	 */
+	protected int currentMark;
+
+	/**
+	 * Flag used to tell if the {@link #compute()} method has already been
+	 * called.
+	 */
+	protected boolean started;
+
+	/**
+	 * Receives the graph events.
+	 */
+	protected GraphListener listener;
+
+	/**
+	 * Create a new dynamic spanning tree algorithm. Uses the default weight
+	 * attribute and does not tag the edges.
+	 */
+	public DynamicSpanningTree() {
+		this(DEFAULT_WEIGHT_ATTRIBUTE, null);
+	}
+
+	/**
+	 * Create a new dynamic spanning tree algorithm. The value of the flag
+	 * attribute is {@code true} for the tree edges and false for the non-tree
+	 * edges.
+	 * 
+	 * @param weightAttribute
+	 *            attribute used to compare edges
+	 * @param flagAttribute
+	 *            attribute used to set if an edge is in the spanning tree
+	 */
+	public DynamicSpanningTree(String weightAttribute, String flagAttribute) {
+		this(weightAttribute, flagAttribute, true, false);
+	}
+
+	/**
+	 * Create a new dynamic spanning tree algorithm.
+	 * 
+	 * @param weightAttribute
+	 *            attribute used to compare edges
+	 * @param flagAttribute
+	 *            attribute used to set if an edge is in the spanning tree
+	 * @param flagOn
+	 *            value of the <i>flagAttribute</i> if edge is in the spanning
+	 *            tree
+	 * @param flagOff
+	 *            value of the <i>flagAttribute</i> if edge is not in the
+	 *            spanning tree
+	 */
+	public DynamicSpanningTree(String weightAttribute, String flagAttribute,
+			Object flagOn, Object flagOff) {
+		super(flagAttribute, flagOn, flagOff);
+
+		this.weightAttribute = weightAttribute;
+		vertices = new HashMap<String, Vertex>();
+		edgeData = new HashMap<String, EdgeData>();
+		treeEdges = new LinkedHashSet<Edge>();
+		listener = new GraphListener();
+	}
+
+	/**
+	 * Get weight attribute used to compare edges.
+	 * 
+	 * @return weight attribute
+	 */
+	public String getWeightAttribute() {
+		return weightAttribute;
+	}
+
+	/**
+	 * Returns the total weight of the minimum spanning tree
+	 * 
+	 * @return The sum of the weights of the edges in the spanning tree
+	 */
+	public double getTreeWeight() {
+		return treeWeight;
+	}
+
+	/**
+	 * Number of edges in the spanning forest.
+	 * 
+	 * @return the number of tree edges
+	 */
+	public int getTreeEdgeCount() {
+		return treeEdges.size();
+	}
+
+	// Algorithm interface
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.graphstream.algorithm.AbstractSpanningTree#init(org.graphstream.graph
+	 * .Graph)
+	 */
+	@Override
+	public void init(Graph graph) {
+		if (this.graph != null)
+			this.graph.removeSink(listener);
+
+		super.init(graph);
+		started = false;
+		graph.addSink(listener);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.graphstream.algorithm.DynamicAlgorithm#terminate()
+	 */
+	public void terminate() {
+		if (graph != null) {
+			graph.removeSink(listener);
+			reset();
+			graph = null;
+		}
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		reset();
+	}
+
+	@Override
+	protected void makeTree() {
+		reset();
+
+		for (Node node : graph)
+			vertices.put(node.getId(), new Vertex(null));
+
+		List<EdgeData> sorted = new ArrayList<EdgeData>(graph.getEdgeCount());
+		for (Edge edge : graph.getEachEdge()) {
+			EdgeData data = new EdgeData(edge);
+			edgeData.put(edge.getId(), data);
+			sorted.add(data);
+		}
+		Collections.sort(sorted, new Comparator<EdgeData>() {
+			public int compare(EdgeData d0, EdgeData d1) {
+				return Double.compare(d0.weight, d1.weight);
+			}
+		});
+
+		// Kruskal like: processing edges by increasing weights never
+		// requires to remove a tree edge
+		for (EdgeData data : sorted)
+			if (data.v0 != data.v1 && !connected(data.v0, data.v1))
+				addToTree(data);
+
+		started = true;
+	}
+
+	@Override
+	public <T extends Edge> Iterator<T> getTreeEdgesIterator() {
+		return new TreeIterator<T>();
+	}
+
+	// Dynamic updates
+
+	/**
+	 * Insert a new edge, replacing the heaviest edge of the cycle it closes if
+	 * necessary.
+	 */
+	protected void insertEdge(EdgeData data) {
+		if (data.v0 == data.v1)
+			return;
+
+		if (!connected(data.v0, data.v1)) {
+			addToTree(data);
+			return;
+		}
+
+		Vertex max = pathMax(data.v0, data.v1);
+		if (max.edge != null && max.value > data.weight) {
+			removeFromTree(max.edge);
+			addToTree(data);
+		}
+	}
+
+	/**
+	 * Remove an edge from the tree and reconnect its two sides with the
+	 * lightest non-tree edge between them, if any.
+	 */
+	protected void deleteTreeEdge(EdgeData data) {
+		removeFromTree(data);
+
+		EdgeData replacement = findReplacement(data);
+		if (replacement != null)
+			addToTree(replacement);
+	}
+
+	/**
+	 * Search the lightest edge reconnecting the two trees obtained after the
+	 * removal of an edge. The two trees are explored in parallel along the
+	 * tree edges only, so that only the smaller one is completely visited, then
+	 * the non-tree edges of the smaller one are scanned.
+	 */
+	protected EdgeData findReplacement(EdgeData removed) {
+		int mark0 = ++currentMark;
+		int mark1 = ++currentMark;
+
+		List<Vertex> side0 = new ArrayList<Vertex>();
+		List<Vertex> side1 = new ArrayList<Vertex>();
+		side0.add(removed.v0);
+		side1.add(removed.v1);
+		removed.v0.mark = mark0;
+		removed.v1.mark = mark1;
+
+		int i0 = 0, i1 = 0;
+		List<Vertex> smaller;
+		int mark;
+		while (true) {
+			if (i0 == side0.size()) {
+				smaller = side0;
+				mark = mark0;
+				break;
+			}
+			expandTreeNode(side0.get(i0++), side0, mark0);
+
+			if (i1 == side1.size()) {
+				smaller = side1;
+				mark = mark1;
+				break;
+			}
+			expandTreeNode(side1.get(i1++), side1, mark1);
+		}
+
+		EdgeData best = null;
+		for (Vertex v : smaller)
+			for (EdgeData data : v.nonTreeEdges) {
+				Vertex other = data.v0 == v ? data.v1 : data.v0;
+				if (other.mark != mark
+						&& (best == null || data.weight < best.weight))
+					best = data;
+			}
+
+		return best;
+	}
+
+	/**
+	 * Add the unmarked tree neighbors of a node to a side of the replacement
+	 * search.
+	 */
+	protected void expandTreeNode(Vertex v, List<Vertex> side, int mark) {
+		for (EdgeData data : v.treeEdges) {
+			Vertex opposite = data.v0 == v ? data.v1 : data.v0;
+			if (opposite.mark != mark) {
+				opposite.mark = mark;
+				side.add(opposite);
+			}
+		}
+	}
+
+	/**
+	 * Handle a change of the weight of an edge.
+	 */
+	protected void changeWeight(EdgeData data, double weight) {
+		double old = data.weight;
+		if (weight == old)
+			return;
+
+		if (data.inTree) {
+			if (weight < old) {
+				treeWeight += weight - old;
+				data.weight = weight;
+				setValue(data.vertex, weight);
+			} else {
+				removeFromTree(data);
+				data.weight = weight;
+				// the edge itself may still be the best replacement
+				EdgeData replacement = findReplacement(data);
+				if (replacement != null)
+					addToTree(replacement);
+			}
+		} else {
+			data.weight = weight;
+			if (weight < old)
+				insertEdge(data);
+		}
+	}
+
+	protected void addToTree(EdgeData data) {
+		data.inTree = true;
+		data.vertex = new Vertex(data);
+		data.vertex.value = data.weight;
+		link(data.v0, data.vertex);
+		link(data.vertex, data.v1);
+		data.v0.nonTreeEdges.remove(data);
+		data.v1.nonTreeEdges.remove(data);
+		data.v0.treeEdges.add(data);
+		data.v1.treeEdges.add(data);
+
+		treeEdges.add(data.edge);
+		treeWeight += data.weight;
+		edgeOn(data.edge);
+	}
+
+	protected void removeFromTree(EdgeData data) {
+		cut(data.v0, data.vertex);
+		cut(data.vertex, data.v1);
+		data.vertex.edge = null;
+		data.vertex = null;
+		data.inTree = false;
+		data.v0.treeEdges.remove(data);
+		data.v1.treeEdges.remove(data);
+
+		treeEdges.remove(data.edge);
+		treeWeight -= data.weight;
+		// do not tag an edge which is being removed from the graph
+		if (edgeData.get(data.edge.getId()) == data) {
+			data.v0.nonTreeEdges.add(data);
+			data.v1.nonTreeEdges.add(data);
+			edgeOff(data.edge);
+		}
+	}
+
+	protected void reset() {
+		vertices.clear();
+		edgeData.clear();
+		treeEdges.clear();
+		treeWeight = 0;
+		started = false;
+	}
+
+	protected double getWeight(Edge e) {
+		if (weightAttribute == null)
+			return 1.0;
+		double w = e.getNumber(weightAttribute);
+		if (Double.isNaN(w))
+			return 1;
+		return w;
+	}
+
+	// Link-cut tree
+
+	protected static boolean isRoot(Vertex x) {
+		return x.parent == null
+				|| (x.parent.left != x && x.parent.right != x);
+	}
+
+	protected static void push(Vertex x) {
+		if (x.reversed) {
+			Vertex t = x.left;
+			x.left = x.right;
+			x.right = t;
+			if (x.left != null)
+				x.left.reversed = !x.left.reversed;
+			if (x.right != null)
+				x.right.reversed = !x.right.reversed;
+			x.reversed = false;
+		}
+	}
+
+	protected static void update(Vertex x) {
+		x.max = x;
+		if (x.left != null && x.left.max.value > x.max.value)
+			x.max = x.left.max;
+		if (x.right != null && x.right.max.value > x.max.value)
+			x.max = x.right.max;
+	}
+
+	protected static void rotate(Vertex x) {
+		Vertex p = x.parent;
+		Vertex g = p.parent;
+		boolean pRoot = isRoot(p);
+		if (p.left == x) {
+			p.left = x.right;
+			if (x.right != null)
+				x.right.parent = p;
+			x.right = p;
+		} else {
+			p.right = x.left;
+			if (x.left != null)
+				x.left.parent = p;
+			x.left = p;
+		}
+		p.parent = x;
+		x.parent = g;
+		if (!pRoot) {
+			if (g.left == p)
+				g.left = x;
+			else
+				g.right = x;
+		}
+		update(p);
+		update(x);
+	}
+
+	protected static void splay(Vertex x) {
+		// push the pending reversals from the top of the auxiliary tree
+		ArrayList<Vertex> stack = new ArrayList<Vertex>();
+		Vertex y = x;
+		stack.add(y);
+		while (!isRoot(y)) {
+			y = y.parent;
+			stack.add(y);
+		}
+		for (int i = stack.size() - 1; i >= 0; i--)
+			push(stack.get(i));
+
+		while (!isRoot(x)) {
+			Vertex p = x.parent;
+			if (!isRoot(p)) {
+				Vertex g = p.parent;
+				if ((g.left == p) == (p.left == x))
+					rotate(p);
+				else
+					rotate(x);
+			}
+			rotate(x);
+		}
+	}
+
+	protected static void access(Vertex x) {
+		Vertex last = null;
+		for (Vertex y = x; y != null; y = y.parent) {
+			splay(y);
+			y.right = last;
+			update(y);
+			last = y;
+		}
+		splay(x);
+	}
+
+	protected static void makeRoot(Vertex x) {
+		access(x);
+		x.reversed = !x.reversed;
+	}
+
+	protected static Vertex findRoot(Vertex x) {
+		access(x);
+		push(x);
+		while (x.left != null) {
+			x = x.left;
+			push(x);
+		}
+		splay(x);
+		return x;
+	}
+
+	protected static boolean connected(Vertex x, Vertex y) {
+		return x == y || findRoot(x) == findRoot(y);
+	}
+
+	protected static void link(Vertex x, Vertex y) {
+		makeRoot(x);
+		x.parent = y;
+	}
+
+	protected static void cut(Vertex x, Vertex y) {
+		makeRoot(x);
+		access(y);
+		// now x is the left child of y and has no right child
+		y.left.parent = null;
+		y.left = null;
+		update(y);
+	}
+
+	/**
+	 * The vertex with the maximum value on the path between x and y.
+	 */
+	protected static Vertex pathMax(Vertex x, Vertex y) {
+		makeRoot(x);
+		access(y);
+		return y.max;
+	}
+
+	protected static void setValue(Vertex x, double value) {
+		access(x);
+		x.value = value;
+		update(x);
+	}
+
+	/**
+	 * A vertex of the link-cut tree. Nodes of the graph and edges of the tree
+	 * are both represented by vertices. Node vertices have a value of minus
+	 * infinity so that path-max queries always return an edge vertex. They
+	 * also keep their incident tree and non-tree edges apart, self-loops
+	 * excepted, for the replacement search.
+	 */
+	protected static class Vertex {
+		Vertex left, right, parent;
+		boolean reversed;
+		double value;
+		Vertex max;
+		EdgeData edge;
+		int mark;
+		Set<EdgeData> treeEdges;
+		Set<EdgeData> nonTreeEdges;
+
+		Vertex(EdgeData edge) {
+			this.edge = edge;
+			value = Double.NEGATIVE_INFINITY;
+			max = this;
+			if (edge == null) {
+				treeEdges = new LinkedHashSet<EdgeData>();
+				nonTreeEdges = new LinkedHashSet<EdgeData>();
+			}
+		}
+	}
+
+	/**
+	 * The state of an edge of the graph.
+	 */
+	protected class EdgeData {
+		Edge edge;
+		double weight;
+		Vertex v0, v1;
+		boolean inTree;
+		Vertex vertex;
+
+		EdgeData(Edge edge) {
+			this.edge = edge;
+			weight = getWeight(edge);
+			v0 = vertices.get(edge.getNode0().getId());
+			v1 = vertices.get(edge.getNode1().getId());
+			if (v0 != v1) {
+				v0.nonTreeEdges.add(this);
+				v1.nonTreeEdges.add(this);
+			}
+		}
+	}
+
+	protected class TreeIterator<T extends Edge> implements Iterator<T> {
+
+		protected Iterator<Edge> it = treeEdges.iterator();
+
+		public boolean hasNext() {
+			return it.hasNext();
+		}
+
+		@SuppressWarnings("unchecked")
+		public T next() {
+			return (T) it.next();
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException(
+					"This iterator does not support remove.");
+		}
+	}
+
+	/**
+	 * Updates the tree when the graph changes.
+	 */
+	protected class GraphListener extends SinkAdapter {
+		@Override
+		public void nodeAdded(String sourceId, long timeId, String nodeId) {
+			if (started)
+				vertices.put(nodeId, new Vertex(null));
+		}
+
+		@Override
+		public void nodeRemoved(String sourceId, long timeId, String nodeId) {
+			// incident edges have already been removed
+			if (started)
+				vertices.remove(nodeId);
+		}
+
+		@Override
+		public void edgeAdded(String sourceId, long timeId, String edgeId,
+				String fromNodeId, String toNodeId, boolean directed) {
+			if (!started)
+				return;
+			Edge edge = graph.getEdge(edgeId);
+			EdgeData data = new EdgeData(edge);
+			edgeData.put(edgeId, data);
+			edgeOff(edge);
+			insertEdge(data);
+		}
+
+		@Override
+		public void edgeRemoved(String sourceId, long timeId, String edgeId) {
+			if (!started)
+				return;
+			EdgeData data = edgeData.remove(edgeId);
+			if (data == null)
+				return;
+			if (data.inTree)
+				deleteTreeEdge(data);
+			else {
+				data.v0.nonTreeEdges.remove(data);
+				data.v1.nonTreeEdges.remove(data);
+			}
+		}
+
+		@Override
+		public void edgeAttributeAdded(String sourceId, long timeId,
+				String edgeId, String attribute, Object value) {
+			weightChanged(edgeId, attribute);
+		}
+
+		@Override
+		public void edgeAttributeChanged(String sourceId, long timeId,
+				String edgeId, String attribute, Object oldValue,
+				Object newValue) {
+			weightChanged(edgeId, attribute);
+		}
+
+		@Override
+		public void edgeAttributeRemoved(String sourceId, long timeId,
+				String edgeId, String attribute) {
+			weightChanged(edgeId, attribute);
+		}
+
+		@Override
+		public void graphCleared(String sourceId, long timeId) {
+			if (started) {
+				reset();
+				started = true;
+			}
+		}
+
+		protected void weightChanged(String edgeId, String attribute) {
+			if (!started || weightAttribute == null
+					|| !weightAttribute.equals(attribute))
+				return;
+			EdgeData data = edgeData.get(edgeId);
+			if (data != null)
+				changeWeight(data, getWeight(data.edge));
+		}
+	}
+}
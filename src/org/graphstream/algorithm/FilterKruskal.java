@@ -0,0 +1,618 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm;
+
+import java.util.LinkedList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.graphstream.graph.Edge;
+
+/**
+ * Compute a minimum spanning tree using the Filter-Kruskal algorithm.
+ * 
+ * <p>
+ * This is a variant of {@link Kruskal} designed for large graphs. The weights
+ * of the edges are read only once and stored in a primitive array. The edges
+ * are then recursively partitioned around a pivot weight, like in quicksort.
+ * The light part is processed first. Then the edges of the heavy part whose
+ * extremities are already connected by the light part are filtered out before
+ * the heavy part is processed. Only the small partitions are actually sorted.
+ * The sorts and the filtering steps are executed in parallel using a
+ * {@link ForkJoinPool}. Components are maintained in an array based union-find
+ * structure indexed by node indices.
+ * </p>
+ * 
+ * <p>
+ * The result is the same as the one of {@link Kruskal}: the total weight
+ * returned by {@link #getTreeWeight()} is the same and the tree edges are
+ * tagged using the same flag attribute contract. When several edges have the
+ * same weight the chosen tree may differ.
+ * </p>
+ * 
+ * <h2>Example</h2>
+ * 
+ * <pre>
+ * FilterKruskal fk = new FilterKruskal(&quot;weight&quot;, &quot;ui.class&quot;, &quot;intree&quot;,
+ * 		&quot;notintree&quot;);
+ * 
+ * fk.init(graph);
+ * fk.compute();
+ * 
+ * System.out.println(fk.getTreeWeight());
+ * </pre>
+ * 
+ * @complexity O(m + n log n log(m/n)) expected for random weights, where m is
+ *             the number of edges and n is the number of nodes of the graph
+ * @reference Vitaly Osipov, Peter Sanders, Johannes Singler: The
+ *            Filter-Kruskal Minimum Spanning Tree Algorithm. In: Proceedings of
+ *            the 11th Workshop on Algorithm Engineering and Experiments
+ *            (ALENEX), 2009, pp. 52–61
+ * @see org.graphstream.algorithm.Kruskal
+ */
+public class FilterKruskal extends Kruskal {
+	/**
+	 * Ranges smaller than this are sorted, partitioned and filtered
+	 * sequentially.
+	 */
+	protected static final int SEQUENTIAL_THRESHOLD = 8192;
+
+	/**
+	 * Partitions of at most this many edges, or of at most as many edges as
+	 * nodes when there are more nodes, are sorted instead of being partitioned
+	 * further. This is larger than {@link #SEQUENTIAL_THRESHOLD} so that the
+	 * sorts are split in parallel tasks.
+	 */
+	protected static final int KRUSKAL_THRESHOLD = 4 * SEQUENTIAL_THRESHOLD;
+
+	/**
+	 * Ranges smaller than this are sorted using insertion sort.
+	 */
+	protected static final int INSERTION_THRESHOLD = 16;
+
+	/**
+	 * Number of threads used for sorting and filtering.
+	 */
+	protected int parallelism;
+
+	/**
+	 * Edge indices, permuted during the computation.
+	 */
+	protected int[] edges;
+
+	/**
+	 * The weights of the edges in {@link #edges}. Permuted together with
+	 * {@link #edges}.
+	 */
+	protected double[] keys;
+
+	/**
+	 * Buffers used to partition and filter {@link #keys} and {@link #edges}.
+	 */
+	protected double[] bufferKeys;
+	protected int[] bufferEdges;
+
+	/**
+	 * Index of the first extremity of each edge, indexed by edge index.
+	 */
+	protected int[] source;
+
+	/**
+	 * Index of the second extremity of each edge, indexed by edge index.
+	 */
+	protected int[] target;
+
+	/**
+	 * Union-find parent of each node.
+	 */
+	protected int[] parent;
+
+	/**
+	 * Union-find rank of each node.
+	 */
+	protected byte[] rank;
+
+	/**
+	 * Number of edges in the tree (forest) built so far.
+	 */
+	protected int treeSize;
+
+	/**
+	 * Used to choose the pivots.
+	 */
+	protected Random random;
+
+	/**
+	 * Create a new Filter-Kruskal algorithm. Uses the default weight attribute
+	 * and does not tag the edges.
+	 */
+	public FilterKruskal() {
+		this(DEFAULT_WEIGHT_ATTRIBUTE, null);
+	}
+
+	/**
+	 * Create a new Filter-Kruskal algorithm. The value of the flag attribute
+	 * is {@code true} for the tree edges and false for the non-tree edges.
+	 * 
+	 * @param weightAttribute
+	 *            attribute used to compare edges
+	 * @param flagAttribute
+	 *            attribute used to set if an edge is in the spanning tree
+	 */
+	public FilterKruskal(String weightAttribute, String flagAttribute) {
+		this(weightAttribute, flagAttribute, true, false);
+	}
+
+	/**
+	 * Create a new Filter-Kruskal algorithm. Uses the default weight
+	 * attribute.
+	 * 
+	 * @param flagAttribute
+	 *            attribute used to set if an edge is in the spanning tree
+	 * @param flagOn
+	 *            value of the <i>flagAttribute</i> if edge is in the spanning
+	 *            tree
+	 * @param flagOff
+	 *            value of the <i>flagAttribute</i> if edge is not in the
+	 *            spanning tree
+	 */
+	public FilterKruskal(String flagAttribute, Object flagOn, Object flagOff) {
+		this(DEFAULT_WEIGHT_ATTRIBUTE, flagAttribute, flagOn, flagOff);
+	}
+
+	/**
+	 * Create a new Filter-Kruskal algorithm.
+	 * 
+	 * @param weightAttribute
+	 *            attribute used to compare edges
+	 * @param flagAttribute
+	 *            attribute used to set if an edge is in the spanning tree
+	 * @param flagOn
+	 *            value of the <i>flagAttribute</i> if edge is in the spanning
+	 *            tree
+	 * @param flagOff
+	 *            value of the <i>flagAttribute</i> if edge is not in the
+	 *            spanning tree
+	 */
+	public FilterKruskal(String weightAttribute, String flagAttribute,
+			Object flagOn, Object flagOff) {
+		super(weightAttribute, flagAttribute, flagOn, flagOff);
+		parallelism = Runtime.getRuntime().availableProcessors();
+		random = new Random();
+	}
+
+	/**
+	 * Number of threads used to sort and filter the edges.
+	 * 
+	 * @return the parallelism level
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Set the number of threads used to sort and filter the edges. By default
+	 * this is the number of available processors.
+	 * 
+	 * @param parallelism
+	 *            the new parallelism level, at least 1
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be positive");
+		this.parallelism = parallelism;
+	}
+
+	@Override
+	protected void makeTree() {
+		if (treeEdges == null)
+			treeEdges = new LinkedList<Edge>();
+		else
+			treeEdges.clear();
+
+		int n = graph.getNodeCount();
+		int m = graph.getEdgeCount();
+
+		edges = new int[m];
+		keys = new double[m];
+		bufferEdges = new int[m];
+		bufferKeys = new double[m];
+		source = new int[m];
+		target = new int[m];
+		for (int i = 0; i < m; i++) {
+			Edge edge = graph.getEdge(i);
+			edges[i] = i;
+			keys[i] = getWeight(edge);
+			source[i] = edge.getNode0().getIndex();
+			target[i] = edge.getNode1().getIndex();
+		}
+
+		parent = new int[n];
+		rank = new byte[n];
+		for (int i = 0; i < n; i++)
+			parent[i] = i;
+
+		treeWeight = 0;
+		treeSize = 0;
+
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			filterKruskal(pool, 0, m);
+		} finally {
+			pool.shutdown();
+		}
+
+		edges = null;
+		keys = null;
+		bufferEdges = null;
+		bufferKeys = null;
+		source = null;
+		target = null;
+		parent = null;
+		rank = null;
+	}
+
+	/**
+	 * Process the edges in {@code [lo, hi)}.
+	 */
+	protected void filterKruskal(ForkJoinPool pool, int lo, int hi) {
+		int n = parent.length;
+		int threshold = Math.max(KRUSKAL_THRESHOLD, n);
+		while (hi - lo > threshold && treeSize < n - 1) {
+			double pivot = choosePivot(lo, hi);
+			int mid = partition(pool, lo, hi, pivot);
+			if (mid == hi)
+				// all the weights are lower or equal to the pivot
+				break;
+			filterKruskal(pool, lo, mid);
+			lo = mid;
+			hi = filter(pool, lo, hi);
+		}
+		if (lo < hi && treeSize < n - 1) {
+			pool.invoke(new SortTask(keys, edges, lo, hi));
+			union(lo, hi);
+		}
+	}
+
+	/**
+	 * Choose a pivot as the median of three random weights in
+	 * {@code [lo, hi)}.
+	 */
+	protected double choosePivot(int lo, int hi) {
+		int size = hi - lo;
+		double a = keys[lo + random.nextInt(size)];
+		double b = keys[lo + random.nextInt(size)];
+		double c = keys[lo + random.nextInt(size)];
+		if (a > b) {
+			double t = a;
+			a = b;
+			b = t;
+		}
+		if (b > c)
+			b = c;
+		return a > b ? a : b;
+	}
+
+	/**
+	 * Partition {@code [lo, hi)} so that the edges lighter or equal to the
+	 * pivot come first.
+	 * 
+	 * @return the index of the first edge heavier than the pivot
+	 */
+	protected int partition(ForkJoinPool pool, int lo, int hi, double pivot) {
+		return split(pool, lo, hi, false, pivot);
+	}
+
+	/**
+	 * Remove from {@code [lo, hi)} the edges whose extremities are already in
+	 * the same component. The remaining edges are moved to the beginning of
+	 * the range.
+	 * 
+	 * @return the end of the remaining edges
+	 */
+	protected int filter(ForkJoinPool pool, int lo, int hi) {
+		return split(pool, lo, hi, true, 0);
+	}
+
+	/**
+	 * Move the selected edges of {@code [lo, hi)} first, keeping their order.
+	 * The range is cut in blocks that are counted in parallel, then copied in
+	 * parallel to the buffers at offsets given by the prefix sums of the
+	 * counts, and back.
+	 * 
+	 * @param filtering
+	 *            if true, the edges connecting two components are selected and
+	 *            the others dropped, else the edges lighter or equal to the
+	 *            pivot are selected and the others kept after them
+	 * @return the end of the selected edges
+	 */
+	protected int split(ForkJoinPool pool, final int lo, final int hi,
+			final boolean filtering, final double pivot) {
+		final int blocks = (hi - lo + SEQUENTIAL_THRESHOLD - 1)
+				/ SEQUENTIAL_THRESHOLD;
+		final boolean[] selected = new boolean[hi - lo];
+		final int[] count = new int[blocks];
+
+		pool.invoke(new BlockTask(new BlockAction() {
+			public void block(int b, int from, int to) {
+				int c = 0;
+				for (int i = from; i < to; i++) {
+					int e = edges[i];
+					boolean s = filtering ? root(source[e]) != root(target[e])
+							: keys[i] <= pivot;
+					selected[i - lo] = s;
+					if (s)
+						c++;
+				}
+				count[b] = c;
+			}
+		}, lo, hi));
+
+		final int[] start = new int[blocks];
+		int total = 0;
+		for (int b = 0; b < blocks; b++) {
+			start[b] = total;
+			total += count[b];
+		}
+
+		final int mid = lo + total;
+		final int end = filtering ? mid : hi;
+
+		pool.invoke(new BlockTask(new BlockAction() {
+			public void block(int b, int from, int to) {
+				int i0 = lo + start[b];
+				int j0 = mid + (from - lo) - start[b];
+				for (int i = from; i < to; i++) {
+					if (selected[i - lo]) {
+						bufferKeys[i0] = keys[i];
+						bufferEdges[i0++] = edges[i];
+					} else if (!filtering) {
+						bufferKeys[j0] = keys[i];
+						bufferEdges[j0++] = edges[i];
+					}
+				}
+			}
+		}, lo, hi));
+
+		pool.invoke(new BlockTask(new BlockAction() {
+			public void block(int b, int from, int to) {
+				System.arraycopy(bufferKeys, from, keys, from, to - from);
+				System.arraycopy(bufferEdges, from, edges, from, to - from);
+			}
+		}, lo, end));
+
+		return mid;
+	}
+
+	/**
+	 * Kruskal's step on the sorted range {@code [lo, hi)}.
+	 */
+	protected void union(int lo, int hi) {
+		int n = parent.length;
+		for (int i = lo; i < hi && treeSize < n - 1; i++) {
+			int e = edges[i];
+			int x = find(source[e]);
+			int y = find(target[e]);
+			if (x == y)
+				continue;
+			if (rank[x] > rank[y])
+				parent[y] = x;
+			else {
+				parent[x] = y;
+				if (rank[x] == rank[y])
+					rank[y]++;
+			}
+			Edge edge = graph.getEdge(e);
+			treeEdges.add(edge);
+			edgeOn(edge);
+			treeWeight += keys[i];
+			treeSize++;
+		}
+	}
+
+	/**
+	 * Find the root of the component containing a node, with path halving.
+	 */
+	protected int find(int x) {
+		while (parent[x] != x) {
+			parent[x] = parent[parent[x]];
+			x = parent[x];
+		}
+		return x;
+	}
+
+	/**
+	 * Find the root of the component containing a node without modifying the
+	 * structure. Safe to call from several threads while no union is
+	 * performed.
+	 */
+	protected int root(int x) {
+		while (parent[x] != x)
+			x = parent[x];
+		return x;
+	}
+
+	protected static void swap(double[] keys, int[] values, int i, int j) {
+		double k = keys[i];
+		keys[i] = keys[j];
+		keys[j] = k;
+		int v = values[i];
+		values[i] = values[j];
+		values[j] = v;
+	}
+
+	/**
+	 * Work done on one block of a range.
+	 */
+	protected interface BlockAction {
+		/**
+		 * Process block b, made of the edges in {@code [start, end)}.
+		 */
+		void block(int b, int start, int end);
+	}
+
+	/**
+	 * Applies an action to the blocks {@code [from, to)} of
+	 * {@link #SEQUENTIAL_THRESHOLD} edges of the range {@code [lo, hi)}, split
+	 * in parallel tasks.
+	 */
+	protected static class BlockTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		protected final BlockAction action;
+		protected final int lo;
+		protected final int hi;
+		protected final int from;
+		protected final int to;
+
+		protected BlockTask(BlockAction action, int lo, int hi) {
+			this(action, lo, hi, 0, (hi - lo + SEQUENTIAL_THRESHOLD - 1)
+					/ SEQUENTIAL_THRESHOLD);
+		}
+
+		protected BlockTask(BlockAction action, int lo, int hi, int from,
+				int to) {
+			this.action = action;
+			this.lo = lo;
+			this.hi = hi;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= 1) {
+				for (int b = from; b < to; b++)
+					action.block(b, lo + b * SEQUENTIAL_THRESHOLD, Math.min(
+							hi, lo + (b + 1) * SEQUENTIAL_THRESHOLD));
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new BlockTask(action, lo, hi, from, mid),
+						new BlockTask(action, lo, hi, mid, to));
+			}
+		}
+	}
+
+	/**
+	 * Parallel quicksort of a range of keys, the values being permuted
+	 * together with the keys.
+	 */
+	protected static class SortTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		protected final double[] keys;
+		protected final int[] values;
+		protected final int lo;
+		protected final int hi;
+
+		protected SortTask(double[] keys, int[] values, int lo, int hi) {
+			this.keys = keys;
+			this.values = values;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo <= SEQUENTIAL_THRESHOLD)
+				sort(keys, values, lo, hi - 1);
+			else {
+				int p = partition(keys, values, lo, hi - 1);
+				invokeAll(new SortTask(keys, values, lo, p + 1), new SortTask(
+						keys, values, p + 1, hi));
+			}
+		}
+
+		/**
+		 * Sequential quicksort of {@code [left, right]}.
+		 */
+		protected static void sort(double[] keys, int[] values, int left,
+				int right) {
+			while (right - left >= INSERTION_THRESHOLD) {
+				int p = partition(keys, values, left, right);
+				// recurse on the smaller part to bound the stack depth
+				if (p - left < right - p) {
+					sort(keys, values, left, p);
+					left = p + 1;
+				} else {
+					sort(keys, values, p + 1, right);
+					right = p;
+				}
+			}
+			for (int i = left + 1; i <= right; i++) {
+				double k = keys[i];
+				int v = values[i];
+				int j = i - 1;
+				while (j >= left && keys[j] > k) {
+					keys[j + 1] = keys[j];
+					values[j + 1] = values[j];
+					j--;
+				}
+				keys[j + 1] = k;
+				values[j + 1] = v;
+			}
+		}
+
+		/**
+		 * Hoare partition of {@code [left, right]} around the median of the
+		 * first, middle and last keys.
+		 * 
+		 * @return p such that all the keys in {@code [left, p]} are lower or
+		 *         equal to all the keys in {@code [p + 1, right]}
+		 */
+		protected static int partition(double[] keys, int[] values, int left,
+				int right) {
+			int mid = (left + right) >>> 1;
+			if (keys[mid] < keys[left])
+				swap(keys, values, mid, left);
+			if (keys[right] < keys[left])
+				swap(keys, values, right, left);
+			if (keys[right] < keys[mid])
+				swap(keys, values, right, mid);
+			double pivot = keys[mid];
+			int i = left - 1;
+			int j = right + 1;
+			while (true) {
+				do
+					i++;
+				while (keys[i] < pivot);
+				do
+					j--;
+				while (keys[j] > pivot);
+				if (i >= j)
+					return j;
+				swap(keys, values, i, j);
+			}
+		}
+	}
+}
@@ -0,0 +1,461 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+
+/**
+ * All-pair shortest paths with Johnson's algorithm.
+ * 
+ * <p>
+ * This is an alternative to the Floyd-Warshall algorithm of {@link APSP} for
+ * sparse graphs, where it is much faster. Negative edge weights are allowed as
+ * long as there is no negative cycle. The algorithm first computes, with a
+ * queue-based Bellman-Ford pass, a potential h on the nodes such that every
+ * edge (u, v) has a non negative reduced weight w(u, v) + h(u) - h(v). Then a
+ * Dijkstra search is run from each node on these reduced weights, the searches
+ * being executed in parallel using a {@link ForkJoinPool}. The lengths of the
+ * paths are finally corrected by h(t) - h(s).
+ * </p>
+ * 
+ * <p>
+ * It is used exactly like {@link APSP}: the same parameters apply and the
+ * results are stored on the nodes as {@link APSP.APSPInfo} attributes, from
+ * which the paths can be rebuilt with
+ * {@link APSP.APSPInfo#getShortestPathTo(String)}. Edges without weight
+ * attribute have weight 1. If a negative cycle is found, {@link #compute()}
+ * throws a {@link NumberFormatException}, like {@link BellmanFord}. Note that
+ * in undirected mode a negative edge is a negative cycle.
+ * </p>
+ * 
+ * <h2>Example</h2>
+ * 
+ * <pre>
+ * Johnson johnson = new Johnson(graph, &quot;weight&quot;, true);
+ * johnson.compute();
+ * 
+ * APSPInfo info = graph.getNode(&quot;F&quot;).getAttribute(APSPInfo.ATTRIBUTE_NAME);
+ * System.out.println(info.getShortestPathTo(&quot;A&quot;));
+ * </pre>
+ * 
+ * @complexity O(nm log(n)) with n the number of nodes and m the number of
+ *             edges, plus O(nm) in the worst case for the Bellman-Ford pass.
+ * 
+ * @reference Johnson, Donald B. "Efficient algorithms for shortest paths in
+ *            sparse networks". Journal of the ACM 24 (1): 1–13.
+ *            doi:10.1145/321992.321993. 1977.
+ */
+public class Johnson extends APSP {
+	/**
+	 * Number of threads used by the Dijkstra searches.
+	 */
+	protected int parallelism;
+
+	/**
+	 * Arcs leaving each node, in a compressed array: the arcs of node u are
+	 * the ones from {@code arcStart[u]} to {@code arcStart[u + 1]}.
+	 */
+	protected int[] arcStart;
+
+	/**
+	 * Head node index of each arc.
+	 */
+	protected int[] arcHead;
+
+	/**
+	 * Weight of each arc, reduced after the Bellman-Ford pass.
+	 */
+	protected double[] arcWeight;
+
+	/**
+	 * Potential of each node.
+	 */
+	protected double[] potential;
+
+	/**
+	 * Information of each node, filled by the searches.
+	 */
+	protected APSPInfo[] infos;
+
+	public Johnson() {
+		this(null);
+	}
+
+	/**
+	 * New Johnson algorithm working on the given graph. The edge weight
+	 * attribute name by default is "weight" and edge orientation is taken
+	 * into account.
+	 * 
+	 * @param graph
+	 *            The graph to use.
+	 */
+	public Johnson(Graph graph) {
+		this(graph, "weight", true);
+	}
+
+	/**
+	 * New Johnson algorithm working on the given graph.
+	 * 
+	 * @param graph
+	 *            The graph to use.
+	 * @param weightAttributeName
+	 *            The edge weight attribute name.
+	 * @param directed
+	 *            If false, edge orientation is ignored.
+	 */
+	public Johnson(Graph graph, String weightAttributeName, boolean directed) {
+		super(graph, weightAttributeName, directed);
+		parallelism = Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Number of threads used by the Dijkstra searches. Default is the number
+	 * of available processors.
+	 * 
+	 * @return the parallelism level
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Set the number of threads used by the Dijkstra searches.
+	 * 
+	 * @param parallelism
+	 *            the new parallelism level, at least 1
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be positive");
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Run the computation. When finished, each node has an
+	 * {@link APSP.APSPInfo} attribute giving the length of the shortest paths
+	 * toward each other attainable node.
+	 * 
+	 * @complexity O(nm log(n)) where n is the number of nodes and m the number
+	 *             of edges.
+	 */
+	@Override
+	public void compute() {
+		if (!graphChanged)
+			return;
+
+		int n = graph.getNodeCount();
+
+		buildArcs();
+		reweight();
+
+		infos = new APSPInfo[n];
+		for (int i = 0; i < n; i++)
+			infos[i] = new APSPInfo(graph.getNode(i));
+
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			int grain = Math.max(1, n / (8 * parallelism));
+			pool.invoke(new SearchTask(0, n, grain, new AtomicInteger()));
+		} finally {
+			pool.shutdown();
+		}
+
+		for (int i = 0; i < n; i++)
+			graph.getNode(i).addAttribute(APSPInfo.ATTRIBUTE_NAME, infos[i]);
+
+		arcStart = null;
+		arcHead = null;
+		arcWeight = null;
+		potential = null;
+		infos = null;
+		graphChanged = false;
+	}
+
+	/**
+	 * Copy the arcs of the graph in the compressed arrays. In undirected mode
+	 * each edge gives two arcs.
+	 */
+	protected void buildArcs() {
+		int n = graph.getNodeCount();
+
+		arcStart = new int[n + 1];
+
+		for (Edge e : graph.getEachEdge()) {
+			if (directed && e.isDirected())
+				arcStart[e.getSourceNode().getIndex() + 1]++;
+			else {
+				arcStart[e.getNode0().getIndex() + 1]++;
+				if (!e.isLoop())
+					arcStart[e.getNode1().getIndex() + 1]++;
+			}
+		}
+
+		for (int i = 0; i < n; i++)
+			arcStart[i + 1] += arcStart[i];
+
+		int[] next = Arrays.copyOf(arcStart, n);
+		arcHead = new int[arcStart[n]];
+		arcWeight = new double[arcStart[n]];
+
+		for (Edge e : graph.getEachEdge()) {
+			double w = e.hasNumber(weightAttributeName) ? e
+					.getNumber(weightAttributeName) : 1;
+			int u = e.getNode0().getIndex(), v = e.getNode1().getIndex();
+
+			if (directed && e.isDirected()) {
+				u = e.getSourceNode().getIndex();
+				v = e.getTargetNode().getIndex();
+				arcHead[next[u]] = v;
+				arcWeight[next[u]++] = w;
+			} else {
+				arcHead[next[u]] = v;
+				arcWeight[next[u]++] = w;
+				if (u != v) {
+					arcHead[next[v]] = u;
+					arcWeight[next[v]++] = w;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Compute the potentials with a queue-based Bellman-Ford from a virtual
+	 * node linked to all the nodes by arcs of weight 0, then reduce the
+	 * weights of the arcs.
+	 */
+	protected void reweight() {
+		int n = graph.getNodeCount();
+		int[] queue = new int[n];
+		int[] count = new int[n];
+		boolean[] queued = new boolean[n];
+		int head = 0, size = n;
+
+		potential = new double[n];
+
+		for (int i = 0; i < n; i++) {
+			queue[i] = i;
+			queued[i] = true;
+		}
+
+		while (size > 0) {
+			int u = queue[head];
+
+			head = head + 1 == n ? 0 : head + 1;
+			size--;
+			queued[u] = false;
+
+			for (int a = arcStart[u]; a < arcStart[u + 1]; a++) {
+				int v = arcHead[a];
+				double d = potential[u] + arcWeight[a];
+
+				if (d < potential[v]) {
+					potential[v] = d;
+
+					if (!queued[v]) {
+						if (++count[v] >= n)
+							throw new NumberFormatException(String.format(
+									"%s: Problem: negative weight, cycle detected on node \"%s\"",
+									Johnson.class.getName(), graph.getNode(v)
+											.getId()));
+
+						queued[v] = true;
+						queue[(head + size++) % n] = v;
+					}
+				}
+			}
+		}
+
+		for (int u = 0; u < n; u++)
+			for (int a = arcStart[u]; a < arcStart[u + 1]; a++)
+				arcWeight[a] = Math.max(0, arcWeight[a] + potential[u]
+						- potential[arcHead[a]]);
+	}
+
+	/**
+	 * Dijkstra search on the reduced weights from the sources in
+	 * {@code [lo, hi)}, split in parallel tasks.
+	 */
+	protected class SearchTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		protected final int lo;
+		protected final int hi;
+		protected final int grain;
+		protected final AtomicInteger done;
+
+		protected SearchTask(int lo, int hi, int grain, AtomicInteger done) {
+			this.lo = lo;
+			this.hi = hi;
+			this.grain = grain;
+			this.done = done;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo <= grain) {
+				int n = infos.length;
+				double[] distance = new double[n];
+				int[] parent = new int[n];
+				int[] heap = new int[n];
+				int[] heapIndex = new int[n];
+
+				Arrays.fill(heapIndex, -1);
+
+				for (int s = lo; s < hi; s++) {
+					search(s, distance, parent, heap, heapIndex);
+
+					if (progress != null) {
+						double p = done.incrementAndGet() / (double) n;
+
+						synchronized (progress) {
+							progress.progress(p);
+						}
+					}
+				}
+			} else {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new SearchTask(lo, mid, grain, done),
+						new SearchTask(mid, hi, grain, done));
+			}
+		}
+
+		/**
+		 * Search from one source and fill its information. The last node
+		 * before a target on the path is used as pass-by node.
+		 */
+		protected void search(int s, double[] distance, int[] parent,
+				int[] heap, int[] heapIndex) {
+			int n = infos.length;
+			int size = 0;
+
+			Arrays.fill(distance, Double.POSITIVE_INFINITY);
+			distance[s] = 0;
+			parent[s] = -1;
+			heap[size] = s;
+			heapIndex[s] = size++;
+
+			while (size > 0) {
+				int u = heap[0];
+				int last = heap[--size];
+
+				heapIndex[u] = -2;
+
+				if (size > 0) {
+					heap[0] = last;
+					heapIndex[last] = 0;
+					siftDown(0, size, distance, heap, heapIndex);
+				}
+
+				if (u != s) {
+					int p = parent[u];
+					infos[s].setLengthTo(infos[u], distance[u] - potential[s]
+							+ potential[u], p == s ? null : infos[p]);
+				}
+
+				for (int a = arcStart[u]; a < arcStart[u + 1]; a++) {
+					int v = arcHead[a];
+					double d = distance[u] + arcWeight[a];
+
+					if (heapIndex[v] != -2 && d < distance[v]) {
+						distance[v] = d;
+						parent[v] = u;
+
+						if (heapIndex[v] < 0) {
+							heap[size] = v;
+							heapIndex[v] = size++;
+						}
+
+						siftUp(heapIndex[v], distance, heap, heapIndex);
+					}
+				}
+			}
+
+			// Settled marks are reset for the next source.
+			for (int i = 0; i < n; i++)
+				heapIndex[i] = -1;
+		}
+
+		protected void siftUp(int i, double[] distance, int[] heap,
+				int[] heapIndex) {
+			int u = heap[i];
+
+			while (i > 0) {
+				int p = (i - 1) >> 1;
+				int v = heap[p];
+
+				if (distance[v] <= distance[u])
+					break;
+
+				heap[i] = v;
+				heapIndex[v] = i;
+				i = p;
+			}
+
+			heap[i] = u;
+			heapIndex[u] = i;
+		}
+
+		protected void siftDown(int i, int size, double[] distance,
+				int[] heap, int[] heapIndex) {
+			int u = heap[i];
+
+			while (true) {
+				int c = 2 * i + 1;
+
+				if (c >= size)
+					break;
+
+				if (c + 1 < size && distance[heap[c + 1]] < distance[heap[c]])
+					c++;
+
+				int v = heap[c];
+
+				if (distance[u] <= distance[v])
+					break;
+
+				heap[i] = v;
+				heapIndex[v] = i;
+				i = c;
+			}
+
+			heap[i] = u;
+			heapIndex[u] = i;
+		}
+	}
+}
@@ -10,7 +10,10 @@ import java.util.*;
 /**
  * Implementation of longest path algorithm in a DAG (directed acyclic graph) using topologicalSort
  *
- * @complexity yet to be calculated
+ * Distances are stored in arrays indexed by node index and the path is rebuilt iteratively, so the
+ * algorithm can be used on very large graphs.
+ *
+ * @complexity O(V+E) time, where V and E are the number of vertices and edges respectively
  */
 public class LongestPath implements Algorithm {
 
@@ -25,9 +28,9 @@ public class LongestPath implements Algorithm {
     private Graph graph;
 
     /**
-     * map with all disctances from starting point
+     * distance of each node from the start of the longest path ending on it, indexed by node index
      */
-    private Map<Node, Double> distanceMap;
+    private double[] distance;
 
     /**
      * calculated longest path
@@ -35,9 +38,14 @@ public class LongestPath implements Algorithm {
     private List<Node> longestPath;
 
     /**
-     * node and value at the end of the longest path
+     * edges of the calculated longest path
+     */
+    private List<Edge> longestPathEdges;
+
+    /**
+     * value of the longest path
      */
-    private Map.Entry<Node, Double> longestPathNode;
+    private double longestPathValue;
 
     /**
      * weighted or unweighted graph
@@ -51,88 +59,108 @@ public class LongestPath implements Algorithm {
 
     public void init(Graph theGraph) {
         graph = theGraph;
-        distanceMap = new HashMap<>();
         longestPath = new ArrayList<>();
+        longestPathEdges = new ArrayList<>();
     }
 
     public void compute() {
-        initializeAlgorithm();
+        double[] aWeights = initializeAlgorithm();
         TopologicalSort aTopoSortAlgorithm = new TopologicalSort(TopologicalSort.SortAlgorithm.DEPTH_FIRST);
         aTopoSortAlgorithm.init(graph);
         aTopoSortAlgorithm.compute();
         Node[] aSortedArray = aTopoSortAlgorithm.getSortedArray();
-        if (weighted) {
-            fillDistanceMapWeighted(aSortedArray);
-        } else {
-            fillDistanceMapUnweighted(aSortedArray);
+        fillDistances(aSortedArray, aWeights);
+        int aMaxNode = getMaxNode();
+        if (aMaxNode < 0) {
+            return;
         }
-        Map.Entry<Node, Double> maxEntry = getMaxEntryOfMap();
-        longestPathNode = maxEntry;
-        longestPath.add(maxEntry.getKey());
-        getMaxNeigbourgh(maxEntry.getKey());
-        Collections.reverse(longestPath);
+        longestPathValue = distance[aMaxNode];
+        buildLongestPath(graph.getNode(aMaxNode));
     }
 
-    private void fillDistanceMapWeighted(Node[] theSortedArray) {
+    /**
+     * relaxes the entering edges of the nodes in topological order, an edge weighting 1 in an
+     * unweighted graph
+     */
+    private void fillDistances(Node[] theSortedArray, double[] theWeights) {
         for (Node aNode : theSortedArray) {
+            int aTarget = aNode.getIndex();
+            double aMaxDistance = distance[aTarget];
             for (Edge anEdge : aNode.getEachEnteringEdge()) {
-                Node aSourceNode = anEdge.getSourceNode();
-                Node aTargetNode = anEdge.getTargetNode();
-                double aWeight = anEdge.getNumber(getWeightAttribute());
-                Double aMaxDistance = Math.max(distanceMap.get(aTargetNode), distanceMap.get(aSourceNode) + aWeight);
-                distanceMap.put(aTargetNode, aMaxDistance);
+                double aDistance = distance[anEdge.getSourceNode().getIndex()]
+                        + (weighted ? theWeights[anEdge.getIndex()] : 1);
+                if (aDistance > aMaxDistance) {
+                    aMaxDistance = aDistance;
+                }
             }
+            distance[aTarget] = aMaxDistance;
         }
     }
 
-    private void fillDistanceMapUnweighted(Node[] theSortedArray) {
-        for (Node aNode : theSortedArray) {
-            for (Edge anEdge : aNode.getEachEnteringEdge()) {
-                Node aSourceNode = anEdge.getSourceNode();
-                Node aTargetNode = anEdge.getTargetNode();
-                Double aMaxDistance = Math.max(distanceMap.get(aTargetNode), distanceMap.get(aSourceNode)) + 1;
-                distanceMap.put(aTargetNode, aMaxDistance);
+    /**
+     * @return index of the first node with the maximum distance, -1 if the graph is empty
+     */
+    private int getMaxNode() {
+        int aMaxNode = -1;
+        for (int i = 0; i < distance.length; i++) {
+            if (aMaxNode < 0 || distance[i] > distance[aMaxNode]) {
+                aMaxNode = i;
             }
         }
+        return aMaxNode;
     }
 
-    private Map.Entry<Node, Double> getMaxEntryOfMap() {
-        Map.Entry<Node, Double> maxEntry = null;
-        for (Map.Entry<Node, Double> entry : distanceMap.entrySet()) {
-            if (maxEntry == null || entry.getValue().compareTo(maxEntry.getValue()) > 0) {
-                maxEntry = entry;
+    /**
+     * goes back from the end of the longest path, each time to the entering neighbour with the
+     * maximum distance
+     */
+    private void buildLongestPath(Node theNode) {
+        Node aNode = theNode;
+        longestPath.add(aNode);
+        while (true) {
+            Node aMaxNode = null;
+            Edge aMaxEdge = null;
+            double aMaxDistance = 0.0;
+            for (Edge anEdge : aNode.getEachEnteringEdge()) {
+                Node aSourceNode = anEdge.getSourceNode();
+                if (distance[aSourceNode.getIndex()] >= aMaxDistance) {
+                    aMaxDistance = distance[aSourceNode.getIndex()];
+                    aMaxNode = aSourceNode;
+                    aMaxEdge = anEdge;
+                }
             }
-        }
-        return maxEntry;
-    }
-
-    private void getMaxNeigbourgh(Node theNode) {
-        Node aMaxNode = null;
-        double aMaxDistance = 0.0;
-        for (Edge anEdge : theNode.getEachEnteringEdge()) {
-            Node aSourceNode = anEdge.getSourceNode();
-            if (distanceMap.get(aSourceNode) >= aMaxDistance) {
-                aMaxDistance = distanceMap.get(aSourceNode);
-                aMaxNode = aSourceNode;
+            if (aMaxNode == null) {
+                break;
             }
-        }
-        if (aMaxNode != null) {
             longestPath.add(aMaxNode);
-            getMaxNeigbourgh(aMaxNode);
+            longestPathEdges.add(aMaxEdge);
+            aNode = aMaxNode;
         }
-
+        Collections.reverse(longestPath);
+        Collections.reverse(longestPathEdges);
     }
 
-    private void initializeAlgorithm() {
-        for (Node aNode : graph.getEachNode()) {
-            for (Edge anEdge : aNode.getEachEdge()) {
-                double aWeight = anEdge.getNumber(getWeightAttribute());
-                if (Double.isNaN(aWeight)) {
-                    weighted = false;
-                }
+    /**
+     * resets the distances and reads the weights of the edges, the graph being unweighted if an
+     * edge has no weight
+     *
+     * @return weight of each edge, indexed by edge index
+     */
+    private double[] initializeAlgorithm() {
+        distance = new double[graph.getNodeCount()];
+        longestPath.clear();
+        longestPathEdges.clear();
+        longestPathValue = 0;
+        weighted = true;
+        double[] aWeights = new double[graph.getEdgeCount()];
+        for (Edge anEdge : graph.getEachEdge()) {
+            double aWeight = anEdge.getNumber(getWeightAttribute());
+            if (Double.isNaN(aWeight)) {
+                weighted = false;
             }
-            distanceMap.put(aNode, 0.0);
+            aWeights[anEdge.getIndex()] = aWeight;
         }
+        return aWeights;
     }
 
     /**
@@ -150,16 +178,8 @@ public class LongestPath implements Algorithm {
      */
     public Path getLongestPath() {
         Path path = new Path();
-        for (int i = 0; i < longestPath.size(); i++) {
-            for (Edge edge : graph.getEachEdge()) {
-                if (!edge.getSourceNode().equals(longestPath.get(i))) {
-                    continue;
-                }
-                if (!edge.getTargetNode().equals(longestPath.get(i + 1))) {
-                    continue;
-                }
-                path.add(edge.getSourceNode(), edge);
-            }
+        for (Edge edge : longestPathEdges) {
+            path.add(edge.getSourceNode(), edge);
         }
         return path;
     }
@@ -170,7 +190,7 @@ public class LongestPath implements Algorithm {
      * @return value of longest path
      */
     public Double getLongestPathValue() {
-        return longestPathNode.getValue();
+        return longestPathValue;
     }
 
     public String getWeightAttribute() {
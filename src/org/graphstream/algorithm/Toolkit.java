@@ -110,13 +110,14 @@ import org.graphstream.ui.layout.springbox.implementations.SpringBox;
  * 
  * <p>
  * The {@link #clusteringCoefficient(Node)} method return the clustering
- * coefficient for the given node. The complexity if O(d^2) where d is the
- * degree of the node.
+ * coefficient for the given node. The complexity is the sum of the degrees of
+ * the neighbors of the node.
  * </p>
  * 
  * <p>
  * The {@link #clusteringCoefficients(Graph)} method return the clustering
- * coefficient of each node of the graph as an array.
+ * coefficient of each node of the graph as an array. It counts the triangles of
+ * the whole graph at once with {@link TriangleCount}.
  * </p>
  * 
  * <p>
@@ -515,25 +516,15 @@ public class Toolkit extends
 	 * 
 	 * @return An array whose size correspond to the number of nodes, where each
 	 *         element is the clustering coefficient of a node.
-	 * @complexity at worse O(n d^2) where n is the number of nodes and d the
-	 *             average or maximum degree of nodes.
+	 * @complexity O(m sqrt(m)) where m is the number of edges, see
+	 *             {@link TriangleCount}.
 	 */
 	public static double[] clusteringCoefficients(Graph graph) {
-		int n = graph.getNodeCount();
-
-		if (n > 0) {
-			int j = 0;
-			double[] coefs = new double[n];
+		TriangleCount triangles = new TriangleCount();
+		triangles.init(graph);
+		triangles.compute();
 
-			for (Node node : graph)
-				coefs[j++] = clusteringCoefficient(node);
-
-			assert (j == n);
-
-			return coefs;
-		}
-
-		return new double[0];
+		return triangles.getClusteringCoefficients();
 	}
 
 	/**
@@ -541,69 +532,72 @@ public class Toolkit extends
 	 * individual clustering coefficient.
 	 * 
 	 * @return The average clustering coefficient.
-	 * @complexity at worse O(n d^2) where n is the number of nodes and d the
-	 *             average or maximum degree of nodes.
+	 * @complexity O(m sqrt(m)) where m is the number of edges, see
+	 *             {@link TriangleCount}.
 	 */
 	public static double averageClusteringCoefficient(Graph graph) {
-		int n = graph.getNodeCount();
-
-		if (n > 0) {
-			double cc = 0;
-
-			for (Node node : graph)
-				cc += clusteringCoefficient(node);
+		TriangleCount triangles = new TriangleCount();
+		triangles.init(graph);
+		triangles.compute();
 
-			return cc / n;
-		}
-
-		return 0;
+		return triangles.getAverageClusteringCoefficient();
 	}
 
 	/**
-	 * Clustering coefficient for one node of the graph. For a node i with
-	 * degree k, if Ni is the neighborhood of i (a set of nodes), clustering
+	 * Clustering coefficient for one node of the graph. For a node i with k
+	 * neighbors, if Ni is the neighborhood of i (a set of nodes), clustering
 	 * coefficient of i is defined as the count of edge e_uv with u,v in Ni
 	 * divided by the maximum possible count, ie. k * (k-1) / 2.
 	 * 
-	 * This method only works with undirected graphs.
+	 * Edge directions are ignored, parallel edges count once and loops are
+	 * ignored.
 	 * 
 	 * @param node
 	 *            The node to compute the clustering coefficient for.
 	 * @return The clustering coefficient for this node.
-	 * @complexity O(d^2) where d is the degree of the given node.
+	 * @complexity O(sum of d_v) over the neighbors v of the node, where d_v is
+	 *             the degree of v.
 	 * @reference D. J. Watts and Steven Strogatz (June 1998).
 	 *            "Collective dynamics of 'small-world' networks" . Nature 393
 	 *            (6684): 440–442
 	 */
 	public static double clusteringCoefficient(Node node) {
-		double coef = 0.0;
-		int n = node.getDegree();
+		//
+		// Each neighbor maps to the last neighbor that reached it, so that
+		// parallel edges count once.
+		//
+		HashMap<Node, Node> neighbors = new HashMap<Node, Node>();
 
-		if (n > 1) {
-			Node[] nodes = new Node[n];
+		for (Edge edge : node.getEachEdge()) {
+			Node other = edge.getOpposite(node);
 
-			//
-			// Collect the neighbor nodes.
-			//
-			for (int i = 0; i < n; i++)
-				nodes[i] = node.getEdge(i).getOpposite(node);
+			if (other != node)
+				neighbors.put(other, node);
+		}
 
-			//
-			// Check all edge possibilities
-			//
-			for (int i = 0; i < n; ++i)
-				for (int j = 0; j < n; ++j)
-					if (j != i) {
-						Edge e = nodes[j].getEdgeToward(nodes[i].getId());
+		int k = neighbors.size();
 
-						if (e != null && e.getSourceNode() == nodes[j])
-							coef++;
-					}
+		if (k < 2)
+			return 0;
 
-			coef /= (n * (n - 1)) / 2.0;
+		//
+		// Each edge between two neighbors is seen from both ends.
+		//
+		long links = 0;
+
+		for (Node v : neighbors.keySet()) {
+			for (Edge edge : v.getEachEdge()) {
+				Node w = edge.getOpposite(v);
+				Node last = neighbors.get(w);
+
+				if (last != null && last != v && w != v) {
+					neighbors.put(w, v);
+					links++;
+				}
+			}
 		}
 
-		return coef;
+		return (links / 2.0) / (k * (k - 1) / 2.0);
 	}
 
 	/**
@@ -837,8 +831,8 @@ public class Toolkit extends
 	 * @param communities
 	 *            Set of nodes.
 	 * @return The E matrix as defined by Newman and Girvan.
-	 * @complexity O(m!k) with m the number of communities and k the average
-	 *             number of nodes per community.
+	 * @complexity O(n + m + k^2) with n the number of nodes, m the number of
+	 *             edges and k the number of communities.
 	 */
 	public static double[][] modularityMatrix(Graph graph,
 			HashMap<Object, HashSet<Node>> communities) {
@@ -848,7 +842,8 @@ public class Toolkit extends
 	/**
 	 * Create the weighted modularity matrix E from the communities. The given
 	 * communities are set of nodes forming the communities as produced by the
-	 * {@link #communities(Graph,String)} method.
+	 * {@link #communities(Graph,String)} method. The matrix is filled with a
+	 * single pass over the edges.
 	 * 
 	 * @param graph
 	 *            Graph to which the computation will be applied
@@ -857,49 +852,48 @@ public class Toolkit extends
 	 * @param weightMarker
 	 *            The marker used to store the weight of each edge
 	 * @return The E matrix as defined by Newman and Girvan.
-	 * @complexity O(m!k) with m the number of communities and k the average
-	 *             number of nodes per community.
+	 * @complexity O(n + m + k^2) with n the number of nodes, m the number of
+	 *             edges and k the number of communities.
 	 */
 	public static double[][] modularityMatrix(Graph graph,
 			HashMap<Object, HashSet<Node>> communities, String weightMarker) {
-
+		int communityCount = communities.size();
+		int[] community = new int[graph.getNodeCount()];
+		double E[][] = new double[communityCount][communityCount];
 		double edgeCount = 0;
-		if (weightMarker == null) {
-			edgeCount = graph.getEdgeCount();
-		} else {
-			for (Edge e : graph.getEdgeSet()) {
-				if (e.hasAttribute(weightMarker)) {
-					edgeCount += (Double) e.getAttribute(weightMarker);
-				}
-			}
-		}
+		int k = 0;
 
-		int communityCount = communities.size();
+		Arrays.fill(community, -1);
 
-		double E[][] = new double[communityCount][];
-		Object keys[] = new Object[communityCount];
+		for (HashSet<Node> nodes : communities.values()) {
+			for (Node node : nodes)
+				community[node.getIndex()] = k;
 
-		int k = 0;
+			k++;
+		}
 
-		for (Object key : communities.keySet())
-			keys[k++] = key;
+		for (Edge e : graph.getEachEdge()) {
+			double w = modularityEdgeWeight(e, weightMarker);
+			int x = community[e.getNode0().getIndex()];
+			int y = community[e.getNode1().getIndex()];
 
-		for (int i = 0; i < communityCount; ++i)
-			E[i] = new double[communityCount];
+			edgeCount += w;
 
-		for (int y = 0; y < communityCount; ++y) {
-			for (int x = y; x < communityCount; ++x) {
-				E[x][y] = modularityCountEdges(communities.get(keys[x]),
-						communities.get(keys[y]), weightMarker);
-				E[x][y] /= edgeCount;
+			if (x < 0 || y < 0)
+				continue;
 
-				if (x != y) {
-					E[y][x] = E[x][y] / 2;
-					E[x][y] = E[y][x];
-				}
+			if (x == y) {
+				E[x][x] += w;
+			} else {
+				E[x][y] += w / 2;
+				E[y][x] += w / 2;
 			}
 		}
 
+		for (int x = 0; x < communityCount; x++)
+			for (int y = 0; y < communityCount; y++)
+				E[x][y] /= edgeCount;
+
 		return E;
 	}
 
@@ -943,24 +937,19 @@ public class Toolkit extends
 	 * an attribute on each node whose value define the community the node
 	 * pertains to (see {@link #communities(Graph,String)}).
 	 * 
-	 * This method is an utility method that call:
-	 * <ul>
-	 * <li>{@link #communities(Graph,String)}</li>
-	 * <li>{@link #modularityMatrix(Graph,HashMap)}</li>
-	 * <li>{@link #modularity(double[][])}</li>
-	 * </ul>
-	 * in order to produce the modularity value.
+	 * The weight of the edges inside each community and the sum of the
+	 * degrees of each community are accumulated in a single pass over the
+	 * edges, without building the modularity matrix.
 	 * 
 	 * @param marker
 	 *            The community attribute stored on nodes.
 	 * @return The graph modularity.
-	 * @complexity 0(n + m! + m!k) with n the number of nodes, m the number of
-	 *             communities and k the average number of nodes per
-	 *             communities.
+	 * @complexity O(n + m) with n the number of nodes and m the number of
+	 *             edges.
 	 * @see org.graphstream.algorithm.measure.Modularity
 	 */
 	public static double modularity(Graph graph, String marker) {
-		return modularity(modularityMatrix(graph, communities(graph, marker)));
+		return modularity(graph, marker, null);
 	}
 
 	/**
@@ -971,28 +960,98 @@ public class Toolkit extends
 	 * storing their weight (all edges without this attribute will be ignored in
 	 * the computation).
 	 * 
-	 * This method is an utility method that call:
-	 * <ul>
-	 * <li>{@link #communities(Graph,String)}</li>
-	 * <li>{@link #modularityMatrix(Graph,HashMap,String)}</li>
-	 * <li>{@link #modularity(double[][])}</li>
-	 * </ul>
-	 * in order to produce the modularity value.
+	 * Like {@link #modularity(Graph,String)}, this needs a single pass over
+	 * the nodes and the edges.
 	 * 
 	 * @param marker
 	 *            The community attribute stored on nodes.
 	 * @param weightMarker
 	 *            The marker used to store the weight of each edge.
 	 * @return The graph modularity.
-	 * @complexity 0(n + m! + m!k) with n the number of nodes, m the number of
-	 *             communities and k the average number of nodes per
-	 *             communities.
+	 * @complexity O(n + m) with n the number of nodes and m the number of
+	 *             edges.
 	 * @see org.graphstream.algorithm.measure.Modularity
 	 */
 	public static double modularity(Graph graph, String marker,
 			String weightMarker) {
-		return modularity(modularityMatrix(graph, communities(graph, marker),
-				weightMarker));
+		HashMap<Object, Integer> index = new HashMap<Object, Integer>();
+		int[] community = new int[graph.getNodeCount()];
+
+		for (Node node : graph) {
+			Object communityMarker = node.getAttribute(marker);
+
+			if (communityMarker == null)
+				communityMarker = "NULL_COMMUNITY";
+
+			Integer c = index.get(communityMarker);
+
+			if (c == null) {
+				c = index.size();
+				index.put(communityMarker, c);
+			}
+
+			community[node.getIndex()] = c;
+		}
+
+		double[] degree = new double[index.size()];
+		double inner = 0, total = 0;
+
+		for (Edge e : graph.getEachEdge()) {
+			double w = modularityEdgeWeight(e, weightMarker);
+			int x = community[e.getNode0().getIndex()];
+			int y = community[e.getNode1().getIndex()];
+
+			total += w;
+			degree[x] += w;
+			degree[y] += w;
+
+			if (x == y)
+				inner += w;
+		}
+
+		double sumSquares = 0;
+
+		for (double d : degree)
+			sumSquares += d * d;
+
+		return modularity(inner, sumSquares, total);
+	}
+
+	/**
+	 * Compute the modularity from the totals of the communities.
+	 * 
+	 * @param innerWeight
+	 *            Total weight of the edges whose ends are in the same
+	 *            community.
+	 * @param sumSquaredDegrees
+	 *            Sum over the communities of the square of the total degree
+	 *            of their nodes.
+	 * @param totalWeight
+	 *            Total weight of the edges.
+	 * @return The modularity of the graph.
+	 * @complexity O(1)
+	 */
+	public static double modularity(double innerWeight,
+			double sumSquaredDegrees, double totalWeight) {
+		return innerWeight / totalWeight - sumSquaredDegrees
+				/ (4 * totalWeight * totalWeight);
+	}
+
+	/**
+	 * Weight of an edge in the modularity computation, 1 if there is no weight
+	 * marker and 0 if the edge has no weight.
+	 * 
+	 * @param edge
+	 *            The edge.
+	 * @param weightMarker
+	 *            The marker used to store the weight of each edge, or null.
+	 * @return The weight of the edge.
+	 */
+	public static double modularityEdgeWeight(Edge edge, String weightMarker) {
+		if (weightMarker == null)
+			return 1;
+
+		return edge.hasNumber(weightMarker) ? edge.getNumber(weightMarker) : 0;
 	}
 
 	/**
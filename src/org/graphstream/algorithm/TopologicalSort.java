@@ -3,17 +3,31 @@ package org.graphstream.algorithm;
 import org.graphstream.graph.Edge;
 import org.graphstream.graph.Graph;
 import org.graphstream.graph.Node;
-import org.graphstream.graph.implementations.Graphs;
+import org.graphstream.graph.Path;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /**
  * Implementation of DFS and Kahn's algorithms for topological sorting of a directed acyclic graph (DAG).
  * Every DAG has at least one topological ordering and these are algorithms known for constructing a
  * topological ordering in linear time.
  *
- * DFS sorting is the default, as Kahn's algorithm requires the graph to be copied or for the original to
- * be modified, which can be expensive. DFS works in place and with constant memory.
+ * DFS sorting is the default. Both algorithms work on a compressed copy of the leaving edges of the
+ * nodes, stored in arrays indexed by node index, and neither of them is recursive, so they can be used
+ * on very large graphs.
+ *
+ * Kahn's algorithm is level-synchronous: the sources form level 0, then each level is made of the
+ * nodes whose predecessors are all in previous levels. The nodes of a level do not depend on each
+ * other and can be executed concurrently. Each level is processed in parallel using a
+ * {@link ForkJoinPool}, the in-degrees being decremented with atomic counters, and the sorted array
+ * lists the levels one after the other, each one in node index order. The level of each node is
+ * given by {@link #getLevel(Node)}. In the same pass, the longest path of the DAG (its critical
+ * path) is computed with the same weights as {@link LongestPath}: the weight attribute of the edges
+ * if all of them have one, 1 otherwise. It is given by {@link #getCriticalPath()}.
  *
  * @reference Kahn, Arthur B. (1962), "Topological sorting of large networks", Communications of the ACM, 5 (11): 558–562
  *
@@ -32,6 +46,11 @@ public class TopologicalSort implements Algorithm {
     private final static int MARK_TEMP = 1;
     private final static int MARK_PERM = 2;
 
+    /**
+     * levels smaller than this are processed by a single thread
+     */
+    private final static int SEQUENTIAL_THRESHOLD = 1024;
+
     /**
      * The algorithm that will be used for topological sorting
      */
@@ -53,9 +72,61 @@ public class TopologicalSort implements Algorithm {
     private int index;
 
     /**
-     * collection containing all source nodes (inDegree=00)
+     * leaving arcs of each node: the heads of the arcs of node u are the node indices from
+     * arcHead[arcStart[u]] to arcHead[arcStart[u + 1] - 1], in the order of its leaving edges
+     */
+    private int[] arcStart;
+
+    /**
+     * head node index of each arc
+     */
+    private int[] arcHead;
+
+    /**
+     * entering arcs of each node, as for the leaving arcs, with the tail node index, the weight
+     * and the edge index of each arc
+     */
+    private int[] inArcStart, inArcTail, inArcEdge;
+    private double[] inArcWeight;
+
+    /**
+     * number of threads used by Kahn's algorithm
+     */
+    private int parallelism;
+
+    /**
+     * Attribute where the weights of the edges are stored
+     */
+    private String weightAttribute;
+
+    /**
+     * level of each node, indexed by node index
+     */
+    private int[] levels;
+
+    /**
+     * position in the sorted array of the first node of each level, and of the end of the last level
      */
-    private Set<Node> sourceNodes;
+    private int[] levelStart;
+
+    /**
+     * longest distance to each node and entering arc on the corresponding path (-1 for none),
+     * indexed by node index
+     */
+    private double[] distance;
+    private int[] predecessor;
+
+    /**
+     * critical path, as its first node and the indices of its edges, and its value
+     */
+    private Node criticalPathStart;
+    private int[] criticalPathEdges;
+    private double criticalPathValue;
+
+    /**
+     * critical path, built on demand
+     */
+    private Path criticalPath;
 
     public TopologicalSort() {
         this(SortAlgorithm.DEPTH_FIRST);
@@ -63,22 +134,64 @@ public class TopologicalSort implements Algorithm {
 
     public TopologicalSort(SortAlgorithm algorithm) {
         this.algorithm = algorithm;
+        this.parallelism = Runtime.getRuntime().availableProcessors();
+        this.weightAttribute = LongestPath.DEFAULT_WEIGHT_ATTRIBUTE;
+    }
+
+    /**
+     * @return number of threads used by Kahn's algorithm, by default the number of available
+     * processors
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * sets the number of threads used by Kahn's algorithm
+     * @param parallelism the new parallelism level, at least 1
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+    }
+
+    public String getWeightAttribute() {
+        return weightAttribute;
+    }
+
+    /**
+     * sets the attribute where the weights used for the critical path are stored
+     * @param weightAttribute the attribute name
+     */
+    public void setWeightAttribute(String weightAttribute) {
+        this.weightAttribute = weightAttribute;
     }
 
     @Override
     public void init(Graph theGraph) {
+        graph = theGraph;
         sortedNodes = new Node[theGraph.getNodeCount()];
+        levels = null;
+        levelStart = null;
+        criticalPathStart = null;
+        criticalPathEdges = null;
+        criticalPath = null;
 
         if (algorithm == SortAlgorithm.KAHN) {
-            graph = Graphs.clone(theGraph);
-            sourceNodes = calculateSourceNodes();
-        } else {
-            graph = theGraph;
+            checkSourceNodes();
         }
     }
 
     @Override
     public void compute() {
+        if (graph == null) {
+            throw new NotInitializedException(this);
+        }
+
+        buildArcs();
+
         if (algorithm == SortAlgorithm.KAHN) {
             index = 0;
             computeKahns();
@@ -88,85 +201,322 @@ public class TopologicalSort implements Algorithm {
             index = sortedNodes.length - 1;
             computeDFS();
         }
+
+        arcStart = null;
+        arcHead = null;
+        inArcStart = null;
+        inArcTail = null;
+        inArcEdge = null;
+        inArcWeight = null;
+    }
+
+    /**
+     * copies the leaving edges of the nodes in the arc arrays
+     */
+    private void buildArcs() {
+        int n = graph.getNodeCount();
+        int m = 0;
+
+        arcStart = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            arcStart[i] = m;
+            m += graph.getNode(i).getOutDegree();
+        }
+        arcStart[n] = m;
+
+        arcHead = new int[m];
+        int a = 0;
+        for (int i = 0; i < n; i++) {
+            Node aNode = graph.getNode(i);
+            for (Edge aLeavingEdge : aNode.getEachLeavingEdge()) {
+                arcHead[a++] = aLeavingEdge.getOpposite(aNode).getIndex();
+            }
+        }
+    }
+
+    /**
+     * builds the entering arcs from the leaving ones and reads the weights of the edges
+     */
+    private void buildInArcs() {
+        int n = graph.getNodeCount();
+        int m = arcHead.length;
+        boolean weighted = true;
+        double[] aWeights = new double[graph.getEdgeCount()];
+
+        for (Edge anEdge : graph.getEachEdge()) {
+            double aWeight = anEdge.getNumber(weightAttribute);
+            if (Double.isNaN(aWeight)) {
+                weighted = false;
+            }
+            aWeights[anEdge.getIndex()] = aWeight;
+        }
+
+        inArcStart = new int[n + 1];
+        for (int a = 0; a < m; a++) {
+            inArcStart[arcHead[a] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            inArcStart[i + 1] += inArcStart[i];
+        }
+
+        int[] next = Arrays.copyOf(inArcStart, n);
+        inArcTail = new int[m];
+        inArcEdge = new int[m];
+        inArcWeight = new double[m];
+
+        for (int i = 0; i < n; i++) {
+            Node aNode = graph.getNode(i);
+            for (Edge aLeavingEdge : aNode.getEachLeavingEdge()) {
+                int b = next[aLeavingEdge.getOpposite(aNode).getIndex()]++;
+                inArcTail[b] = i;
+                inArcEdge[b] = aLeavingEdge.getIndex();
+                inArcWeight[b] = weighted ? aWeights[aLeavingEdge.getIndex()] : 1;
+            }
+        }
     }
 
     private void computeKahns() {
-        while (!sourceNodes.isEmpty()) {
-            Node aSourceNode = sourceNodes.iterator().next();
-            sourceNodes.remove(aSourceNode);
-
-            sortedNodes[index] = aSourceNode;
-            index++;
-
-            for (Iterator<Edge> it = aSourceNode.getLeavingEdgeIterator(); it.hasNext(); ) {
-                Edge aLeavingEdge = it.next();
-                Node aTargetNode = aLeavingEdge.getTargetNode();
-                it.remove();
-                aTargetNode.getEnteringEdgeSet().remove(aLeavingEdge);
-                if (aTargetNode.getEnteringEdgeSet().isEmpty()) {
-                    sourceNodes.add(aTargetNode);
-                }
+        int n = graph.getNodeCount();
+        int[] order = new int[n];
+        int head = 0, tail = 0;
+
+        buildInArcs();
+
+        AtomicIntegerArray inDegree = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) {
+            int aDegree = inArcStart[i + 1] - inArcStart[i];
+            if (aDegree == 0) {
+                order[tail++] = i;
+            } else {
+                inDegree.set(i, aDegree);
             }
         }
-        boolean hasCycle = false;
-        for (Node aNode : graph.getEachNode()) {
-            if (!aNode.getEnteringEdgeSet().isEmpty()) {
-                hasCycle = true;
-                break;
+
+        levels = new int[n];
+        distance = new double[n];
+        predecessor = new int[n];
+
+        int[] aLevelStart = new int[16];
+        int aLevel = 0;
+        AtomicInteger next = new AtomicInteger(tail);
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+
+        try {
+            while (head < tail) {
+                if (aLevel + 1 >= aLevelStart.length) {
+                    aLevelStart = Arrays.copyOf(aLevelStart, 2 * aLevelStart.length);
+                }
+                aLevelStart[aLevel] = head;
+
+                if (pool != null && tail - head > SEQUENTIAL_THRESHOLD) {
+                    pool.invoke(new LevelTask(order, inDegree, next, aLevel, head, tail));
+                    head = tail;
+                    tail = next.get();
+                } else {
+                    for (int i = head; i < tail; i++) {
+                        int u = order[i];
+                        levels[u] = aLevel;
+                        relaxEnteringArcs(u);
+                        for (int a = arcStart[u]; a < arcStart[u + 1]; a++) {
+                            int v = arcHead[a];
+                            if (inDegree.decrementAndGet(v) == 0) {
+                                order[next.getAndIncrement()] = v;
+                            }
+                        }
+                    }
+                    head = tail;
+                    tail = next.get();
+                }
+                // levels are kept in node index order, whatever the order of the appends
+                Arrays.sort(order, head, tail);
+                aLevel++;
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
             }
         }
-        if (hasCycle) {
+
+        if (tail < n) {
             throw new GraphHasCycleException();
         }
+
+        aLevelStart[aLevel] = n;
+        levelStart = Arrays.copyOf(aLevelStart, aLevel + 1);
+
+        for (int i = 0; i < n; i++) {
+            sortedNodes[i] = graph.getNode(order[i]);
+        }
+        index = n;
+
+        buildCriticalPath();
+        distance = null;
+        predecessor = null;
     }
 
     /**
-     * calculates the source nodes
-     * @return set of source nodes
+     * processes the nodes of a level in {@code [lo, hi)} of the order: computes their distance from
+     * their predecessors, which are all in previous levels, and appends their successors that become
+     * sources to the next level
      */
-    private Set<Node> calculateSourceNodes() {
-        Set<Node> aSourceNodeSet = new HashSet<>();
-        for (Node aNode : graph.getEachNode()) {
-            if (aNode.getInDegree() == 0) {
-                aSourceNodeSet.add(aNode);
-            }
+    private class LevelTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] order;
+        private final AtomicIntegerArray inDegree;
+        private final AtomicInteger next;
+        private final int level;
+        private final int lo;
+        private final int hi;
+
+        LevelTask(int[] order, AtomicIntegerArray inDegree, AtomicInteger next, int level, int lo, int hi) {
+            this.order = order;
+            this.inDegree = inDegree;
+            this.next = next;
+            this.level = level;
+            this.lo = lo;
+            this.hi = hi;
         }
-        if (aSourceNodeSet.isEmpty()) {
-            throw new GraphHasCycleException();
+
+        @Override
+        protected void compute() {
+            if (hi - lo > SEQUENTIAL_THRESHOLD) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new LevelTask(order, inDegree, next, level, lo, mid),
+                        new LevelTask(order, inDegree, next, level, mid, hi));
+                return;
+            }
+
+            int[] aReady = new int[16];
+            int aReadyCount = 0;
+
+            for (int i = lo; i < hi; i++) {
+                int u = order[i];
+
+                levels[u] = level;
+                relaxEnteringArcs(u);
+
+                for (int a = arcStart[u]; a < arcStart[u + 1]; a++) {
+                    int v = arcHead[a];
+                    if (inDegree.decrementAndGet(v) == 0) {
+                        if (aReadyCount == aReady.length) {
+                            aReady = Arrays.copyOf(aReady, 2 * aReadyCount);
+                        }
+                        aReady[aReadyCount++] = v;
+                    }
+                }
+            }
+
+            if (aReadyCount > 0) {
+                System.arraycopy(aReady, 0, order, next.getAndAdd(aReadyCount), aReadyCount);
+            }
         }
-        return aSourceNodeSet;
     }
 
-    private void computeDFS() {
-        if (graph == null) {
-            throw new NotInitializedException(this);
+    /**
+     * computes the longest distance to a node from the ones of its predecessors
+     */
+    private void relaxEnteringArcs(int u) {
+        double aMaxDistance = 0;
+        int aPredecessor = -1;
+
+        for (int a = inArcStart[u]; a < inArcStart[u + 1]; a++) {
+            double aDistance = distance[inArcTail[a]] + inArcWeight[a];
+            if (aDistance > aMaxDistance) {
+                aMaxDistance = aDistance;
+                aPredecessor = a;
+            }
         }
 
-        int[] marks = new int[graph.getNodeCount()];
-        
-        for (int i = 0; i < marks.length; i++) {
-            if (marks[i] == MARK_UNMARKED) {
-                visitNode(graph.getNode(i), marks);
+        distance[u] = aMaxDistance;
+        predecessor[u] = aPredecessor;
+    }
+
+    /**
+     * goes back from the first node with the maximum distance along the recorded predecessors
+     */
+    private void buildCriticalPath() {
+        int n = distance.length;
+        int aLast = -1;
+        int aLength = 0;
+
+        for (int i = 0; i < n; i++) {
+            if (aLast < 0 || distance[i] > distance[aLast]) {
+                aLast = i;
             }
         }
+
+        criticalPath = null;
+        criticalPathValue = aLast < 0 ? 0 : distance[aLast];
+
+        for (int u = aLast; u >= 0 && predecessor[u] >= 0; u = inArcTail[predecessor[u]]) {
+            aLength++;
+        }
+
+        criticalPathEdges = new int[aLength];
+
+        int u = aLast;
+        for (int i = aLength - 1; i >= 0; i--) {
+            criticalPathEdges[i] = inArcEdge[predecessor[u]];
+            u = inArcTail[predecessor[u]];
+        }
+
+        criticalPathStart = u < 0 ? null : graph.getNode(u);
     }
 
-    private void visitNode(Node node, int[] marks) {
-        int mark = marks[node.getIndex()];
+    /**
+     * checks that the graph has at least one source node
+     */
+    private void checkSourceNodes() {
+        for (Node aNode : graph.getEachNode()) {
+            if (aNode.getInDegree() == 0) {
+                return;
+            }
+        }
+        throw new GraphHasCycleException();
+    }
 
-        if (mark == MARK_TEMP) {
-            throw new GraphHasCycleException();
-        } else if (mark == MARK_UNMARKED) {
-            marks[node.getIndex()] = MARK_TEMP;
+    /**
+     * Depth-first search with an explicit stack. The nodes are visited in the same order as a
+     * recursive search following the leaving edges, and put in the sorted array when all their
+     * successors are done.
+     */
+    private void computeDFS() {
+        int n = graph.getNodeCount();
+        int[] marks = new int[n];
+        int[] stack = new int[n];
+        int[] next = new int[n];
 
-            for (Edge edge : node.getEachLeavingEdge()) {
-                visitNode(edge.getOpposite(node), marks);
+        for (int i = 0; i < n; i++) {
+            if (marks[i] != MARK_UNMARKED) {
+                continue;
             }
 
-            marks[node.getIndex()] = MARK_PERM;
+            int top = 0;
+            stack[0] = i;
+            next[i] = arcStart[i];
+            marks[i] = MARK_TEMP;
+
+            while (top >= 0) {
+                int u = stack[top];
+
+                if (next[u] < arcStart[u + 1]) {
+                    int v = arcHead[next[u]++];
 
-            sortedNodes[index] = node;
-            index--;
+                    if (marks[v] == MARK_TEMP) {
+                        throw new GraphHasCycleException();
+                    } else if (marks[v] == MARK_UNMARKED) {
+                        marks[v] = MARK_TEMP;
+                        next[v] = arcStart[v];
+                        stack[++top] = v;
+                    }
+                } else {
+                    marks[u] = MARK_PERM;
+                    sortedNodes[index] = graph.getNode(u);
+                    index--;
+                    top--;
+                }
+            }
         }
     }
 
@@ -184,4 +534,76 @@ public class TopologicalSort implements Algorithm {
     public Node[] getSortedArray() {
         return sortedNodes;
     }
+
+    /**
+     * gets the level of a node, computed by Kahn's algorithm only
+     * @param node a node of the graph
+     * @return level of the node, 0 for the sources
+     */
+    public int getLevel(Node node) {
+        checkLevels();
+        return levels[node.getIndex()];
+    }
+
+    /**
+     * gets the levels of all nodes, computed by Kahn's algorithm only
+     * @return level of each node, indexed by node index
+     */
+    public int[] getLevels() {
+        checkLevels();
+        return levels;
+    }
+
+    /**
+     * @return number of levels, computed by Kahn's algorithm only
+     */
+    public int getLevelCount() {
+        checkLevels();
+        return levelStart.length - 1;
+    }
+
+    /**
+     * gets the nodes of a level, computed by Kahn's algorithm only
+     * @param level a level between 0 and {@link #getLevelCount()} - 1
+     * @return nodes of the level, in node index order
+     */
+    public List<Node> getLevelNodes(int level) {
+        checkLevels();
+        return getSortedNodes().subList(levelStart[level], levelStart[level + 1]);
+    }
+
+    /**
+     * gets the longest path of the graph, computed by Kahn's algorithm only
+     * @return the critical path
+     */
+    public Path getCriticalPath() {
+        checkLevels();
+        if (criticalPath == null) {
+            criticalPath = new Path();
+            if (criticalPathStart != null) {
+                criticalPath.setRoot(criticalPathStart);
+            }
+            for (int anEdgeIndex : criticalPathEdges) {
+                Edge anEdge = graph.getEdge(anEdgeIndex);
+                criticalPath.add(anEdge.getSourceNode(), anEdge);
+            }
+        }
+        return criticalPath;
+    }
+
+    /**
+     * gets the value of the longest path of the graph, computed by Kahn's algorithm only.
+     * if unweighted value = hops
+     * @return value of the critical path
+     */
+    public double getCriticalPathValue() {
+        checkLevels();
+        return criticalPathValue;
+    }
+
+    private void checkLevels() {
+        if (levelStart == null) {
+            throw new IllegalStateException("levels are only computed by Kahn's algorithm");
+        }
+    }
 }
@@ -0,0 +1,445 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+
+/**
+ * Counts the triangles of a graph, for each node and in total.
+ * 
+ * <p>
+ * Nodes are ranked by degree and each edge is oriented from its lower ranked
+ * end toward its higher ranked one. A triangle is then found exactly once, from
+ * its lowest ranked node u, as a node w common to the oriented neighborhoods of
+ * u and of one of its oriented neighbors v. The oriented neighborhoods have at
+ * most O(sqrt(m)) nodes, whatever the degree of the hubs, and are kept sorted
+ * so that they are intersected by a merge. When one of them is much longer than
+ * the other, the nodes of the shorter one are looked up by binary search in the
+ * longer one instead. The nodes u are processed in parallel using a
+ * {@link ForkJoinPool}.
+ * </p>
+ * 
+ * <p>
+ * The count is done on the underlying simple undirected graph: edge directions
+ * are ignored, parallel edges count once and loops are ignored. From the
+ * counts, the algorithm gives the local clustering coefficient of each node,
+ * their average, and the transitivity of the graph, three times the number of
+ * triangles divided by the number of connected triples. The clustering methods
+ * of {@link Toolkit} use this algorithm.
+ * </p>
+ * 
+ * <h2>Example</h2>
+ * 
+ * <pre>
+ * TriangleCount triangles = new TriangleCount();
+ * triangles.init(graph);
+ * triangles.compute();
+ * 
+ * System.out.println(triangles.getTriangleCount());
+ * System.out.println(triangles.getClusteringCoefficient(graph.getNode(&quot;A&quot;)));
+ * </pre>
+ * 
+ * @complexity O(m sqrt(m)) where m is the number of edges.
+ * 
+ * @reference T. Schank and D. Wagner, "Finding, Counting and Listing all
+ *            Triangles in Large Graphs, an Experimental Study", WEA 2005.
+ */
+public class TriangleCount implements Algorithm {
+	/**
+	 * Size ratio above which the intersection of two neighborhoods uses binary
+	 * searches instead of a merge.
+	 */
+	protected static final int SEARCH_RATIO = 16;
+
+	/**
+	 * The graph.
+	 */
+	protected Graph graph;
+
+	/**
+	 * Number of threads used by the count.
+	 */
+	protected int parallelism;
+
+	/**
+	 * Node index of each rank, by increasing degree.
+	 */
+	protected int[] order;
+
+	/**
+	 * Oriented neighborhoods, as sorted ranks in a compressed array: the ranks
+	 * of the higher ranked neighbors of rank r are the ones from
+	 * {@code arcStart[r]} to {@code arcStart[r + 1]}.
+	 */
+	protected int[] arcStart;
+	protected int[] arcHead;
+
+	/**
+	 * Number of distinct neighbors of each node, by node index.
+	 */
+	protected int[] neighborCount;
+
+	/**
+	 * Number of triangles of each node, by node index.
+	 */
+	protected long[] triangles;
+
+	/**
+	 * Total number of triangles and of connected triples.
+	 */
+	protected long triangleCount, tripleCount;
+
+	/**
+	 * New triangle count.
+	 */
+	public TriangleCount() {
+		parallelism = Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Number of threads used by the count. Default is the number of available
+	 * processors.
+	 * 
+	 * @return the parallelism level
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Set the number of threads used by the count.
+	 * 
+	 * @param parallelism
+	 *            the new parallelism level, at least 1
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be positive");
+		this.parallelism = parallelism;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.graphstream.algorithm.Algorithm#init(org.graphstream.graph.Graph)
+	 */
+	public void init(Graph graph) {
+		this.graph = graph;
+		triangles = null;
+	}
+
+	/**
+	 * Count the triangles.
+	 * 
+	 * @complexity O(m sqrt(m)) where m is the number of edges.
+	 */
+	public void compute() {
+		int n = graph.getNodeCount();
+
+		buildArcs();
+
+		AtomicLongArray counts = new AtomicLongArray(n);
+		AtomicLong total = new AtomicLong();
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+		try {
+			int grain = Math.max(1, n / (8 * parallelism));
+			pool.invoke(new CountTask(0, n, grain, counts, total));
+		} finally {
+			pool.shutdown();
+		}
+
+		triangles = new long[n];
+		tripleCount = 0;
+
+		for (int r = 0; r < n; r++) {
+			int u = order[r];
+			long k = neighborCount[u];
+
+			triangles[u] = counts.get(r);
+			tripleCount += k * (k - 1) / 2;
+		}
+
+		triangleCount = total.get();
+		order = arcStart = arcHead = null;
+	}
+
+	/**
+	 * Total number of triangles of the graph.
+	 */
+	public long getTriangleCount() {
+		checkComputed();
+		return triangleCount;
+	}
+
+	/**
+	 * Number of triangles a node belongs to.
+	 */
+	public long getTriangleCount(Node node) {
+		checkComputed();
+		return triangles[node.getIndex()];
+	}
+
+	/**
+	 * Number of connected triples of the graph, that is pairs of edges sharing
+	 * a node.
+	 */
+	public long getTripleCount() {
+		checkComputed();
+		return tripleCount;
+	}
+
+	/**
+	 * Transitivity, or global clustering coefficient, of the graph: three times
+	 * the number of triangles divided by the number of connected triples.
+	 * 
+	 * @return the transitivity, 0 if there is no connected triple
+	 */
+	public double getTransitivity() {
+		checkComputed();
+		return tripleCount == 0 ? 0 : 3.0 * triangleCount / tripleCount;
+	}
+
+	/**
+	 * Clustering coefficient of a node, the number of its triangles divided by
+	 * the number of pairs of its neighbors.
+	 * 
+	 * @return the clustering coefficient, 0 if the node has less than two
+	 *         neighbors
+	 */
+	public double getClusteringCoefficient(Node node) {
+		checkComputed();
+		return clusteringCoefficient(node.getIndex());
+	}
+
+	/**
+	 * Clustering coefficient of each node, by node index.
+	 */
+	public double[] getClusteringCoefficients() {
+		checkComputed();
+		double[] coefs = new double[triangles.length];
+
+		for (int i = 0; i < coefs.length; i++)
+			coefs[i] = clusteringCoefficient(i);
+
+		return coefs;
+	}
+
+	/**
+	 * Average of the clustering coefficients of the nodes.
+	 * 
+	 * @return the average clustering coefficient, 0 if the graph is empty
+	 */
+	public double getAverageClusteringCoefficient() {
+		checkComputed();
+		double cc = 0;
+
+		for (int i = 0; i < triangles.length; i++)
+			cc += clusteringCoefficient(i);
+
+		return triangles.length == 0 ? 0 : cc / triangles.length;
+	}
+
+	protected double clusteringCoefficient(int i) {
+		long k = neighborCount[i];
+		return k < 2 ? 0 : triangles[i] / (k * (k - 1) / 2.0);
+	}
+
+	protected void checkComputed() {
+		if (triangles == null)
+			throw new NotInitializedException(this);
+	}
+
+	/**
+	 * Rank the nodes by degree with a counting sort, then build the sorted
+	 * oriented neighborhoods.
+	 */
+	protected void buildArcs() {
+		int n = graph.getNodeCount();
+		int maxDegree = 0;
+
+		for (int i = 0; i < n; i++)
+			maxDegree = Math.max(maxDegree, graph.getNode(i).getDegree());
+
+		int[] bucket = new int[maxDegree + 2];
+		for (int i = 0; i < n; i++)
+			bucket[graph.getNode(i).getDegree() + 1]++;
+		for (int d = 0; d <= maxDegree; d++)
+			bucket[d + 1] += bucket[d];
+
+		order = new int[n];
+		int[] rank = new int[n];
+
+		for (int i = 0; i < n; i++) {
+			int r = bucket[graph.getNode(i).getDegree()]++;
+			order[r] = i;
+			rank[i] = r;
+		}
+
+		int[] mark = new int[n];
+		Arrays.fill(mark, -1);
+		neighborCount = new int[n];
+		arcStart = new int[n + 1];
+		arcHead = new int[graph.getEdgeCount()];
+		int a = 0;
+
+		for (int r = 0; r < n; r++) {
+			Node node = graph.getNode(order[r]);
+			arcStart[r] = a;
+
+			for (Edge edge : node.getEachEdge()) {
+				int s = rank[edge.getOpposite(node).getIndex()];
+
+				if (s != r && mark[s] != r) {
+					mark[s] = r;
+					neighborCount[order[r]]++;
+
+					if (s > r)
+						arcHead[a++] = s;
+				}
+			}
+
+			Arrays.sort(arcHead, arcStart[r], a);
+		}
+
+		arcStart[n] = a;
+	}
+
+	/**
+	 * Count the triangles whose lowest ranked node is in {@code [lo, hi)},
+	 * split in parallel tasks.
+	 */
+	protected class CountTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		protected final int lo;
+		protected final int hi;
+		protected final int grain;
+		protected final AtomicLongArray counts;
+		protected final AtomicLong total;
+
+		protected CountTask(int lo, int hi, int grain, AtomicLongArray counts,
+				AtomicLong total) {
+			this.lo = lo;
+			this.hi = hi;
+			this.grain = grain;
+			this.counts = counts;
+			this.total = total;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo <= grain) {
+				long found = 0;
+
+				for (int u = lo; u < hi; u++) {
+					long local = 0;
+
+					for (int a = arcStart[u]; a < arcStart[u + 1]; a++)
+						local += intersect(u, a + 1, arcHead[a]);
+
+					if (local > 0)
+						counts.addAndGet(u, local);
+
+					found += local;
+				}
+
+				total.addAndGet(found);
+			} else {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new CountTask(lo, mid, grain, counts, total),
+						new CountTask(mid, hi, grain, counts, total));
+			}
+		}
+
+		/**
+		 * Find the nodes w common to the neighborhood of u after position
+		 * from, and to the neighborhood of v. Each of them closes a triangle
+		 * (u, v, w), counted for v and w.
+		 * 
+		 * @return the number of triangles found
+		 */
+		protected long intersect(int u, int from, int v) {
+			int i = from, iEnd = arcStart[u + 1];
+			int j = arcStart[v], jEnd = arcStart[v + 1];
+			int sizeU = iEnd - i, sizeV = jEnd - j;
+			long found = 0;
+
+			if (sizeU == 0 || sizeV == 0)
+				return 0;
+
+			if (sizeU > SEARCH_RATIO * sizeV || sizeV > SEARCH_RATIO * sizeU) {
+				boolean inU = sizeU < sizeV;
+				int from0 = inU ? i : j, end0 = inU ? iEnd : jEnd;
+				int from1 = inU ? j : i, end1 = inU ? jEnd : iEnd;
+
+				for (int k = from0; k < end0; k++) {
+					int w = arcHead[k];
+
+					if (Arrays.binarySearch(arcHead, from1, end1, w) >= 0) {
+						counts.incrementAndGet(w);
+						found++;
+					}
+				}
+			} else {
+				while (i < iEnd && j < jEnd) {
+					int x = arcHead[i], y = arcHead[j];
+
+					if (x < y) {
+						i++;
+					} else if (y < x) {
+						j++;
+					} else {
+						counts.incrementAndGet(x);
+						found++;
+						i++;
+						j++;
+					}
+				}
+			}
+
+			if (found > 0)
+				counts.addAndGet(v, found);
+
+			return found;
+		}
+	}
+}
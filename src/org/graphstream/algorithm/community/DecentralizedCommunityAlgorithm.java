@@ -69,6 +69,29 @@ public abstract class DecentralizedCommunityAlgorithm implements
 	 */
 	protected boolean staticMode = false;
 
+	/**
+	 * Only compute the nodes touched by graph events and the nodes hearing a
+	 * node whose community changed.
+	 */
+	protected boolean activeSetMode = false;
+
+	/**
+	 * Nodes waiting to be computed in active set mode, in order of activation.
+	 */
+	protected LinkedHashSet<Node> activeNodes = new LinkedHashSet<Node>();
+
+	/**
+	 * Maximum number of node computations for each node of the graph in one
+	 * call to {@link #compute()} in active set mode.
+	 */
+	protected int activeSetLimit = 10;
+
+	/**
+	 * Number of node computations performed by the last call to
+	 * {@link #compute()}.
+	 */
+	protected int evaluationCount;
+
 	/**
 	 * Random number generator used to shuffle the nodes. Shall be used by all
 	 * inherited algorithms for random number generation
@@ -149,6 +172,11 @@ public abstract class DecentralizedCommunityAlgorithm implements
 		 */
 		if (this.rng == null)
 			rng = new Random();
+
+		if (activeSetMode) {
+			activeNodes.clear();
+			activateAll();
+		}
 	}
 
 //	@Override
@@ -163,6 +191,67 @@ public abstract class DecentralizedCommunityAlgorithm implements
 		staticMode = true;
 	}
 
+	/**
+	 * Enable or disable the active set mode. In this mode, graph events only
+	 * activate the nodes they touch, and {@link #compute()} only computes the
+	 * active nodes. When the community of a node changes, the nodes hearing it
+	 * are activated in turn, until no node is active. Enabling the mode
+	 * activates all the nodes of the graph. The algorithm has to be registered
+	 * as a sink of the graph to receive the events.
+	 * 
+	 * @param on
+	 *            true to enable the active set mode
+	 */
+	public void setActiveSetMode(boolean on) {
+		activeSetMode = on;
+		activeNodes.clear();
+
+		if (on && graph != null)
+			activateAll();
+	}
+
+	/**
+	 * Is the active set mode enabled?
+	 * 
+	 * @return true in active set mode
+	 */
+	public boolean isActiveSetMode() {
+		return activeSetMode;
+	}
+
+	/**
+	 * Set the maximum number of node computations for each node of the graph
+	 * in one call to {@link #compute()} in active set mode. Nodes that are
+	 * still active are computed by the next call. Default is 10.
+	 * 
+	 * @param limit
+	 *            the new limit, at least 1
+	 */
+	public void setActiveSetLimit(int limit) {
+		if (limit < 1)
+			throw new IllegalArgumentException("Limit must be positive");
+		activeSetLimit = limit;
+	}
+
+	/**
+	 * Number of nodes waiting to be computed in active set mode.
+	 * 
+	 * @return the number of active nodes
+	 */
+	public int getActiveNodeCount() {
+		return activeNodes.size();
+	}
+
+	/**
+	 * Number of node computations performed by the last call to
+	 * {@link #compute()}.
+	 * 
+	 * @return the number of computed nodes
+	 */
+	public int getEvaluationCount() {
+		return evaluationCount;
+	}
+
 	/**
 	 * Set the marker used to store the community assignment to the specified
 	 * value. The given value will be prefixed by
@@ -223,6 +312,13 @@ public abstract class DecentralizedCommunityAlgorithm implements
 		 * Nodes are processed in a random order. Computation only occurs if the
 		 * graph has changed since last call
 		 */
+		if (activeSetMode) {
+			computeActiveNodes();
+			return;
+		}
+
+		evaluationCount = 0;
+
 		if (graphChanged) {
 			ArrayList<Node> nodeSet = new ArrayList<Node>(graph.getNodeSet());
 			Collections.shuffle(nodeSet, rng);
@@ -230,10 +326,81 @@ public abstract class DecentralizedCommunityAlgorithm implements
 				computeNode(node);
 				updateDisplayClass(node);
 			}
+			evaluationCount = nodeSet.size();
 			graphChanged = staticMode;
 		}
 	}
 
+	/**
+	 * Compute the active nodes, in order of activation. When the state of a
+	 * node changes, the nodes hearing it are activated.
+	 * 
+	 * @complexity O(k d) where k is the number of computed nodes and d the
+	 *             average degree, times the complexity of the computeNode()
+	 *             function.
+	 */
+	protected void computeActiveNodes() {
+		long budget = (long) activeSetLimit * graph.getNodeCount();
+
+		evaluationCount = 0;
+
+		while (!activeNodes.isEmpty() && evaluationCount < budget) {
+			Iterator<Node> it = activeNodes.iterator();
+			Node node = it.next();
+			it.remove();
+
+			if (graph.getNode(node.getId()) != node)
+				continue;
+
+			Object[] previous = nodeState(node);
+			computeNode(node);
+			updateDisplayClass(node);
+			evaluationCount++;
+
+			if (!Arrays.equals(previous, nodeState(node)))
+				for (Edge e : node.getEachLeavingEdge())
+					activeNodes.add(e.getOpposite(node));
+		}
+
+		graphChanged = staticMode;
+	}
+
+	/**
+	 * Values of the attributes of a node that the nodes hearing it depend on.
+	 * The nodes hearing a node are activated when its state changes.
+	 * 
+	 * @param node
+	 *            a node
+	 * @return the state of the node
+	 */
+	protected Object[] nodeState(Node node) {
+		return new Object[] { node.getAttribute(marker) };
+	}
+
+	/**
+	 * Activate all the nodes of the graph, in random order.
+	 */
+	protected void activateAll() {
+		ArrayList<Node> nodeSet = new ArrayList<Node>(graph.getNodeSet());
+		Collections.shuffle(nodeSet, rng);
+		activeNodes.addAll(nodeSet);
+	}
+
+	/**
+	 * Activate a node in active set mode.
+	 * 
+	 * @param nodeId
+	 *            id of the node
+	 */
+	protected void activate(String nodeId) {
+		if (activeSetMode) {
+			Node node = graph.getNode(nodeId);
+
+			if (node != null)
+				activeNodes.add(node);
+		}
+	}
+
 	/**
 	 * Perform computation of one iteration of the algorithm on a given node.
 	 * 
@@ -272,23 +439,41 @@ public abstract class DecentralizedCommunityAlgorithm implements
 
 	public void nodeAdded(String graphId, long timeId, String nodeId) {
 		graphChanged = true;
+		activate(nodeId);
 	}
 
 	public void nodeRemoved(String graphId, long timeId, String nodeId) {
 		graphChanged = true;
+
+		// its neighbors were activated when its edges were removed
+		if (activeSetMode)
+			activeNodes.remove(graph.getNode(nodeId));
 	}
 
 	public void edgeAdded(String graphId, long timeId, String edgeId,
 			String fromNodeId, String toNodeId, boolean directed) {
 		graphChanged = true;
+		activate(fromNodeId);
+		activate(toNodeId);
 	}
 
 	public void edgeRemoved(String graphId, long timeId, String edgeId) {
 		graphChanged = true;
+
+		if (activeSetMode) {
+			// the edge is still in the graph
+			Edge edge = graph.getEdge(edgeId);
+
+			if (edge != null) {
+				activate(edge.getNode0().getId());
+				activate(edge.getNode1().getId());
+			}
+		}
 	}
 
 	public void graphCleared(String graphId, long timeId) {
 		graphChanged = true;
+		activeNodes.clear();
 	}
 
 	public void stepBegins(String graphId, long timeId, double time) {
@@ -281,6 +281,17 @@ public class Leung extends EpidemicCommunityAlgorithm {
 		}
 	}
 
+	/**
+	 * The nodes hearing a node depend on its community and on its score, so
+	 * in active set mode a change of score propagates like a change of
+	 * community.
+	 */
+	@Override
+	protected Object[] nodeState(Node node) {
+		return new Object[] { node.getAttribute(marker),
+				node.getAttribute(marker + ".score") };
+	}
+
 	@Override
 	protected void originateCommunity(Node node) {
 		super.originateCommunity(node);
@@ -0,0 +1,858 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.community;
+
+import java.util.Arrays;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+
+/**
+ * This class implements the multilevel modularity optimization of Blondel
+ * <i>et al</i>. (Louvain method), with the optional refinement phase of the
+ * Leiden algorithm of Traag <i>et al</i>.
+ * 
+ * <p>
+ * Each level starts with a local moving phase: nodes are taken from a queue,
+ * in random order at first, and moved to the neighboring community with the
+ * largest modularity gain. The neighbors of a moved node that are not in its
+ * new community are queued again. The graph is then aggregated, each
+ * community becoming a node of the next level, until no more aggregation is
+ * possible. Adjacency is kept in compressed arrays and the weights of the
+ * communities in primitive arrays, so each level is linear in the number of
+ * edges.
+ * </p>
+ * 
+ * <p>
+ * With the Leiden refinement ({@link #setLeidenRefinement(boolean)}), each
+ * community found by the local moving phase is split again into singletons
+ * that are greedily merged with the well connected sub-communities of the
+ * same community. The graph is aggregated on the refined partition while the
+ * nodes of the next level start in the unrefined communities. This guarantees
+ * connected communities, which the Louvain method does not.
+ * </p>
+ * 
+ * <p>
+ * Unlike the label propagation algorithms of this package, the whole graph is
+ * processed in each call to {@link #compute()}. At the end, all the nodes of a
+ * community get the same {@link Community} in the marker attribute, so the
+ * result can be evaluated with the measures of the
+ * {@link org.graphstream.algorithm.measure} package. Edge direction is
+ * ignored. If a weight marker is set, edges without weight have a weight of
+ * 1.
+ * </p>
+ * 
+ * @reference V. D. Blondel, J.-L. Guillaume, R. Lambiotte, and E. Lefebvre,
+ *            “Fast unfolding of communities in large networks,” Journal of
+ *            Statistical Mechanics: Theory and Experiment, vol. 2008, no. 10,
+ *            p. P10008, 2008.
+ * @reference V. A. Traag, L. Waltman, and N. J. van Eck, “From Louvain to
+ *            Leiden: guaranteeing well-connected communities,” Scientific
+ *            Reports, vol. 9, p. 5233, 2019.
+ * 
+ * @complexity O(m) for each pass of the local moving phase, where m is the
+ *             number of edges. The number of levels is usually small.
+ */
+public class Louvain extends DecentralizedCommunityAlgorithm {
+
+	/**
+	 * Name of the marker that is used to store weight of links on the graph
+	 * that this algorithm is applied to, null for unit weights.
+	 */
+	protected String weightMarker = null;
+
+	/**
+	 * Resolution parameter, the larger the smaller the communities.
+	 */
+	protected double resolution = 1;
+
+	/**
+	 * Enable the refinement phase of the Leiden algorithm.
+	 */
+	protected boolean leidenRefinement = false;
+
+	/**
+	 * Graph of the first level, built from the graph.
+	 */
+	protected Level base;
+
+	/**
+	 * Community of each node of the graph after the last computation.
+	 */
+	protected int[] membership;
+
+	/**
+	 * Total degree of each community of {@link #membership}.
+	 */
+	protected double[] communityDegree;
+
+	/**
+	 * Community objects stored in the marker attribute.
+	 */
+	protected Community[] communityObjects;
+
+	/**
+	 * Number of levels used by the last computation.
+	 */
+	protected int levelCount;
+
+	/**
+	 * Temporary arrays used to accumulate the weight between a node and the
+	 * neighboring communities.
+	 */
+	protected double[] neighborWeight;
+	protected int[] neighborStamp;
+	protected int[] neighborCommunities;
+
+	/**
+	 * Stamps marking the entries of {@link #neighborWeight} that are up to
+	 * date, and community of the last node given to
+	 * {@link #neighborCommunities(Level, int, int[], int, int[])}.
+	 */
+	protected int stampCounter, currentStamp, currentCommunity;
+
+	public Louvain() {
+		super();
+	}
+
+	public Louvain(Graph graph) {
+		super(graph);
+	}
+
+	public Louvain(Graph graph, String marker) {
+		super(graph, marker);
+	}
+
+	/**
+	 * Create a new Louvain algorithm instance, attached to the specified
+	 * graph, using the specified marker to store the community attribute, and
+	 * the specified weightMarker to retrieve the weight attribute of graph
+	 * edges.
+	 * 
+	 * @param graph
+	 *            graph to which the algorithm will be applied
+	 * @param marker
+	 *            community attribute marker
+	 * @param weightMarker
+	 *            edge weight marker
+	 */
+	public Louvain(Graph graph, String marker, String weightMarker) {
+		super(graph, marker);
+		this.weightMarker = weightMarker;
+	}
+
+	/**
+	 * Set the marker used to retrieve the weight of the edges, null for unit
+	 * weights.
+	 * 
+	 * @param weightMarker
+	 *            edge weight marker
+	 */
+	public void setWeightMarker(String weightMarker) {
+		this.weightMarker = weightMarker;
+		graphChanged = true;
+	}
+
+	/**
+	 * Set the resolution parameter of the modularity. Values larger than 1
+	 * give smaller communities. Default is 1.
+	 * 
+	 * @param resolution
+	 *            a positive resolution
+	 */
+	public void setResolution(double resolution) {
+		if (resolution <= 0)
+			throw new IllegalArgumentException("Resolution must be positive");
+
+		this.resolution = resolution;
+		graphChanged = true;
+	}
+
+	/**
+	 * Get the resolution parameter of the modularity.
+	 * 
+	 * @return the resolution
+	 */
+	public double getResolution() {
+		return resolution;
+	}
+
+	/**
+	 * Enable or disable the refinement phase of the Leiden algorithm. It is
+	 * disabled by default.
+	 * 
+	 * @param on
+	 *            true to refine the communities before each aggregation
+	 */
+	public void setLeidenRefinement(boolean on) {
+		leidenRefinement = on;
+		graphChanged = true;
+	}
+
+	/**
+	 * Is the refinement phase of the Leiden algorithm enabled?
+	 * 
+	 * @return true if the communities are refined before each aggregation
+	 */
+	public boolean isLeidenRefinement() {
+		return leidenRefinement;
+	}
+
+	/**
+	 * Number of levels used by the last computation, including the graph
+	 * itself.
+	 * 
+	 * @return the number of levels
+	 */
+	public int getLevelCount() {
+		return levelCount;
+	}
+
+	/**
+	 * Number of communities found by the last computation.
+	 * 
+	 * @return the number of communities
+	 */
+	public int getCommunityCount() {
+		return communityObjects == null ? 0 : communityObjects.length;
+	}
+
+	/**
+	 * Modularity of the communities found by the last computation, computed
+	 * with a resolution of 1 whatever the resolution used to find them.
+	 * 
+	 * @return the modularity, NaN if the graph has no edge
+	 */
+	public double getModularity() {
+		double m2 = 0, inner = 0, squares = 0;
+
+		for (int u = 0; u < base.n; u++) {
+			m2 += base.degree[u];
+			inner += 2 * base.self[u];
+
+			for (int i = base.start[u]; i < base.start[u + 1]; i++)
+				if (membership[base.adj[i]] == membership[u])
+					inner += base.weight[i];
+		}
+
+		for (double d : communityDegree)
+			squares += d * d;
+
+		return inner / m2 - squares / (m2 * m2);
+	}
+
+	/**
+	 * Compute the communities of the whole graph, if it changed since the last
+	 * computation or if the static mode is set.
+	 * 
+	 * @complexity O(m) for each pass of the local moving phase.
+	 */
+	@Override
+	public void compute() {
+		if (graphChanged) {
+			base = buildBaseLevel();
+			membership = multilevel(base);
+			writeCommunities();
+			graphChanged = staticMode;
+		}
+	}
+
+	/**
+	 * Move a node to the best neighboring community of the last computed
+	 * partition. The whole graph is computed again if it changed.
+	 * 
+	 * @param node
+	 *            the node to move
+	 */
+	@Override
+	public void computeNode(Node node) {
+		if (graphChanged || base == null) {
+			compute();
+			return;
+		}
+
+		int u = node.getIndex();
+		double m2 = totalDegree(base);
+
+		if (m2 > 0 && moveNode(base, u, membership, communityDegree, m2)) {
+			node.setAttribute(marker, communityObjects[membership[u]]);
+			updateDisplayClass(node);
+		}
+	}
+
+	/**
+	 * Write a Community object in the marker attribute of each node, the same
+	 * object for all the nodes of a community.
+	 */
+	protected void writeCommunities() {
+		int count = renumber(membership, base.n);
+
+		communityObjects = new Community[count];
+		communityDegree = new double[count];
+
+		for (int c = 0; c < count; c++)
+			communityObjects[c] = new Community();
+
+		for (int u = 0; u < base.n; u++) {
+			Node node = graph.getNode(u);
+
+			communityDegree[membership[u]] += base.degree[u];
+			node.setAttribute(marker, communityObjects[membership[u]]);
+			updateDisplayClass(node);
+		}
+	}
+
+	/**
+	 * Run the levels of the algorithm.
+	 * 
+	 * @param level
+	 *            the first level
+	 * @return the community of each node of the first level
+	 */
+	protected int[] multilevel(Level level) {
+		int[] result = new int[level.n];
+		int[] community = new int[level.n];
+		double m2 = totalDegree(level);
+
+		for (int u = 0; u < level.n; u++) {
+			result[u] = u;
+			community[u] = u;
+		}
+
+		neighborWeight = new double[level.n];
+		neighborStamp = new int[level.n];
+		neighborCommunities = new int[level.n];
+		levelCount = 1;
+
+		if (m2 == 0)
+			return result;
+
+		while (true) {
+			localMove(level, community, m2);
+			renumber(community, level.n);
+
+			int[] refined = community;
+
+			if (leidenRefinement) {
+				refined = refine(level, community, m2);
+				renumber(refined, level.n);
+			}
+
+			int count = 0;
+
+			for (int u = 0; u < level.n; u++)
+				count = Math.max(count, refined[u] + 1);
+
+			if (count == level.n) {
+				// no aggregation possible, the communities are final
+				for (int i = 0; i < result.length; i++)
+					result[i] = community[result[i]];
+
+				return result;
+			}
+
+			for (int i = 0; i < result.length; i++)
+				result[i] = refined[result[i]];
+
+			Level next = aggregate(level, refined, count);
+			int[] nextCommunity = new int[count];
+
+			for (int u = 0; u < level.n; u++)
+				nextCommunity[refined[u]] = leidenRefinement ? community[u]
+						: refined[u];
+
+			level = next;
+			community = nextCommunity;
+			levelCount++;
+		}
+	}
+
+	/**
+	 * Local moving phase, nodes are moved until no move improves the
+	 * modularity.
+	 * 
+	 * @param level
+	 *            the current level
+	 * @param community
+	 *            the initial community of each node, updated
+	 * @param m2
+	 *            twice the total weight of the edges
+	 * @return true if a node moved
+	 */
+	protected boolean localMove(Level level, int[] community, double m2) {
+		int n = level.n;
+		double[] degree = new double[n];
+		int[] queue = new int[n];
+		boolean[] queued = new boolean[n];
+		int head = 0, size = n;
+		boolean moved = false;
+
+		for (int u = 0; u < n; u++) {
+			degree[community[u]] += level.degree[u];
+			queue[u] = u;
+			queued[u] = true;
+		}
+
+		shuffle(queue);
+
+		while (size > 0) {
+			int u = queue[head];
+			head = head + 1 == n ? 0 : head + 1;
+			size--;
+			queued[u] = false;
+
+			if (moveNode(level, u, community, degree, m2)) {
+				moved = true;
+
+				for (int i = level.start[u]; i < level.start[u + 1]; i++) {
+					int v = level.adj[i];
+
+					if (!queued[v] && community[v] != community[u]) {
+						queued[v] = true;
+						queue[(head + size) % n] = v;
+						size++;
+					}
+				}
+			}
+		}
+
+		return moved;
+	}
+
+	/**
+	 * Move a node to the neighboring community with the best modularity gain.
+	 * 
+	 * @param level
+	 *            the current level
+	 * @param u
+	 *            the node
+	 * @param community
+	 *            the community of each node
+	 * @param degree
+	 *            the total degree of each community
+	 * @param m2
+	 *            twice the total weight of the edges
+	 * @return true if the node changed community
+	 */
+	protected boolean moveNode(Level level, int u, int[] community,
+			double[] degree, double m2) {
+		int own = community[u];
+		int count = neighborCommunities(level, u, community, -1, null);
+		double k = level.degree[u];
+		double scale = resolution * k / m2;
+
+		degree[own] -= k;
+
+		int best = own;
+		double bestGain = weightTo(own) - scale * degree[own];
+
+		for (int i = 0; i < count; i++) {
+			int c = neighborCommunities[i];
+			double gain = neighborWeight[c] - scale * degree[c];
+
+			if (gain > bestGain) {
+				best = c;
+				bestGain = gain;
+			}
+		}
+
+		degree[best] += k;
+		community[u] = best;
+
+		return best != own;
+	}
+
+	/**
+	 * Refinement phase of the Leiden algorithm. Each community is split into
+	 * singletons, and each singleton that is well connected to its community
+	 * is merged with the well connected sub-community of the same community
+	 * giving the best modularity gain.
+	 * 
+	 * @param level
+	 *            the current level
+	 * @param community
+	 *            the community of each node
+	 * @param m2
+	 *            twice the total weight of the edges
+	 * @return the sub-community of each node
+	 */
+	protected int[] refine(Level level, int[] community, double m2) {
+		int n = level.n;
+		int[] refined = new int[n];
+		int[] size = new int[n];
+		double[] degree = new double[n];
+		double[] external = new double[n];
+		double[] communityDegree = new double[n];
+		int[] order = new int[n];
+
+		for (int u = 0; u < n; u++) {
+			refined[u] = u;
+			size[u] = 1;
+			degree[u] = level.degree[u];
+			communityDegree[community[u]] += level.degree[u];
+			order[u] = u;
+
+			for (int i = level.start[u]; i < level.start[u + 1]; i++)
+				if (community[level.adj[i]] == community[u])
+					external[u] += level.weight[i];
+		}
+
+		shuffle(order);
+
+		for (int u : order) {
+			if (size[refined[u]] > 1)
+				continue;
+
+			double k = level.degree[u];
+			double total = communityDegree[community[u]];
+
+			if (external[u] < resolution * k * (total - k) / m2)
+				continue;
+
+			int count = neighborCommunities(level, u, refined, community[u],
+					community);
+			int best = -1;
+			double bestGain = 0;
+
+			for (int i = 0; i < count; i++) {
+				int r = neighborCommunities[i];
+
+				if (r == u
+						|| external[r] < resolution * degree[r]
+								* (total - degree[r]) / m2)
+					continue;
+
+				double gain = neighborWeight[r] - resolution * k * degree[r]
+						/ m2;
+
+				if (gain >= bestGain) {
+					best = r;
+					bestGain = gain;
+				}
+			}
+
+			if (best >= 0) {
+				external[best] += external[u] - 2 * neighborWeight[best];
+				degree[best] += k;
+				size[best]++;
+				size[u] = 0;
+				refined[u] = best;
+			}
+		}
+
+		return refined;
+	}
+
+	/**
+	 * Accumulate in {@link #neighborWeight} the weight between a node and each
+	 * neighboring community, and store these communities in
+	 * {@link #neighborCommunities}.
+	 * 
+	 * @param level
+	 *            the current level
+	 * @param u
+	 *            the node
+	 * @param community
+	 *            the community of each node
+	 * @param restriction
+	 *            if not negative, only neighbors v with
+	 *            {@code filter[v] == restriction} are considered
+	 * @param filter
+	 *            the array used to restrict the neighbors
+	 * @return the number of neighboring communities
+	 */
+	protected int neighborCommunities(Level level, int u, int[] community,
+			int restriction, int[] filter) {
+		int count = 0;
+		int stamp = ++stampCounter;
+
+		if (stamp == Integer.MAX_VALUE) {
+			Arrays.fill(neighborStamp, 0);
+			stamp = stampCounter = 1;
+		}
+
+		currentStamp = stamp;
+		currentCommunity = community[u];
+
+		for (int i = level.start[u]; i < level.start[u + 1]; i++) {
+			int v = level.adj[i];
+
+			if (restriction >= 0 && filter[v] != restriction)
+				continue;
+
+			int c = community[v];
+
+			if (neighborStamp[c] != stamp) {
+				neighborStamp[c] = stamp;
+				neighborWeight[c] = 0;
+
+				if (c != currentCommunity)
+					neighborCommunities[count++] = c;
+			}
+
+			neighborWeight[c] += level.weight[i];
+		}
+
+		return count;
+	}
+
+	/**
+	 * Weight between the last node given to
+	 * {@link #neighborCommunities(Level, int, int[], int, int[])} and one of
+	 * the neighboring communities, or its own community.
+	 */
+	protected double weightTo(int c) {
+		return neighborStamp[c] == currentStamp ? neighborWeight[c] : 0;
+	}
+
+	/**
+	 * Build the next level, where each community is a node.
+	 * 
+	 * @param level
+	 *            the current level
+	 * @param community
+	 *            the community of each node, numbered from 0 to count - 1
+	 * @param count
+	 *            the number of communities
+	 * @return the aggregated level
+	 */
+	protected Level aggregate(Level level, int[] community, int count) {
+		int n = level.n;
+		int[] memberStart = new int[count + 1];
+		int[] members = new int[n];
+
+		for (int u = 0; u < n; u++)
+			memberStart[community[u] + 1]++;
+
+		for (int c = 0; c < count; c++)
+			memberStart[c + 1] += memberStart[c];
+
+		int[] next = new int[count];
+		System.arraycopy(memberStart, 0, next, 0, count);
+
+		for (int u = 0; u < n; u++)
+			members[next[community[u]]++] = u;
+
+		Level aggregated = new Level(count, level.adj.length);
+		int arcs = 0;
+		int stamp = ++stampCounter;
+
+		for (int c = 0; c < count; c++) {
+			int neighbors = 0;
+			aggregated.start[c] = arcs;
+
+			for (int j = memberStart[c]; j < memberStart[c + 1]; j++) {
+				int u = members[j];
+
+				aggregated.degree[c] += level.degree[u];
+				aggregated.self[c] += level.self[u];
+
+				for (int i = level.start[u]; i < level.start[u + 1]; i++) {
+					int d = community[level.adj[i]];
+
+					if (d == c) {
+						// inner arcs are seen from both ends
+						aggregated.self[c] += level.weight[i] / 2;
+					} else {
+						if (neighborStamp[d] != stamp) {
+							neighborStamp[d] = stamp;
+							neighborWeight[d] = 0;
+							neighborCommunities[neighbors++] = d;
+						}
+
+						neighborWeight[d] += level.weight[i];
+					}
+				}
+			}
+
+			for (int i = 0; i < neighbors; i++) {
+				int d = neighborCommunities[i];
+				aggregated.adj[arcs] = d;
+				aggregated.weight[arcs++] = neighborWeight[d];
+			}
+
+			stamp = ++stampCounter;
+		}
+
+		aggregated.start[count] = arcs;
+		return aggregated;
+	}
+
+	/**
+	 * Build the first level from the graph, loops are stored apart and other
+	 * edges give an arc in each direction.
+	 * 
+	 * @return the first level
+	 */
+	protected Level buildBaseLevel() {
+		int n = graph.getNodeCount();
+		int m = graph.getEdgeCount();
+		int arcs = 0;
+
+		for (int i = 0; i < m; i++) {
+			Edge e = graph.getEdge(i);
+
+			if (e.getNode0() != e.getNode1())
+				arcs += 2;
+		}
+
+		Level level = new Level(n, arcs);
+
+		for (int i = 0; i < m; i++) {
+			Edge e = graph.getEdge(i);
+			int u = e.getNode0().getIndex();
+			int v = e.getNode1().getIndex();
+
+			if (u != v) {
+				level.start[u + 1]++;
+				level.start[v + 1]++;
+			}
+		}
+
+		for (int u = 0; u < n; u++)
+			level.start[u + 1] += level.start[u];
+
+		int[] next = new int[n];
+		System.arraycopy(level.start, 0, next, 0, n);
+
+		for (int i = 0; i < m; i++) {
+			Edge e = graph.getEdge(i);
+			int u = e.getNode0().getIndex();
+			int v = e.getNode1().getIndex();
+			double w = weight(e);
+
+			level.degree[u] += w;
+			level.degree[v] += w;
+
+			if (u == v) {
+				level.self[u] += w;
+			} else {
+				level.adj[next[u]] = v;
+				level.weight[next[u]++] = w;
+				level.adj[next[v]] = u;
+				level.weight[next[v]++] = w;
+			}
+		}
+
+		return level;
+	}
+
+	/**
+	 * Weight of an edge, 1 if there is no weight marker or if the edge has no
+	 * weight.
+	 */
+	protected double weight(Edge e) {
+		if (weightMarker == null || !e.hasNumber(weightMarker))
+			return 1;
+
+		return e.getNumber(weightMarker);
+	}
+
+	/**
+	 * Sum of the degrees of a level, which is twice the total weight of its
+	 * edges.
+	 */
+	protected double totalDegree(Level level) {
+		double m2 = 0;
+
+		for (int u = 0; u < level.n; u++)
+			m2 += level.degree[u];
+
+		return m2;
+	}
+
+	/**
+	 * Renumber labels from 0, in order of first appearance.
+	 * 
+	 * @return the number of distinct labels
+	 */
+	protected int renumber(int[] labels, int n) {
+		int[] id = new int[n];
+		int count = 0;
+
+		Arrays.fill(id, -1);
+
+		for (int u = 0; u < n; u++) {
+			if (id[labels[u]] < 0)
+				id[labels[u]] = count++;
+
+			labels[u] = id[labels[u]];
+		}
+
+		return count;
+	}
+
+	/**
+	 * Shuffle an array with the random number generator of the algorithm.
+	 */
+	protected void shuffle(int[] array) {
+		for (int i = array.length - 1; i > 0; i--) {
+			int j = rng.nextInt(i + 1);
+			int t = array[i];
+			array[i] = array[j];
+			array[j] = t;
+		}
+	}
+
+	/**
+	 * Graph of a level, with adjacency in compressed arrays. Neighbors of node
+	 * u are {@code adj[start[u]]} to {@code adj[start[u + 1] - 1]}.
+	 */
+	protected static class Level {
+		/**
+		 * Number of nodes.
+		 */
+		final int n;
+		final int[] start;
+		final int[] adj;
+		final double[] weight;
+		/**
+		 * Weight of the loop of each node, inner weight of the communities of
+		 * the previous level.
+		 */
+		final double[] self;
+		/**
+		 * Weighted degree of each node, loops counting twice.
+		 */
+		final double[] degree;
+
+		Level(int n, int arcs) {
+			this.n = n;
+			start = new int[n + 1];
+			adj = new int[arcs];
+			weight = new double[arcs];
+			self = new double[n];
+			degree = new double[n];
+		}
+	}
+}
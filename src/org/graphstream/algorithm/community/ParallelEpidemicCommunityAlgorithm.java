@@ -0,0 +1,666 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.community;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+
+/**
+ * High-throughput version of the epidemic label propagation of Raghavan
+ * <i>et al</i>.
+ * 
+ * <p>
+ * Instead of node attributes, labels are integers kept in an array, and the
+ * nodes heard by each node are packed in compressed arrays. Neighbor labels
+ * are counted in a reusable open addressing table, so the inner loops do not
+ * allocate. Nodes are processed in parallel with a {@link ForkJoinPool}, in
+ * one of two modes:
+ * </p>
+ * <ul>
+ * <li>{@link Mode#ASYNCHRONOUS} (default): labels are updated in place, in a
+ * random order at each round. Concurrent reads of the labels of other nodes
+ * are relaxed, a node may see the label of a neighbor before or after its
+ * update in the same round.</li>
+ * <li>{@link Mode#SYNCHRONOUS}: labels of a round are computed from the labels
+ * of the previous round, with two arrays swapped after each round, as in
+ * {@link SyncEpidemicCommunityAlgorithm}. The result does not depend on the
+ * number of threads.</li>
+ * </ul>
+ * 
+ * <p>
+ * Each call to {@link #compute()} runs rounds until no label changes or the
+ * maximum number of iterations is reached, then publishes the labels in the
+ * marker attribute, all the nodes with the same label sharing the same
+ * {@link Community}. Nodes already having a community in the marker attribute
+ * start with it, the others start in their own community. Ties are broken in
+ * favor of the current label of the node in asynchronous mode, then
+ * pseudo-randomly from the random number generator of the algorithm.
+ * </p>
+ * 
+ * @reference U. N. Raghavan, R. Albert, and S. Kumara, “Near Linear Time Al-
+ *            gorithm to Detect Community Structures in Large-scale Networks,”
+ *            Physical Review E (Statistical, Nonlinear, and Soft Matter
+ *            Physics), vol. 76, no. 3, 2007.
+ * 
+ * @complexity O(m) for each round, where m is the number of edges.
+ */
+public class ParallelEpidemicCommunityAlgorithm extends
+		DecentralizedCommunityAlgorithm {
+
+	/**
+	 * Update modes of the labels.
+	 */
+	public static enum Mode {
+		/**
+		 * Labels of a round are computed from the labels of the previous
+		 * round.
+		 */
+		SYNCHRONOUS,
+		/**
+		 * Labels are updated in place.
+		 */
+		ASYNCHRONOUS
+	}
+
+	/**
+	 * Number of nodes under which a range is processed by a single task.
+	 */
+	protected static final int SEQUENTIAL_THRESHOLD = 1024;
+
+	/**
+	 * Update mode of the labels.
+	 */
+	protected Mode mode = Mode.ASYNCHRONOUS;
+
+	/**
+	 * Number of threads.
+	 */
+	protected int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Maximum number of rounds for each call to {@link #compute()}.
+	 */
+	protected int maxIterations = 100;
+
+	/**
+	 * Number of rounds of the last call to {@link #compute()}.
+	 */
+	protected int iterationCount;
+
+	/**
+	 * Nodes heard by each node, node u hears nodes {@code arcTail[arcStart[u]]}
+	 * to {@code arcTail[arcStart[u + 1] - 1]} through the edges of indices
+	 * {@code arcEdge[arcStart[u]]} to {@code arcEdge[arcStart[u + 1] - 1]}.
+	 */
+	protected int[] arcStart;
+	protected int[] arcTail;
+	protected int[] arcEdge;
+
+	/**
+	 * Current label of each node, and labels of the next round in synchronous
+	 * mode.
+	 */
+	protected int[] labels;
+	protected int[] nextLabels;
+
+	/**
+	 * Order in which the nodes are processed.
+	 */
+	protected int[] order;
+
+	/**
+	 * Community object of each label, null for labels not published yet.
+	 */
+	protected ArrayList<Community> communityObjects;
+
+	/**
+	 * Seed of the tie-breaking of the current round.
+	 */
+	protected long roundSeed;
+
+	/**
+	 * Table used for the sequential rounds.
+	 */
+	protected LabelCounter counter = new LabelCounter();
+
+	public ParallelEpidemicCommunityAlgorithm() {
+		super();
+	}
+
+	public ParallelEpidemicCommunityAlgorithm(Graph graph) {
+		super(graph);
+	}
+
+	public ParallelEpidemicCommunityAlgorithm(Graph graph, String marker) {
+		super(graph, marker);
+	}
+
+	/**
+	 * Number of threads used to update the labels.
+	 * 
+	 * @return the parallelism level
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Set the number of threads used to update the labels. By default this is
+	 * the number of available processors.
+	 * 
+	 * @param parallelism
+	 *            the new parallelism level, at least 1
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be positive");
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Update mode of the labels.
+	 * 
+	 * @return the mode
+	 */
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * Set the update mode of the labels, {@link Mode#ASYNCHRONOUS} by default.
+	 * 
+	 * @param mode
+	 *            the new mode
+	 */
+	public void setMode(Mode mode) {
+		this.mode = mode;
+	}
+
+	/**
+	 * Maximum number of rounds for each call to {@link #compute()}.
+	 * 
+	 * @return the maximum number of rounds
+	 */
+	public int getMaxIterations() {
+		return maxIterations;
+	}
+
+	/**
+	 * Set the maximum number of rounds for each call to {@link #compute()}, 100
+	 * by default. Synchronous propagation may oscillate forever without this
+	 * limit.
+	 * 
+	 * @param maxIterations
+	 *            the new maximum, at least 1
+	 */
+	public void setMaxIterations(int maxIterations) {
+		if (maxIterations < 1)
+			throw new IllegalArgumentException(
+					"Maximum number of iterations must be positive");
+		this.maxIterations = maxIterations;
+	}
+
+	/**
+	 * Number of rounds run by the last call to {@link #compute()}.
+	 * 
+	 * @return the number of rounds
+	 */
+	public int getIterationCount() {
+		return iterationCount;
+	}
+
+	/**
+	 * Run rounds of label propagation until the labels are stable, then
+	 * publish them in the marker attribute.
+	 * 
+	 * @complexity O(m) for each round, where m is the number of edges.
+	 */
+	@Override
+	public void compute() {
+		if (graphChanged) {
+			buildArcs();
+			initLabels();
+			propagate();
+			publishLabels();
+			graphChanged = staticMode;
+		}
+	}
+
+	/**
+	 * Labels are only updated by {@link #compute()}, this only publishes the
+	 * current community of the node.
+	 * 
+	 * @param node
+	 *            a node
+	 */
+	@Override
+	public void computeNode(Node node) {
+		if (labels != null && node.getIndex() < labels.length)
+			publishLabel(node);
+	}
+
+	/**
+	 * Run the rounds.
+	 */
+	protected void propagate() {
+		int n = labels.length;
+		ForkJoinPool pool = parallelism > 1 && n > SEQUENTIAL_THRESHOLD ? new ForkJoinPool(
+				parallelism) : null;
+
+		try {
+			for (iterationCount = 0; iterationCount < maxIterations;) {
+				if (mode == Mode.ASYNCHRONOUS)
+					shuffle(order);
+
+				roundSeed = rng.nextLong();
+
+				int changed;
+
+				if (pool == null) {
+					changed = updateRange(0, n, counter);
+				} else {
+					AtomicInteger total = new AtomicInteger();
+					pool.invoke(new RoundTask(0, n, total));
+					changed = total.get();
+				}
+
+				iterationCount++;
+
+				if (mode == Mode.SYNCHRONOUS)
+					swapBuffers();
+
+				if (changed == 0)
+					break;
+			}
+		} finally {
+			if (pool != null)
+				pool.shutdown();
+		}
+	}
+
+	/**
+	 * Update the nodes of a range of {@link #order}.
+	 * 
+	 * @return the number of nodes whose label changed
+	 */
+	protected int updateRange(int lo, int hi, LabelCounter counter) {
+		int[] write = mode == Mode.SYNCHRONOUS ? nextLabels : labels;
+		int changed = 0;
+
+		for (int i = lo; i < hi; i++)
+			if (updateNode(order[i], labels, write, counter))
+				changed++;
+
+		return changed;
+	}
+
+	/**
+	 * Swap the buffers of the synchronous mode at the end of a round.
+	 */
+	protected void swapBuffers() {
+		int[] t = labels;
+		labels = nextLabels;
+		nextLabels = t;
+	}
+
+	/**
+	 * Compute the new label of a node, the label most frequent among the nodes
+	 * it hears. In synchronous mode the node also hears itself and ties are
+	 * only broken pseudo-randomly, which prevents the labels of bipartite parts
+	 * of the graph from oscillating forever.
+	 * 
+	 * @param u
+	 *            the node
+	 * @param read
+	 *            the labels to read
+	 * @param write
+	 *            the labels to write, the same array in asynchronous mode
+	 * @param counter
+	 *            a table used to count the labels
+	 * @return true if the label of the node changed
+	 */
+	protected boolean updateNode(int u, int[] read, int[] write,
+			LabelCounter counter) {
+		int current = read[u];
+
+		counter.clear();
+
+		if (read != write)
+			counter.add(current, 1);
+
+		for (int i = arcStart[u]; i < arcStart[u + 1]; i++)
+			counter.add(read[arcTail[i]], 1);
+
+		int best;
+
+		if (read != write)
+			best = counter.size() == 1 ? current : selectLabel(u, -1, counter);
+		else
+			best = counter.size() == 0 ? current : selectLabel(u, current,
+					counter);
+
+		write[u] = best;
+		return best != current;
+	}
+
+	/**
+	 * Label with the highest score in a table. Ties are broken in favor of the
+	 * current label, then pseudo-randomly.
+	 * 
+	 * @param u
+	 *            the node
+	 * @param current
+	 *            its current label, or -1 if it should not be favored
+	 * @param counter
+	 *            the scores of the labels
+	 * @return the selected label
+	 */
+	protected int selectLabel(int u, int current, LabelCounter counter) {
+		int best = current;
+		double max = Double.NEGATIVE_INFINITY;
+
+		for (int i = 0; i < counter.size(); i++) {
+			int label = counter.label(i);
+			double score = counter.score(i);
+
+			if (score > max) {
+				best = label;
+				max = score;
+			} else if (score == max
+					&& best != current
+					&& (label == current || tieKey(u, label) < tieKey(u, best))) {
+				best = label;
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Pseudo-random key of a label for a node in the current round.
+	 */
+	protected long tieKey(int u, int label) {
+		long z = roundSeed + (((long) u << 32) | label) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Pack the nodes heard by each node. A node hears the source of its
+	 * entering edges, both ends of an undirected edge hear each other.
+	 */
+	protected void buildArcs() {
+		int n = graph.getNodeCount();
+		int m = graph.getEdgeCount();
+
+		arcStart = new int[n + 1];
+
+		for (int i = 0; i < m; i++) {
+			Edge e = graph.getEdge(i);
+			int u = e.getSourceNode().getIndex();
+			int v = e.getTargetNode().getIndex();
+
+			arcStart[v + 1]++;
+
+			if (!e.isDirected() && u != v)
+				arcStart[u + 1]++;
+		}
+
+		for (int u = 0; u < n; u++)
+			arcStart[u + 1] += arcStart[u];
+
+		arcTail = new int[arcStart[n]];
+		arcEdge = new int[arcStart[n]];
+
+		int[] next = Arrays.copyOf(arcStart, n);
+
+		for (int i = 0; i < m; i++) {
+			Edge e = graph.getEdge(i);
+			int u = e.getSourceNode().getIndex();
+			int v = e.getTargetNode().getIndex();
+
+			arcTail[next[v]] = u;
+			arcEdge[next[v]++] = i;
+
+			if (!e.isDirected() && u != v) {
+				arcTail[next[u]] = v;
+				arcEdge[next[u]++] = i;
+			}
+		}
+	}
+
+	/**
+	 * Give a label to each node, from its community if it has one, or a new
+	 * label.
+	 */
+	protected void initLabels() {
+		int n = graph.getNodeCount();
+		HashMap<Object, Integer> known = new HashMap<Object, Integer>();
+
+		labels = new int[n];
+		nextLabels = mode == Mode.SYNCHRONOUS ? new int[n] : null;
+		order = new int[n];
+		communityObjects = new ArrayList<Community>(n);
+
+		for (int u = 0; u < n; u++) {
+			Object c = graph.getNode(u).getAttribute(marker);
+			Integer label = c instanceof Community ? known.get(c) : null;
+
+			if (label == null) {
+				label = communityObjects.size();
+				communityObjects.add(c instanceof Community ? (Community) c
+						: null);
+
+				if (c instanceof Community)
+					known.put(c, label);
+			}
+
+			labels[u] = label;
+			order[u] = u;
+		}
+	}
+
+	/**
+	 * Write the community of each node in the marker attribute.
+	 */
+	protected void publishLabels() {
+		for (int u = 0; u < labels.length; u++)
+			publishLabel(graph.getNode(u));
+	}
+
+	/**
+	 * Write the community of a node in the marker attribute, if it changed.
+	 */
+	protected void publishLabel(Node node) {
+		int label = labels[node.getIndex()];
+		Community c = communityObjects.get(label);
+
+		if (c == null) {
+			c = new Community();
+			communityObjects.set(label, c);
+		}
+
+		if (node.getAttribute(marker) != c) {
+			node.setAttribute(marker, c);
+			updateDisplayClass(node);
+		}
+	}
+
+	/**
+	 * Shuffle an array with the random number generator of the algorithm.
+	 */
+	protected void shuffle(int[] array) {
+		for (int i = array.length - 1; i > 0; i--) {
+			int j = rng.nextInt(i + 1);
+			int t = array[i];
+			array[i] = array[j];
+			array[j] = t;
+		}
+	}
+
+	/**
+	 * Update of a range of nodes, split until it is small enough.
+	 */
+	protected class RoundTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		protected final int lo;
+		protected final int hi;
+		protected final AtomicInteger changed;
+
+		protected RoundTask(int lo, int hi, AtomicInteger changed) {
+			this.lo = lo;
+			this.hi = hi;
+			this.changed = changed;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo <= SEQUENTIAL_THRESHOLD) {
+				changed.addAndGet(updateRange(lo, hi, new LabelCounter()));
+			} else {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new RoundTask(lo, mid, changed), new RoundTask(mid,
+						hi, changed));
+			}
+		}
+	}
+
+	/**
+	 * Open addressing table summing scores by label. Clearing only resets the
+	 * used slots, so a table can be reused for all the nodes.
+	 */
+	protected static class LabelCounter {
+		protected int[] keys;
+		protected double[] scores;
+		protected int[] used;
+		protected int size;
+		protected int mask;
+
+		/**
+		 * Shift keeping the top log2(capacity) bits of the hash.
+		 */
+		protected int shift;
+
+		public LabelCounter() {
+			allocate(16);
+		}
+
+		protected void allocate(int capacity) {
+			keys = new int[capacity];
+			scores = new double[capacity];
+			used = new int[capacity / 2];
+			mask = capacity - 1;
+			shift = 32 - Integer.numberOfTrailingZeros(capacity);
+			size = 0;
+			Arrays.fill(keys, -1);
+		}
+
+		/**
+		 * Add a score to a label.
+		 */
+		public void add(int label, double score) {
+			int slot = (label * 0x9E3779B9) >>> shift;
+
+			while (keys[slot] != label) {
+				if (keys[slot] < 0) {
+					if (size == used.length) {
+						grow();
+						add(label, score);
+						return;
+					}
+
+					keys[slot] = label;
+					scores[slot] = 0;
+					used[size++] = slot;
+					break;
+				}
+
+				slot = (slot + 1) & mask;
+			}
+
+			scores[slot] += score;
+		}
+
+		protected void grow() {
+			int[] oldKeys = keys;
+			double[] oldScores = scores;
+			int[] oldUsed = used;
+			int oldSize = size;
+
+			allocate(2 * keys.length);
+
+			for (int i = 0; i < oldSize; i++)
+				add(oldKeys[oldUsed[i]], oldScores[oldUsed[i]]);
+		}
+
+		/**
+		 * Remove all the labels.
+		 */
+		public void clear() {
+			for (int i = 0; i < size; i++)
+				keys[used[i]] = -1;
+
+			size = 0;
+		}
+
+		/**
+		 * Number of labels in the table.
+		 */
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * The i-th label added since the last {@link #clear()}.
+		 */
+		public int label(int i) {
+			return keys[used[i]];
+		}
+
+		/**
+		 * Score of the i-th label added since the last {@link #clear()}.
+		 */
+		public double score(int i) {
+			return scores[used[i]];
+		}
+	}
+}
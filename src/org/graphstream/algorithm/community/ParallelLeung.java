@@ -0,0 +1,323 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.community;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+
+/**
+ * Primitive-backed version of the {@link Leung} algorithm, built on the label
+ * arrays of {@link ParallelEpidemicCommunityAlgorithm}.
+ * 
+ * <p>
+ * The weight of each heard edge, merged with the weight of the reciprocal edge
+ * for directed graphs, and the preference {@code d^m} of each node, where d
+ * is its in-degree, are computed once before the rounds. Labels and scores
+ * are kept in parallel arrays, so the rounds read no attribute and allocate
+ * nothing. A node takes the label with the highest sum of
+ * {@code score * d^m * weight} over the nodes it hears, and its score becomes
+ * the highest score of these nodes having the chosen label minus the hop
+ * attenuation delta. A node keeping the label it originated keeps the score 1.
+ * </p>
+ * 
+ * <p>
+ * Each node starts as the originator of its own community, with a score of 1,
+ * unless it already has a community, whose score is then read from the
+ * {@code marker + ".score"} attribute. Labels and scores are published in the
+ * marker attributes when the labels are stable, so the result can be used by
+ * {@link Leung} afterwards.
+ * </p>
+ * 
+ * @reference I. X. Y. Leung, P. Hui, P. Lio`, and J. Crowcroft, “Towards Real-
+ *            Time Community Detection in Large Networks,” Physical Review E
+ *            (Statistical, Nonlinear, and Soft Matter Physics), vol. 79, no. 6,
+ *            pp. 066 107+, 2009.
+ * 
+ * @complexity O(m) for each round, where m is the number of edges.
+ */
+public class ParallelLeung extends ParallelEpidemicCommunityAlgorithm {
+
+	/**
+	 * Name of the marker that is used to store weight of links on the graph
+	 * that this algorithm is applied to.
+	 */
+	protected String weightMarker = "weight";
+
+	/**
+	 * Comparable node characteristic preference exponent
+	 */
+	protected double m = 0.1;
+
+	/**
+	 * Hop attenuation factor
+	 */
+	protected double delta = 0.05;
+
+	/**
+	 * Weight of each heard edge, merged with its reciprocal edge.
+	 */
+	protected double[] arcWeight;
+
+	/**
+	 * Preference of each node, its in-degree to the power m.
+	 */
+	protected double[] preference;
+
+	/**
+	 * Current score of each node, and scores of the next round in synchronous
+	 * mode.
+	 */
+	protected double[] scores;
+	protected double[] nextScores;
+
+	/**
+	 * Attribute storing the scores, computed once for each publication.
+	 */
+	protected String scoreMarker;
+
+	public ParallelLeung() {
+		super();
+	}
+
+	public ParallelLeung(Graph graph) {
+		super(graph);
+	}
+
+	public ParallelLeung(Graph graph, String marker) {
+		super(graph, marker);
+	}
+
+	/**
+	 * Create a new algorithm instance, attached to the specified graph, using
+	 * the specified marker to store the community attribute, and the specified
+	 * weightMarker to retrieve the weight attribute of graph edges.
+	 * 
+	 * @param graph
+	 *            graph to which the algorithm will be applied
+	 * @param marker
+	 *            community attribute marker
+	 * @param weightMarker
+	 *            edge weight marker
+	 */
+	public ParallelLeung(Graph graph, String marker, String weightMarker) {
+		super(graph, marker);
+		this.weightMarker = weightMarker;
+	}
+
+	/**
+	 * Sets the preference exponent and hop attenuation factor to the given
+	 * values.
+	 * 
+	 * @param m
+	 *            comparable function preference exponent value
+	 * @param delta
+	 *            hop attenuation factor value
+	 */
+	public void setParameters(double m, double delta) {
+		this.m = m;
+		this.delta = delta;
+	}
+
+	/**
+	 * Set the marker used to retrieve the weight of the edges.
+	 * 
+	 * @param weightMarker
+	 *            edge weight marker
+	 */
+	public void setWeightMarker(String weightMarker) {
+		this.weightMarker = weightMarker;
+	}
+
+	/**
+	 * Score of the label of a node after the last call to {@link #compute()}.
+	 * 
+	 * @param node
+	 *            a node
+	 * @return the score of the node
+	 */
+	public double getScore(Node node) {
+		return scores[node.getIndex()];
+	}
+
+	/**
+	 * Pack the heard nodes, then compute the weights of the arcs and the
+	 * preferences of the nodes.
+	 */
+	@Override
+	protected void buildArcs() {
+		super.buildArcs();
+
+		int n = arcStart.length - 1;
+
+		arcWeight = new double[arcTail.length];
+		preference = new double[n];
+
+		for (int u = 0; u < n; u++) {
+			preference[u] = Math.pow(arcStart[u + 1] - arcStart[u], m);
+
+			for (int i = arcStart[u]; i < arcStart[u + 1]; i++)
+				arcWeight[i] = weight(graph.getEdge(arcEdge[i]), u);
+		}
+	}
+
+	/**
+	 * Weight of an edge heard by a node, 1 if it has no weight. The weight of
+	 * a directed edge is merged with the weight of the reciprocal edge.
+	 * 
+	 * @param e
+	 *            the edge
+	 * @param u
+	 *            index of the node hearing the edge
+	 * @return the weight
+	 */
+	protected double weight(Edge e, int u) {
+		if (!e.hasNumber(weightMarker))
+			return 1.0;
+
+		double w = e.getNumber(weightMarker);
+
+		if (e.isDirected()) {
+			Node source = e.getSourceNode();
+			Edge reciprocal = graph.getNode(u).getEdgeToward(source.getId());
+
+			if (reciprocal != null && reciprocal != e
+					&& reciprocal.hasNumber(weightMarker))
+				w += reciprocal.getNumber(weightMarker);
+		}
+
+		return w;
+	}
+
+	/**
+	 * Give a label and a score to each node.
+	 */
+	@Override
+	protected void initLabels() {
+		super.initLabels();
+
+		int n = labels.length;
+		String key = marker + ".score";
+
+		scores = new double[n];
+		nextScores = mode == Mode.SYNCHRONOUS ? new double[n] : null;
+
+		for (int u = 0; u < n; u++) {
+			Node node = graph.getNode(u);
+
+			if (node.getAttribute(marker) instanceof Community
+					&& node.hasNumber(key))
+				scores[u] = node.getNumber(key);
+			else
+				scores[u] = 1.0;
+		}
+	}
+
+	@Override
+	protected void swapBuffers() {
+		super.swapBuffers();
+
+		double[] t = scores;
+		scores = nextScores;
+		nextScores = t;
+	}
+
+	/**
+	 * Compute the new label and score of a node.
+	 */
+	@Override
+	protected boolean updateNode(int u, int[] read, int[] write,
+			LabelCounter counter) {
+		double[] writeScores = read == write ? scores : nextScores;
+		int current = read[u];
+
+		counter.clear();
+
+		if (read != write)
+			counter.add(current, scores[u] * preference[u]);
+
+		for (int i = arcStart[u]; i < arcStart[u + 1]; i++) {
+			int v = arcTail[i];
+			counter.add(read[v], scores[v] * preference[v] * arcWeight[i]);
+		}
+
+		if (arcStart[u] == arcStart[u + 1]) {
+			// no neighbor, the node originates its community
+			write[u] = current;
+			writeScores[u] = 1.0;
+			return false;
+		}
+
+		int best = selectLabel(u, read != write ? -1 : current, counter);
+		double score;
+
+		if (best == current && scores[u] == 1.0) {
+			score = 1.0;
+		} else {
+			double max = Double.NEGATIVE_INFINITY;
+
+			for (int i = arcStart[u]; i < arcStart[u + 1]; i++) {
+				int v = arcTail[i];
+
+				if (read[v] == best && scores[v] > max)
+					max = scores[v];
+			}
+
+			// only possible when the node hears itself
+			score = max == Double.NEGATIVE_INFINITY ? scores[u] : max - delta;
+		}
+
+		write[u] = best;
+		writeScores[u] = score;
+
+		return best != current;
+	}
+
+	@Override
+	protected void publishLabels() {
+		scoreMarker = marker + ".score";
+		super.publishLabels();
+	}
+
+	/**
+	 * Write the community and the score of a node.
+	 */
+	@Override
+	protected void publishLabel(Node node) {
+		super.publishLabel(node);
+
+		if (scoreMarker == null)
+			scoreMarker = marker + ".score";
+
+		node.setAttribute(scoreMarker, scores[node.getIndex()]);
+	}
+}
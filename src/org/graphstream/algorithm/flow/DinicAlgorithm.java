@@ -0,0 +1,229 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.flow;
+
+import java.util.Arrays;
+
+import org.graphstream.graph.ElementNotFoundException;
+import org.graphstream.graph.Node;
+
+/**
+ * Dinic's algorithm to compute maximum flow.
+ * 
+ * <p>
+ * Each phase builds the level graph of the residual graph with a
+ * breadth-first search from the source, then saturates it with a blocking
+ * flow. The blocking flow is found with an iterative depth-first search which
+ * keeps, for each node, the current arc to explore, so that each arc is
+ * discarded at most once per phase. No recursion is used, so deep networks can
+ * be handled.
+ * </p>
+ * 
+ * <p>
+ * The residual graph is packed into arrays (see
+ * {@link FlowAlgorithmBase#buildResidualGraph()}) and works directly on the
+ * {@link #capacities} and {@link #flows} arrays.
+ * </p>
+ * 
+ * @reference Dinic, E. A. (1970).
+ *            "Algorithm for solution of a problem of maximum flow in a network with power estimation"
+ *            . Soviet Math. Doklady 11: 1277–1280
+ * @complexity O(V²E), where V is the number of nodes and E the number of
+ *             edges in the graph. O(E√V) for unit capacity networks.
+ */
+public class DinicAlgorithm extends FlowAlgorithmBase {
+	/**
+	 * Level of each node in the level graph, -1 if not reached.
+	 */
+	protected int[] level;
+	/**
+	 * Current arc of each node, as a position in {@link #arcs}.
+	 */
+	protected int[] current;
+	/**
+	 * Queue of the breadth-first search.
+	 */
+	protected int[] queue;
+	/**
+	 * Arcs of the path explored by the depth-first search.
+	 */
+	protected int[] path;
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.graphstream.algorithm.Algorithm#compute()
+	 */
+	public void compute() {
+		Node source = flowGraph.getNode(sourceId);
+		Node sink = flowGraph.getNode(sinkId);
+
+		if (source == null)
+			throw new ElementNotFoundException("node \"%s\"", sourceId);
+
+		if (sink == null)
+			throw new ElementNotFoundException("node \"%s\"", sinkId);
+
+		checkArrays();
+		loadCapacitiesFromAttribute();
+		buildResidualGraph();
+		Arrays.fill(flows, 0, 2 * n, 0);
+
+		int nodeCount = flowGraph.getNodeCount();
+
+		if (level == null || level.length < nodeCount) {
+			level = new int[nodeCount];
+			current = new int[nodeCount];
+			queue = new int[nodeCount];
+			path = new int[nodeCount];
+		}
+
+		int s = source.getIndex();
+		int t = sink.getIndex();
+		double flow = 0;
+
+		while (s != t && buildLevelGraph(s, t, nodeCount)) {
+			System.arraycopy(arcStart, 0, current, 0, nodeCount);
+			flow += blockingFlow(s, t);
+		}
+
+		maximumFlow = flow;
+	}
+
+	/**
+	 * Compute the level of each node.
+	 * 
+	 * @return true if the sink is reachable from the source
+	 */
+	protected boolean buildLevelGraph(int s, int t, int nodeCount) {
+		int head = 0, tail = 0;
+
+		Arrays.fill(level, 0, nodeCount, -1);
+		level[s] = 0;
+		queue[tail++] = s;
+
+		while (head < tail) {
+			int u = queue[head++];
+
+			for (int i = arcStart[u]; i < arcStart[u + 1]; i++) {
+				int a = arcs[i];
+				int v = arcHead[a];
+
+				if (level[v] < 0 && capacities[a] - flows[a] > 0) {
+					level[v] = level[u] + 1;
+
+					if (v == t)
+						return true;
+
+					queue[tail++] = v;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Saturate the level graph.
+	 * 
+	 * @return the value of the blocking flow
+	 */
+	protected double blockingFlow(int s, int t) {
+		double total = 0;
+		int depth = 0;
+		int u = s;
+
+		while (true) {
+			if (u == t) {
+				double delta = Double.MAX_VALUE;
+
+				for (int i = 0; i < depth; i++) {
+					int a = path[i];
+					delta = Math.min(delta, capacities[a] - flows[a]);
+				}
+
+				int saturated = -1;
+
+				for (int i = 0; i < depth; i++) {
+					int a = path[i];
+
+					if (capacities[a] - flows[a] == delta) {
+						flows[a] = capacities[a];
+
+						if (saturated < 0)
+							saturated = i;
+					} else
+						flows[a] += delta;
+
+					flows[reverseArc(a)] = -flows[a];
+				}
+
+				total += delta;
+
+				// restart from the tail of the first saturated arc
+				depth = saturated;
+				u = arcHead[reverseArc(path[depth])];
+				continue;
+			}
+
+			int end = arcStart[u + 1];
+			int i = current[u];
+
+			for (; i < end; i++) {
+				int a = arcs[i];
+				int v = arcHead[a];
+
+				if (level[v] == level[u] + 1 && capacities[a] - flows[a] > 0)
+					break;
+			}
+
+			current[u] = i;
+
+			if (i < end) {
+				int a = arcs[i];
+				path[depth++] = a;
+				u = arcHead[a];
+			} else {
+				// dead end
+				if (u == s)
+					break;
+
+				level[u] = -1;
+				int a = path[--depth];
+				u = arcHead[reverseArc(a)];
+				current[u]++;
+			}
+		}
+
+		return total;
+	}
+}
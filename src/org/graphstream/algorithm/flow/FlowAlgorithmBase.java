@@ -31,6 +31,7 @@
  */
 package org.graphstream.algorithm.flow;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.graphstream.graph.Edge;
@@ -73,6 +74,24 @@ public abstract class FlowAlgorithmBase implements FlowAlgorithm {
 
 	protected String capacityAttribute;
 
+	/**
+	 * Residual graph in compressed sparse row form, built by
+	 * {@link #buildResidualGraph()}. The arcs leaving the node of index u are
+	 * {@code arcs[arcStart[u]]} to {@code arcs[arcStart[u + 1] - 1]}.
+	 */
+	protected int[] arcStart;
+	/**
+	 * Arcs of the residual graph grouped by tail. An arc is identified by its
+	 * position in {@link #capacities} and {@link #flows}: arc i &lt; n goes
+	 * from the source to the target of the edge of index i, arc i + n goes
+	 * the other way.
+	 */
+	protected int[] arcs;
+	/**
+	 * Index of the head of each arc.
+	 */
+	protected int[] arcHead;
+
 	protected FlowAlgorithmBase() {
 		flowGraph = null;
 		capacityAttribute = null;
@@ -90,6 +109,105 @@ public abstract class FlowAlgorithmBase implements FlowAlgorithm {
 		}
 	}
 
+	/**
+	 * Pack the residual graph into {@link #arcStart}, {@link #arcs} and
+	 * {@link #arcHead}. Residual capacity of arc a is
+	 * {@code capacities[a] - flows[a]}. Loops are ignored. Should be called
+	 * after {@link #checkArrays()}.
+	 */
+	protected void buildResidualGraph() {
+		int nodeCount = flowGraph.getNodeCount();
+
+		if (arcStart == null || arcStart.length < nodeCount + 1)
+			arcStart = new int[nodeCount + 1];
+		else
+			Arrays.fill(arcStart, 0, nodeCount + 1, 0);
+
+		if (arcs == null || arcs.length < 2 * n) {
+			arcs = new int[2 * n];
+			arcHead = new int[2 * n];
+		}
+
+		for (int i = 0; i < n; i++) {
+			Edge e = flowGraph.getEdge(i);
+			int u = e.getSourceNode().getIndex();
+			int v = e.getTargetNode().getIndex();
+
+			if (u == v)
+				continue;
+
+			arcHead[i] = v;
+			arcHead[i + n] = u;
+			arcStart[u + 1]++;
+			arcStart[v + 1]++;
+		}
+
+		for (int u = 0; u < nodeCount; u++)
+			arcStart[u + 1] += arcStart[u];
+
+		int[] next = new int[nodeCount];
+		System.arraycopy(arcStart, 0, next, 0, nodeCount);
+
+		for (int i = 0; i < n; i++) {
+			Edge e = flowGraph.getEdge(i);
+			int u = e.getSourceNode().getIndex();
+			int v = e.getTargetNode().getIndex();
+
+			if (u == v)
+				continue;
+
+			arcs[next[u]++] = i;
+			arcs[next[v]++] = i + n;
+		}
+	}
+
+	/**
+	 * Arc going the opposite way of an arc of the residual graph.
+	 * 
+	 * @param arc
+	 *            an arc
+	 * @return the reverse arc
+	 */
+	protected int reverseArc(int arc) {
+		return arc < n ? arc + n : arc - n;
+	}
+
+	/**
+	 * Nodes reachable from the source in the residual graph. After a call to
+	 * {@link #compute()}, they form the source side of a minimum cut.
+	 * 
+	 * @return an array indexed by node index, true for the nodes of the source
+	 *         side
+	 */
+	public boolean[] getMinimumCutSourceSide() {
+		int nodeCount = flowGraph.getNodeCount();
+		boolean[] side = new boolean[nodeCount];
+		int[] queue = new int[nodeCount];
+		int head = 0, tail = 0;
+
+		buildResidualGraph();
+
+		int s = flowGraph.getNode(sourceId).getIndex();
+		side[s] = true;
+		queue[tail++] = s;
+
+		while (head < tail) {
+			int u = queue[head++];
+
+			for (int i = arcStart[u]; i < arcStart[u + 1]; i++) {
+				int a = arcs[i];
+				int v = arcHead[a];
+
+				if (!side[v] && capacities[a] - flows[a] > 0) {
+					side[v] = true;
+					queue[tail++] = v;
+				}
+			}
+		}
+
+		return side;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
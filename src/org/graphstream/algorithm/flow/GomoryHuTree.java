@@ -0,0 +1,315 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.flow;
+
+import org.graphstream.algorithm.Algorithm;
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+
+/**
+ * Gomory-Hu tree of an undirected graph, built with Gusfield's algorithm.
+ * 
+ * <p>
+ * The tree is built with only n - 1 maximum flow computations, where n is the
+ * number of nodes. The value of the minimum cut between any two nodes u and v
+ * is then the minimum weight of the edges of the path between u and v in the
+ * tree, and the edge connectivity of the graph is the minimum weight of the
+ * tree. Both are answered without any new flow computation.
+ * </p>
+ * 
+ * <p>
+ * The capacities of the edges are read from the capacity attribute and are the
+ * same in both directions. If the attribute is {@code null} or missing, all
+ * capacities are 1 and minimum cut values are numbers of edges. The maximum
+ * flows are computed with a {@link DinicAlgorithm} by default, another
+ * algorithm can be set with {@link #setFlowAlgorithm(FlowAlgorithmBase)}.
+ * </p>
+ * 
+ * <p>
+ * Nodes are identified by their index. The tree has to be computed again if
+ * the graph changes.
+ * </p>
+ * 
+ * <h2>Example</h2>
+ * 
+ * <pre>
+ * GomoryHuTree tree = new GomoryHuTree();
+ * tree.init(graph);
+ * tree.compute();
+ * 
+ * System.out.println(tree.getMinimumCut(&quot;A&quot;, &quot;B&quot;));
+ * System.out.println(tree.getEdgeConnectivity());
+ * </pre>
+ * 
+ * @reference Gusfield, D. (1990).
+ *            "Very simple methods for all pairs network flow analysis". SIAM
+ *            Journal on Computing 19 (1): 143–155
+ * @complexity n - 1 maximum flow computations to build the tree, O(n) for each
+ *             query
+ */
+public class GomoryHuTree implements Algorithm {
+	/**
+	 * Graph used by the algorithm.
+	 */
+	protected Graph graph;
+	/**
+	 * Key of the attribute containing the capacities, or null for unit
+	 * capacities.
+	 */
+	protected String capacityAttribute;
+	/**
+	 * Algorithm used to compute the maximum flows.
+	 */
+	protected FlowAlgorithmBase flowAlgorithm;
+	/**
+	 * Parent of each node in the tree, -1 for the root.
+	 */
+	protected int[] parent;
+	/**
+	 * Weight of the edge between each node and its parent.
+	 */
+	protected double[] weight;
+	/**
+	 * Depth of each node in the tree.
+	 */
+	protected int[] depth;
+
+	/**
+	 * Create a new Gomory-Hu tree algorithm with unit capacities.
+	 */
+	public GomoryHuTree() {
+		this(null);
+	}
+
+	/**
+	 * Create a new Gomory-Hu tree algorithm.
+	 * 
+	 * @param capacityAttribute
+	 *            key of the attribute containing the capacities of the edges
+	 */
+	public GomoryHuTree(String capacityAttribute) {
+		this.capacityAttribute = capacityAttribute;
+		flowAlgorithm = new DinicAlgorithm();
+	}
+
+	/**
+	 * Set the algorithm used to compute maximum flows.
+	 * 
+	 * @param flowAlgorithm
+	 *            the new flow algorithm
+	 */
+	public void setFlowAlgorithm(FlowAlgorithmBase flowAlgorithm) {
+		this.flowAlgorithm = flowAlgorithm;
+	}
+
+	/**
+	 * Get the key of the attribute containing the capacities.
+	 * 
+	 * @return the capacity attribute
+	 */
+	public String getCapacityAttribute() {
+		return capacityAttribute;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.graphstream.algorithm.Algorithm#init(org.graphstream.graph.Graph)
+	 */
+	public void init(Graph graph) {
+		this.graph = graph;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.graphstream.algorithm.Algorithm#compute()
+	 */
+	public void compute() {
+		int nodeCount = graph.getNodeCount();
+
+		parent = new int[nodeCount];
+		weight = new double[nodeCount];
+		depth = new int[nodeCount];
+
+		if (nodeCount == 0)
+			return;
+
+		parent[0] = -1;
+		weight[0] = Double.POSITIVE_INFINITY;
+
+		if (nodeCount == 1)
+			return;
+
+		String rootId = graph.getNode(0).getId();
+		flowAlgorithm.setCapacityAttribute(null);
+		flowAlgorithm.init(graph, rootId, rootId);
+		loadCapacities();
+
+		for (int s = 1; s < nodeCount; s++) {
+			int t = parent[s];
+
+			// the capacities loaded above are kept
+			flowAlgorithm.init(graph, graph.getNode(s).getId(), graph
+					.getNode(t).getId());
+			flowAlgorithm.compute();
+
+			weight[s] = flowAlgorithm.getMaximumFlow();
+			boolean[] side = flowAlgorithm.getMinimumCutSourceSide();
+
+			for (int i = s + 1; i < nodeCount; i++)
+				if (side[i] && parent[i] == t)
+					parent[i] = s;
+		}
+
+		// parents always have a lower index
+		for (int i = 1; i < nodeCount; i++)
+			depth[i] = depth[parent[i]] + 1;
+	}
+
+	/**
+	 * Set the same capacity in both directions of each edge.
+	 */
+	protected void loadCapacities() {
+		int n = flowAlgorithm.n;
+
+		for (int i = 0; i < n; i++) {
+			Edge e = graph.getEdge(i);
+			double c = 1;
+
+			if (capacityAttribute != null && e.hasNumber(capacityAttribute))
+				c = e.getNumber(capacityAttribute);
+
+			flowAlgorithm.capacities[i] = c;
+			flowAlgorithm.capacities[i + n] = c;
+		}
+	}
+
+	/**
+	 * Value of the minimum cut between two nodes.
+	 * 
+	 * @param u
+	 *            a node
+	 * @param v
+	 *            another node
+	 * @return the minimum cut value, infinity if u and v are the same node
+	 */
+	public double getMinimumCut(Node u, Node v) {
+		return getMinimumCut(u.getIndex(), v.getIndex());
+	}
+
+	/**
+	 * Value of the minimum cut between two nodes.
+	 * 
+	 * @param uId
+	 *            id of a node
+	 * @param vId
+	 *            id of another node
+	 * @return the minimum cut value, infinity if u and v are the same node
+	 */
+	public double getMinimumCut(String uId, String vId) {
+		Node u = graph.getNode(uId);
+		Node v = graph.getNode(vId);
+
+		return getMinimumCut(u, v);
+	}
+
+	/**
+	 * Value of the minimum cut between two nodes.
+	 * 
+	 * @param u
+	 *            index of a node
+	 * @param v
+	 *            index of another node
+	 * @return the minimum cut value, infinity if u and v are the same node
+	 */
+	public double getMinimumCut(int u, int v) {
+		double min = Double.POSITIVE_INFINITY;
+
+		while (u != v) {
+			if (depth[u] >= depth[v]) {
+				min = Math.min(min, weight[u]);
+				u = parent[u];
+			} else {
+				min = Math.min(min, weight[v]);
+				v = parent[v];
+			}
+		}
+
+		return min;
+	}
+
+	/**
+	 * Value of the global minimum cut, which is the edge connectivity of the
+	 * graph when capacities are 1.
+	 * 
+	 * @return the minimum weight of the tree, 0 if the graph has less than two
+	 *         nodes
+	 */
+	public double getEdgeConnectivity() {
+		if (parent.length < 2)
+			return 0;
+
+		double min = Double.POSITIVE_INFINITY;
+
+		for (int i = 1; i < parent.length; i++)
+			min = Math.min(min, weight[i]);
+
+		return min;
+	}
+
+	/**
+	 * Parent of a node in the tree.
+	 * 
+	 * @param node
+	 *            a node
+	 * @return the parent of the node, null for the root
+	 */
+	public <T extends Node> T getParent(Node node) {
+		int p = parent[node.getIndex()];
+		return p < 0 ? null : graph.<T> getNode(p);
+	}
+
+	/**
+	 * Weight of the edge between a node and its parent in the tree, which is
+	 * the value of the minimum cut between them.
+	 * 
+	 * @param node
+	 *            a node
+	 * @return the weight, infinity for the root
+	 */
+	public double getParentWeight(Node node) {
+		return weight[node.getIndex()];
+	}
+}
@@ -0,0 +1,430 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.flow;
+
+import java.util.Arrays;
+
+import org.graphstream.graph.ElementNotFoundException;
+import org.graphstream.graph.Node;
+
+/**
+ * The highest-label push-relabel algorithm to compute maximum flow.
+ * 
+ * <p>
+ * The residual graph is packed into arrays (see
+ * {@link FlowAlgorithmBase#buildResidualGraph()}) and nodes are only handled
+ * through their indices. Active nodes are kept in buckets by label and the
+ * active node with the highest label is always discharged first. Two
+ * heuristics are used: the gap heuristic, which lifts all the nodes above an
+ * empty label out of reach of the sink, and the global relabeling, which
+ * periodically recomputes exact labels with a backward breadth-first search
+ * from the sink.
+ * </p>
+ * 
+ * <p>
+ * The first phase computes a maximum preflow, whose value is the maximum flow.
+ * The second phase returns the remaining excesses to the source so that the
+ * flows of the edges returned by {@link #getFlow(Node, Node)} form a valid
+ * flow.
+ * </p>
+ * 
+ * @reference Goldberg, A. V.; Tarjan, R. E. (1988).
+ *            "A new approach to the maximum-flow problem". Journal of the ACM
+ *            35 (4): 921–940
+ * @reference Cherkassky, B. V.; Goldberg, A. V. (1997).
+ *            "On implementing the push-relabel method for the maximum flow
+ *            problem". Algorithmica 19 (4): 390–410
+ * @complexity O(V²√E), where V is the number of nodes and E the number of
+ *             edges in the graph
+ */
+public class PushRelabelAlgorithm extends FlowAlgorithmBase {
+	/**
+	 * Work added by each relabel operation in addition to the degree of the
+	 * node.
+	 */
+	protected static final int RELABEL_WORK = 12;
+
+	/**
+	 * A global relabeling is done each time the relabel work exceeds this
+	 * factor times the number of nodes plus the number of arcs.
+	 */
+	protected static final int GLOBAL_RELABEL_FACTOR = 12;
+
+	/**
+	 * Number of nodes.
+	 */
+	protected int nodeCount;
+	/**
+	 * Label of each node.
+	 */
+	protected int[] height;
+	/**
+	 * Excess of each node.
+	 */
+	protected double[] excess;
+	/**
+	 * Current arc of each node, as a position in {@link #arcs}.
+	 */
+	protected int[] current;
+	/**
+	 * First active node of each label, or -1.
+	 */
+	protected int[] activeHead;
+	/**
+	 * Next active node with the same label, or -1.
+	 */
+	protected int[] activeNext;
+	/**
+	 * First node of each label, or -1. Used by the gap heuristic.
+	 */
+	protected int[] levelHead;
+	/**
+	 * Next node with the same label, or -1.
+	 */
+	protected int[] levelNext;
+	/**
+	 * Previous node with the same label, or -1.
+	 */
+	protected int[] levelPrev;
+	/**
+	 * Highest label that may contain active nodes.
+	 */
+	protected int maxActive;
+	/**
+	 * Highest label that may contain nodes.
+	 */
+	protected int maxLevel;
+	/**
+	 * Relabel work since the last global relabeling.
+	 */
+	protected long work;
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.graphstream.algorithm.Algorithm#compute()
+	 */
+	public void compute() {
+		Node source = flowGraph.getNode(sourceId);
+		Node sink = flowGraph.getNode(sinkId);
+
+		if (source == null)
+			throw new ElementNotFoundException("node \"%s\"", sourceId);
+
+		if (sink == null)
+			throw new ElementNotFoundException("node \"%s\"", sinkId);
+
+		checkArrays();
+		loadCapacitiesFromAttribute();
+		buildResidualGraph();
+		Arrays.fill(flows, 0, 2 * n, 0);
+		checkNodeArrays();
+
+		int s = source.getIndex();
+		int t = sink.getIndex();
+
+		Arrays.fill(excess, 0, nodeCount, 0);
+
+		for (int i = arcStart[s]; i < arcStart[s + 1]; i++) {
+			int a = arcs[i];
+			double r = capacities[a] - flows[a];
+
+			if (r > 0)
+				push(s, a, r);
+		}
+
+		// Phase 1: maximum preflow
+		run(s, t);
+		maximumFlow = excess[t];
+
+		// Phase 2: send the remaining excess back to the source
+		run(t, s);
+	}
+
+	/**
+	 * Allocate the node arrays.
+	 */
+	protected void checkNodeArrays() {
+		nodeCount = flowGraph.getNodeCount();
+
+		if (height == null || height.length < nodeCount) {
+			height = new int[nodeCount];
+			excess = new double[nodeCount];
+			current = new int[nodeCount];
+			activeHead = new int[nodeCount];
+			activeNext = new int[nodeCount];
+			levelHead = new int[nodeCount];
+			levelNext = new int[nodeCount];
+			levelPrev = new int[nodeCount];
+		}
+	}
+
+	/**
+	 * Discharge all the active nodes, pushing excess towards a target. Nodes
+	 * with a label equal to the node count cannot reach the target anymore.
+	 * 
+	 * @param other
+	 *            the other terminal, never labeled nor discharged
+	 * @param target
+	 *            the terminal where excess is sent
+	 */
+	protected void run(int other, int target) {
+		long threshold = GLOBAL_RELABEL_FACTOR * (long) nodeCount
+				+ arcStart[nodeCount];
+
+		globalRelabel(other, target);
+
+		while (maxActive >= 0) {
+			int u = activeHead[maxActive];
+
+			if (u < 0) {
+				maxActive--;
+				continue;
+			}
+
+			activeHead[maxActive] = activeNext[u];
+
+			// entries left by the gap heuristic
+			if (height[u] != maxActive)
+				continue;
+
+			discharge(u, other, target);
+
+			if (work > threshold)
+				globalRelabel(other, target);
+		}
+	}
+
+	/**
+	 * Push or relabel a node until it has no more excess or cannot reach the
+	 * target.
+	 */
+	protected void discharge(int u, int other, int target) {
+		int end = arcStart[u + 1];
+
+		while (excess[u] > 0) {
+			int h = height[u];
+			int i = current[u];
+
+			for (; i < end; i++) {
+				int a = arcs[i];
+				int v = arcHead[a];
+
+				if (height[v] == h - 1) {
+					double r = capacities[a] - flows[a];
+
+					if (r > 0) {
+						boolean wasActive = excess[v] > 0;
+						push(u, a, Math.min(r, excess[u]));
+
+						if (!wasActive && v != other && v != target)
+							activate(v);
+
+						if (excess[u] == 0)
+							break;
+					}
+				}
+			}
+
+			if (i < end) {
+				current[u] = i;
+				return;
+			}
+
+			relabel(u);
+
+			if (height[u] >= nodeCount)
+				return;
+		}
+	}
+
+	/**
+	 * Move some flow along an arc.
+	 */
+	protected void push(int u, int arc, double delta) {
+		int v = arcHead[arc];
+		int rev = reverseArc(arc);
+
+		if (delta == capacities[arc] - flows[arc])
+			flows[arc] = capacities[arc];
+		else
+			flows[arc] += delta;
+
+		flows[rev] = -flows[arc];
+		excess[u] -= delta;
+		excess[v] += delta;
+	}
+
+	/**
+	 * Give a node the lowest label allowing to push some of its excess, or
+	 * the node count if no such label exists. Applies the gap heuristic if
+	 * the old label becomes empty.
+	 */
+	protected void relabel(int u) {
+		int h = height[u];
+		int newHeight = nodeCount;
+		int newCurrent = arcStart[u];
+
+		work += RELABEL_WORK + arcStart[u + 1] - arcStart[u];
+
+		for (int i = arcStart[u]; i < arcStart[u + 1]; i++) {
+			int a = arcs[i];
+
+			if (capacities[a] - flows[a] > 0) {
+				int hv = height[arcHead[a]] + 1;
+
+				if (hv < newHeight) {
+					newHeight = hv;
+					newCurrent = i;
+				}
+			}
+		}
+
+		levelRemove(u);
+
+		if (levelHead[h] < 0) {
+			gap(h);
+			height[u] = nodeCount;
+			return;
+		}
+
+		height[u] = newHeight;
+		current[u] = newCurrent;
+
+		if (newHeight < nodeCount)
+			levelInsert(u);
+	}
+
+	/**
+	 * Gap heuristic: no node has label h, so nodes with a higher label cannot
+	 * reach the target.
+	 */
+	protected void gap(int h) {
+		for (int l = h + 1; l <= maxLevel; l++) {
+			for (int u = levelHead[l]; u >= 0; u = levelNext[u])
+				height[u] = nodeCount;
+
+			levelHead[l] = -1;
+		}
+
+		maxLevel = h - 1;
+
+		if (maxActive > maxLevel)
+			maxActive = maxLevel;
+	}
+
+	/**
+	 * Compute exact labels, distances to the target in the residual graph,
+	 * and rebuild the buckets.
+	 */
+	protected void globalRelabel(int other, int target) {
+		int[] queue = activeNext;
+		int head = 0, tail = 0;
+
+		Arrays.fill(height, 0, nodeCount, nodeCount);
+		height[target] = 0;
+		queue[tail++] = target;
+
+		while (head < tail) {
+			int w = queue[head++];
+			int hv = height[w] + 1;
+
+			for (int i = arcStart[w]; i < arcStart[w + 1]; i++) {
+				int a = arcs[i];
+				int v = arcHead[a];
+				int rev = reverseArc(a);
+
+				if (height[v] == nodeCount && v != other
+						&& capacities[rev] - flows[rev] > 0) {
+					height[v] = hv;
+					queue[tail++] = v;
+				}
+			}
+		}
+
+		Arrays.fill(activeHead, 0, nodeCount, -1);
+		Arrays.fill(levelHead, 0, nodeCount, -1);
+		maxActive = -1;
+		maxLevel = 0;
+
+		for (int u = 0; u < nodeCount; u++) {
+			current[u] = arcStart[u];
+
+			if (height[u] < nodeCount) {
+				levelInsert(u);
+
+				if (excess[u] > 0 && u != target)
+					activate(u);
+			}
+		}
+
+		work = 0;
+	}
+
+	protected void activate(int u) {
+		int h = height[u];
+		activeNext[u] = activeHead[h];
+		activeHead[h] = u;
+
+		if (h > maxActive)
+			maxActive = h;
+	}
+
+	protected void levelInsert(int u) {
+		int h = height[u];
+		int first = levelHead[h];
+
+		levelPrev[u] = -1;
+		levelNext[u] = first;
+
+		if (first >= 0)
+			levelPrev[first] = u;
+
+		levelHead[h] = u;
+
+		if (h > maxLevel)
+			maxLevel = h;
+	}
+
+	protected void levelRemove(int u) {
+		int prev = levelPrev[u];
+		int next = levelNext[u];
+
+		if (prev >= 0)
+			levelNext[prev] = next;
+		else
+			levelHead[height[u]] = next;
+
+		if (next >= 0)
+			levelPrev[next] = prev;
+	}
+}
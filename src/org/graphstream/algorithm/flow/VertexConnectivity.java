@@ -0,0 +1,378 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.flow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graphstream.algorithm.Algorithm;
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.AdjacencyListGraph;
+
+/**
+ * Vertex connectivity of an undirected graph, computed with Even's algorithm.
+ * 
+ * <p>
+ * Each node v of the graph is split into an entering node v<sub>in</sub> and a
+ * leaving node v<sub>out</sub>, linked by an arc of capacity 1. Each edge u-v
+ * becomes two arcs u<sub>out</sub> &rarr; v<sub>in</sub> and v<sub>out</sub>
+ * &rarr; u<sub>in</sub> with a capacity larger than any vertex cut. The maximum
+ * flow from u<sub>out</sub> to v<sub>in</sub> is then the minimum number of
+ * nodes whose removal separates two non adjacent nodes u and v.
+ * </p>
+ * 
+ * <p>
+ * The connectivity k starts at the minimum degree of the graph. Nodes are
+ * taken in order and the i-th node is only compared to the following non
+ * adjacent nodes, while i is not greater than the current k. One of the first
+ * k + 1 nodes does not belong to a minimum separator, so at most (k + 1)n
+ * maximum flows are computed instead of enumerating the k-tuples of nodes.
+ * Direction and loops of the edges are ignored. The maximum flows are computed
+ * with a {@link DinicAlgorithm} by default, another algorithm can be set with
+ * {@link #setFlowAlgorithm(FlowAlgorithmBase)}.
+ * </p>
+ * 
+ * <p>
+ * As in {@link org.graphstream.algorithm.measure.ConnectivityMeasure}, a
+ * complete graph with n nodes has a connectivity of n, and a disconnected
+ * graph has a connectivity of 0. The connectivity has to be computed again if
+ * the graph changes.
+ * </p>
+ * 
+ * <h2>Example</h2>
+ * 
+ * <pre>
+ * VertexConnectivity connectivity = new VertexConnectivity();
+ * connectivity.init(graph);
+ * connectivity.compute();
+ * 
+ * System.out.println(connectivity.getVertexConnectivity());
+ * System.out.println(connectivity.getMinimumSeparator());
+ * </pre>
+ * 
+ * @reference Even, S. (1975). "An algorithm for determining whether the
+ *            connectivity of a graph is at least k". SIAM Journal on Computing
+ *            4 (3): 393–396
+ * @complexity O(n k) maximum flow computations on a graph with 2n nodes and n
+ *             + 2m arcs
+ */
+public class VertexConnectivity implements Algorithm {
+	/**
+	 * Graph used by the algorithm.
+	 */
+	protected Graph graph;
+	/**
+	 * Algorithm used to compute the maximum flows.
+	 */
+	protected FlowAlgorithmBase flowAlgorithm;
+	/**
+	 * Graph where each node is split in two, node v gives nodes 2v and 2v + 1.
+	 */
+	protected Graph splitGraph;
+	/**
+	 * Distinct neighbors of the nodes, neighbors of node u are
+	 * {@code neighbor[neighborStart[u]]} to
+	 * {@code neighbor[neighborStart[u + 1] - 1]}.
+	 */
+	protected int[] neighborStart;
+	protected int[] neighbor;
+	/**
+	 * Result of the last computation.
+	 */
+	protected int vertexConnectivity;
+	/**
+	 * Indices of the nodes of a minimum separator.
+	 */
+	protected int[] separator;
+	/**
+	 * Number of maximum flows computed during the last computation.
+	 */
+	protected int flowCount;
+
+	/**
+	 * Create a new vertex connectivity algorithm.
+	 */
+	public VertexConnectivity() {
+		flowAlgorithm = new DinicAlgorithm();
+		vertexConnectivity = -1;
+	}
+
+	/**
+	 * Set the algorithm used to compute maximum flows.
+	 * 
+	 * @param flowAlgorithm
+	 *            the new flow algorithm
+	 */
+	public void setFlowAlgorithm(FlowAlgorithmBase flowAlgorithm) {
+		this.flowAlgorithm = flowAlgorithm;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.graphstream.algorithm.Algorithm#init(org.graphstream.graph.Graph)
+	 */
+	public void init(Graph graph) {
+		this.graph = graph;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.graphstream.algorithm.Algorithm#compute()
+	 */
+	public void compute() {
+		int nodeCount = graph.getNodeCount();
+		flowCount = 0;
+
+		if (nodeCount == 0) {
+			vertexConnectivity = 0;
+			separator = new int[0];
+			return;
+		}
+
+		buildNeighbors();
+
+		int minNode = 0;
+
+		for (int u = 1; u < nodeCount; u++)
+			if (degree(u) < degree(minNode))
+				minNode = u;
+
+		int k = degree(minNode);
+
+		if (k == nodeCount - 1) {
+			// complete graph, no separator
+			vertexConnectivity = nodeCount;
+			separator = new int[nodeCount];
+
+			for (int u = 0; u < nodeCount; u++)
+				separator[u] = u;
+
+			return;
+		}
+
+		// the neighbors of a node of minimum degree separate it from the rest
+		separator = new int[k];
+		System.arraycopy(neighbor, neighborStart[minNode], separator, 0, k);
+
+		if (k > 0) {
+			buildSplitGraph();
+			k = computeFlows(k);
+		}
+
+		vertexConnectivity = k;
+	}
+
+	/**
+	 * Run Even's loop, starting with an upper bound of the connectivity.
+	 * 
+	 * @param k
+	 *            the upper bound
+	 * @return the connectivity
+	 */
+	protected int computeFlows(int k) {
+		int nodeCount = graph.getNodeCount();
+		boolean[] adjacent = new boolean[nodeCount];
+
+		flowAlgorithm.setCapacityAttribute(null);
+		flowAlgorithm.init(splitGraph, "1", "0");
+		loadCapacities();
+
+		for (int u = 0; u <= k && u < nodeCount; u++) {
+			for (int i = neighborStart[u]; i < neighborStart[u + 1]; i++)
+				adjacent[neighbor[i]] = true;
+
+			for (int v = u + 1; v < nodeCount; v++) {
+				if (adjacent[v])
+					continue;
+
+				// the capacities loaded above are kept
+				flowAlgorithm.init(splitGraph, splitGraph.getNode(2 * u + 1)
+						.getId(), splitGraph.getNode(2 * v).getId());
+				flowAlgorithm.compute();
+				flowCount++;
+
+				int flow = (int) Math.round(flowAlgorithm.getMaximumFlow());
+
+				if (flow < k) {
+					k = flow;
+					loadSeparator(k);
+				}
+			}
+
+			for (int i = neighborStart[u]; i < neighborStart[u + 1]; i++)
+				adjacent[neighbor[i]] = false;
+		}
+
+		return k;
+	}
+
+	/**
+	 * Read the separator from the minimum cut of the last maximum flow. A node
+	 * belongs to the separator if its entering side is reachable from the
+	 * source but not its leaving side.
+	 * 
+	 * @param size
+	 *            size of the separator
+	 */
+	protected void loadSeparator(int size) {
+		boolean[] side = flowAlgorithm.getMinimumCutSourceSide();
+		int nodeCount = graph.getNodeCount();
+
+		separator = new int[size];
+		size = 0;
+
+		for (int u = 0; u < nodeCount; u++)
+			if (side[2 * u] && !side[2 * u + 1])
+				separator[size++] = u;
+	}
+
+	/**
+	 * Number of distinct neighbors of a node.
+	 */
+	protected int degree(int u) {
+		return neighborStart[u + 1] - neighborStart[u];
+	}
+
+	/**
+	 * Pack the distinct neighbors of each node into {@link #neighborStart} and
+	 * {@link #neighbor}, ignoring loops and direction.
+	 */
+	protected void buildNeighbors() {
+		int nodeCount = graph.getNodeCount();
+		int edgeCount = graph.getEdgeCount();
+		int[] mark = new int[nodeCount];
+
+		neighborStart = new int[nodeCount + 1];
+		neighbor = new int[2 * edgeCount];
+
+		int size = 0;
+
+		for (int u = 0; u < nodeCount; u++) {
+			Node node = graph.getNode(u);
+			neighborStart[u] = size;
+			mark[u] = u + 1;
+
+			for (Edge e : node.getEachEdge()) {
+				int v = e.getOpposite(node).getIndex();
+
+				if (mark[v] != u + 1) {
+					mark[v] = u + 1;
+					neighbor[size++] = v;
+				}
+			}
+		}
+
+		neighborStart[nodeCount] = size;
+	}
+
+	/**
+	 * Build the graph where each node is split in two. The first n edges link
+	 * the two halves of each node, the other ones link the leaving half of a
+	 * node to the entering half of its neighbors.
+	 */
+	protected void buildSplitGraph() {
+		int nodeCount = graph.getNodeCount();
+
+		if (splitGraph == null)
+			splitGraph = new AdjacencyListGraph("split");
+		else
+			splitGraph.clear();
+
+		for (int u = 0; u < 2 * nodeCount; u++)
+			splitGraph.addNode(Integer.toString(u));
+
+		int edges = 0;
+
+		for (int u = 0; u < nodeCount; u++)
+			splitGraph.addEdge(Integer.toString(edges++), 2 * u, 2 * u + 1,
+					true);
+
+		for (int u = 0; u < nodeCount; u++)
+			for (int i = neighborStart[u]; i < neighborStart[u + 1]; i++)
+				splitGraph.addEdge(Integer.toString(edges++), 2 * u + 1,
+						2 * neighbor[i], true);
+	}
+
+	/**
+	 * Capacity 1 inside the nodes, and a capacity larger than any separator
+	 * between them. Reverse arcs have no capacity.
+	 */
+	protected void loadCapacities() {
+		int n = flowAlgorithm.n;
+		int nodeCount = graph.getNodeCount();
+
+		for (int i = 0; i < n; i++) {
+			flowAlgorithm.capacities[i] = i < nodeCount ? 1 : nodeCount;
+			flowAlgorithm.capacities[i + n] = 0;
+		}
+	}
+
+	/**
+	 * Vertex connectivity computed by the last call to {@link #compute()}.
+	 * 
+	 * @return the minimum number of nodes whose removal disconnects the graph
+	 */
+	public int getVertexConnectivity() {
+		return vertexConnectivity;
+	}
+
+	/**
+	 * Nodes of a minimum separator found by the last call to
+	 * {@link #compute()}. Its size is the vertex connectivity, it is empty if
+	 * the graph is disconnected and contains all the nodes of a complete graph.
+	 * 
+	 * @return the nodes of the separator
+	 */
+	public <T extends Node> List<T> getMinimumSeparator() {
+		List<T> nodes = new ArrayList<T>(separator.length);
+
+		for (int u : separator)
+			nodes.add(graph.<T> getNode(u));
+
+		return nodes;
+	}
+
+	/**
+	 * Number of maximum flows computed during the last call to
+	 * {@link #compute()}.
+	 * 
+	 * @return the number of flows
+	 */
+	public int getFlowCount() {
+		return flowCount;
+	}
+}
@@ -75,14 +75,15 @@ public class CommunityDistribution extends CommunityMeasure {
 
 	@Override
 	/**
-	 * Computes and update the statistical information on size distribution.
+	 * Computes and update the statistical information on size distribution,
+	 * reading the sizes from the community index.
 	 * 
 	 * @complexity O(C), where C is the expected number of communities.
 	 */
 	public void compute() {
 		if (graphChanged) {
 			// Default measure is the number of communities
-			M = (float) communities.size();
+			M = (float) index.getCommunityCount();
 
 			// Update the smallest/biggest community
 			// and creates the size distribution
@@ -94,16 +95,24 @@ public class CommunityDistribution extends CommunityMeasure {
 			Mean mean = new Mean();
 			StandardDeviation stdev = new StandardDeviation();
 
-			for (Object c : communities.keySet()) {
-				distribution[k++] = (communities.get(c)).size();
+			biggestCommunity = null;
+			smallestCommunity = null;
 
-				if ((communities.get(c)).size() > maxSize) {
-					biggestCommunity = c;
-					maxSize = (communities.get(c)).size();
+			for (int c = 0; c < index.getIdBound(); c++) {
+				int size = index.getSize(c);
+
+				if (size == 0)
+					continue;
+
+				distribution[k++] = size;
+
+				if (size > maxSize) {
+					biggestCommunity = index.getKey(c);
+					maxSize = size;
 				}
-				if ((communities.get(c)).size() < minSize) {
-					smallestCommunity = c;
-					minSize = (communities.get(c)).size();
+				if (size < minSize) {
+					smallestCommunity = index.getKey(c);
+					minSize = size;
 				}
 			}
 
@@ -148,10 +157,8 @@ public class CommunityDistribution extends CommunityMeasure {
 	 * @return an int reflecting the size of the biggest community
 	 */
 	public int maxCommunitySize() {
-		if (communities.get(biggestCommunity) == null)
-			return 0;
-		else
-			return (communities.get(biggestCommunity)).size();
+		int c = index.indexOf(biggestCommunity);
+		return c < 0 ? 0 : index.getSize(c);
 	}
 
 	/**
@@ -160,10 +167,8 @@ public class CommunityDistribution extends CommunityMeasure {
 	 * @return an int reflecting the size of the smallest community
 	 */
 	public int minCommunitySize() {
-		if (communities.get(smallestCommunity) == null)
-			return 0;
-		else
-			return (communities.get(smallestCommunity)).size();
+		int c = index.indexOf(smallestCommunity);
+		return c < 0 ? 0 : index.getSize(c);
 	}
 
 	/**
@@ -0,0 +1,338 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.measure;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Dense index of the communities of an assignment.
+ * 
+ * <p>
+ * Each community marker value is interned into a dense integer id, and ids of
+ * empty communities are reused. For each id the index keeps the number of
+ * members, the weight of the edges inside the community and the total degree
+ * of its members, along with a few sums over all the communities that measures
+ * need: the sum of the squared total degrees, the number of pairs of nodes
+ * inside communities and the sum of <code>k log k</code> over the sizes.
+ * Moving a node from one community to another is O(1); measures that keep
+ * weights add the contribution of the edges of the node themselves.
+ * </p>
+ * 
+ * <p>
+ * Keys are expected to be normalized with
+ * {@link CommunityMeasure#communityKey(Object)}.
+ * </p>
+ */
+public class CommunityIndex {
+	/**
+	 * Id of each community, by marker value.
+	 */
+	protected HashMap<Object, Integer> ids;
+
+	/**
+	 * Marker value of each id.
+	 */
+	protected Object[] keys;
+
+	/**
+	 * Number of members of each community.
+	 */
+	protected int[] size;
+
+	/**
+	 * Weight of the edges inside each community.
+	 */
+	protected double[] innerWeight;
+
+	/**
+	 * Sum of the weighted degrees of the members of each community.
+	 */
+	protected double[] totalDegree;
+
+	/**
+	 * Ids of empty communities that can be reused.
+	 */
+	protected int[] freeIds;
+	protected int freeCount;
+
+	/**
+	 * Number of ids used so far.
+	 */
+	protected int idCount;
+
+	/**
+	 * Number of members of all the communities.
+	 */
+	protected int memberCount;
+
+	/**
+	 * Total weight of the edges inside the communities and sum of the squares
+	 * of the total degrees.
+	 */
+	protected double totalInnerWeight, sumSquaredDegrees;
+
+	/**
+	 * Number of pairs of nodes sharing a community.
+	 */
+	protected double pairCount;
+
+	/**
+	 * Sum of <code>k log k</code> over the sizes of the communities.
+	 */
+	protected double sizeLogSizeSum;
+
+	/**
+	 * New empty index.
+	 */
+	public CommunityIndex() {
+		clear();
+	}
+
+	/**
+	 * Forget all the communities.
+	 */
+	public void clear() {
+		ids = new HashMap<Object, Integer>();
+		keys = new Object[16];
+		size = new int[16];
+		innerWeight = new double[16];
+		totalDegree = new double[16];
+		freeIds = new int[16];
+		freeCount = 0;
+		idCount = 0;
+		memberCount = 0;
+		totalInnerWeight = 0;
+		sumSquaredDegrees = 0;
+		pairCount = 0;
+		sizeLogSizeSum = 0;
+	}
+
+	/**
+	 * Add a member to a community, creating the community if needed.
+	 * 
+	 * @complexity O(1) expected
+	 * @return the id of the community
+	 */
+	public int add(Object key) {
+		Integer c = ids.get(key);
+
+		if (c == null) {
+			if (freeCount > 0) {
+				c = freeIds[--freeCount];
+			} else {
+				c = idCount++;
+
+				if (c == size.length) {
+					int capacity = 2 * c;
+					keys = Arrays.copyOf(keys, capacity);
+					size = Arrays.copyOf(size, capacity);
+					innerWeight = Arrays.copyOf(innerWeight, capacity);
+					totalDegree = Arrays.copyOf(totalDegree, capacity);
+					freeIds = Arrays.copyOf(freeIds, capacity);
+				}
+			}
+
+			ids.put(key, c);
+			keys[c] = key;
+		}
+
+		int k = size[c]++;
+		pairCount += k;
+		sizeLogSizeSum += xlogx(k + 1) - xlogx(k);
+		memberCount++;
+
+		return c;
+	}
+
+	/**
+	 * Remove a member from a community. The id of the community is released
+	 * when it becomes empty, together with what remains of its weights.
+	 * 
+	 * @complexity O(1) expected
+	 * @return the id the community had, or -1 if it is not in the index
+	 */
+	public int remove(Object key) {
+		Integer c = ids.get(key);
+
+		if (c == null)
+			return -1;
+
+		int k = size[c]--;
+		pairCount -= k - 1;
+		sizeLogSizeSum += xlogx(k - 1) - xlogx(k);
+		memberCount--;
+
+		if (k == 1) {
+			ids.remove(key);
+			keys[c] = null;
+			addDegree(c, -totalDegree[c]);
+			addInnerWeight(c, -innerWeight[c]);
+			freeIds[freeCount++] = c;
+		}
+
+		return c;
+	}
+
+	/**
+	 * Move a member from a community to another.
+	 * 
+	 * @complexity O(1) expected
+	 * @return the id of the new community
+	 */
+	public int move(Object oldKey, Object newKey) {
+		remove(oldKey);
+		return add(newKey);
+	}
+
+	/**
+	 * Id of a community.
+	 * 
+	 * @return the id, or -1 if the community is empty
+	 */
+	public int indexOf(Object key) {
+		Integer c = ids.get(key);
+		return c == null ? -1 : c;
+	}
+
+	/**
+	 * Marker value of a community.
+	 * 
+	 * @return the value, or null if the id is not used
+	 */
+	public Object getKey(int c) {
+		return keys[c];
+	}
+
+	/**
+	 * Upper bound of the ids, so that all the communities are between 0 and
+	 * this value. Unused ids have a size of zero.
+	 */
+	public int getIdBound() {
+		return idCount;
+	}
+
+	/**
+	 * Number of non-empty communities.
+	 */
+	public int getCommunityCount() {
+		return ids.size();
+	}
+
+	/**
+	 * Number of members of all the communities.
+	 */
+	public int getMemberCount() {
+		return memberCount;
+	}
+
+	/**
+	 * Number of members of a community.
+	 */
+	public int getSize(int c) {
+		return size[c];
+	}
+
+	/**
+	 * Weight of the edges inside a community.
+	 */
+	public double getInnerWeight(int c) {
+		return innerWeight[c];
+	}
+
+	/**
+	 * Sum of the weighted degrees of the members of a community.
+	 */
+	public double getTotalDegree(int c) {
+		return totalDegree[c];
+	}
+
+	/**
+	 * Weight of the edges inside all the communities.
+	 */
+	public double getTotalInnerWeight() {
+		return totalInnerWeight;
+	}
+
+	/**
+	 * Sum of the squares of the total degrees of the communities.
+	 */
+	public double getSumSquaredDegrees() {
+		return sumSquaredDegrees;
+	}
+
+	/**
+	 * Number of pairs of nodes sharing a community, the sum of
+	 * <code>k (k - 1) / 2</code> over the sizes.
+	 */
+	public double getPairCount() {
+		return pairCount;
+	}
+
+	/**
+	 * Sum of <code>k log k</code> over the sizes of the communities.
+	 */
+	public double getSizeLogSizeSum() {
+		return sizeLogSizeSum;
+	}
+
+	/**
+	 * Entropy of the assignment, in nats.
+	 */
+	public double getEntropy() {
+		return memberCount == 0 ? 0 : Math.log(memberCount) - sizeLogSizeSum
+				/ memberCount;
+	}
+
+	/**
+	 * Add a weight to the total degree of a community, updating the sum of the
+	 * squares.
+	 */
+	public void addDegree(int c, double w) {
+		double d = totalDegree[c];
+
+		totalDegree[c] = d + w;
+		sumSquaredDegrees += (d + w) * (d + w) - d * d;
+	}
+
+	/**
+	 * Add a weight to the inner weight of a community.
+	 */
+	public void addInnerWeight(int c, double w) {
+		innerWeight[c] += w;
+		totalInnerWeight += w;
+	}
+
+	protected static double xlogx(int x) {
+		return x <= 1 ? 0 : x * Math.log(x);
+	}
+}
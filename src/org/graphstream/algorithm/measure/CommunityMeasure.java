@@ -69,6 +69,11 @@ public abstract class CommunityMeasure extends SinkAdapter implements
 	 */
 	protected HashMap<Object, HashSet<Node>> communities;
 
+	/**
+	 * Dense index of the communities, updated with {@link #communities}.
+	 */
+	protected CommunityIndex index = new CommunityIndex();
+
 	/**
 	 * Set to false after {@link #compute()}.
 	 */
@@ -160,6 +165,19 @@ public abstract class CommunityMeasure extends SinkAdapter implements
 
 	protected void initialize() {
 		communities = communities(graph, marker);
+		index.clear();
+
+		for (Node node : graph)
+			index.add(communityKey(node.getAttribute(marker)));
+	}
+
+	/**
+	 * The dense index of the current communities.
+	 * 
+	 * @return the index, updated as the graph evolves
+	 */
+	public CommunityIndex getCommunityIndex() {
+		return index;
 	}
 
 	/*
@@ -214,6 +232,8 @@ public abstract class CommunityMeasure extends SinkAdapter implements
 	 */
 	@Override
 	public void graphCleared(String graphId, long timeId) {
+		communities.clear();
+		index.clear();
 		graphChanged = true;
 	}
 
@@ -245,6 +265,43 @@ public abstract class CommunityMeasure extends SinkAdapter implements
 		}
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.graphstream.stream.Sink#nodeAttributeRemoved(java.lang.String,
+	 * long, java.lang.String, java.lang.String)
+	 */
+	@Override
+	public void nodeAttributeRemoved(String graphId, long timeId,
+			String nodeId, String attribute) {
+		if (attribute.equals(marker)) {
+			// The event is sent before the attribute is removed.
+			Node node = graph.getNode(nodeId);
+			Object oldValue = node == null ? null : node.getAttribute(marker);
+
+			nodeAttributeChanged(graphId, timeId, nodeId, attribute, oldValue,
+					null);
+		}
+	}
+
+	/**
+	 * Key of a community, as in
+	 * {@link org.graphstream.algorithm.Toolkit#communities(org.graphstream.graph.Graph, String)}
+	 * .
+	 */
+	protected Object communityKey(Object value) {
+		return value == null ? "NULL_COMMUNITY" : value;
+	}
+
+	/**
+	 * The dense index kept along an assignment.
+	 * 
+	 * @return the index, or null if the assignment is not indexed
+	 */
+	protected CommunityIndex indexOf(HashMap<Object, HashSet<Node>> assignment) {
+		return assignment == communities ? index : null;
+	}
+
 	/**
 	 * Put the node referred by nodeId to the community referred by newValue in
 	 * the assignment referred by assignment.
@@ -268,7 +325,8 @@ public abstract class CommunityMeasure extends SinkAdapter implements
 				community = new HashSet<Node>();
 				assignment.put(communityKey, community);
 			}
-			community.add(node);
+			if (community.add(node) && indexOf(assignment) != null)
+				indexOf(assignment).add(communityKey);
 
 			graphChanged = true;
 		}
@@ -295,11 +353,13 @@ public abstract class CommunityMeasure extends SinkAdapter implements
 			assert community != null : "Removing a node that was not placed in any community !!";
 
 			if (community != null) {
-				community.remove(node);
+				if (community.remove(node) && indexOf(assignment) != null)
+					indexOf(assignment).remove(communityKey);
 				if (community.size() == 0) {
 					assignment.remove(communityKey);
 				}
 			}
+
 			graphChanged = true;
 		}
 	}
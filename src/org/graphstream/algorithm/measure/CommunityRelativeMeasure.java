@@ -57,9 +57,19 @@ public abstract class CommunityRelativeMeasure extends CommunityMeasure {
 	 */
 	protected HashMap<Object, HashSet<Node>> referenceCommunities;
 
+	/**
+	 * Number of nodes in each pair of reference and current communities, rows
+	 * being the reference communities.
+	 */
+	protected ContingencyTable table;
+
+	/**
+	 * Dense index of the reference communities.
+	 */
+	protected CommunityIndex referenceIndex = new CommunityIndex();
+
 	public CommunityRelativeMeasure(String marker) {
-		super(marker);
-		this.referenceMarker = "label";
+		this(marker, "label");
 	}
 
 	/**
@@ -75,6 +85,7 @@ public abstract class CommunityRelativeMeasure extends CommunityMeasure {
 	public CommunityRelativeMeasure(String marker, String referenceMarker) {
 		super(marker);
 		this.referenceMarker = referenceMarker;
+		this.table = new ContingencyTable(referenceIndex, index);
 	}
 
 	// /**
@@ -100,15 +111,42 @@ public abstract class CommunityRelativeMeasure extends CommunityMeasure {
 	protected void initialize() {
 		super.initialize();
 		referenceCommunities = communities(graph, referenceMarker);
+		referenceIndex.clear();
+		table.clear();
+
+		for (Node node : graph) {
+			int r = referenceIndex.add(communityKey(node
+					.getAttribute(referenceMarker)));
+			table.add(r, index.indexOf(communityKey(node.getAttribute(marker))));
+		}
+	}
+
+	/**
+	 * The dense index of the reference communities.
+	 * 
+	 * @return the index, updated as the graph evolves
+	 */
+	public CommunityIndex getReferenceIndex() {
+		return referenceIndex;
+	}
+
+	/**
+	 * The contingency table between the reference and the current communities.
+	 * 
+	 * @return the table, updated as the graph evolves
+	 */
+	public ContingencyTable getContingencyTable() {
+		return table;
 	}
 
 	@Override
 	public void nodeAdded(String graphId, long timeId, String nodeId) {
-		super.nodeAdded(graphId, timeId, nodeId);
-
+		// The reference is known before the node enters the table.
 		Node n = graph.getNode(nodeId);
 		assignNode(nodeId, n.getAttribute(referenceMarker),
 				referenceCommunities);
+
+		super.nodeAdded(graphId, timeId, nodeId);
 	}
 
 	@Override
@@ -127,8 +165,92 @@ public abstract class CommunityRelativeMeasure extends CommunityMeasure {
 				oldValue, newValue);
 
 		if (attribute.equals(referenceMarker) && oldValue != newValue) {
+			Node node = graph.getNode(nodeId);
+			int c = node == null ? -1 : index.indexOf(communityKey(node
+					.getAttribute(marker)));
+
+			if (c >= 0)
+				table.remove(referenceIndex.indexOf(communityKey(oldValue)), c);
+
 			unassignNode(nodeId, oldValue, referenceCommunities);
 			assignNode(nodeId, newValue, referenceCommunities);
+
+			if (c >= 0)
+				table.add(referenceIndex.indexOf(communityKey(newValue)), c);
+		}
+	}
+
+	@Override
+	public void nodeAttributeRemoved(String graphId, long timeId,
+			String nodeId, String attribute) {
+		super.nodeAttributeRemoved(graphId, timeId, nodeId, attribute);
+
+		if (attribute.equals(referenceMarker) && !attribute.equals(marker)) {
+			// The event is sent before the attribute is removed.
+			Node node = graph.getNode(nodeId);
+			Object oldValue = node == null ? null : node
+					.getAttribute(referenceMarker);
+
+			nodeAttributeChanged(graphId, timeId, nodeId, attribute, oldValue,
+					null);
 		}
 	}
+
+	@Override
+	public void graphCleared(String graphId, long timeId) {
+		super.graphCleared(graphId, timeId);
+		referenceCommunities.clear();
+		referenceIndex.clear();
+		table.clear();
+	}
+
+	@Override
+	protected CommunityIndex indexOf(HashMap<Object, HashSet<Node>> assignment) {
+		return assignment == referenceCommunities ? referenceIndex : super
+				.indexOf(assignment);
+	}
+
+	/**
+	 * Current communities move in the contingency table with the reference
+	 * community of the node, which is left unchanged.
+	 */
+	@Override
+	protected void assignNode(String nodeId, Object newValue,
+			HashMap<Object, HashSet<Node>> assignment) {
+		super.assignNode(nodeId, newValue, assignment);
+
+		if (assignment == communities) {
+			int r = referenceOf(nodeId);
+
+			if (r >= 0)
+				table.add(r, index.indexOf(communityKey(newValue)));
+		}
+	}
+
+	@Override
+	protected void unassignNode(String nodeId, Object oldValue,
+			HashMap<Object, HashSet<Node>> assignment) {
+		// The cell is left before the index may release the community.
+		if (assignment == communities) {
+			int r = referenceOf(nodeId);
+			int c = index.indexOf(communityKey(oldValue));
+
+			if (r >= 0 && c >= 0)
+				table.remove(r, c);
+		}
+
+		super.unassignNode(nodeId, oldValue, assignment);
+	}
+
+	/**
+	 * Id of the reference community of a node.
+	 * 
+	 * @return the id, or -1 if the node or its community is not known
+	 */
+	protected int referenceOf(String nodeId) {
+		Node node = graph.getNode(nodeId);
+
+		return node == null ? -1 : referenceIndex.indexOf(communityKey(node
+				.getAttribute(referenceMarker)));
+	}
 }
@@ -38,7 +38,8 @@ import java.util.LinkedList;
 
 import org.graphstream.algorithm.Algorithm;
 import org.graphstream.algorithm.DynamicAlgorithm;
-import org.graphstream.algorithm.flow.EdmondsKarpAlgorithm;
+import org.graphstream.algorithm.flow.GomoryHuTree;
+import org.graphstream.algorithm.flow.VertexConnectivity;
 import org.graphstream.graph.Edge;
 import org.graphstream.graph.Graph;
 import org.graphstream.graph.Node;
@@ -57,49 +58,28 @@ import org.graphstream.stream.SinkAdapter;
 public class ConnectivityMeasure {
 	/**
 	 * Get the vertex-connectivity k of a graph such that there is a k-tuple of
-	 * nodes whose removal disconnects the graph.
+	 * nodes whose removal disconnects the graph. This uses a
+	 * {@link VertexConnectivity} to compute maximum flows in a graph where
+	 * each node is split in two, with O(nk) flow computations instead of
+	 * enumerating the tuples of nodes.
 	 * 
 	 * @param g
 	 *            the graph
 	 * @return vertex connectivity
 	 */
 	public static int getVertexConnectivity(Graph g) {
-		int previous;
-		int current = Integer.MIN_VALUE;
-		boolean isPreviousConnected;
-		boolean isCurrentConnected;
+		VertexConnectivity connectivity = new VertexConnectivity();
 
-		/*
-		 * We start with the max degree.
-		 */
-		for (Node n : g.getEachNode())
-			current = Math.max(current, n.getDegree());
-
-		isCurrentConnected = isKVertexConnected(g, current);
-
-		do {
-			isPreviousConnected = isCurrentConnected;
-			previous = current;
-
-			if (isPreviousConnected)
-				current = previous + 1;
-			else
-				current = previous - 1;
+		connectivity.init(g);
+		connectivity.compute();
 
-			isCurrentConnected = isKVertexConnected(g, current);
-		} while (!((isPreviousConnected && !isCurrentConnected && previous == current - 1) || (!isPreviousConnected
-				&& isCurrentConnected && previous == current + 1)));
-
-		if (!isPreviousConnected)
-			return current;
-
-		return previous;
+		return connectivity.getVertexConnectivity();
 	}
 
 	/**
 	 * Get the edge-connectivity k of a graph such that there is a k-tuple of
-	 * edges whose removal disconnects the graph. This uses the Ford-Fulkerson
-	 * algorithm to compute maximum flows in the graph.
+	 * edges whose removal disconnects the graph. This uses a
+	 * {@link GomoryHuTree} to compute maximum flows in the graph.
 	 * 
 	 * A simple algorithm would, for every pair (u,v), determine the maximum
 	 * flow from u to v with the capacity of all edges in G set to 1 for both
@@ -107,30 +87,20 @@ public class ConnectivityMeasure {
 	 * from u to v is at least k for any pair (u,v), so k is the least u-v-flow
 	 * among all (u,v). Source <a
 	 * href="https://en.wikipedia.org/wiki/K-edge-connected_graph"
-	 * >Wikipedia</a>.
+	 * >Wikipedia</a>. The Gomory-Hu tree gives the same minimum with only n - 1
+	 * flow computations instead of n(n - 1) / 2.
 	 * 
 	 * @param g
 	 *            the graph
 	 * @return edge connectivity
 	 */
 	public static int getEdgeConnectivity(Graph g) {
-		int k = Integer.MAX_VALUE;
-		EdmondsKarpAlgorithm flow = new EdmondsKarpAlgorithm();
-
-		if (g.getNodeCount() < 2)
-			return 0;
+		GomoryHuTree tree = new GomoryHuTree();
 
-		for (int u = 0; u < g.getNodeCount() - 1; u++) {
-			for (int v = u + 1; v < g.getNodeCount(); v++) {
-				flow.init(g, g.getNode(u).getId(), g.getNode(v).getId());
-				flow.setAllCapacities(1.0);
-				flow.compute();
-
-				k = Math.min(k, (int) flow.getMaximumFlow());
-			}
-		}
+		tree.init(g);
+		tree.compute();
 
-		return k;
+		return (int) tree.getEdgeConnectivity();
 	}
 
 	/**
@@ -144,8 +114,7 @@ public class ConnectivityMeasure {
 	 * @return true if g is k-vertex-connected
 	 */
 	public static boolean isKVertexConnected(Graph g, int k) {
-		Node[] tuple = getKDisconnectingNodeTuple(g, k - 1);
-		return tuple == null;
+		return getVertexConnectivity(g) >= k;
 	}
 
 	/**
@@ -159,8 +128,7 @@ public class ConnectivityMeasure {
 	 * @return true if g is k-edge-connected
 	 */
 	public static boolean isKEdgeConnected(Graph g, int k) {
-		Edge[] tuple = getKDisconnectingEdgeTuple(g, k - 1);
-		return tuple == null;
+		return getEdgeConnectivity(g) >= k;
 	}
 
 	/**
@@ -348,11 +316,13 @@ public class ConnectivityMeasure {
 		protected Graph g;
 		protected int vertexConnectivity;
 		protected Sink trigger;
+		protected VertexConnectivity connectivity;
 
 		public VertexConnectivityMeasure() {
 			g = null;
 			vertexConnectivity = -1;
 			trigger = new StepTrigger(this);
+			connectivity = new VertexConnectivity();
 		}
 
 		/**
@@ -365,13 +335,25 @@ public class ConnectivityMeasure {
 			return vertexConnectivity;
 		}
 
+		/**
+		 * Get the algorithm used in the last call of {@link #compute()}, which
+		 * gives a minimum separator of the graph.
+		 * 
+		 * @return the vertex connectivity algorithm
+		 */
+		public VertexConnectivity getVertexConnectivityAlgorithm() {
+			return connectivity;
+		}
+
 		/*
 		 * (non-Javadoc)
 		 * 
 		 * @see org.graphstream.algorithm.Algorithm#compute()
 		 */
 		public void compute() {
-			vertexConnectivity = ConnectivityMeasure.getVertexConnectivity(g);
+			connectivity.init(g);
+			connectivity.compute();
+			vertexConnectivity = connectivity.getVertexConnectivity();
 		}
 
 		/*
@@ -399,11 +381,13 @@ public class ConnectivityMeasure {
 		protected Graph g;
 		protected int edgeConnectivity;
 		protected Sink trigger;
+		protected GomoryHuTree tree;
 
 		public EdgeConnectivityMeasure() {
 			g = null;
 			edgeConnectivity = -1;
 			trigger = new StepTrigger(this);
+			tree = new GomoryHuTree();
 		}
 
 		/**
@@ -416,13 +400,26 @@ public class ConnectivityMeasure {
 			return edgeConnectivity;
 		}
 
+		/**
+		 * Get the Gomory-Hu tree computed in the last call of
+		 * {@link #compute()}. It gives the minimum cut between any pair of
+		 * nodes.
+		 * 
+		 * @return the Gomory-Hu tree
+		 */
+		public GomoryHuTree getGomoryHuTree() {
+			return tree;
+		}
+
 		/*
 		 * (non-Javadoc)
 		 * 
 		 * @see org.graphstream.algorithm.Algorithm#compute()
 		 */
 		public void compute() {
-			edgeConnectivity = ConnectivityMeasure.getEdgeConnectivity(g);
+			tree.init(g);
+			tree.compute();
+			edgeConnectivity = (int) tree.getEdgeConnectivity();
 		}
 
 		/*
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.measure;
+
+import java.util.Arrays;
+
+/**
+ * Sparse contingency table between two partitions of the same set of nodes.
+ * 
+ * <p>
+ * Rows and columns are the ids of two {@link CommunityIndex}, which keep the
+ * size of each part. Only the non-empty cells are stored, in an open addressing
+ * hash table keyed by the pair of ids packed in a long. The table is updated in
+ * O(1) each time a node enters or leaves a cell, and keeps the sum of
+ * <code>x log x</code> over the cells so that, with the same sums kept by the
+ * indices, the entropies and the mutual information of the two partitions are
+ * available at any time without scanning the table.
+ * </p>
+ * 
+ * <p>
+ * Rows are the parts of the reference partition and columns the parts of the
+ * current partition, as in
+ * {@link NormalizedMutualInformation#confusionMatrix()}. A cell must be
+ * removed before the index releases its row or column id.
+ * </p>
+ */
+public class ContingencyTable {
+	/**
+	 * Marks an empty slot of the cell table.
+	 */
+	protected static final long EMPTY = -1L;
+
+	/**
+	 * Indices of the rows and columns.
+	 */
+	protected CommunityIndex rows, columns;
+
+	/**
+	 * Keys and counts of the cells, with linear probing.
+	 */
+	protected long[] keys;
+	protected int[] counts;
+
+	/**
+	 * Shift keeping the top log2(capacity) bits of the hash.
+	 */
+	protected int shift;
+
+	/**
+	 * Number of non-empty cells.
+	 */
+	protected int cellCount;
+
+	/**
+	 * Total number of nodes.
+	 */
+	protected int total;
+
+	/**
+	 * Sum of <code>x log x</code> over the cells.
+	 */
+	protected double cellSum;
+
+	/**
+	 * New empty table between two indices.
+	 * 
+	 * @param rows
+	 *            index of the reference partition
+	 * @param columns
+	 *            index of the current partition
+	 */
+	public ContingencyTable(CommunityIndex rows, CommunityIndex columns) {
+		this.rows = rows;
+		this.columns = columns;
+		clear();
+	}
+
+	/**
+	 * Remove all the nodes from the table. The indices are left unchanged.
+	 */
+	public void clear() {
+		keys = new long[64];
+		counts = new int[64];
+		Arrays.fill(keys, EMPTY);
+		shift = 64 - Integer.numberOfTrailingZeros(64);
+		cellCount = 0;
+		total = 0;
+		cellSum = 0;
+	}
+
+	/**
+	 * Count a node in the cell at the given row and column ids.
+	 * 
+	 * @complexity O(1) expected
+	 */
+	public void add(int r, int c) {
+		int k = increment(key(r, c), 1);
+		cellSum += xlogx(k + 1) - xlogx(k);
+		total++;
+	}
+
+	/**
+	 * Remove a node from the cell at the given row and column ids.
+	 * 
+	 * @complexity O(1) expected
+	 * @throws IllegalStateException
+	 *             if the cell is empty.
+	 */
+	public void remove(int r, int c) {
+		if (r < 0 || c < 0 || count(r, c) == 0)
+			throw new IllegalStateException("No node in cell (" + r + ", " + c
+					+ ")");
+
+		int k = increment(key(r, c), -1);
+		cellSum += xlogx(k - 1) - xlogx(k);
+		total--;
+	}
+
+	/**
+	 * Total number of nodes.
+	 */
+	public int getTotal() {
+		return total;
+	}
+
+	/**
+	 * Number of non-empty cells.
+	 */
+	public int getCellCount() {
+		return cellCount;
+	}
+
+	/**
+	 * Number of nodes in the cell at the given row and column labels.
+	 */
+	public int getCount(Object row, Object column) {
+		int r = rows.indexOf(row);
+		int c = columns.indexOf(column);
+		return r < 0 || c < 0 ? 0 : count(r, c);
+	}
+
+	/**
+	 * Sum of <code>N_ij log N_ij</code> over the cells.
+	 */
+	public double getCellSum() {
+		return cellSum;
+	}
+
+	/**
+	 * Mutual information between the rows and the columns, in nats.
+	 */
+	public double getMutualInformation() {
+		return total == 0 ? 0 : (cellSum - rows.getSizeLogSizeSum() - columns
+				.getSizeLogSizeSum()) / total + Math.log(total);
+	}
+
+	/**
+	 * Dense copy of the table. Rows and columns are numbered in the iteration
+	 * order of the given labels.
+	 * 
+	 * @complexity O(R C)
+	 */
+	public int[][] toMatrix(Iterable<?> rowKeys, Iterable<?> columnKeys) {
+		int[] r = new int[rows.getCommunityCount()];
+		int[] c = new int[columns.getCommunityCount()];
+		int i = 0, j = 0;
+
+		for (Object row : rowKeys)
+			r[i++] = rows.indexOf(row);
+		for (Object column : columnKeys)
+			c[j++] = columns.indexOf(column);
+
+		int[][] N = new int[i][j];
+
+		for (i = 0; i < N.length; i++)
+			for (j = 0; j < N[i].length; j++)
+				N[i][j] = count(r[i], c[j]);
+
+		return N;
+	}
+
+	protected static double xlogx(int x) {
+		return x <= 1 ? 0 : x * Math.log(x);
+	}
+
+	protected static long key(int r, int c) {
+		return ((long) r << 32) | (c & 0xFFFFFFFFL);
+	}
+
+	protected int slot(long key) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+	}
+
+	protected int count(int r, int c) {
+		long key = key(r, c);
+		int mask = keys.length - 1;
+
+		for (int s = slot(key); keys[s] != EMPTY; s = (s + 1) & mask)
+			if (keys[s] == key)
+				return counts[s];
+
+		return 0;
+	}
+
+	/**
+	 * Add delta to the count of a cell, creating or deleting it as needed.
+	 * 
+	 * @return the count before the update
+	 */
+	protected int increment(long key, int delta) {
+		int mask = keys.length - 1;
+		int s = slot(key);
+
+		while (keys[s] != EMPTY && keys[s] != key)
+			s = (s + 1) & mask;
+
+		if (keys[s] == EMPTY) {
+			keys[s] = key;
+			counts[s] = delta;
+
+			if (++cellCount * 2 > keys.length)
+				rehash(keys.length * 2);
+
+			return 0;
+		}
+
+		int old = counts[s];
+		counts[s] += delta;
+
+		if (counts[s] == 0)
+			delete(s);
+
+		return old;
+	}
+
+	/**
+	 * Empty a slot, shifting back the following entries of its cluster.
+	 */
+	protected void delete(int s) {
+		int mask = keys.length - 1;
+		int hole = s;
+
+		for (s = (s + 1) & mask; keys[s] != EMPTY; s = (s + 1) & mask) {
+			int home = slot(keys[s]);
+
+			if (((s - home) & mask) >= ((s - hole) & mask)) {
+				keys[hole] = keys[s];
+				counts[hole] = counts[s];
+				hole = s;
+			}
+		}
+
+		keys[hole] = EMPTY;
+		counts[hole] = 0;
+		cellCount--;
+	}
+
+	protected void rehash(int capacity) {
+		long[] oldKeys = keys;
+		int[] oldCounts = counts;
+		keys = new long[capacity];
+		counts = new int[capacity];
+		Arrays.fill(keys, EMPTY);
+		shift = 64 - Integer.numberOfTrailingZeros(capacity);
+		int mask = capacity - 1;
+
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				int s = slot(oldKeys[i]);
+
+				while (keys[s] != EMPTY)
+					s = (s + 1) & mask;
+
+				keys[s] = oldKeys[i];
+				counts[s] = oldCounts[i];
+			}
+		}
+	}
+}
@@ -32,11 +32,25 @@
 package org.graphstream.algorithm.measure;
 
 import static org.graphstream.algorithm.Toolkit.modularity;
-import static org.graphstream.algorithm.Toolkit.modularityMatrix;
+import static org.graphstream.algorithm.Toolkit.modularityEdgeWeight;
+
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Node;
 
 /**
  * Computes and updates the modularity of a given graph as it evolves.
  * 
+ * <p>
+ * The weight of the edges inside each community and the total degree of its
+ * nodes are kept in the {@link CommunityIndex} of the measure. They are built with a
+ * single pass over the edges when the graph is set, then updated in O(d) each
+ * time a node of degree d changes community, and in O(1) when an edge is
+ * added, removed or reweighted. The modularity is then read in O(1).
+ * </p>
+ * 
  * @reference M. E. Newman and M. Girvan, “Finding and Evaluating Community
  *            Structure in Networks,” <i>Physical Review E (Statistical,
  *            Nonlinear, and Soft Matter Physics)</i>, vol. 69, no. 2, pp. 026
@@ -85,6 +99,11 @@ public class Modularity extends CommunityMeasure {
 		this.weightMarker = weightMarker;
 	}
 
+	/**
+	 * Total weight of the edges.
+	 */
+	protected double totalWeight;
+
 	/**
 	 * Enables weighted extension of the modularity using the given weightMarker
 	 * for edge weights.
@@ -94,6 +113,9 @@ public class Modularity extends CommunityMeasure {
 	 */
 	public void setWeightMarker(String weightMarker) {
 		this.weightMarker = weightMarker;
+
+		if (graph != null)
+			initialize();
 	}
 
 	/*
@@ -102,14 +124,152 @@ public class Modularity extends CommunityMeasure {
 	 * @see org.graphstream.algorithm.Algorithm#compute()
 	 */
 	/**
-	 * @complexity O(n+m!+m!k)
+	 * @complexity O(1)
 	 */
 	@Override
 	public void compute() {
 		if (graphChanged) {
-			double[][] E = modularityMatrix(graph, communities, weightMarker);
-			M = modularity(E);
+			M = modularity(index.getTotalInnerWeight(),
+					index.getSumSquaredDegrees(), totalWeight);
 			graphChanged = false;
 		}
 	}
-}
\ No newline at end of file
+
+	@Override
+	protected void initialize() {
+		super.initialize();
+		totalWeight = 0;
+
+		for (Edge edge : graph.getEachEdge())
+			addEdgeWeight(edge, modularityEdgeWeight(edge, weightMarker));
+
+		graphChanged = true;
+	}
+
+	@Override
+	protected void assignNode(String nodeId, Object newValue,
+			HashMap<Object, HashSet<Node>> assignment) {
+		super.assignNode(nodeId, newValue, assignment);
+
+		Node node = graph.getNode(nodeId);
+
+		if (node != null && assignment == communities)
+			addNodeWeight(node, index.indexOf(communityKey(newValue)), 1);
+	}
+
+	@Override
+	protected void unassignNode(String nodeId, Object oldValue,
+			HashMap<Object, HashSet<Node>> assignment) {
+		// The weights leave before the index may release the community.
+		Node node = graph.getNode(nodeId);
+		int c = index.indexOf(communityKey(oldValue));
+
+		if (node != null && assignment == communities && c >= 0)
+			addNodeWeight(node, c, -1);
+
+		super.unassignNode(nodeId, oldValue, assignment);
+	}
+
+	@Override
+	public void edgeAdded(String graphId, long timeId, String edgeId,
+			String fromNodeId, String toNodeId, boolean directed) {
+		super.edgeAdded(graphId, timeId, edgeId, fromNodeId, toNodeId,
+				directed);
+
+		Edge edge = graph.getEdge(edgeId);
+		addEdgeWeight(edge, modularityEdgeWeight(edge, weightMarker));
+	}
+
+	@Override
+	public void edgeRemoved(String graphId, long timeId, String edgeId) {
+		super.edgeRemoved(graphId, timeId, edgeId);
+
+		Edge edge = graph.getEdge(edgeId);
+		addEdgeWeight(edge, -modularityEdgeWeight(edge, weightMarker));
+	}
+
+	@Override
+	public void edgeAttributeAdded(String graphId, long timeId, String edgeId,
+			String attribute, Object value) {
+		edgeAttributeChanged(graphId, timeId, edgeId, attribute, null, value);
+	}
+
+	@Override
+	public void edgeAttributeChanged(String graphId, long timeId,
+			String edgeId, String attribute, Object oldValue, Object newValue) {
+		if (weightMarker != null && attribute.equals(weightMarker)) {
+			addEdgeWeight(graph.getEdge(edgeId), weight(newValue)
+					- weight(oldValue));
+			graphChanged = true;
+		}
+	}
+
+	@Override
+	public void edgeAttributeRemoved(String graphId, long timeId,
+			String edgeId, String attribute) {
+		if (weightMarker != null && attribute.equals(weightMarker)) {
+			Edge edge = graph.getEdge(edgeId);
+			addEdgeWeight(edge, -modularityEdgeWeight(edge, weightMarker));
+			graphChanged = true;
+		}
+	}
+
+	@Override
+	public void graphCleared(String graphId, long timeId) {
+		super.graphCleared(graphId, timeId);
+		totalWeight = 0;
+	}
+
+	/**
+	 * Weight given by an attribute value, 0 if it is not a number.
+	 */
+	protected double weight(Object value) {
+		return value instanceof Number ? ((Number) value).doubleValue() : 0;
+	}
+
+	/**
+	 * Index of the community of a node.
+	 */
+	protected int communityOf(Node node) {
+		return index.indexOf(communityKey(node.getAttribute(marker)));
+	}
+
+	/**
+	 * Add the weight of an edge to the totals, a negative weight removes it.
+	 */
+	protected void addEdgeWeight(Edge edge, double w) {
+		int x = communityOf(edge.getNode0());
+		int y = communityOf(edge.getNode1());
+
+		totalWeight += w;
+		index.addDegree(x, w);
+		index.addDegree(y, w);
+
+		if (x == y)
+			index.addInnerWeight(x, w);
+
+		graphChanged = true;
+	}
+
+	/**
+	 * Add or remove (sign -1) the edges of a node to the totals of a
+	 * community. The community of the node itself is given since its marker
+	 * may already have changed.
+	 */
+	protected void addNodeWeight(Node node, int c, int sign) {
+		for (Edge edge : node.getEachEdge()) {
+			double w = sign * modularityEdgeWeight(edge, weightMarker);
+			Node other = edge.getOpposite(node);
+
+			if (other == node) {
+				index.addDegree(c, 2 * w);
+				index.addInnerWeight(c, w);
+			} else {
+				index.addDegree(c, w);
+
+				if (communityOf(other) == c)
+					index.addInnerWeight(c, w);
+			}
+		}
+	}
+}
@@ -31,8 +31,6 @@
  */
 package org.graphstream.algorithm.measure;
 
-import org.graphstream.graph.Node;
-
 /**
  * Computes and updated the current Normalized Mutual Information (NMI) measure
  * between a dynamically-performed community assignment on a graph as it evolves
@@ -73,61 +71,16 @@ public class NormalizedMutualInformation extends CommunityRelativeMeasure {
 	}
 
 	/**
-	 * Compute the new NMI measure value.
+	 * Compute the new NMI measure value, <code>2 I(A,B) / (H(A) + H(B))</code>
+	 * , from the sums kept by the community indices and the contingency table.
 	 * 
-	 * @complexity O(2*C^2 + 6*C), where C is the expected number of communities
-	 *             in the graph.
+	 * @complexity O(1)
 	 */
 	@Override
 	public void compute() {
 		if (graphChanged) {
-
-			// Get the updated confusion matrix
-			int[][] N = confusionMatrix();
-
-			// Get the arrays of the rows and columns sums
-			int[] N_A = new int[referenceCommunities.size()];
-			int[] N_B = new int[communities.size()];
-			for (int i = 0; i < N_A.length; i++) {
-				int ttl = 0;
-				for (int j = 0; j < N_B.length; j++)
-					ttl += N[i][j];
-				N_A[i] = ttl;
-			}
-			for (int j = 0; j < N_B.length; j++) {
-				int ttl = 0;
-				for (int i = 0; i < N_A.length; i++)
-					ttl += N[i][j];
-				N_B[j] = ttl;
-			}
-
-			// Get the total nodes number
-			float n = graph.getNodeCount();
-
-			/*
-			 * Let's go and compute the NMI
-			 */
-
-			// First the numerator
-			float num = 0;
-			for (int i = 0; i < N_A.length; i++) {
-				for (int j = 0; j < N_B.length; j++) {
-					if (N[i][j] > 0) {
-						num += -2.0 * N[i][j]
-								* Math.log((N[i][j] * n) / (N_A[i] * N_B[j]));
-					}
-				}
-			}
-
-			// Then the denominator
-			float denom = 0;
-			for (int i = 0; i < N_A.length; i++)
-				denom += N_A[i] * Math.log(N_A[i] / n);
-			for (int j = 0; j < N_B.length; j++)
-				denom += N_B[j] * Math.log(N_B[j] / n);
-
-			// Update the metric value
-			M = num / denom;
+			M = 2 * table.getMutualInformation()
+					/ (referenceIndex.getEntropy() + index.getEntropy());
 
 			// Valid unless the graph changes again
 			graphChanged = false;
@@ -137,53 +90,22 @@ public class NormalizedMutualInformation extends CommunityRelativeMeasure {
 	/**
 	 * Computes the confusion matrix between reference and current community
 	 * assignment, i.e. the matrix N where each element N[i][j] is the number of
-	 * nodes in reference community i, also in current community j.
+	 * nodes in reference community i, also in current community j. Rows and
+	 * columns follow the iteration order of {@link #referenceCommunities} and
+	 * {@link #communities}.
+	 * 
+	 * <p>
+	 * The measures only use the sparse {@link #table}; this dense copy is kept
+	 * for inspection of small assignments.
+	 * </p>
 	 * 
-	 * @complexity O(C^2 + 2C), where C is the expected number of communities in
-	 *             the graph.
+	 * @complexity O(C^2), where C is the expected number of communities in the
+	 *             graph.
 	 * 
 	 * @return the confusion matrix N of all N[i][j]
 	 */
 	protected int[][] confusionMatrix() {
-		// Size of the confusion matrix
-		int c_A = referenceCommunities.size();
-		int c_B = communities.size();
-
-		// Confusion matrix itself
-		int[][] N = new int[c_A][];
-
-		// Relation between confusion matrix indices and communities
-		Object keys_A[] = new Object[c_A];
-		Object keys_B[] = new Object[c_B];
-
-		int k_A = 0;
-		for (Object key : referenceCommunities.keySet())
-			keys_A[k_A++] = key;
-
-		int k_B = 0;
-		for (Object key : communities.keySet())
-			keys_B[k_B++] = key;
-
-		// Initialize each row and fill each element of the confusion matrix
-		for (int i = 0; i < c_A; ++i) {
-			N[i] = new int[c_B];
-
-			for (int j = 0; j < c_B; j++) {
-				// Number of common nodes between communities indexed by i and j
-				int commonNodes = 0;
-
-				// Increase the number of common nodes for each node
-				// of the found community indexed by j
-				// also appearing in the real community indexed by i
-				for (Node n : communities.get(keys_B[j])) {
-					if (referenceCommunities.get(keys_A[i]).contains(n))
-						commonNodes++;
-				}
-
-				// Sets the confusion matrix element
-				N[i][j] = commonNodes;
-			}
-		}
-		return N;
+		return table.toMatrix(referenceCommunities.keySet(),
+				communities.keySet());
 	}
 }
@@ -0,0 +1,699 @@
+/*
+ * Copyright 2006 - 2016
+ *     Stefan Balev     <stefan.balev@graphstream-project.org>
+ *     Julien Baudry    <julien.baudry@graphstream-project.org>
+ *     Antoine Dutot    <antoine.dutot@graphstream-project.org>
+ *     Yoann Pigné      <yoann.pigne@graphstream-project.org>
+ *     Guilhelm Savin   <guilhelm.savin@graphstream-project.org>
+ * 
+ * This file is part of GraphStream <http://graphstream-project.org>.
+ * 
+ * GraphStream is a library whose purpose is to handle static or dynamic
+ * graph, create them from scratch, file or any source and display them.
+ * 
+ * This program is free software distributed under the terms of two licenses, the
+ * CeCILL-C license that fits European law, and the GNU Lesser General Public
+ * License. You can  use, modify and/ or redistribute the software under the terms
+ * of the CeCILL-C license as circulated by CEA, CNRS and INRIA at the following
+ * URL <http://www.cecill.info> or under the terms of the GNU LGPL as published by
+ * the Free Software Foundation, either version 3 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * The fact that you are presently reading this means that you have had
+ * knowledge of the CeCILL-C and LGPL licenses and that you accept their terms.
+ */
+package org.graphstream.algorithm.measure;
+
+import static org.graphstream.algorithm.measure.SurpriseMeasure.logBinomialCoefficient;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+import org.apache.commons.math3.distribution.NormalDistribution;
+import org.graphstream.algorithm.DynamicAlgorithm;
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.stream.SinkAdapter;
+
+/**
+ * Estimates the number of triangles and the clustering coefficient of a graph
+ * given as a stream of events, with bounded memory.
+ * 
+ * <p>
+ * This is a sink that can listen to any source, for example a file source,
+ * without the graph ever being stored. It keeps a uniform sample of at most
+ * a fixed number of edges, using reservoir sampling with random pairing so that
+ * edges can also be removed (TRIEST-FD). The triangles of the sample are
+ * counted exactly, globally and for each node, and scaled to estimates of the
+ * triangles of the whole graph.
+ * </p>
+ * 
+ * <p>
+ * The average clustering coefficient is estimated from a second uniform sample,
+ * of nodes. Their degree is followed exactly from the moment they appear, and
+ * their clustering coefficient is estimated from their triangle estimate. The
+ * average over this sample is given with confidence bounds, computed from the
+ * standard error of the mean at a given confidence level. The bounds account
+ * for the sampling of the nodes; the noise of the triangle estimates of the
+ * sampled nodes only enlarges them through the spread of the values.
+ * </p>
+ * 
+ * <p>
+ * Like the measures of {@link ConnectivityMeasure}, the estimates are computed
+ * at the beginning of each step, and can be computed at any time with
+ * {@link #compute()}. Nodes are identified by their id and the stream is
+ * expected to describe a simple graph: loops are ignored and edge directions
+ * are not used.
+ * </p>
+ * 
+ * <h2>Example</h2>
+ * 
+ * <pre>
+ * StreamingTriangleCount triangles = new StreamingTriangleCount(100000);
+ * FileSourceDGS source = new FileSourceDGS();
+ * source.addSink(triangles);
+ * source.readAll(&quot;big.dgs&quot;);
+ * triangles.compute();
+ * 
+ * System.out.println(triangles.getTriangleEstimate());
+ * System.out.println(triangles.getAverageClusteringCoefficient());
+ * </pre>
+ * 
+ * @complexity Each event costs O(1) expected, plus O(d) when an edge enters or
+ *             leaves the sample, d being the degree of its ends in the sample.
+ *             Memory is O(M + K d), M and K being the sizes of the edge and
+ *             node samples and d the degree of the sampled nodes.
+ * 
+ * @reference L. De Stefani, A. Epasto, M. Riondato and E. Upfal, "TRIÈST:
+ *            Counting Local and Global Triangles in Fully-Dynamic Streams with
+ *            Fixed Memory Size", KDD 2016.
+ */
+public class StreamingTriangleCount extends SinkAdapter implements
+		DynamicAlgorithm {
+	/**
+	 * Default number of sampled nodes.
+	 */
+	public static final int DEFAULT_NODE_SAMPLE_SIZE = 1000;
+
+	/**
+	 * Graph listened, if any.
+	 */
+	protected Graph graph;
+
+	/**
+	 * Random number generator of both samples.
+	 */
+	protected Random random = new Random();
+
+	/**
+	 * Sample of the edges, by id.
+	 */
+	protected Reservoir edges;
+
+	/**
+	 * Sample of the nodes, by id.
+	 */
+	protected Reservoir nodes;
+
+	/**
+	 * Ends of each sampled edge.
+	 */
+	protected HashMap<String, String[]> edgeEnds;
+
+	/**
+	 * Neighbors of each node in the sampled edges.
+	 */
+	protected HashMap<String, HashSet<String>> sampleNeighbors;
+
+	/**
+	 * Number of triangles of the sampled edges, in total and by node.
+	 */
+	protected long sampleTriangles;
+	protected HashMap<String, long[]> sampleLocalTriangles;
+
+	/**
+	 * Edges incident to each sampled node, and ends of these edges.
+	 */
+	protected HashMap<String, HashSet<String>> nodeEdges;
+	protected HashMap<String, String[]> watchedEdges;
+
+	/**
+	 * Ids of the loops, which are ignored.
+	 */
+	protected HashSet<String> loops;
+
+	/**
+	 * Confidence level of the bounds.
+	 */
+	protected double confidenceLevel = 0.95;
+
+	/**
+	 * Estimates of the last computation.
+	 */
+	protected double triangleEstimate, averageClustering, clusteringLowerBound,
+			clusteringUpperBound;
+
+	/**
+	 * New estimator keeping at most the given number of edges and the default
+	 * number of nodes.
+	 * 
+	 * @param edgeSampleSize
+	 *            maximum number of sampled edges
+	 */
+	public StreamingTriangleCount(int edgeSampleSize) {
+		this(edgeSampleSize, DEFAULT_NODE_SAMPLE_SIZE);
+	}
+
+	/**
+	 * New estimator keeping at most the given numbers of edges and of nodes.
+	 * 
+	 * @param edgeSampleSize
+	 *            maximum number of sampled edges, at least 3
+	 * @param nodeSampleSize
+	 *            maximum number of sampled nodes, at least 1
+	 */
+	public StreamingTriangleCount(int edgeSampleSize, int nodeSampleSize) {
+		if (edgeSampleSize < 3)
+			throw new IllegalArgumentException(
+					"Edge sample size must be at least 3");
+		if (nodeSampleSize < 1)
+			throw new IllegalArgumentException(
+					"Node sample size must be positive");
+
+		edges = new Reservoir(edgeSampleSize);
+		nodes = new Reservoir(nodeSampleSize);
+		clear();
+	}
+
+	/**
+	 * Set the random number generator of the samples. For sake of
+	 * reproducibility, the given random number generator shall be initiated
+	 * with a controlled seed.
+	 * 
+	 * @param random
+	 *            an initialized java.util.Random object.
+	 */
+	public void setRandom(Random random) {
+		this.random = random;
+	}
+
+	/**
+	 * Set the confidence level of the bounds of the average clustering
+	 * coefficient. Default is 0.95.
+	 * 
+	 * @param confidenceLevel
+	 *            a probability strictly between 0 and 1
+	 */
+	public void setConfidenceLevel(double confidenceLevel) {
+		if (confidenceLevel <= 0 || confidenceLevel >= 1)
+			throw new IllegalArgumentException(
+					"Confidence level must be between 0 and 1");
+
+		this.confidenceLevel = confidenceLevel;
+	}
+
+	/**
+	 * Forget everything that was received.
+	 */
+	public void clear() {
+		edges.clear();
+		nodes.clear();
+		edgeEnds = new HashMap<String, String[]>();
+		sampleNeighbors = new HashMap<String, HashSet<String>>();
+		sampleTriangles = 0;
+		sampleLocalTriangles = new HashMap<String, long[]>();
+		nodeEdges = new HashMap<String, HashSet<String>>();
+		watchedEdges = new HashMap<String, String[]>();
+		loops = new HashSet<String>();
+		triangleEstimate = averageClustering = 0;
+		clusteringLowerBound = clusteringUpperBound = 0;
+	}
+
+	/**
+	 * Listen to a graph. Its current nodes and edges are taken into account
+	 * as if they had just been added.
+	 * 
+	 * @see org.graphstream.algorithm.Algorithm#init(org.graphstream.graph.Graph)
+	 */
+	public void init(Graph graph) {
+		if (this.graph != null)
+			this.graph.removeSink(this);
+
+		this.graph = graph;
+		clear();
+
+		for (Node node : graph)
+			nodeAdded(graph.getId(), 0, node.getId());
+
+		for (Edge edge : graph.getEachEdge())
+			edgeAdded(graph.getId(), 0, edge.getId(), edge.getNode0().getId(),
+					edge.getNode1().getId(), edge.isDirected());
+
+		graph.addSink(this);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.graphstream.algorithm.DynamicAlgorithm#terminate()
+	 */
+	public void terminate() {
+		if (graph != null)
+			graph.removeSink(this);
+
+		graph = null;
+	}
+
+	/**
+	 * Compute the estimates from the current samples.
+	 * 
+	 * @complexity O(K), K being the size of the node sample.
+	 */
+	public void compute() {
+		double scale = scale();
+		triangleEstimate = sampleTriangles * scale;
+
+		int k = nodes.size;
+		double sum = 0, sumSquares = 0;
+
+		for (int i = 0; i < k; i++) {
+			double c = clusteringCoefficient(nodes.keys[i], scale);
+			sum += c;
+			sumSquares += c * c;
+		}
+
+		if (k == 0) {
+			averageClustering = clusteringLowerBound = clusteringUpperBound = 0;
+		} else {
+			averageClustering = sum / k;
+
+			double variance = k < 2 ? 0 : Math.max(0, (sumSquares - k
+					* averageClustering * averageClustering)
+					/ (k - 1));
+			double correction = Math.max(0, 1 - k / (double) nodes.population);
+			double z = new NormalDistribution()
+					.inverseCumulativeProbability(0.5 + confidenceLevel / 2);
+			double margin = z * Math.sqrt(variance / k * correction);
+
+			clusteringLowerBound = Math.max(0, averageClustering - margin);
+			clusteringUpperBound = Math.min(1, averageClustering + margin);
+		}
+	}
+
+	/**
+	 * Estimate of the number of triangles of the graph, at the last
+	 * computation.
+	 */
+	public double getTriangleEstimate() {
+		return triangleEstimate;
+	}
+
+	/**
+	 * Current estimate of the number of triangles a node belongs to.
+	 * 
+	 * @param nodeId
+	 *            id of the node
+	 */
+	public double getLocalTriangleEstimate(String nodeId) {
+		long[] t = sampleLocalTriangles.get(nodeId);
+		return t == null ? 0 : t[0] * scale();
+	}
+
+	/**
+	 * Estimate of the average clustering coefficient, at the last computation.
+	 */
+	public double getAverageClusteringCoefficient() {
+		return averageClustering;
+	}
+
+	/**
+	 * Lower bound of the average clustering coefficient at the confidence
+	 * level, at the last computation.
+	 */
+	public double getAverageClusteringLowerBound() {
+		return clusteringLowerBound;
+	}
+
+	/**
+	 * Upper bound of the average clustering coefficient at the confidence
+	 * level, at the last computation.
+	 */
+	public double getAverageClusteringUpperBound() {
+		return clusteringUpperBound;
+	}
+
+	/**
+	 * Number of edges currently in the graph.
+	 */
+	public long getEdgeCount() {
+		return edges.population;
+	}
+
+	/**
+	 * Number of nodes currently in the graph.
+	 */
+	public long getNodeCount() {
+		return nodes.population;
+	}
+
+	/**
+	 * Number of edges currently sampled.
+	 */
+	public int getEdgeSampleSize() {
+		return edges.size;
+	}
+
+	/**
+	 * Number of nodes currently sampled.
+	 */
+	public int getNodeSampleSize() {
+		return nodes.size;
+	}
+
+	@Override
+	public void stepBegins(String sourceId, long timeId, double step) {
+		compute();
+	}
+
+	@Override
+	public void graphCleared(String sourceId, long timeId) {
+		clear();
+	}
+
+	@Override
+	public void nodeAdded(String sourceId, long timeId, String nodeId) {
+		if (nodes.insert(nodeId)) {
+			if (nodes.evicted != null)
+				unwatch(nodes.evicted);
+
+			nodeEdges.put(nodeId, new HashSet<String>());
+		}
+	}
+
+	@Override
+	public void nodeRemoved(String sourceId, long timeId, String nodeId) {
+		if (nodes.remove(nodeId))
+			unwatch(nodeId);
+	}
+
+	@Override
+	public void edgeAdded(String sourceId, long timeId, String edgeId,
+			String fromNodeId, String toNodeId, boolean directed) {
+		if (fromNodeId.equals(toNodeId)) {
+			loops.add(edgeId);
+			return;
+		}
+
+		if (edges.insert(edgeId)) {
+			if (edges.evicted != null)
+				unsample(edges.evicted);
+
+			edgeEnds.put(edgeId, new String[] { fromNodeId, toNodeId });
+			link(fromNodeId, toNodeId, 1);
+		}
+
+		HashSet<String> from = nodeEdges.get(fromNodeId);
+		HashSet<String> to = nodeEdges.get(toNodeId);
+
+		if (from != null)
+			from.add(edgeId);
+		if (to != null)
+			to.add(edgeId);
+		if (from != null || to != null)
+			watchedEdges.put(edgeId, new String[] { fromNodeId, toNodeId });
+	}
+
+	@Override
+	public void edgeRemoved(String sourceId, long timeId, String edgeId) {
+		if (loops.remove(edgeId))
+			return;
+
+		if (edges.remove(edgeId))
+			unsample(edgeId);
+
+		String[] ends = watchedEdges.remove(edgeId);
+
+		if (ends != null) {
+			for (String end : ends) {
+				HashSet<String> incident = nodeEdges.get(end);
+
+				if (incident != null)
+					incident.remove(edgeId);
+			}
+		}
+	}
+
+	/**
+	 * Estimate of the clustering coefficient of a sampled node. It is not
+	 * bounded by 1 so that the average stays unbiased.
+	 */
+	protected double clusteringCoefficient(String nodeId, double scale) {
+		long d = nodeEdges.get(nodeId).size();
+		long[] t = sampleLocalTriangles.get(nodeId);
+
+		if (d < 2 || t == null)
+			return 0;
+
+		return t[0] * scale / (d * (d - 1) / 2.0);
+	}
+
+	/**
+	 * Factor from the triangles of the edge sample to the ones of the graph.
+	 * The sample is uniform given its size z, so a triangle is in it with
+	 * probability z(z-1)(z-2) / s(s-1)(s-2), s being the number of edges.
+	 * Kappa is the probability that the sample holds at least three edges;
+	 * with random pairing its size follows a hypergeometric law over min(M, s
+	 * + d) draws, d being the number of uncompensated removals.
+	 */
+	protected double scale() {
+		double s = edges.population;
+		double z = edges.size;
+		double d = edges.sampledRemovals + edges.otherRemovals;
+		double m = Math.min(edges.capacity, s + d);
+
+		if (z < 3)
+			return 1;
+
+		double kappa = 1;
+
+		if (d > 0) {
+			double log = logBinomialCoefficient(s + d, m);
+
+			for (int j = 0; j < 3; j++)
+				kappa -= Math.exp(logBinomialCoefficient(s, j)
+						+ logBinomialCoefficient(d, m - j) - log);
+		}
+
+		if (kappa <= 0)
+			return 0;
+
+		return s * (s - 1) * (s - 2) / (z * (z - 1) * (z - 2)) / kappa;
+	}
+
+	/**
+	 * Count (sign 1) or uncount (sign -1) the triangles closed by a sampled
+	 * edge.
+	 */
+	protected void link(String u, String v, int sign) {
+		HashSet<String> nu = neighbors(u), nv = neighbors(v);
+
+		if (sign < 0) {
+			nu.remove(v);
+			nv.remove(u);
+		}
+
+		HashSet<String> small = nu.size() < nv.size() ? nu : nv;
+		HashSet<String> large = small == nu ? nv : nu;
+		long common = 0;
+
+		for (String w : small) {
+			if (large.contains(w)) {
+				addLocal(w, sign);
+				common++;
+			}
+		}
+
+		if (common > 0) {
+			addLocal(u, sign * common);
+			addLocal(v, sign * common);
+			sampleTriangles += sign * common;
+		}
+
+		if (sign > 0) {
+			nu.add(v);
+			nv.add(u);
+		} else {
+			if (nu.isEmpty())
+				sampleNeighbors.remove(u);
+			if (nv.isEmpty())
+				sampleNeighbors.remove(v);
+		}
+	}
+
+	protected HashSet<String> neighbors(String nodeId) {
+		HashSet<String> n = sampleNeighbors.get(nodeId);
+
+		if (n == null) {
+			n = new HashSet<String>();
+			sampleNeighbors.put(nodeId, n);
+		}
+
+		return n;
+	}
+
+	protected void addLocal(String nodeId, long delta) {
+		long[] t = sampleLocalTriangles.get(nodeId);
+
+		if (t == null) {
+			t = new long[1];
+			sampleLocalTriangles.put(nodeId, t);
+		}
+
+		t[0] += delta;
+
+		if (t[0] == 0)
+			sampleLocalTriangles.remove(nodeId);
+	}
+
+	/**
+	 * Remove an edge that left the sample.
+	 */
+	protected void unsample(String edgeId) {
+		String[] ends = edgeEnds.remove(edgeId);
+		link(ends[0], ends[1], -1);
+	}
+
+	/**
+	 * Stop following the edges of a node that left the node sample.
+	 */
+	protected void unwatch(String nodeId) {
+		HashSet<String> incident = nodeEdges.remove(nodeId);
+
+		for (String edgeId : incident) {
+			String[] ends = watchedEdges.get(edgeId);
+			String other = ends[0].equals(nodeId) ? ends[1] : ends[0];
+			HashSet<String> otherEdges = nodeEdges.get(other);
+
+			if (otherEdges == null)
+				watchedEdges.remove(edgeId);
+		}
+	}
+
+	/**
+	 * Uniform sample of a fixed maximum size of a set of ids that evolves by
+	 * insertions and removals, with random pairing: the slots freed by
+	 * removals are compensated by later insertions.
+	 */
+	protected class Reservoir {
+		protected final int capacity;
+		protected String[] keys;
+		protected HashMap<String, Integer> slots;
+		protected int size;
+
+		/**
+		 * Number of ids in the whole set.
+		 */
+		protected long population;
+
+		/**
+		 * Removals of sampled and of other ids not yet compensated.
+		 */
+		protected long sampledRemovals, otherRemovals;
+
+		/**
+		 * Id evicted by the last insertion, if any.
+		 */
+		protected String evicted;
+
+		protected Reservoir(int capacity) {
+			this.capacity = capacity;
+			this.keys = new String[capacity];
+		}
+
+		protected void clear() {
+			slots = new HashMap<String, Integer>();
+			size = 0;
+			population = 0;
+			sampledRemovals = otherRemovals = 0;
+			evicted = null;
+		}
+
+		/**
+		 * Insert an id in the set.
+		 * 
+		 * @return true if it enters the sample, {@link #evicted} being then
+		 *         the id it replaces, if any
+		 */
+		protected boolean insert(String key) {
+			population++;
+			evicted = null;
+
+			long removals = sampledRemovals + otherRemovals;
+
+			if (removals == 0) {
+				if (size < capacity) {
+					put(key, size++);
+					return true;
+				}
+
+				if (random.nextDouble() * population < capacity) {
+					int s = random.nextInt(capacity);
+					evicted = keys[s];
+					slots.remove(evicted);
+					put(key, s);
+					return true;
+				}
+
+				return false;
+			}
+
+			if (random.nextDouble() * removals < sampledRemovals) {
+				sampledRemovals--;
+				put(key, size++);
+				return true;
+			}
+
+			otherRemovals--;
+			return false;
+		}
+
+		/**
+		 * Remove an id from the set.
+		 * 
+		 * @return true if it was sampled
+		 */
+		protected boolean remove(String key) {
+			population--;
+			Integer s = slots.remove(key);
+
+			if (s == null) {
+				otherRemovals++;
+				return false;
+			}
+
+			size--;
+
+			if (s < size)
+				put(keys[size], s);
+
+			keys[size] = null;
+			sampledRemovals++;
+
+			return true;
+		}
+
+		protected void put(String key, int s) {
+			keys[s] = key;
+			slots.put(key, s);
+		}
+	}
+}
@@ -31,9 +31,7 @@
  */
 package org.graphstream.algorithm.measure;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-
+import org.apache.commons.math3.special.Gamma;
 import org.graphstream.algorithm.Algorithm;
 import org.graphstream.graph.Edge;
 import org.graphstream.graph.Graph;
@@ -67,6 +65,12 @@ public class SurpriseMeasure implements Algorithm {
 	//
 	private static final Object NULL = new Object();
 
+	/**
+	 * Relative size under which the terms of the cumulative hypergeometric
+	 * distribution are no more summed.
+	 */
+	protected static final double NEGLIGIBLE = 1e-17;
+
 	/**
 	 * Attribute of nodes containing meta index. Default is "meta.index".
 	 */
@@ -129,54 +133,56 @@ public class SurpriseMeasure implements Algorithm {
 	 * @see org.graphstream.algorithm.Algorithm#compute()
 	 */
 	public void compute() {
-		HashMap<Object, Integer> communities = new HashMap<Object, Integer>();
-		ArrayList<Integer> communitiesCount = new ArrayList<Integer>();
+		int nodeCount = graph.getNodeCount();
+		int[] communityOf = new int[nodeCount];
+		CommunityIndex index = new CommunityIndex();
 
-		for (int i = 0; i < graph.getNodeCount(); i++) {
+		// Intern the communities once per node, then count with integers.
+		for (int i = 0; i < nodeCount; i++) {
 			Object community = graph.getNode(i).getAttribute(
 					communityAttributeKey);
 
-			if (community == null)
-				community = NULL;
-
-			if (!communities.containsKey(community)) {
-				communities.put(community, communities.size());
-				communitiesCount.add(0);
-			}
-
-			int idx = communities.get(community);
-			communitiesCount.set(idx, communitiesCount.get(idx) + 1);
+			communityOf[i] = index.add(community == null ? NULL : community);
 		}
 
-		if (communities.containsKey(NULL))
+		if (index.indexOf(NULL) >= 0)
 			System.err.printf("[WARNING] Some nodes do not have community.\n");
 
-		double F = graph.getNodeCount() * (graph.getNodeCount() - 1) / 2;
-		double p = 0;
-		double M = 0;
-		double n = graph.getEdgeCount();
-		double W;
-		double S = 0;
-
 		for (int i = 0; i < graph.getEdgeCount(); i++) {
 			Edge e = graph.getEdge(i);
-			Object idx0 = e.getNode0().getAttribute(communityAttributeKey);
-			Object idx1 = e.getNode1().getAttribute(communityAttributeKey);
-
-			if (idx0.equals(idx1))
-				p++;
-		}
+			int c = communityOf[e.getNode0().getIndex()];
 
-		for (int i = 0; i < communitiesCount.size(); i++) {
-			int k = communitiesCount.get(i);
-			M += k * (k - 1) / 2;
+			if (c == communityOf[e.getNode1().getIndex()])
+				index.addInnerWeight(c, 1);
 		}
 
-		W = Math.min(M, n);
-		S = cumulativeHypergeometricDistribution(p, W, F, n, M);
-		S = -Math.log(S);
+		graph.setAttribute(surpriseAttributeKey,
+				surprise(nodeCount, graph.getEdgeCount(), index));
+	}
 
-		graph.setAttribute(surpriseAttributeKey, S);
+	/**
+	 * Surprise of an assignment given by its community index, whose inner
+	 * weights are the number of edges inside each community. This is the case
+	 * of the index of an unweighted {@link Modularity} measure, so that the
+	 * surprise can be followed as the graph evolves without scanning it.
+	 * 
+	 * @param nodeCount
+	 *            number of nodes of the graph
+	 * @param edgeCount
+	 *            number of edges of the graph
+	 * @param index
+	 *            index of the communities
+	 * @return the surprise
+	 */
+	public static double surprise(double nodeCount, double edgeCount,
+			CommunityIndex index) {
+		double F = nodeCount * (nodeCount - 1) / 2;
+		double p = index.getTotalInnerWeight();
+		double M = index.getPairCount();
+		double n = edgeCount;
+		double W = Math.min(M, n);
+
+		return -logCumulativeHypergeometricDistribution(p, W, F, n, M);
 	}
 
 	/**
@@ -221,6 +227,25 @@ public class SurpriseMeasure implements Algorithm {
 		return C / t;
 	}
 
+	/**
+	 * Logarithm of the binomial coefficient, computed with the log-gamma
+	 * function so that it does not overflow for large n.
+	 * 
+	 * @param n
+	 * @param r
+	 * @return log(C(n, r)), or -infinity if r is not between 0 and n.
+	 */
+	public static double logBinomialCoefficient(double n, double r) {
+		if (r < 0 || r > n)
+			return Double.NEGATIVE_INFINITY;
+
+		if (r == 0 || n == r)
+			return 0;
+
+		return Gamma.logGamma(n + 1) - Gamma.logGamma(r + 1)
+				- Gamma.logGamma(n - r + 1);
+	}
+
 	/**
 	 * Helper to compute the hypergeometric distribution. See <a href=
 	 * "http://stattrek.com/probability-distributions/hypergeometric.aspx">this
@@ -234,8 +259,19 @@ public class SurpriseMeasure implements Algorithm {
 	 */
 	public static double hypergeometricDistribution(double x, double N,
 			double n, double k) {
-		return binomialCoefficient(k, x) * binomialCoefficient(N - k, n - x)
-				/ binomialCoefficient(N, n);
+		return Math.exp(logHypergeometricDistribution(x, N, n, k));
+	}
+
+	/**
+	 * Logarithm of the hypergeometric distribution.
+	 * 
+	 * @see #hypergeometricDistribution(double, double, double, double)
+	 */
+	public static double logHypergeometricDistribution(double x, double N,
+			double n, double k) {
+		return logBinomialCoefficient(k, x)
+				+ logBinomialCoefficient(N - k, n - x)
+				- logBinomialCoefficient(N, n);
 	}
 
 	/**
@@ -253,11 +289,52 @@ public class SurpriseMeasure implements Algorithm {
 	 */
 	public static double cumulativeHypergeometricDistribution(double xStart,
 			double xEnd, double N, double n, double k) {
-		double chd = 0;
+		return Math.exp(logCumulativeHypergeometricDistribution(xStart, xEnd,
+				N, n, k));
+	}
 
-		for (double x = xStart; x <= xEnd; x += 1)
-			chd += hypergeometricDistribution(x, N, n, k);
+	/**
+	 * Logarithm of the cumulative hypergeometric distribution.
+	 * 
+	 * <p>
+	 * Only the first term is computed with the log-gamma function, the next
+	 * ones follow from the ratio of two consecutive terms. Terms are summed
+	 * relatively to the largest one, and the sum stops once the terms are
+	 * decreasing and negligible compared to it, so that it does not scan the
+	 * whole range when the number of pairs of nodes is large.
+	 * </p>
+	 * 
+	 * @see #cumulativeHypergeometricDistribution(double, double, double,
+	 *      double, double)
+	 */
+	public static double logCumulativeHypergeometricDistribution(
+			double xStart, double xEnd, double N, double n, double k) {
+		double x = Math.max(xStart, Math.max(0, n + k - N));
+		xEnd = Math.min(xEnd, Math.min(n, k));
+
+		if (x > xEnd)
+			return Double.NEGATIVE_INFINITY;
+
+		double logTerm = logHypergeometricDistribution(x, N, n, k);
+		double logMax = logTerm;
+		double sum = 1;
+
+		for (; x < xEnd; x += 1) {
+			logTerm += Math.log((k - x) * (n - x))
+					- Math.log((x + 1) * (N - k - n + x + 1));
+
+			if (logTerm > logMax) {
+				sum = sum * Math.exp(logMax - logTerm) + 1;
+				logMax = logTerm;
+			} else {
+				double term = Math.exp(logTerm - logMax);
+				sum += term;
+
+				if (term < NEGLIGIBLE * sum)
+					break;
+			}
+		}
 
-		return chd;
+		return logMax + Math.log(sum);
 	}
 }
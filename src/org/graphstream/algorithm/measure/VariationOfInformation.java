@@ -41,48 +41,25 @@ public class VariationOfInformation extends NormalizedMutualInformation {
 		super(marker, referenceMarker);
 	}
 
-	@Override
 	/**
-	 * B.Karrer, E.Levina and M.E.J.Newman, 
-	 * RobustnessofCommunity Structure in Networks, 
-	 * Physical Review E (Statistical, Nonlinear, and Soft Matter Physics), 
-	 * vol. 77, no. 4, 2008.
+	 * Compute the variation of information,
+	 * <code>H(A) + H(B) - 2 I(A,B)</code>, from the sums kept by the community
+	 * indices and the contingency table.
+	 * 
+	 * @reference B.Karrer, E.Levina and M.E.J.Newman, Robustness of Community
+	 *            Structure in Networks, Physical Review E (Statistical,
+	 *            Nonlinear, and Soft Matter Physics), vol. 77, no. 4, 2008.
+	 * 
+	 * @complexity O(1)
 	 */
+	@Override
 	public void compute() {
-		// Get the updated confusion matrix
-		int[][] N = confusionMatrix();
+		if (graphChanged) {
+			// Rounding must not make it negative for equal assignments
+			M = Math.max(0, referenceIndex.getEntropy() + index.getEntropy()
+					- 2 * table.getMutualInformation());
 
-		// Get the arrays of the rows and columns sums
-		int[] N_A = new int[referenceCommunities.size()];
-		int[] N_B = new int[communities.size()];
-		for (int i = 0; i < N_A.length; i++) {
-			int ttl = 0;
-			for (int j = 0; j < N_B.length; j++)
-				ttl += N[i][j];
-			N_A[i] = ttl;
+			graphChanged = false;
 		}
-		for (int j = 0; j < N_B.length; j++) {
-			int ttl = 0;
-			for (int i = 0; i < N_A.length; i++)
-				ttl += N[i][j];
-			N_A[j] = ttl;
-		}
-
-		// Get the total nodes number
-		float n = graph.getNodeCount();
-
-		/*
-		 * Let's go and compute the NMI
-		 */
-		float voi = 0;
-
-		for (int i = 0; i < N_A.length; i++)
-			for (int j = 0; j < N_B.length; j++)
-				voi += N[i][j]
-						* (Math.log((float) N[i][j] / (float) N_B[j]) + Math
-								.log((float) N[i][j] / (float) N_A[i]));
-		M = (-1 / n) * voi;
-
 	}
-
 }
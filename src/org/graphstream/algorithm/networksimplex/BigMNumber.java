@@ -78,7 +78,7 @@ class BigMNumber {
 		big = -big;
 	}
 	
-	public void plusTimes(int multiplier, BigMNumber b) {
+	public void plusTimes(long multiplier, BigMNumber b) {
 		small += multiplier * b.small;
 		big += multiplier * b.big;
 	}
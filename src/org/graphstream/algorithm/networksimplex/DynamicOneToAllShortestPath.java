@@ -31,9 +31,7 @@
  */
 package org.graphstream.algorithm.networksimplex;
 
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Stack;
 
@@ -89,22 +87,24 @@ public class DynamicOneToAllShortestPath extends NetworkSimplex {
 		dijkstra.compute();
 		
 		// init
-		Map<NSNode, NSNode> last = new HashMap<NSNode, NSNode>(4 * (nodes.size() + 1) / 3 + 1);
-		last.put(root, root);
-		root.thread = root;
+		int[] last = new int[nodeArray.length];
+		int r = root.index;
+		last[r] = r;
+		thread[r] = r;
 		for (NSNode node : nodes.values()) {
-			last.put(node, node);
+			last[node.index] = node.index;
 			node.artificialArc.status = ArcStatus.NONBASIC_LOWER;
-			node.artificialArc.flow = 0;
-			node.thread = node;
+			flow[node.artificialArc.index] = 0;
+			thread[node.index] = node.index;
 		}
 		
 		// restore parent and thread
 		for (NSNode node : nodes.values()) {
+			int i = node.index;
 			Node gNode = graph.getNode(node.id);
 			Node gParent = dijkstra.getParent(gNode);
-			NSNode parent = gParent == null ? root : nodes.get(gParent.getId());
-			node.parent = parent;
+			int p = gParent == null ? r : nodes.get(gParent.getId()).index;
+			parent[i] = p;
 			NSArc arc = node.artificialArc;
 			if (gParent != null) {
 				Edge gEdge = dijkstra.getEdgeFromParent(gNode);
@@ -113,31 +113,30 @@ public class DynamicOneToAllShortestPath extends NetworkSimplex {
 				else
 					arc = arcs.get(PREFIX + "REVERSE_" + gEdge.getId());
 			}
-			node.arcToParent = arc;
+			pred[i] = arc.index;
 			arc.status = ArcStatus.BASIC;
 			nonBasicArcs.remove(arc);
-			NSNode nodeLast = last.get(node);
-			nodeLast.thread = parent.thread;
-			parent.thread = node;
-			for (NSNode x = parent; last.get(x) == parent; x = x.parent)
-				last.put(x, nodeLast);
+			int nodeLast = last[i];
+			thread[nodeLast] = thread[p];
+			thread[p] = i;
+			for (int x = p; last[x] == p; x = parent[x])
+				last[x] = nodeLast;
 		}
-		last.clear();
 		dijkstra.clear();
 		
 		// compute depths, potentials, flows and objective value
-		for (NSNode node = root.thread; node != root; node = node.thread) {
-			node.depth = node.parent.depth + 1;
-			node.computePotential();
-			for (NSNode x = node; x != root; x = x.parent)
-				x.arcToParent.flow++;
+		for (int u = thread[r]; u != r; u = thread[u]) {
+			depth[u] = depth[parent[u]] + 1;
+			computePotential(u);
+			for (int x = u; x != r; x = parent[x])
+				flow[pred[x]]++;
 		}
-		NSArc arc = nodes.get(sourceId).arcToParent;
-		arc.flow = nodes.size() - arc.flow;
+		int a = pred[nodes.get(sourceId).index];
+		flow[a] = nodes.size() - flow[a];
 		
 		objectiveValue.set(0);
-		for (NSNode node = root.thread; node != root; node = node.thread)
-			objectiveValue.plusTimes(node.arcToParent.flow, node.arcToParent.cost);
+		for (int u = thread[r]; u != r; u = thread[u])
+			objectiveValue.plusTimes(flow[pred[u]], arcArray[pred[u]].cost);
 	}
 	
 	
@@ -149,11 +148,13 @@ public class DynamicOneToAllShortestPath extends NetworkSimplex {
 		cloneGraph();
 		createInitialBFS();
 		bfsFromDijkstra();
+		resetCounters();
 		graph.addSink(this);		
 	}
 
 	@Override
 	public void nodeAdded(String sourceId, long timeId, String nodeId) {
+		applyPendingChanges();
 		NSNode node = new NSNode(graph.getNode(nodeId));
 		if (nodeId.equals(this.sourceId)) {
 			node.supply = nodes.size();
@@ -169,6 +170,7 @@ public class DynamicOneToAllShortestPath extends NetworkSimplex {
 
 	@Override
 	public void nodeRemoved(String sourceId, long timeId, String nodeId) {
+		applyPendingChanges();
 		removeNode(nodes.get(nodeId));
 		if (!nodeId.equals(this.sourceId)) {
 			NSNode source = nodes.get(this.sourceId);
@@ -180,24 +182,24 @@ public class DynamicOneToAllShortestPath extends NetworkSimplex {
 	// Iterators
 
 	protected class NodeIterator<T extends Node> implements Iterator<T> {
-		protected NSNode nextNode;
+		protected int nextNode;
 
 		protected NodeIterator(NSNode target) {
-			if (target.id.equals(sourceId) || target.parent != root)
-				nextNode = target;
+			if (target.id.equals(sourceId) || parent[target.index] != root.index)
+				nextNode = target.index;
 			else
-				nextNode = root;
+				nextNode = root.index;
 		}
 
 		public boolean hasNext() {
-			return nextNode != root;
+			return nextNode != root.index;
 		}
 
 		public T next() {
-			if (nextNode == root)
+			if (nextNode == root.index)
 				throw new NoSuchElementException();
-			T node = graph.getNode(nextNode.id);
-			nextNode = nextNode.parent;
+			T node = graph.getNode(nodeArray[nextNode].id);
+			nextNode = parent[nextNode];
 			return node;
 		}
 
@@ -208,21 +210,21 @@ public class DynamicOneToAllShortestPath extends NetworkSimplex {
 	}
 
 	protected class EdgeIterator<T extends Edge> implements Iterator<T> {
-		protected NSNode nextNode;
+		protected int nextNode;
 
 		protected EdgeIterator(NSNode target) {
-			nextNode = target;
+			nextNode = target.index;
 		}
 
 		public boolean hasNext() {
-			return nextNode.parent != root;
+			return parent[nextNode] != root.index;
 		}
 
 		public T next() {
-			if (nextNode.parent == root)
+			if (parent[nextNode] == root.index)
 				throw new NoSuchElementException();
-			T edge = graph.getEdge(nextNode.arcToParent.getOriginalId());
-			nextNode = nextNode.parent;
+			T edge = graph.getEdge(arcArray[pred[nextNode]].getOriginalId());
+			nextNode = parent[nextNode];
 			return edge;
 		}
 
@@ -236,9 +238,9 @@ public class DynamicOneToAllShortestPath extends NetworkSimplex {
 		NSNode nsNode = nodes.get(node.getId());
 		if (nsNode.id.equals(sourceId))
 			return 0;
-		if (nsNode.parent == root)
+		if (parent[nsNode.index] == root.index)
 			return Long.MAX_VALUE;
-		return -nsNode.potential.small;
+		return -potential[nsNode.index];
 	}
 
 	/**
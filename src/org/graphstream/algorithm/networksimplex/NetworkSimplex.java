@@ -32,10 +32,13 @@
 package org.graphstream.algorithm.networksimplex;
 
 import java.io.PrintStream;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Set;
+import java.util.NoSuchElementException;
 
 import org.graphstream.algorithm.DynamicAlgorithm;
 import org.graphstream.graph.Edge;
@@ -141,8 +144,7 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 	protected static final int INFINITE_CAPACITY = -1;
 
 	/**
-	 * Pricing strategy used at each iteration of the algorithm. Only two simple
-	 * strategies are implemented for the moment, more are to come.
+	 * Pricing strategy used at each iteration of the algorithm.
 	 */
 	public static enum PricingStrategy {
 		/**
@@ -155,7 +157,22 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 		 * When using this strategy an iteration is slower, but the number of
 		 * iterations is generally smaller
 		 */
-		MOST_NEGATIVE
+		MOST_NEGATIVE,
+
+		/**
+		 * The non-basic arcs are scanned cyclically in blocks of about
+		 * sqrt(m) arcs. The most negative arc of the first block containing
+		 * candidates is selected. Good compromise for large problems.
+		 */
+		BLOCK_SEARCH,
+
+		/**
+		 * Multiple partial pricing. A list of candidates is built by scanning
+		 * the non-basic arcs cyclically, then the most negative candidate of
+		 * the list is selected during several iterations before the list is
+		 * rebuilt.
+		 */
+		CANDIDATE_LIST
 	}
 
 	/**
@@ -226,13 +243,164 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 	/**
 	 * Stores the non basic arcs.
 	 */
-	protected Set<NSArc> nonBasicArcs;
+	protected NonBasicArcSet nonBasicArcs;
+
+	/**
+	 * Position in {@link #nonBasicArcs} where the next scan of the
+	 * {@link PricingStrategy#BLOCK_SEARCH} and
+	 * {@link PricingStrategy#CANDIDATE_LIST} strategies starts.
+	 */
+	protected int nextArc;
+
+	/**
+	 * Candidate list used by the {@link PricingStrategy#CANDIDATE_LIST}
+	 * strategy.
+	 */
+	protected NSArc[] candidates;
+
+	/**
+	 * Number of arcs in {@link #candidates}.
+	 */
+	protected int candidateCount;
+
+	/**
+	 * Number of iterations since the last rebuild of {@link #candidates}.
+	 */
+	protected int minorCount;
+
+	/**
+	 * Number of pivots performed by the simplex loop since the last call of
+	 * {@link #init(Graph)}.
+	 */
+	protected long pivotCount;
+
+	/**
+	 * Number of pivots performed while applying changes of the problem data
+	 * since the last call of {@link #init(Graph)}.
+	 */
+	protected long updatePivotCount;
+
+	/**
+	 * True if the changes of costs, capacities and supplies are buffered
+	 * instead of being applied immediately.
+	 */
+	protected boolean buffering = false;
+
+	/**
+	 * If true, the buffered changes are applied and the solution re-optimized
+	 * at the beginning of each step.
+	 */
+	protected boolean commitOnStep = false;
+
+	/**
+	 * Buffered cost changes
+	 */
+	protected Map<NSArc, Integer> pendingCosts = new LinkedHashMap<NSArc, Integer>();
+
+	/**
+	 * Buffered capacity changes
+	 */
+	protected Map<NSArc, Integer> pendingCapacities = new LinkedHashMap<NSArc, Integer>();
+
+	/**
+	 * Buffered supply changes
+	 */
+	protected Map<NSNode, Integer> pendingSupplies = new LinkedHashMap<NSNode, Integer>();
+
+	/**
+	 * Number of changes received while buffering since the last call of
+	 * {@link #init(Graph)}.
+	 */
+	protected long bufferedChangeCount;
+
+	/**
+	 * Number of buffered changes actually applied since the last call of
+	 * {@link #init(Graph)}.
+	 */
+	protected long appliedChangeCount;
 
 	/**
 	 * Artificial root;
 	 */
 	protected NSNode root;
 
+	/**
+	 * Nodes by index. The BFS tree and the node potentials are stored in
+	 * parallel arrays indexed by {@link NSNode#index}.
+	 */
+	protected NSNode[] nodeArray;
+
+	/**
+	 * Index of the parent of each node in the BFS tree
+	 */
+	protected int[] parent;
+
+	/**
+	 * Index of the next node in the preorder traversal of the BFS tree
+	 */
+	protected int[] thread;
+
+	/**
+	 * Depth of each node in the BFS tree
+	 */
+	protected int[] depth;
+
+	/**
+	 * Index of the arc connecting each node to its parent in the BFS tree
+	 */
+	protected int[] pred;
+
+	/**
+	 * Node potentials, small part
+	 */
+	protected long[] potential;
+
+	/**
+	 * Node potentials, big M part
+	 */
+	protected long[] potentialM;
+
+	/**
+	 * Arcs by index. The flows are stored in an array indexed by
+	 * {@link NSArc#index}.
+	 */
+	protected NSArc[] arcArray;
+
+	/**
+	 * Flow on each arc in the current BFS
+	 */
+	protected long[] flow;
+
+	/**
+	 * Number of node indices in use or freed
+	 */
+	protected int nodeTop;
+
+	/**
+	 * Number of arc indices in use or freed
+	 */
+	protected int arcTop;
+
+	/**
+	 * Freed node indices, available for new nodes
+	 */
+	protected int[] freeNodes;
+
+	/**
+	 * Number of freed node indices
+	 */
+	protected int freeNodeCount;
+
+	/**
+	 * Freed arc indices, available for new arcs
+	 */
+	protected int[] freeArcs;
+
+	/**
+	 * Number of freed arc indices
+	 */
+	protected int freeArcCount;
+
 	/**
 	 * The objective value of the current solution
 	 */
@@ -250,34 +418,35 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 	protected NSArc enteringArc;
 
 	/**
-	 * The nearest common predecessor of the extremities of {@link #enteringArc}
-	 * . Set in {@link #findJoinNode()}
+	 * Index of the nearest common predecessor of the extremities of
+	 * {@link #enteringArc}. Set in {@link #findJoinNode()}
 	 */
-	protected NSNode join;
+	protected int join;
 
 	/**
-	 * The first node of {@link #enteringArc} when traversing it in the
-	 * direction of the cycle. Set in {@link #selectLeavingArc()}.
+	 * Index of the first node of {@link #enteringArc} when traversing it in
+	 * the direction of the cycle. Set in {@link #selectLeavingArc()}.
 	 */
-	protected NSNode first;
+	protected int first;
 
 	/**
-	 * The second node of {@link #enteringArc} when traversing it in the
-	 * direction of the cycle. Set in {@link #selectLeavingArc()}.
+	 * Index of the second node of {@link #enteringArc} when traversing it in
+	 * the direction of the cycle. Set in {@link #selectLeavingArc()}.
 	 */
-	protected NSNode second;
+	protected int second;
 
 	/**
-	 * The root of the subtree detached from the BFS tree when removing
-	 * {@link #leavingArc}. Set in {@link #selectLeavingArc()}.
+	 * Index of the root of the subtree detached from the BFS tree when
+	 * removing {@link #leavingArc}. Set in {@link #selectLeavingArc()}.
 	 */
-	protected NSNode oldSubtreeRoot;
+	protected int oldSubtreeRoot;
 
 	/**
-	 * The node of the detached subtree which must be re-attached to the BFS
-	 * tree using {@link #enteringArc}. Set in {@link #selectLeavingArc()}.
+	 * Index of the node of the detached subtree which must be re-attached to
+	 * the BFS tree using {@link #enteringArc}. Set in
+	 * {@link #selectLeavingArc()}.
 	 */
-	protected NSNode newSubtreeRoot;
+	protected int newSubtreeRoot;
 
 	/**
 	 * Maximum allowed flow change on the cycle formed by adding
@@ -354,16 +523,19 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 	 * {@link #nodes} and {@link #arcs}.
 	 */
 	protected void cloneGraph() {
+		int arcCount = graph.getEdgeCount();
+		for (Edge edge : graph.getEachEdge())
+			if (!edge.isDirected())
+				arcCount++;
+		createArrays(graph.getNodeCount() + 1, arcCount
+				+ graph.getNodeCount());
+
 		nodes = new HashMap<String, NSNode>(4 * graph.getNodeCount() / 3 + 2);
 		for (Node node : graph) {
 			NSNode copy = new NSNode(node);
 			nodes.put(copy.id, copy);
 		}
 
-		int arcCount = graph.getEdgeCount();
-		for (Edge edge : graph.getEachEdge())
-			if (!edge.isDirected())
-				arcCount++;
 		arcs = new HashMap<String, NSArc>(4 * arcCount / 3 + 1);
 		for (Edge edge : graph.getEachEdge()) {
 			NSArc copy = new NSArc(edge, true);
@@ -375,13 +547,123 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 		}
 	}
 
+	/**
+	 * Allocates empty node and arc arrays.
+	 * 
+	 * @param nodeCapacity
+	 *            Expected number of nodes, including the root
+	 * @param arcCapacity
+	 *            Expected number of arcs, including the artificial arcs
+	 */
+	protected void createArrays(int nodeCapacity, int arcCapacity) {
+		nodeCapacity = Math.max(nodeCapacity, 16);
+		arcCapacity = Math.max(arcCapacity, 16);
+
+		nodeArray = new NSNode[nodeCapacity];
+		parent = new int[nodeCapacity];
+		thread = new int[nodeCapacity];
+		depth = new int[nodeCapacity];
+		pred = new int[nodeCapacity];
+		potential = new long[nodeCapacity];
+		potentialM = new long[nodeCapacity];
+		nodeTop = 0;
+		freeNodes = new int[16];
+		freeNodeCount = 0;
+
+		arcArray = new NSArc[arcCapacity];
+		flow = new long[arcCapacity];
+		arcTop = 0;
+		freeArcs = new int[16];
+		freeArcCount = 0;
+	}
+
+	/**
+	 * Gives an index to a new node, growing the node arrays if necessary.
+	 * 
+	 * @param node
+	 *            A new node
+	 * @return The index of the node
+	 */
+	protected int allocateNode(NSNode node) {
+		int i;
+		if (freeNodeCount > 0) {
+			i = freeNodes[--freeNodeCount];
+		} else {
+			i = nodeTop++;
+			if (i == nodeArray.length) {
+				int capacity = 2 * i;
+				nodeArray = Arrays.copyOf(nodeArray, capacity);
+				parent = Arrays.copyOf(parent, capacity);
+				thread = Arrays.copyOf(thread, capacity);
+				depth = Arrays.copyOf(depth, capacity);
+				pred = Arrays.copyOf(pred, capacity);
+				potential = Arrays.copyOf(potential, capacity);
+				potentialM = Arrays.copyOf(potentialM, capacity);
+			}
+		}
+		nodeArray[i] = node;
+		return i;
+	}
+
+	/**
+	 * Releases the index of a removed node.
+	 * 
+	 * @param i
+	 *            Index of the node
+	 */
+	protected void freeNode(int i) {
+		nodeArray[i] = null;
+		if (freeNodeCount == freeNodes.length)
+			freeNodes = Arrays.copyOf(freeNodes, 2 * freeNodeCount);
+		freeNodes[freeNodeCount++] = i;
+	}
+
+	/**
+	 * Gives an index to a new arc, growing the arc arrays if necessary.
+	 * 
+	 * @param arc
+	 *            A new arc
+	 * @return The index of the arc
+	 */
+	protected int allocateArc(NSArc arc) {
+		int a;
+		if (freeArcCount > 0) {
+			a = freeArcs[--freeArcCount];
+		} else {
+			a = arcTop++;
+			if (a == arcArray.length) {
+				int capacity = 2 * a;
+				arcArray = Arrays.copyOf(arcArray, capacity);
+				flow = Arrays.copyOf(flow, capacity);
+			}
+		}
+		arcArray[a] = arc;
+		flow[a] = 0;
+		return a;
+	}
+
+	/**
+	 * Releases the index of a removed arc.
+	 * 
+	 * @param a
+	 *            Index of the arc
+	 */
+	protected void freeArc(int a) {
+		arcArray[a] = null;
+		if (freeArcCount == freeArcs.length)
+			freeArcs = Arrays.copyOf(freeArcs, 2 * freeArcCount);
+		freeArcs[freeArcCount++] = a;
+	}
+
 	/**
 	 * Creates artificial root and arcs and sets up the initial BFS
 	 */
 	protected void createInitialBFS() {
-		nonBasicArcs = new HashSet<NSArc>(4 * arcs.size() / 3 + 1);
+		nonBasicArcs = new NonBasicArcSet(arcs.size());
+		nextArc = 0;
+		candidateCount = 0;
 		for (NSArc arc : arcs.values()) {
-			arc.flow = 0;
+			flow[arc.index] = 0;
 			arc.status = ArcStatus.NONBASIC_LOWER;
 			nonBasicArcs.add(arc);
 			if (animationDelay > 0)
@@ -390,12 +672,7 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 
 		root = new NSNode();
 		root.id = PREFIX + "ROOT";
-		root.potential.set(0);
-		root.parent = root;
-		root.thread = root;
-		root.depth = 0;
-		root.supply = 0;
-		root.artificialArc = null;
+		initRoot();
 
 		objectiveValue.set(0);
 		for (NSNode node : nodes.values())
@@ -403,6 +680,20 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 		solutionStatus = SolutionStatus.UNDEFINED;
 	}
 
+	/**
+	 * Makes the root the only node of the BFS tree.
+	 */
+	protected void initRoot() {
+		int r = root.index;
+		potential[r] = potentialM[r] = 0;
+		parent[r] = r;
+		thread[r] = r;
+		depth[r] = 0;
+		pred[r] = -1;
+		root.supply = 0;
+		root.artificialArc = null;
+	}
+
 	// Simplex machinery
 
 	/**
@@ -471,6 +762,129 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 		}
 	}
 
+	/**
+	 * "Block search" pricing strategy
+	 */
+	protected void selectEnteringArcBlockSearch() {
+		enteringArc = null;
+		BigMNumber reducedCost = work1;
+		BigMNumber bestReducedCost = work2;
+		bestReducedCost.set(0);
+
+		int size = nonBasicArcs.size();
+		int blockSize = Math.max((int) Math.ceil(Math.sqrt(size)), 10);
+		int count = 0;
+		if (nextArc >= size)
+			nextArc = 0;
+
+		for (int k = 0; k < size; k++) {
+			NSArc arc = nonBasicArcs.get(nextArc);
+			if (++nextArc == size)
+				nextArc = 0;
+			arc.computeReducedCost(reducedCost);
+			if (reducedCost.compareTo(bestReducedCost) < 0) {
+				bestReducedCost.set(reducedCost);
+				enteringArc = arc;
+			}
+			if (++count == blockSize) {
+				if (enteringArc != null)
+					return;
+				count = 0;
+			}
+		}
+		if (enteringArc != null)
+			return;
+
+		selectEnteringArtificialArc();
+	}
+
+	/**
+	 * "Candidate list" pricing strategy
+	 */
+	protected void selectEnteringArcCandidateList() {
+		enteringArc = null;
+		BigMNumber reducedCost = work1;
+		BigMNumber bestReducedCost = work2;
+		bestReducedCost.set(0);
+
+		int size = nonBasicArcs.size();
+		int listLength = Math.max((int) Math.ceil(0.25 * Math.sqrt(size)), 10);
+		int minorLimit = Math.max((int) Math.ceil(0.1 * listLength), 3);
+		if (candidates == null || candidates.length < listLength)
+			candidates = new NSArc[listLength];
+		if (nextArc >= size)
+			nextArc = 0;
+
+		// minor iteration: select among the remaining candidates
+		if (candidateCount > 0 && minorCount < minorLimit) {
+			for (int i = 0; i < candidateCount; i++) {
+				NSArc arc = candidates[i];
+				if (nonBasicArcs.contains(arc))
+					arc.computeReducedCost(reducedCost);
+				else
+					reducedCost.set(0);
+				if (reducedCost.isNegative()) {
+					if (reducedCost.compareTo(bestReducedCost) < 0) {
+						bestReducedCost.set(reducedCost);
+						enteringArc = arc;
+					}
+				} else {
+					candidates[i--] = candidates[--candidateCount];
+				}
+			}
+			if (enteringArc != null) {
+				minorCount++;
+				return;
+			}
+		}
+
+		// major iteration: build a new list
+		minorCount = 0;
+		candidateCount = 0;
+		for (int k = 0; k < size && candidateCount < listLength; k++) {
+			NSArc arc = nonBasicArcs.get(nextArc);
+			if (++nextArc == size)
+				nextArc = 0;
+			arc.computeReducedCost(reducedCost);
+			if (reducedCost.isNegative()) {
+				candidates[candidateCount++] = arc;
+				if (reducedCost.compareTo(bestReducedCost) < 0) {
+					bestReducedCost.set(reducedCost);
+					enteringArc = arc;
+				}
+			}
+		}
+		if (enteringArc != null)
+			return;
+
+		selectEnteringArtificialArc();
+	}
+
+	/**
+	 * Selects the most negative artificial arc if the objective value is
+	 * infinite. Used by the strategies working on {@link #nonBasicArcs} by
+	 * position, after they failed to find a candidate among them.
+	 */
+	protected void selectEnteringArtificialArc() {
+		if (!objectiveValue.isInfinite())
+			return;
+
+		BigMNumber reducedCost = work1;
+		BigMNumber bestReducedCost = work2;
+		bestReducedCost.set(0);
+
+		for (NSNode node : nodes.values()) {
+			NSArc arc = node.artificialArc;
+			if (arc.status == ArcStatus.NONBASIC_LOWER) {
+				arc.computeReducedCost(reducedCost);
+				if (reducedCost.compareTo(bestReducedCost) < 0) {
+					bestReducedCost.set(reducedCost);
+					enteringArc = arc;
+				}
+			}
+		}
+	}
+
 	/**
 	 * Selects entering arc among the candidates (non-basic arcs with negative
 	 * reduced costs). Puts the selected candidate in {@link #enteringArc}. If
@@ -484,6 +898,12 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 		case MOST_NEGATIVE:
 			selectEnteringArcMostNegative();
 			break;
+		case BLOCK_SEARCH:
+			selectEnteringArcBlockSearch();
+			break;
+		case CANDIDATE_LIST:
+			selectEnteringArcCandidateList();
+			break;
 		}
 	}
 
@@ -492,15 +912,15 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 	 * {@link #enteringArc}. Puts it in {@link #join}.
 	 */
 	protected void findJoinNode() {
-		NSNode i = enteringArc.source;
-		NSNode j = enteringArc.target;
-		while (i.depth > j.depth)
-			i = i.parent;
-		while (j.depth > i.depth)
-			j = j.parent;
+		int i = enteringArc.source.index;
+		int j = enteringArc.target.index;
+		while (depth[i] > depth[j])
+			i = parent[i];
+		while (depth[j] > depth[i])
+			j = parent[j];
 		while (i != j) {
-			i = i.parent;
-			j = j.parent;
+			i = parent[i];
+			j = parent[j];
 		}
 		join = i;
 	}
@@ -516,36 +936,41 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 	protected void selectLeavingArc() {
 		findJoinNode();
 		if (enteringArc.status == ArcStatus.NONBASIC_LOWER) {
-			first = enteringArc.source;
-			second = enteringArc.target;
+			first = enteringArc.source.index;
+			second = enteringArc.target.index;
 		} else {
-			first = enteringArc.target;
-			second = enteringArc.source;
+			first = enteringArc.target.index;
+			second = enteringArc.source.index;
 		}
 
-		enteringArc.computeAllowedFlowChange(first, cycleFlowChange);
+		// as in changeFlows(), use the status for the entering arc
+		if (enteringArc.status == ArcStatus.NONBASIC_LOWER)
+			enteringArc.computeAllowedFlowChange(enteringArc.source.index,
+					cycleFlowChange);
+		else
+			cycleFlowChange.set(flow[enteringArc.index]);
 		leavingArc = enteringArc;
 
 		NSArc arc;
 		BigMNumber arcFlowChange = work1;
 
-		for (NSNode node = second; node != join; node = node.parent) {
-			arc = node.arcToParent;
-			arc.computeAllowedFlowChange(node, arcFlowChange);
+		for (int u = second; u != join; u = parent[u]) {
+			arc = arcArray[pred[u]];
+			arc.computeAllowedFlowChange(u, arcFlowChange);
 			if (arcFlowChange.compareTo(cycleFlowChange) <= 0) {
 				cycleFlowChange.set(arcFlowChange);
-				oldSubtreeRoot = node;
+				oldSubtreeRoot = u;
 				newSubtreeRoot = second;
 				leavingArc = arc;
 			}
 		}
 
-		for (NSNode node = first; node != join; node = node.parent) {
-			arc = node.arcToParent;
-			arc.computeAllowedFlowChange(node.parent, arcFlowChange);
+		for (int u = first; u != join; u = parent[u]) {
+			arc = arcArray[pred[u]];
+			arc.computeAllowedFlowChange(parent[u], arcFlowChange);
 			if (arcFlowChange.compareTo(cycleFlowChange) < 0) {
 				cycleFlowChange.set(arcFlowChange);
-				oldSubtreeRoot = node;
+				oldSubtreeRoot = u;
 				newSubtreeRoot = first;
 				leavingArc = arc;
 			}
@@ -557,18 +982,22 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 	 * objective value.
 	 */
 	protected void changeFlows() {
-		int delta = (int) cycleFlowChange.getSmall();
+		long delta = cycleFlowChange.getSmall();
 		if (delta == 0)
 			return;
 
 		enteringArc.computeReducedCost(work1);
 		objectiveValue.plusTimes(delta, work1);
 
-		enteringArc.changeFlow(delta, first);
-		for (NSNode node = second; node != join; node = node.parent)
-			node.arcToParent.changeFlow(delta, node);
-		for (NSNode node = first; node != join; node = node.parent)
-			node.arcToParent.changeFlow(delta, node.parent);
+		// the direction of the entering arc is given by its status, its
+		// endpoints are ambiguous for loops
+		enteringArc.changeFlow(
+				enteringArc.status == ArcStatus.NONBASIC_LOWER ? delta : -delta,
+				enteringArc.source.index);
+		for (int u = second; u != join; u = parent[u])
+			arcArray[pred[u]].changeFlow(delta, u);
+		for (int u = first; u != join; u = parent[u])
+			arcArray[pred[u]].changeFlow(delta, parent[u]);
 	}
 
 	/**
@@ -576,20 +1005,109 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 	 * leaving arc.
 	 */
 	protected void updateBFS() {
-		NSNode stopNode = oldSubtreeRoot.parent;
-
-		NSNode currentNode = newSubtreeRoot;
-		NSNode oldParent = currentNode.parent;
-		NSNode newParent = enteringArc.getOpposite(currentNode);
-		NSArc oldArc = currentNode.arcToParent;
-		NSArc newArc = enteringArc;
+		int stopNode = parent[oldSubtreeRoot];
+
+		int currentNode = newSubtreeRoot;
+		int oldParent = parent[currentNode];
+		int newParent = enteringArc.source.index == currentNode ? enteringArc.target.index
+				: enteringArc.source.index;
+		int oldArc = pred[currentNode];
+		int newArc = enteringArc.index;
 		while (currentNode != stopNode) {
-			currentNode.changeParent(newParent, newArc);
+			changeParent(currentNode, newParent, newArc);
 			newParent = currentNode;
 			currentNode = oldParent;
-			oldParent = currentNode.parent;
+			oldParent = parent[currentNode];
 			newArc = oldArc;
-			oldArc = currentNode.arcToParent;
+			oldArc = pred[currentNode];
+		}
+	}
+
+	/**
+	 * Finds the previous node in the preorder traversal of the BFS tree
+	 * 
+	 * @param i
+	 *            Index of a node
+	 * @return The index of the previous node in the thread
+	 */
+	protected int previousInThread(int i) {
+		int u;
+		for (u = parent[i]; thread[u] != i; u = thread[u])
+			;
+		return u;
+	}
+
+	/**
+	 * Finds the rightmost node of the subtree of a node when following the
+	 * thread.
+	 * 
+	 * @param i
+	 *            Index of a node
+	 * @return The index of the last successor of the node
+	 */
+	protected int lastSuccessor(int i) {
+		int u;
+		for (u = i; depth[thread[u]] > depth[i]; u = thread[u])
+			;
+		return u;
+	}
+
+	/**
+	 * Computes the potential of a node knowing the potential of its father
+	 * 
+	 * @param i
+	 *            Index of a node
+	 */
+	protected void computePotential(int i) {
+		int p = parent[i];
+		NSArc arc = arcArray[pred[i]];
+		if (arc.source.index == i) {
+			potential[i] = potential[p] + arc.cost.small;
+			potentialM[i] = potentialM[p] + arc.cost.big;
+		} else {
+			potential[i] = potential[p] - arc.cost.small;
+			potentialM[i] = potentialM[p] - arc.cost.big;
+		}
+	}
+
+	/**
+	 * Recomputes the potentials of all the nodes in the subtree of a node
+	 * 
+	 * @param i
+	 *            Index of the root of the subtree
+	 */
+	protected void computeSubtreePotentials(int i) {
+		computePotential(i);
+		for (int u = thread[i]; depth[u] > depth[i]; u = thread[u])
+			computePotential(u);
+	}
+
+	/**
+	 * Changes the parent of a node. Updates PTD structure and node potentials.
+	 * 
+	 * @param i
+	 *            Index of the node
+	 * @param newParent
+	 *            Index of the new parent
+	 * @param newPred
+	 *            Index of the arc to the new parent
+	 */
+	protected void changeParent(int i, int newParent, int newPred) {
+		int p = previousInThread(i);
+		int succ = lastSuccessor(i);
+		int stop = thread[succ];
+
+		thread[p] = stop;
+		thread[succ] = thread[newParent];
+		thread[newParent] = i;
+
+		parent[i] = newParent;
+		pred[i] = newPred;
+
+		stop = thread[succ];
+		for (int u = i; u != stop; u = thread[u]) {
+			depth[u] = depth[parent[u]] + 1;
+			computePotential(u);
 		}
 	}
 
@@ -604,6 +1122,8 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 			} catch (InterruptedException e) {
 			}
 
+		if (fromSink)
+			updatePivotCount++;
 		changeFlows();
 		if (enteringArc == leavingArc) {
 			if (enteringArc.status == ArcStatus.NONBASIC_LOWER)
@@ -613,8 +1133,8 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 		} else {
 			enteringArc.status = ArcStatus.BASIC;
 			nonBasicArcs.remove(enteringArc);
-			if ((newSubtreeRoot == first && oldSubtreeRoot == leavingArc.target)
-					|| (newSubtreeRoot == second && oldSubtreeRoot == leavingArc.source))
+			if ((newSubtreeRoot == first && oldSubtreeRoot == leavingArc.target.index)
+					|| (newSubtreeRoot == second && oldSubtreeRoot == leavingArc.source.index))
 				// The leaving arc is in the direction of the cycle
 				leavingArc.status = ArcStatus.NONBASIC_UPPER;
 			else
@@ -657,6 +1177,7 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 			}
 			pivot();
 			pivots++;
+			pivotCount++;
 			if (logFreq > 0 && pivots % logFreq == 0)
 				log.printf("%10d%30s%30s%10d%10d%10d%n", pivots,
 						enteringArc.id, leavingArc.id, cycleFlowChange.small,
@@ -761,6 +1282,118 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 		logFreq = pivots;
 	}
 
+	/**
+	 * Returns the number of pivots performed by the simplex method since the
+	 * last call of {@link #init(Graph)}. Useful to compare the pricing
+	 * strategies.
+	 * 
+	 * @return The number of pivots
+	 */
+	public long getPivotCount() {
+		return pivotCount;
+	}
+
+	/**
+	 * Returns the number of pivots performed while applying the changes of
+	 * costs, capacities, supplies and of the graph structure since the last
+	 * call of {@link #init(Graph)}. These pivots keep the basis valid and are
+	 * not counted by {@link #getPivotCount()}. Comparing the sum of the two
+	 * counters with and without batch mode gives the number of pivots saved by
+	 * buffering the changes.
+	 * 
+	 * @return The number of pivots performed by the updates
+	 * @see #beginChanges()
+	 */
+	public long getUpdatePivotCount() {
+		return updatePivotCount;
+	}
+
+	/**
+	 * Returns the number of changes of costs, capacities and supplies received
+	 * in batch mode since the last call of {@link #init(Graph)}.
+	 * 
+	 * @return The number of buffered changes
+	 * @see #beginChanges()
+	 */
+	public long getBufferedChangeCount() {
+		return bufferedChangeCount;
+	}
+
+	/**
+	 * Returns the number of buffered changes that were actually applied since
+	 * the last call of {@link #init(Graph)}. Changes overwritten by later
+	 * changes of the same element, or restoring its value, are not applied.
+	 * 
+	 * @return The number of applied changes
+	 * @see #beginChanges()
+	 */
+	public long getAppliedChangeCount() {
+		return appliedChangeCount;
+	}
+
+	// batch mode
+
+	/**
+	 * Starts buffering the changes of costs, capacities and supplies. Until
+	 * the next call of {@link #commitChanges()}, these changes are only
+	 * recorded. They are applied together when the changes are committed or
+	 * when {@link #compute()} is called. Several changes of the same element
+	 * are merged, the cost changes update the node potentials in a single
+	 * pass and the simplex re-optimizes only once, starting from the previous
+	 * basis.
+	 * 
+	 * Changes of the graph structure (added or removed nodes and edges) are
+	 * not buffered. The changes buffered before them are applied first.
+	 */
+	public void beginChanges() {
+		buffering = true;
+	}
+
+	/**
+	 * Applies the changes buffered since the last call of
+	 * {@link #beginChanges()} and stops buffering. Call {@link #compute()}
+	 * after this method to re-optimize the solution.
+	 */
+	public void commitChanges() {
+		applyPendingChanges();
+		buffering = commitOnStep;
+	}
+
+	/**
+	 * Checks if the changes are currently buffered.
+	 * 
+	 * @return True if the changes are buffered
+	 */
+	public boolean isBuffering() {
+		return buffering;
+	}
+
+	/**
+	 * Sets the step batch mode. In this mode the changes are always buffered.
+	 * When a new step begins, the changes of the previous step are applied and
+	 * the solution is re-optimized.
+	 * 
+	 * @param on
+	 *            True to turn on the step batch mode
+	 */
+	public void setCommitOnStep(boolean on) {
+		commitOnStep = on;
+		if (on)
+			buffering = true;
+		else
+			commitChanges();
+	}
+
+	/**
+	 * Checks if the step batch mode is on.
+	 * 
+	 * @return True if the changes are applied at the beginning of each step
+	 * @see #setCommitOnStep(boolean)
+	 */
+	public boolean getCommitOnStep() {
+		return commitOnStep;
+	}
+
 	/**
 	 * Sets the log stream.
 	 * 
@@ -840,7 +1473,8 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 	 */
 	public int getInfeasibility(Node node) {
 		NSArc artificial = nodes.get(node.getId()).artificialArc;
-		return artificial.target == root ? artificial.flow : -artificial.flow;
+		int f = (int) flow[artificial.index];
+		return artificial.target == root ? f : -f;
 	}
 
 	/**
@@ -856,7 +1490,7 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 	 * @return The edge to the parent of the node in the BFS tree
 	 */
 	public <T extends Edge> T getEdgeFromParent(Node node) {
-		NSArc arc = nodes.get(node.getId()).arcToParent;
+		NSArc arc = arcArray[pred[nodes.get(node.getId()).index]];
 		if (arc.isArtificial())
 			return null;
 		return graph.getEdge(arc.getOriginalId());
@@ -875,7 +1509,7 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 		NSNode nsNode = nodes.get(node.getId());
 		if (nsNode == root)
 			return null;
-		return graph.getNode(nsNode.parent.id);
+		return graph.getNode(nodeArray[parent[nsNode.index]].id);
 	}
 
 	/**
@@ -894,11 +1528,15 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 	 * @return The flow on the edge.
 	 */
 	public int getFlow(Edge edge, boolean sameDirection) {
-		if (edge.isDirected())
-			return sameDirection ? arcs.get(edge.getId()).flow : 0;
-		else
-			return arcs.get((sameDirection ? "" : PREFIX + "REVERSE_")
-					+ edge.getId()).flow;
+		NSArc arc;
+		if (edge.isDirected()) {
+			if (!sameDirection)
+				return 0;
+			arc = arcs.get(edge.getId());
+		} else
+			arc = arcs.get((sameDirection ? "" : PREFIX + "REVERSE_")
+					+ edge.getId());
+		return (int) flow[arc.index];
 	}
 
 	/**
@@ -1001,10 +1639,12 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 		this.graph = graph;
 		cloneGraph();
 		createInitialBFS();
+		resetCounters();
 		graph.addSink(this);
 	}
 
 	public void compute() {
+		applyPendingChanges();
 		fromSink = false;
 		if (solutionStatus == SolutionStatus.UNDEFINED)
 			simplex();
@@ -1026,23 +1666,20 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 				v = 1;
 
 			NSArc arc = arcs.get(edgeId);
-			work1.set((int) v);
-			changeCost(arc, work1);
+			setCost(arc, (int) v);
 
 			arc = arcs.get(PREFIX + "REVERSE_" + edgeId);
-			if (arc != null) {
-				work1.set((int) v);
-				changeCost(arc, work1);
-			}
+			if (arc != null)
+				setCost(arc, (int) v);
 		} else if (attribute.equals(capacityName)) {
 			double v = objectToDouble(value);
 			if (Double.isNaN(v) || v < 0)
 				v = INFINITE_CAPACITY;
 			NSArc arc = arcs.get(edgeId);
-			changeCapacity(arc, (int) v);
+			setCapacity(arc, (int) v);
 			arc = arcs.get(PREFIX + "REVERSE_" + edgeId);
 			if (arc != null)
-				changeCapacity(arc, (int) v);
+				setCapacity(arc, (int) v);
 		}
 	}
 
@@ -1067,7 +1704,7 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 				v = 0;
 
 			NSNode node = nodes.get(nodeId);
-			changeSupply(node, (int) v);
+			setSupply(node, (int) v);
 		}
 	}
 
@@ -1086,6 +1723,7 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 	@Override
 	public void edgeAdded(String sourceId, long timeId, String edgeId,
 			String fromNodeId, String toNodeId, boolean directed) {
+		applyPendingChanges();
 		NSArc arc = new NSArc(graph.getEdge(edgeId), true);
 		addArc(arc);
 		if (!directed) {
@@ -1096,6 +1734,7 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 
 	@Override
 	public void edgeRemoved(String sourceId, long timeId, String edgeId) {
+		applyPendingChanges();
 		NSArc arc = arcs.get(edgeId);
 		removeArc(arc);
 		arc = arcs.get(PREFIX + "REVERSE_" + edgeId);
@@ -1105,19 +1744,28 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 
 	@Override
 	public void nodeAdded(String sourceId, long timeId, String nodeId) {
+		applyPendingChanges();
 		addNode(new NSNode(graph.getNode(nodeId)));
 	}
 
 	@Override
 	public void nodeRemoved(String sourceId, long timeId, String nodeId) {
+		applyPendingChanges();
 		removeNode(nodes.get(nodeId));
 	}
 
 	@Override
 	public void graphCleared(String sourceId, long timeId) {
+		clearPendingChanges();
 		clearGraph();
 	}
 
+	@Override
+	public void stepBegins(String sourceId, long timeId, double step) {
+		if (commitOnStep)
+			compute();
+	}
+
 	// helpers for the sink
 
 	/**
@@ -1144,6 +1792,133 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 		return Double.NaN;
 	}
 
+	/**
+	 * Changes the cost of an arc, or buffers the change in batch mode.
+	 * 
+	 * @param arc
+	 *            An arc
+	 * @param cost
+	 *            The new cost
+	 */
+	protected void setCost(NSArc arc, int cost) {
+		if (buffering) {
+			pendingCosts.put(arc, cost);
+			bufferedChangeCount++;
+		} else {
+			work1.set(cost);
+			changeCost(arc, work1);
+		}
+	}
+
+	/**
+	 * Changes the capacity of an arc, or buffers the change in batch mode.
+	 * 
+	 * @param arc
+	 *            An arc
+	 * @param capacity
+	 *            The new capacity
+	 */
+	protected void setCapacity(NSArc arc, int capacity) {
+		if (buffering) {
+			pendingCapacities.put(arc, capacity);
+			bufferedChangeCount++;
+		} else {
+			changeCapacity(arc, capacity);
+		}
+	}
+
+	/**
+	 * Changes the supply of a node, or buffers the change in batch mode.
+	 * 
+	 * @param node
+	 *            A node
+	 * @param supply
+	 *            The new supply
+	 */
+	protected void setSupply(NSNode node, int supply) {
+		if (buffering) {
+			pendingSupplies.put(node, supply);
+			bufferedChangeCount++;
+		} else {
+			changeSupply(node, supply);
+		}
+	}
+
+	/**
+	 * Applies the buffered changes. The costs are changed first and the
+	 * potentials of the nodes are recomputed once for all of them, then the
+	 * capacities and the supplies are changed.
+	 */
+	protected void applyPendingChanges() {
+		if (pendingCosts.isEmpty() && pendingCapacities.isEmpty()
+				&& pendingSupplies.isEmpty())
+			return;
+
+		boolean treeChanged = false;
+		for (Map.Entry<NSArc, Integer> e : pendingCosts.entrySet()) {
+			NSArc arc = e.getKey();
+			work1.set(e.getValue());
+			if (arc.cost.compareTo(work1) == 0)
+				continue;
+			appliedChangeCount++;
+			objectiveValue.plusTimes(-flow[arc.index], arc.cost);
+			arc.cost.set(work1);
+			objectiveValue.plusTimes(flow[arc.index], arc.cost);
+			if (arc.status == ArcStatus.BASIC) {
+				treeChanged = true;
+			} else {
+				arc.computeReducedCost(work1);
+				if (work1.isNegative())
+					solutionStatus = SolutionStatus.UNDEFINED;
+			}
+		}
+		pendingCosts.clear();
+		if (treeChanged) {
+			int r = root.index;
+			for (int u = thread[r]; u != r; u = thread[u])
+				computePotential(u);
+			solutionStatus = SolutionStatus.UNDEFINED;
+		}
+
+		for (Map.Entry<NSArc, Integer> e : pendingCapacities.entrySet()) {
+			NSArc arc = e.getKey();
+			if (arc.capacity != e.getValue()) {
+				appliedChangeCount++;
+				changeCapacity(arc, e.getValue());
+			}
+		}
+		pendingCapacities.clear();
+
+		for (Map.Entry<NSNode, Integer> e : pendingSupplies.entrySet()) {
+			NSNode node = e.getKey();
+			if (node.supply != e.getValue()) {
+				appliedChangeCount++;
+				changeSupply(node, e.getValue());
+			}
+		}
+		pendingSupplies.clear();
+	}
+
+	/**
+	 * Resets the pivot and change counters and discards the buffered changes.
+	 */
+	protected void resetCounters() {
+		pivotCount = 0;
+		updatePivotCount = 0;
+		bufferedChangeCount = 0;
+		appliedChangeCount = 0;
+		clearPendingChanges();
+	}
+
+	/**
+	 * Discards the buffered changes.
+	 */
+	protected void clearPendingChanges() {
+		pendingCosts.clear();
+		pendingCapacities.clear();
+		pendingSupplies.clear();
+	}
+
 	/**
 	 * Changes the cost of an arc
 	 * 
@@ -1155,16 +1930,14 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 	protected void changeCost(NSArc arc, BigMNumber newCost) {
 		if (arc.cost.compareTo(newCost) == 0)
 			return;
-		objectiveValue.plusTimes(-arc.flow, arc.cost);
+		objectiveValue.plusTimes(-flow[arc.index], arc.cost);
 		arc.cost.set(newCost);
-		objectiveValue.plusTimes(arc.flow, arc.cost);
+		objectiveValue.plusTimes(flow[arc.index], arc.cost);
 
 		if (arc.status == ArcStatus.BASIC) {
-			NSNode subtreeRoot = arc.source.arcToParent == arc ? arc.source
-					: arc.target;
-			subtreeRoot.computePotential();
-			for (NSNode node = subtreeRoot.thread; node.depth > subtreeRoot.depth; node = node.thread)
-				node.computePotential();
+			int subtreeRoot = pred[arc.source.index] == arc.index ? arc.source.index
+					: arc.target.index;
+			computeSubtreePotentials(subtreeRoot);
 			solutionStatus = SolutionStatus.UNDEFINED;
 		} else {
 			arc.computeReducedCost(work1);
@@ -1190,19 +1963,20 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 			pivot();
 		}
 		// now the artificial arc is basic and we can change its flow
-		objectiveValue.plusTimes(-artificial.flow, artificial.cost);
+		int a = artificial.index;
+		objectiveValue.plusTimes(-flow[a], artificial.cost);
 		int delta = newSupply - node.supply;
 		node.supply = newSupply;
 		root.supply -= delta;
 		if (node == artificial.source) {
-			artificial.flow += delta;
+			flow[a] += delta;
 		} else {
-			artificial.flow -= delta;
+			flow[a] -= delta;
 		}
-		if (artificial.flow < 0)
+		if (flow[a] < 0)
 			artificial.switchDirection();
 
-		objectiveValue.plusTimes(artificial.flow, artificial.cost);
+		objectiveValue.plusTimes(flow[a], artificial.cost);
 		solutionStatus = SolutionStatus.UNDEFINED;
 
 		if (animationDelay > 0)
@@ -1224,13 +1998,13 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 			solutionStatus = SolutionStatus.UNDEFINED;
 		}
 		// now the arc is basic ...
-		if (newCapacity == INFINITE_CAPACITY || arc.flow <= newCapacity) {
+		if (newCapacity == INFINITE_CAPACITY || flow[arc.index] <= newCapacity) {
 			arc.capacity = newCapacity;
 			return;
 		}
 		// ... and the flow on it is greater than its new capacity
-		int delta = arc.flow - newCapacity;
-		arc.flow = arc.capacity = newCapacity;
+		int delta = (int) flow[arc.index] - newCapacity;
+		flow[arc.index] = arc.capacity = newCapacity;
 		objectiveValue.plusTimes(-delta, arc.cost);
 		arc.source.supply -= delta;
 		arc.target.supply += delta;
@@ -1241,7 +2015,7 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 	}
 
 	protected void addArc(NSArc arc) {
-		arc.flow = 0;
+		flow[arc.index] = 0;
 		arc.status = ArcStatus.NONBASIC_LOWER;
 		arcs.put(arc.id, arc);
 		nonBasicArcs.add(arc);
@@ -1255,7 +2029,7 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 	protected void removeArc(NSArc arc) {
 		changeCapacity(arc, 0);
 		if (arc.status == ArcStatus.BASIC) {
-			NSNode node = arc.source.arcToParent == arc ? arc.source
+			NSNode node = pred[arc.source.index] == arc.index ? arc.source
 					: arc.target;
 			enteringArc = node.artificialArc;
 			if (enteringArc.source == root)
@@ -1267,6 +2041,7 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 		}
 		arcs.remove(arc.id);
 		nonBasicArcs.remove(arc);
+		freeArc(arc.index);
 	}
 
 	protected void addNode(NSNode node) {
@@ -1276,11 +2051,14 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 	}
 
 	protected void removeNode(NSNode node) {
-		node.previousInThread().thread = node.thread;
-		NSArc artificial = node.arcToParent;
-		objectiveValue.plusTimes(-artificial.flow, artificial.cost);
+		int i = node.index;
+		thread[previousInThread(i)] = thread[i];
+		NSArc artificial = arcArray[pred[i]];
+		objectiveValue.plusTimes(-flow[artificial.index], artificial.cost);
 		root.supply += node.supply;
 		nodes.remove(node.id);
+		freeArc(artificial.index);
+		freeNode(i);
 		solutionStatus = SolutionStatus.UNDEFINED;
 	}
 
@@ -1288,16 +2066,21 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 		nodes.clear();
 		arcs.clear();
 		nonBasicArcs.clear();
-		root.thread = root;
-		root.supply = 0;
+		candidateCount = 0;
+		createArrays(16, 16);
+		root.index = allocateNode(root);
+		initRoot();
 		objectiveValue.set(0);
 		solutionStatus = SolutionStatus.OPTIMAL;
 	}
 
 	/**
-	 * Internal representation of the graph nodes. Stores node ids, supplies and
-	 * potentials. Maintains BFS tree using PTD (parent, thread, depth) data
-	 * structure.
+	 * Internal representation of the graph nodes. Stores node ids and
+	 * supplies. The position of the node in the BFS tree and its potential are
+	 * stored in the arrays {@link NetworkSimplex#parent},
+	 * {@link NetworkSimplex#thread}, {@link NetworkSimplex#depth},
+	 * {@link NetworkSimplex#pred}, {@link NetworkSimplex#potential} and
+	 * {@link NetworkSimplex#potentialM} at position {@link #index}.
 	 */
 	protected class NSNode {
 
@@ -1314,29 +2097,9 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 		int supply;
 
 		/**
-		 * Node potential
-		 */
-		BigMNumber potential;
-
-		/**
-		 * Parent in the BFS tree
+		 * Index of this node in the node arrays
 		 */
-		NSNode parent;
-
-		/**
-		 * The next node in the preorder traversal of the BFS tree
-		 */
-		NSNode thread;
-
-		/**
-		 * The depth in the BFS tree
-		 */
-		int depth;
-
-		/**
-		 * The arc connecting this node to its parent in the BFS tree
-		 */
-		NSArc arcToParent;
+		int index;
 
 		/**
 		 * The artificial arc associated to this node
@@ -1355,14 +2118,14 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 			if (Double.isNaN(v))
 				v = 0;
 			supply = (int) v;
-			potential = new BigMNumber();
+			index = allocateNode(this);
 		}
 
 		/**
 		 * Default constructor.
 		 */
 		NSNode() {
-			potential = new BigMNumber();
+			index = allocateNode(this);
 		}
 
 		/**
@@ -1378,89 +2141,28 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 			if (supply > 0) {
 				artificialArc.source = this;
 				artificialArc.target = root;
-				artificialArc.flow = supply;
+				flow[artificialArc.index] = supply;
 			} else {
 				artificialArc.source = root;
 				artificialArc.target = this;
-				artificialArc.flow = -supply;
+				flow[artificialArc.index] = -supply;
 			}
 
-			parent = root;
-			thread = root.thread;
-			root.thread = this;
-			depth = 1;
-			arcToParent = artificialArc;
-			computePotential();
+			int r = root.index;
+			parent[index] = r;
+			thread[index] = thread[r];
+			thread[r] = index;
+			depth[index] = 1;
+			pred[index] = artificialArc.index;
+			computePotential(index);
 
 			root.supply -= supply;
-			objectiveValue.plusTimes(artificialArc.flow, artificialArc.cost);
+			objectiveValue.plusTimes(flow[artificialArc.index],
+					artificialArc.cost);
 
 			if (animationDelay > 0)
 				artificialArc.setUIClass();
 		}
-
-		/**
-		 * Finds the previous node in the preorder traversal of the BFS tree
-		 * 
-		 * @return the previous node in the thread
-		 */
-		NSNode previousInThread() {
-			NSNode node;
-			for (node = parent; node.thread != this; node = node.thread)
-				;
-			return node;
-		}
-
-		/**
-		 * Finds the rightmost node of the subtree of this node when following
-		 * the thread.
-		 * 
-		 * @return The last successor of this node
-		 */
-		NSNode lastSuccessor() {
-			NSNode node;
-			for (node = this; node.thread.depth > depth; node = node.thread)
-				;
-			return node;
-		}
-
-		/**
-		 * Computes the potential of this node knowing the potential of its
-		 * father
-		 */
-		void computePotential() {
-			potential.set(parent.potential);
-			if (arcToParent.source == this)
-				potential.plus(arcToParent.cost);
-			else
-				potential.minus(arcToParent.cost);
-		}
-
-		/**
-		 * Changes the parent of this node. Updates PTD structure and node
-		 * potentials.
-		 * 
-		 * @param newParent
-		 *            the new parent
-		 * @param newArcToParent
-		 *            the arc to the new parent
-		 */
-		void changeParent(NSNode newParent, NSArc newArcToParent) {
-			NSNode pred = previousInThread();
-			NSNode succ = lastSuccessor();
-
-			pred.thread = succ.thread;
-			succ.thread = newParent.thread;
-			newParent.thread = this;
-
-			parent = newParent;
-			arcToParent = newArcToParent;
-
-			for (NSNode node = this; node != succ.thread; node = node.thread) {
-				node.depth = node.parent.depth + 1;
-				node.computePotential();
-			}
-		}
 	}
 
 	/**
@@ -1484,7 +2186,8 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 	/**
 	 * Internal representation of the graph arcs. Stores the arc ids,
 	 * capacities, costs, source and target nodes. Maintains BFS information:
-	 * flow and status.
+	 * status, the flow being stored in {@link NetworkSimplex#flow} at position
+	 * {@link #index}.
 	 */
 	protected class NSArc {
 		/**
@@ -1516,14 +2219,19 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 		NSNode target;
 
 		/**
-		 * Flow on this arc in the current BFS
+		 * Status of this arc in the current BFS
+		 */
+		ArcStatus status;
+
+		/**
+		 * Index of this arc in the arc arrays
 		 */
-		int flow;
+		int index;
 
 		/**
-		 * Status of this arc in the current BFS
+		 * Position of this arc in {@link NetworkSimplex#nonBasicArcs}
 		 */
-		ArcStatus status;
+		int position = -1;
 
 		/**
 		 * Creates a copy of an edge of the original graph
@@ -1554,6 +2262,7 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 			String targetId = edge.getTargetNode().getId();
 			source = nodes.get(sameDirection ? sourceId : targetId);
 			target = nodes.get(sameDirection ? targetId : sourceId);
+			index = allocateArc(this);
 		}
 
 		/**
@@ -1561,6 +2270,7 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 		 */
 		NSArc() {
 			cost = new BigMNumber();
+			index = allocateArc(this);
 		}
 
 		/**
@@ -1570,9 +2280,10 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 		 *            The result is stored here
 		 */
 		void computeReducedCost(BigMNumber reducedCost) {
-			reducedCost.set(cost);
-			reducedCost.minus(source.potential);
-			reducedCost.plus(target.potential);
+			int i = source.index;
+			int j = target.index;
+			reducedCost.set(cost.small - potential[i] + potential[j], cost.big
+					- potentialM[i] + potentialM[j]);
 			if (status == ArcStatus.NONBASIC_UPPER)
 				reducedCost.minus();
 		}
@@ -1581,20 +2292,20 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 		 * Computes the maximum allowed flow change ot this arc.
 		 * 
 		 * @param first
-		 *            One of the endpoints of the arc. Determines the direction
-		 *            in the cycle.
+		 *            Index of one of the endpoints of the arc. Determines the
+		 *            direction in the cycle.
 		 * @param flowChange
 		 *            The result is stored here
 		 */
-		void computeAllowedFlowChange(NSNode first, BigMNumber flowChange) {
-			if (first == source) {
+		void computeAllowedFlowChange(int first, BigMNumber flowChange) {
+			if (first == source.index) {
 				// the arc is in the direction of the cycle
 				if (capacity == INFINITE_CAPACITY)
 					flowChange.set(0, 1);
 				else
-					flowChange.set(capacity - flow);
+					flowChange.set(capacity - flow[index]);
 			} else {
-				flowChange.set(flow);
+				flowChange.set(flow[index]);
 			}
 		}
 
@@ -1604,14 +2315,14 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 		 * @param delta
 		 *            Flow change
 		 * @param first
-		 *            One of the endpoints of the arc. Determines the direction
-		 *            of the cycle
+		 *            Index of one of the endpoints of the arc. Determines the
+		 *            direction of the cycle
 		 */
-		void changeFlow(int delta, NSNode first) {
-			if (first == source)
-				flow += delta;
+		void changeFlow(long delta, int first) {
+			if (first == source.index)
+				flow[index] += delta;
 			else
-				flow -= delta;
+				flow[index] -= delta;
 			if (animationDelay > 0)
 				setUIClass();
 		}
@@ -1667,9 +2378,10 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 					uiClass = "supply";
 				else if (node.supply < 0)
 					uiClass = "demand";
-				uiClass += flow == 0 ? "_balanced" : "_unbalanced";
+				long f = flow[index];
+				uiClass += f == 0 ? "_balanced" : "_unbalanced";
 				Node x = graph.getNode(node.id);
-				x.addAttribute("label", target == root ? flow : -flow);
+				x.addAttribute("label", target == root ? f : -f);
 				x.addAttribute("ui.class", uiClass);
 			} else {
 				String uiClass = "basic";
@@ -1679,7 +2391,7 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 					uiClass = "nonbasic_upper";
 
 				Edge e = graph.getEdge(getOriginalId());
-				e.addAttribute("label", flow);
+				e.addAttribute("label", flow[index]);
 				e.addAttribute("ui.class", uiClass);
 			}
 		}
@@ -1693,12 +2405,116 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 			NSNode tmp = source;
 			source = target;
 			target = tmp;
-			flow = -flow;
+			flow[index] = -flow[index];
 
-			NSNode subtreeRoot = getOpposite(root);
-			subtreeRoot.computePotential();
-			for (NSNode node = subtreeRoot.thread; node.depth > subtreeRoot.depth; node = node.thread)
-				node.computePotential();
+			computeSubtreePotentials(getOpposite(root).index);
+		}
+	}
+
+	/**
+	 * Set of the non-basic arcs. Stores the arcs in an array, so that the
+	 * pricing strategies can scan them by position. Each arc knows its
+	 * position, so all the operations are in constant time.
+	 */
+	protected class NonBasicArcSet extends AbstractSet<NSArc> {
+		/**
+		 * The arcs of the set, in positions 0 to size - 1
+		 */
+		NSArc[] elements;
+
+		/**
+		 * Number of arcs in the set
+		 */
+		int size;
+
+		/**
+		 * Creates an empty set.
+		 * 
+		 * @param initialCapacity
+		 *            The expected number of arcs
+		 */
+		NonBasicArcSet(int initialCapacity) {
+			elements = new NSArc[Math.max(initialCapacity, 16)];
+			size = 0;
+		}
+
+		/**
+		 * Returns the arc at a given position.
+		 * 
+		 * @param i
+		 *            A position between 0 and size - 1
+		 * @return The arc at this position
+		 */
+		NSArc get(int i) {
+			return elements[i];
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof NSArc))
+				return false;
+			NSArc arc = (NSArc) o;
+			return arc.position >= 0 && arc.position < size
+					&& elements[arc.position] == arc;
+		}
+
+		@Override
+		public boolean add(NSArc arc) {
+			if (contains(arc))
+				return false;
+			if (size == elements.length)
+				elements = Arrays.copyOf(elements, 2 * size);
+			arc.position = size;
+			elements[size++] = arc;
+			return true;
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if (!contains(o))
+				return false;
+			NSArc arc = (NSArc) o;
+			NSArc last = elements[--size];
+			elements[arc.position] = last;
+			last.position = arc.position;
+			elements[size] = null;
+			arc.position = -1;
+			return true;
+		}
+
+		@Override
+		public void clear() {
+			for (int i = 0; i < size; i++) {
+				elements[i].position = -1;
+				elements[i] = null;
+			}
+			size = 0;
+		}
+
+		@Override
+		public Iterator<NSArc> iterator() {
+			return new Iterator<NSArc>() {
+				int next = 0;
+
+				public boolean hasNext() {
+					return next < size;
+				}
+
+				public NSArc next() {
+					if (next >= size)
+						throw new NoSuchElementException();
+					return elements[next++];
+				}
+
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
 		}
 	}
 
@@ -1715,11 +2531,17 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 		ps.println("=== Nodes ===");
 		ps.printf("%20s%10s%10s%20s%20s%10s%n", "id", "supply", "potential",
 				"parent", "thread", "depth");
-		ps.printf("%20s%10d%10s%20s%20s%10d%n", root.id, root.supply,
-				root.potential, "-", root.thread.id, root.depth);
-		for (NSNode node : nodes.values())
+		int r = root.index;
+		work2.set(potential[r], potentialM[r]);
+		ps.printf("%20s%10d%10s%20s%20s%10d%n", root.id, root.supply, work2,
+				"-", nodeArray[thread[r]].id, depth[r]);
+		for (NSNode node : nodes.values()) {
+			int i = node.index;
+			work2.set(potential[i], potentialM[i]);
 			ps.printf("%20s%10d%10s%20s%20s%10d%n", node.id, node.supply,
-					node.potential, node.parent.id, node.thread.id, node.depth);
+					work2, nodeArray[parent[i]].id, nodeArray[thread[i]].id,
+					depth[i]);
+		}
 		ps.println();
 
 		ps.println("=== Arcs ===");
@@ -1729,7 +2551,7 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 			a.computeReducedCost(work1);
 			ps.printf("%20s%10s%10s%10s%10s%20s%n", a.id,
 					a.capacity == INFINITE_CAPACITY ? "Inf" : a.capacity,
-					a.cost, a.flow, work1, a.status);
+					a.cost, flow[a.index], work1, a.status);
 		}
 
 		for (NSNode node : nodes.values()) {
@@ -1737,7 +2559,7 @@ public class NetworkSimplex extends SinkAdapter implements DynamicAlgorithm {
 			a.computeReducedCost(work1);
 			ps.printf("%20s%10s%10s%10s%10s%20s%n", a.id,
 					a.capacity == INFINITE_CAPACITY ? "Inf" : a.capacity,
-					a.cost, a.flow, work1, a.status);
+					a.cost, flow[a.index], work1, a.status);
 		}
 
 		ps.println();